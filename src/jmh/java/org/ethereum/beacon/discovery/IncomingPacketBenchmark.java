@@ -0,0 +1,255 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.ethereum.beacon.discovery.database.Database;
+import org.ethereum.beacon.discovery.metrics.DiscoveryMetrics;
+import org.ethereum.beacon.discovery.network.AdmissionOptions;
+import org.ethereum.beacon.discovery.network.DiscoveryClient;
+import org.ethereum.beacon.discovery.network.DiscoveryNetworkFactory;
+import org.ethereum.beacon.discovery.network.DiscoveryServer;
+import org.ethereum.beacon.discovery.network.OverloadOptions;
+import org.ethereum.beacon.discovery.pipeline.Envelope;
+import org.ethereum.beacon.discovery.pipeline.Field;
+import org.ethereum.beacon.discovery.scheduler.ExpirationSchedulerFactory;
+import org.ethereum.beacon.discovery.scheduler.Schedulers;
+import org.ethereum.beacon.discovery.schema.NodeRecord;
+import org.ethereum.beacon.discovery.schema.NodeRecordBuilder;
+import org.ethereum.beacon.discovery.schema.NodeRecordFactory;
+import org.ethereum.beacon.discovery.schema.NodeSession;
+import org.ethereum.beacon.discovery.storage.LocalNodeRecordStore;
+import org.ethereum.beacon.discovery.storage.NodeSerializerFactory;
+import org.ethereum.beacon.discovery.storage.NodeTableStorageFactoryImpl;
+import org.ethereum.beacon.discovery.util.EphemeralKeyPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.ReplayProcessor;
+
+/**
+ * End-to-end handling of an incoming request by {@link DiscoveryManagerImpl}: the whole incoming
+ * pipeline from raw bytes to decrypted message and sending of the reply up to the client. Two
+ * managers are connected with in-memory network to establish a session, then the request packet
+ * sent by one of them is replayed to the other one. Replies of the measured node are counted and
+ * dropped.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IncomingPacketBenchmark {
+  private static final long TIMEOUT_SECONDS = 5;
+
+  @Param({"PING", "FINDNODE"})
+  private String request;
+
+  private final InMemoryNetwork network = new InMemoryNetwork();
+  private final ExpirationSchedulerFactory expirationSchedulerFactory =
+      new ExpirationSchedulerFactory(Executors.newSingleThreadScheduledExecutor());
+  private DiscoveryManagerImpl measuredNode;
+  private DiscoveryManagerImpl remoteNode;
+  private InetSocketAddress measuredAddress;
+  private InetSocketAddress remoteAddress;
+  private Bytes requestPacket;
+
+  @Setup
+  public void setup() throws Exception {
+    Bytes32 measuredKey = Bytes32.random();
+    Bytes32 remoteKey = Bytes32.random();
+    NodeRecord measuredRecord =
+        new NodeRecordBuilder().privateKey(measuredKey).address("127.0.0.1", 30303).build();
+    NodeRecord remoteRecord =
+        new NodeRecordBuilder().privateKey(remoteKey).address("127.0.0.1", 30304).build();
+    measuredAddress = measuredRecord.getUdpAddress().orElseThrow();
+    remoteAddress = remoteRecord.getUdpAddress().orElseThrow();
+    measuredNode = createManager(measuredRecord, measuredKey, "measured");
+    remoteNode = createManager(remoteRecord, remoteKey, "remote");
+    measuredNode.start().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    remoteNode.start().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+    // Handshake, remote node is the initiator
+    remoteNode.findNodes(measuredRecord, 0).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    Supplier<CompletableFuture<?>> sendRequest =
+        "PING".equals(request)
+            ? () -> remoteNode.ping(measuredRecord)
+            : () -> remoteNode.findNodes(measuredRecord, List.of(0));
+    requestPacket = network.captureNextPacket(remoteAddress, sendRequest);
+    network.disconnect(measuredAddress);
+  }
+
+  @TearDown
+  public void tearDown() {
+    measuredNode.stop();
+    remoteNode.stop();
+    expirationSchedulerFactory.stop();
+    network.stop();
+  }
+
+  @Benchmark
+  public long handleRequest() {
+    network.deliverNow(requestPacket, remoteAddress, measuredAddress);
+    return network.getDroppedPackets();
+  }
+
+  private DiscoveryManagerImpl createManager(NodeRecord nodeRecord, Bytes privateKey, String name) {
+    Database database = Database.inMemoryDB();
+    NodeTableStorageFactoryImpl storageFactory = new NodeTableStorageFactoryImpl();
+    NodeSerializerFactory serializerFactory = new NodeSerializerFactory(NodeRecordFactory.DEFAULT);
+    return new DiscoveryManagerImpl(
+        Optional.empty(),
+        storageFactory
+            .createTable(database, serializerFactory, oldSeq -> nodeRecord, List::of)
+            .get(),
+        storageFactory.createBucketStorage(database, serializerFactory, nodeRecord),
+        new LocalNodeRecordStore(nodeRecord, privateKey),
+        privateKey,
+        NodeRecordFactory.DEFAULT,
+        Schedulers.createDefault().newSingleThreadDaemon("discovery-" + name),
+        Schedulers.createDefault().cpuHeavy(),
+        expirationSchedulerFactory,
+        EphemeralKeyPool.DISABLED,
+        NodeSession.DEFAULT_MAX_REQUESTS_IN_FLIGHT,
+        // The same packet is replayed from one address
+        AdmissionOptions.DISABLED,
+        false,
+        OverloadOptions.DISABLED,
+        DiscoveryMetrics.NOOP,
+        network);
+  }
+
+  /**
+   * Delivers packets between servers on a single thread, packets from disconnected servers are
+   * dropped
+   */
+  private static class InMemoryNetwork implements DiscoveryNetworkFactory {
+    private final ExecutorService deliveryExecutor = Executors.newSingleThreadExecutor();
+    private final Map<InetSocketAddress, InMemoryServer> servers = new ConcurrentHashMap<>();
+    private final Set<InetSocketAddress> disconnected = ConcurrentHashMap.newKeySet();
+    private final AtomicLong droppedPackets = new AtomicLong();
+    private volatile InetSocketAddress capturedSender;
+    private volatile CompletableFuture<Bytes> capturedPacket;
+
+    @Override
+    public DiscoveryServer createServer(InetSocketAddress listenAddress) {
+      InMemoryServer server = new InMemoryServer(listenAddress);
+      servers.put(listenAddress, server);
+      return server;
+    }
+
+    @Override
+    public CompletableFuture<DiscoveryClient> start(
+        DiscoveryServer server, DiscoveryMetrics metrics) {
+      InetSocketAddress address = ((InMemoryServer) server).address;
+      DiscoveryClient client =
+          new DiscoveryClient() {
+            @Override
+            public void stop() {}
+
+            @Override
+            public void send(Bytes data, InetSocketAddress destination) {
+              InMemoryNetwork.this.send(data, address, destination);
+            }
+          };
+      return CompletableFuture.completedFuture(client);
+    }
+
+    /** Runs `sendRequest` and returns the first packet sent by `sender` after that */
+    private Bytes captureNextPacket(
+        InetSocketAddress sender, Supplier<CompletableFuture<?>> sendRequest) throws Exception {
+      CompletableFuture<Bytes> packet = new CompletableFuture<>();
+      capturedSender = sender;
+      capturedPacket = packet;
+      sendRequest.get().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      return packet.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private void disconnect(InetSocketAddress address) {
+      disconnected.add(address);
+    }
+
+    /** Pushes packet to the node on the calling thread */
+    private void deliverNow(Bytes data, InetSocketAddress sender, InetSocketAddress destination) {
+      servers.get(destination).receive(data, sender);
+    }
+
+    private long getDroppedPackets() {
+      return droppedPackets.get();
+    }
+
+    private void send(Bytes data, InetSocketAddress sender, InetSocketAddress destination) {
+      CompletableFuture<Bytes> packet = capturedPacket;
+      if (packet != null && sender.equals(capturedSender)) {
+        packet.complete(data);
+      }
+      InMemoryServer server = servers.get(destination);
+      if (server == null || disconnected.contains(sender)) {
+        droppedPackets.incrementAndGet();
+        return;
+      }
+      deliveryExecutor.execute(() -> server.receive(data, sender));
+    }
+
+    private void stop() {
+      deliveryExecutor.shutdownNow();
+    }
+  }
+
+  private static class InMemoryServer implements DiscoveryServer {
+    private final InetSocketAddress address;
+    private final ReplayProcessor<Envelope> incomingPackets = ReplayProcessor.cacheLast();
+    private final FluxSink<Envelope> incomingSink = incomingPackets.sink();
+
+    private InMemoryServer(InetSocketAddress address) {
+      this.address = address;
+    }
+
+    @Override
+    public CompletableFuture<?> start() {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void stop() {}
+
+    @Override
+    public Publisher<Envelope> getIncomingPackets() {
+      return incomingPackets;
+    }
+
+    private void receive(Bytes data, InetSocketAddress sender) {
+      Envelope envelope = new Envelope();
+      envelope.put(Field.INCOMING, data);
+      envelope.put(Field.REMOTE_SENDER, sender);
+      incomingSink.next(envelope);
+    }
+  }
+}
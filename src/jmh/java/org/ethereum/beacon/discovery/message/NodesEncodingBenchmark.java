@@ -0,0 +1,78 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.message;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.ethereum.beacon.discovery.schema.NodeRecord;
+import org.ethereum.beacon.discovery.schema.NodeRecordBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.web3j.rlp.RlpEncoder;
+import org.web3j.rlp.RlpList;
+import org.web3j.rlp.RlpString;
+
+/**
+ * Encoding of a full NODES response, web3j tree based encoding vs {@link
+ * org.ethereum.beacon.discovery.util.RlpWriter}. Allocation per response is reported by the gc
+ * profiler as gc.alloc.rate.norm
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NodesEncodingBenchmark {
+  private Bytes requestId;
+  private List<NodeRecord> nodeRecords;
+  private NodesMessage nodesMessage;
+
+  @Setup
+  public void setup() {
+    requestId = Bytes.random(8);
+    nodeRecords = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      nodeRecords.add(
+          new NodeRecordBuilder()
+              .privateKey(Bytes32.random())
+              .address("127.0.0.1", 30303 + i)
+              .build());
+    }
+    nodesMessage = new NodesMessage(requestId, 1, () -> nodeRecords, nodeRecords.size());
+  }
+
+  @Benchmark
+  public Bytes web3jEncoder() {
+    return Bytes.concatenate(
+        Bytes.of(MessageCode.NODES.byteCode()),
+        Bytes.wrap(
+            RlpEncoder.encode(
+                new RlpList(
+                    RlpString.create(requestId.toArray()),
+                    RlpString.create(1),
+                    new RlpList(
+                        nodeRecords.stream()
+                            .map(NodeRecord::asRlp)
+                            .collect(Collectors.toList()))))));
+  }
+
+  @Benchmark
+  public Bytes rlpWriter() {
+    return nodesMessage.getBytes();
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.packet;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt64;
+import org.ethereum.beacon.discovery.message.DiscoveryV5Message;
+import org.ethereum.beacon.discovery.message.PingMessage;
+import org.ethereum.beacon.discovery.message.V5Message;
+import org.ethereum.beacon.discovery.schema.NodeRecordFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encrypted message packet of established session: creation of outgoing PING packet and full
+ * decoding of incoming one, from raw bytes to {@link V5Message}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessagePacketBenchmark {
+  private Bytes homeNodeId;
+  private Bytes destNodeId;
+  private Bytes authTag;
+  private Bytes key;
+  private DiscoveryV5Message message;
+  private Bytes packetBytes;
+
+  @Setup
+  public void setup() {
+    homeNodeId = Bytes32.random();
+    destNodeId = Bytes32.random();
+    authTag = Bytes.random(12);
+    key = Bytes.random(16);
+    message = DiscoveryV5Message.from(new PingMessage(Bytes.random(8), UInt64.ONE));
+    packetBytes = MessagePacket.create(homeNodeId, destNodeId, authTag, key, message).getBytes();
+  }
+
+  @Benchmark
+  public Bytes create() {
+    return MessagePacket.create(homeNodeId, destNodeId, authTag, key, message).getBytes();
+  }
+
+  @Benchmark
+  public V5Message decode() {
+    MessagePacket packet = new MessagePacket(packetBytes);
+    packet.decode(key);
+    return ((DiscoveryV5Message) packet.getMessage()).create(NodeRecordFactory.DEFAULT);
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.schema;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ENR codec: parsing of a record received in NODES, signature verification and node id derivation,
+ * every received record goes through all of them
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NodeRecordBenchmark {
+  private final NodeRecordFactory nodeRecordFactory = NodeRecordFactory.DEFAULT;
+  private NodeRecord nodeRecord;
+  private Bytes serialized;
+  private String base64;
+
+  @Setup
+  public void setup() {
+    nodeRecord =
+        new NodeRecordBuilder().privateKey(Bytes32.random()).address("127.0.0.1", 30303).build();
+    serialized = nodeRecord.serialize();
+    base64 = nodeRecord.asBase64();
+  }
+
+  @Benchmark
+  public NodeRecord fromBytes() {
+    return nodeRecordFactory.fromBytes(serialized);
+  }
+
+  @Benchmark
+  public NodeRecord fromBase64() {
+    return nodeRecordFactory.fromBase64(base64);
+  }
+
+  @Benchmark
+  public Bytes serialize() {
+    return nodeRecord.serialize();
+  }
+
+  @Benchmark
+  public boolean isValid() {
+    return nodeRecord.isValid();
+  }
+
+  @Benchmark
+  public Bytes getNodeId() {
+    return nodeRecord.getNodeId();
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.storage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.ethereum.beacon.discovery.database.Database;
+import org.ethereum.beacon.discovery.schema.NodeRecord;
+import org.ethereum.beacon.discovery.schema.NodeRecordBuilder;
+import org.ethereum.beacon.discovery.schema.NodeRecordFactory;
+import org.ethereum.beacon.discovery.schema.NodeRecordInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Node table and k-bucket operations on a table of {@link #tableSize} nodes stored in in-memory
+ * database: update of known node, lookup of closest nodes and bucket insertion
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NodeTableBenchmark {
+  @Param({"1000", "10000"})
+  private int tableSize;
+
+  private final List<NodeRecordInfo> nodes = new ArrayList<>();
+  private NodeTable nodeTable;
+  private NodeBucket nodeBucket;
+  private Bytes targetNodeId;
+  private int nextNode;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(1);
+    NodeRecord homeNode =
+        new NodeRecordBuilder()
+            .privateKey(Bytes32.random(random))
+            .address("127.0.0.1", 30303)
+            .build();
+    nodeTable =
+        new NodeTableStorageFactoryImpl()
+            .createTable(
+                Database.inMemoryDB(),
+                new NodeSerializerFactory(NodeRecordFactory.DEFAULT),
+                oldSeq -> homeNode,
+                Collections::emptyList)
+            .get();
+    for (int i = 0; i < tableSize; i++) {
+      NodeRecordInfo node =
+          NodeRecordInfo.createDefault(
+              new NodeRecordBuilder()
+                  .privateKey(Bytes32.random(random))
+                  .address("127.0.0.1", 30304 + (i % 10000))
+                  .build());
+      nodes.add(node);
+      nodeTable.save(node);
+    }
+    nodeBucket = new NodeBucket();
+    targetNodeId = Bytes32.random(random);
+  }
+
+  @Benchmark
+  public NodeRecordInfo save() {
+    NodeRecordInfo node = nextNode();
+    nodeTable.save(node);
+    return node;
+  }
+
+  /** Closest {@link NodeBucket#K} nodes to a random target as done by recursive lookup */
+  @Benchmark
+  public List<NodeRecordInfo> closestNodes() {
+    return nodeTable
+        .streamClosestNodes(targetNodeId, 0)
+        .limit(NodeBucket.K)
+        .collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public boolean bucketPut() {
+    return nodeBucket.put(nextNode());
+  }
+
+  private NodeRecordInfo nextNode() {
+    NodeRecordInfo node = nodes.get(nextNode);
+    nextNode = (nextNode + 1) % nodes.size();
+    return node;
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.ethereum.beacon.discovery.schema.NodeRecord;
+import org.ethereum.beacon.discovery.schema.NodeRecordBuilder;
+import org.ethereum.beacon.discovery.schema.NodeRecordInfo;
+import org.ethereum.beacon.discovery.schema.NodeStatus;
+import org.ethereum.beacon.discovery.storage.NodeBucket;
+import org.ethereum.beacon.discovery.storage.NodeBucketStorage;
+import org.ethereum.beacon.discovery.storage.NodeTable;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Table freshness versus PING rate. Each operation simulates {@link #SIMULATED_SECONDS} of {@link
+ * LivenessScheduler} work over a table of nodes which were never checked, every node replies
+ * instantly. Freshness, the share of nodes checked within {@link
+ * DiscoveryTaskManager#STATUS_EXPIRATION_SECONDS}, is reported as a secondary result, time per
+ * operation is the CPU cost of scheduling.
+ *
+ * <p>In steady state freshness is bounded by pingsPerSecond * STATUS_EXPIRATION_SECONDS /
+ * tableSize, the scheduler should reach this bound.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class LivenessSchedulerBenchmark {
+  private static final int SIMULATED_SECONDS = 1800;
+  private static final int TICK_MILLIS = 100;
+
+  @Param({"1000", "10000"})
+  private int tableSize;
+
+  @Param({"5", "20", "100"})
+  private double pingsPerSecond;
+
+  private final List<NodeRecord> nodes = new ArrayList<>();
+  private final Map<Bytes, NodeRecordInfo> table = new HashMap<>();
+  private Bytes homeNodeId;
+  private long timeMillis;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Random random = new Random(1);
+    homeNodeId = Bytes32.random(random);
+    for (int i = 0; i < tableSize; i++) {
+      nodes.add(
+          new NodeRecordBuilder()
+              .privateKey(Bytes32.random(random))
+              .address("127.0.0.1", 30303 + (i % 10000))
+              .build());
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void resetTable() {
+    timeMillis = 0;
+    table.clear();
+    nodes.forEach(
+        node -> table.put(node.getNodeId(), new NodeRecordInfo(node, -1L, NodeStatus.ACTIVE, 0)));
+  }
+
+  @Benchmark
+  public int simulate(FreshnessStats stats) {
+    Predicate<NodeRecordInfo> checkRule =
+        node ->
+            node.getLastRetry() < 0
+                || node.getLastRetry()
+                    <= getTimeSeconds() - DiscoveryTaskManager.STATUS_EXPIRATION_SECONDS;
+    LivenessScheduler scheduler =
+        new LivenessScheduler(
+            new SimulatedNodeTable(),
+            new EmptyBucketStorage(),
+            homeNodeId,
+            checkRule,
+            new LivenessOptions(
+                pingsPerSecond,
+                (int) Math.ceil(pingsPerSecond * TICK_MILLIS / 1000),
+                Integer.MAX_VALUE,
+                Duration.ofSeconds(60)),
+            () -> timeMillis);
+    int checks = 0;
+    for (; timeMillis < SIMULATED_SECONDS * 1000L; timeMillis += TICK_MILLIS) {
+      if (scheduler.isRescanDue()) {
+        scheduler.reschedule(new ArrayList<>(table.values()));
+      }
+      for (NodeRecordInfo node : scheduler.nextBatch(0)) {
+        table.put(
+            node.getNode().getNodeId(),
+            new NodeRecordInfo(node.getNode(), getTimeSeconds(), NodeStatus.ACTIVE, 0));
+        checks++;
+      }
+    }
+    long freshFrom = getTimeSeconds() - DiscoveryTaskManager.STATUS_EXPIRATION_SECONDS;
+    long fresh = table.values().stream().filter(node -> node.getLastRetry() > freshFrom).count();
+    stats.record((double) fresh / tableSize);
+    return checks;
+  }
+
+  private long getTimeSeconds() {
+    return timeMillis / 1000;
+  }
+
+  private class SimulatedNodeTable implements NodeTable {
+    @Override
+    public void save(NodeRecordInfo node) {
+      table.put(node.getNode().getNodeId(), node);
+    }
+
+    @Override
+    public void remove(NodeRecordInfo node) {
+      table.remove(node.getNode().getNodeId());
+    }
+
+    @Override
+    public Optional<NodeRecordInfo> getNode(Bytes nodeId) {
+      return Optional.ofNullable(table.get(nodeId));
+    }
+
+    @Override
+    public Stream<NodeRecordInfo> streamClosestNodes(Bytes nodeId, int logLimit) {
+      return table.values().stream();
+    }
+
+    @Override
+    public List<NodeRecordInfo> findClosestNodes(Bytes nodeId, int logLimit) {
+      return new ArrayList<>(table.values());
+    }
+
+    @Override
+    public List<NodeRecordInfo> findNodesWithField(
+        String key, Predicate<Object> predicate, int limit) {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public NodeRecord getHomeNode() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private static class EmptyBucketStorage implements NodeBucketStorage {
+    @Override
+    public Optional<NodeBucket> get(int index) {
+      return Optional.empty();
+    }
+
+    @Override
+    public List<Bytes> getNodesResponses(int index) {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public void put(NodeRecordInfo nodeRecordInfo) {}
+
+    @Override
+    public void commit() {}
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class FreshnessStats {
+    private long runs;
+    private double freshness;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      runs = 0;
+      freshness = 0;
+    }
+
+    private void record(double runFreshness) {
+      runs++;
+      freshness += runFreshness;
+    }
+
+    public double freshness() {
+      return runs == 0 ? 0 : freshness / runs;
+    }
+  }
+}
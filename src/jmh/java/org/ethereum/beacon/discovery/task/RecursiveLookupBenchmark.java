@@ -0,0 +1,229 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.ethereum.beacon.discovery.schema.NodeRecord;
+import org.ethereum.beacon.discovery.schema.NodeRecordBuilder;
+import org.ethereum.beacon.discovery.schema.NodeRecordInfo;
+import org.ethereum.beacon.discovery.schema.NodeStatus;
+import org.ethereum.beacon.discovery.storage.NodeBucket;
+import org.ethereum.beacon.discovery.storage.NodeTable;
+import org.ethereum.beacon.discovery.util.Functions;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link RecursiveLookupTask} over a simulated network. Every node knows up to {@link NodeBucket#K}
+ * random nodes per bucket and replies to FINDNODE instantly, filling the reply from adjacent
+ * buckets like {@link org.ethereum.beacon.discovery.message.handler.FindNodeHandler} does.
+ *
+ * <p>Besides time per lookup, FINDNODE messages and hops per lookup are reported as secondary
+ * results. Hops is the length of the longest referral chain leading to a queried node: nodes from
+ * our own table are 1 hop away, nodes received from them are 2 hops away and so on.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecursiveLookupBenchmark {
+  private static final int MAX_DISTANCE = 256;
+
+  @Param({"500", "2000"})
+  private int networkSize;
+
+  @Param({"1", "3"})
+  private int alpha;
+
+  private final Map<Bytes, List<List<NodeRecord>>> routingTables = new HashMap<>();
+  private NodeRecord initiator;
+  private LookupOptions options;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(1);
+    List<NodeRecord> nodes = new ArrayList<>();
+    for (int i = 0; i < networkSize; i++) {
+      nodes.add(
+          new NodeRecordBuilder()
+              .privateKey(Bytes32.random(random))
+              .address("127.0.0.1", 30303 + i)
+              .build());
+    }
+    for (NodeRecord node : nodes) {
+      List<List<NodeRecord>> buckets = new ArrayList<>();
+      for (int i = 0; i <= MAX_DISTANCE; i++) {
+        buckets.add(new ArrayList<>());
+      }
+      List<NodeRecord> others = new ArrayList<>(nodes);
+      Collections.shuffle(others, random);
+      for (NodeRecord other : others) {
+        int distance = Functions.logDistance(node.getNodeId(), other.getNodeId());
+        if (distance > 0 && buckets.get(distance).size() < NodeBucket.K) {
+          buckets.get(distance).add(other);
+        }
+      }
+      routingTables.put(node.getNodeId(), buckets);
+    }
+    initiator = nodes.get(0);
+    options = new LookupOptions(alpha, NodeBucket.K, 100, Duration.ofSeconds(10));
+  }
+
+  @Benchmark
+  public List<NodeRecord> lookup(LookupStats stats) {
+    SimulatedLookup lookup = new SimulatedLookup();
+    List<NodeRecord> result =
+        new RecursiveLookupTask(
+                new InitiatorNodeTable(), lookup::findNodes, options, Bytes32.random())
+            .execute()
+            .join();
+    stats.record(lookup.messages, lookup.maxHops);
+    return result;
+  }
+
+  /** Replies to FINDNODE from simulated routing tables, tracks messages and hops of one lookup */
+  private class SimulatedLookup {
+    private final Map<Bytes, Integer> hops = new HashMap<>();
+    private int messages = 0;
+    private int maxHops = 0;
+
+    private CompletableFuture<Collection<NodeRecord>> findNodes(
+        NodeRecordInfo sendTo, List<Integer> distances) {
+      Bytes peerId = sendTo.getNode().getNodeId();
+      int peerHops = hops.getOrDefault(peerId, 1);
+      messages++;
+      maxHops = Math.max(maxHops, peerHops);
+      List<NodeRecord> reply = collectNodes(routingTables.get(peerId), distances);
+      reply.forEach(node -> hops.putIfAbsent(node.getNodeId(), peerHops + 1));
+      return CompletableFuture.completedFuture(reply);
+    }
+
+    private List<NodeRecord> collectNodes(
+        List<List<NodeRecord>> buckets, List<Integer> distances) {
+      List<NodeRecord> nodes = new ArrayList<>();
+      boolean[] visited = new boolean[MAX_DISTANCE + 1];
+      for (int offset = 0; offset <= MAX_DISTANCE && nodes.size() < NodeBucket.K; offset++) {
+        for (int distance : distances) {
+          addBucket(buckets, Math.max(1, distance - offset), visited, nodes);
+          addBucket(buckets, distance + offset, visited, nodes);
+        }
+      }
+      return nodes;
+    }
+
+    private void addBucket(
+        List<List<NodeRecord>> buckets, int distance, boolean[] visited, List<NodeRecord> nodes) {
+      if (distance > MAX_DISTANCE || visited[distance]) {
+        return;
+      }
+      visited[distance] = true;
+      for (NodeRecord node : buckets.get(distance)) {
+        if (nodes.size() >= NodeBucket.K) {
+          return;
+        }
+        nodes.add(node);
+      }
+    }
+  }
+
+  /** Node table of the lookup initiator backed by its simulated routing table */
+  private class InitiatorNodeTable implements NodeTable {
+    @Override
+    public void save(NodeRecordInfo node) {}
+
+    @Override
+    public void remove(NodeRecordInfo node) {}
+
+    @Override
+    public Optional<NodeRecordInfo> getNode(Bytes nodeId) {
+      return Optional.empty();
+    }
+
+    @Override
+    public Stream<NodeRecordInfo> streamClosestNodes(Bytes nodeId, int logLimit) {
+      long now = Functions.getTime();
+      return routingTables.get(initiator.getNodeId()).stream()
+          .flatMap(List::stream)
+          .sorted(
+              Comparator.comparing(
+                  (NodeRecord node) -> node.getNodeId().xor(nodeId).toUnsignedBigInteger()))
+          .map(node -> new NodeRecordInfo(node, now, NodeStatus.ACTIVE, 0));
+    }
+
+    @Override
+    public List<NodeRecordInfo> findClosestNodes(Bytes nodeId, int logLimit) {
+      return streamClosestNodes(nodeId, logLimit).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<NodeRecordInfo> findNodesWithField(
+        String key, Predicate<Object> predicate, int limit) {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public NodeRecord getHomeNode() {
+      return initiator;
+    }
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class LookupStats {
+    private long lookups;
+    private long messages;
+    private long hops;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      lookups = 0;
+      messages = 0;
+      hops = 0;
+    }
+
+    private void record(long lookupMessages, long lookupHops) {
+      lookups++;
+      messages += lookupMessages;
+      hops += lookupHops;
+    }
+
+    public double messagesPerLookup() {
+      return lookups == 0 ? 0 : (double) messages / lookups;
+    }
+
+    public double hopsPerLookup() {
+      return lookups == 0 ? 0 : (double) hops / lookups;
+    }
+  }
+}
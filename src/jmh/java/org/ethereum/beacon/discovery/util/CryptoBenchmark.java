@@ -0,0 +1,139 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.util;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.bouncycastle.math.ec.ECPoint;
+import org.ethereum.beacon.discovery.util.Functions.HKDFKeys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cryptography of {@link Functions} used on every handshake (signatures, ECDH, HKDF) and on every
+ * packet (AES-GCM), plus log distance used by table lookups. Static public keys are decoded through
+ * {@link PublicKeyCache} as in a running node, ephemeral keys are not.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CryptoBenchmark {
+  private Bytes privateKey;
+  private Bytes remotePrivateKey;
+  private Bytes remotePublicKey;
+  private Bytes ephemeralPrivateKey;
+  private Bytes ephemeralPublicKey;
+  private Bytes idNonceSignature;
+  private Bytes srcNodeId;
+  private Bytes destNodeId;
+  private Bytes idNonce;
+  private Bytes keyAgreement;
+  private Bytes messageHash;
+  private Bytes signature;
+  private Bytes publicKey;
+  private Bytes aesKey;
+  private Bytes authTag;
+  private Bytes aad;
+  private Bytes message;
+  private Bytes encrypted;
+
+  @Setup
+  public void setup() {
+    privateKey = Bytes32.random();
+    publicKey = Functions.derivePublicKeyFromPrivate(privateKey);
+    remotePrivateKey = Bytes32.random();
+    remotePublicKey = Functions.derivePublicKeyFromPrivate(remotePrivateKey);
+    ephemeralPrivateKey = Bytes32.random();
+    ephemeralPublicKey = Functions.derivePublicKeyFromPrivate(ephemeralPrivateKey);
+    srcNodeId = Bytes32.random();
+    destNodeId = Bytes32.random();
+    idNonce = Bytes32.random();
+    keyAgreement = Functions.deriveECDHKeyAgreement(privateKey, remotePublicKey);
+    messageHash = Bytes32.random();
+    signature = Functions.sign(privateKey, messageHash);
+    idNonceSignature = Functions.sign(remotePrivateKey, messageHash);
+    aesKey = Bytes.random(16);
+    authTag = Bytes.random(12);
+    aad = Bytes32.random();
+    // PING sized message
+    message = Bytes.random(16);
+    encrypted = Functions.aesgcm_encrypt(aesKey, authTag, message, aad);
+  }
+
+  @Benchmark
+  public Bytes sign() {
+    return Functions.sign(privateKey, messageHash);
+  }
+
+  @Benchmark
+  public boolean verifySignature() {
+    return Functions.verifyECDSASignature(signature, messageHash, publicKey);
+  }
+
+  @Benchmark
+  public Bytes ecdhKeyAgreement() {
+    return Functions.deriveECDHKeyAgreement(privateKey, remotePublicKey);
+  }
+
+  @Benchmark
+  public ECPoint decodePublicKey() {
+    return Functions.decodePublicKey(remotePublicKey);
+  }
+
+  @Benchmark
+  public ECPoint publicKeyToPointCached() {
+    return Functions.publicKeyToPoint(remotePublicKey);
+  }
+
+  /** Initiator of handshake: ECDH with static key of the recipient, session keys, signature */
+  @Benchmark
+  public void handshakeInitiator(Blackhole blackhole) {
+    Bytes agreement = Functions.deriveECDHKeyAgreement(ephemeralPrivateKey, remotePublicKey);
+    blackhole.consume(Functions.hkdf_expand(srcNodeId, destNodeId, agreement, idNonce));
+    blackhole.consume(Functions.sign(privateKey, messageHash));
+  }
+
+  /** Recipient of handshake: ECDH with ephemeral key, session keys, signature check */
+  @Benchmark
+  public void handshakeRecipient(Blackhole blackhole) {
+    Bytes agreement = Functions.deriveEphemeralECDHKeyAgreement(privateKey, ephemeralPublicKey);
+    blackhole.consume(Functions.hkdf_expand(destNodeId, srcNodeId, agreement, idNonce));
+    blackhole.consume(
+        Functions.verifyECDSASignature(idNonceSignature, messageHash, remotePublicKey));
+  }
+
+  @Benchmark
+  public HKDFKeys hkdfExpand() {
+    return Functions.hkdf_expand(srcNodeId, destNodeId, keyAgreement, idNonce);
+  }
+
+  @Benchmark
+  public Bytes aesgcmEncrypt() {
+    return Functions.aesgcm_encrypt(aesKey, authTag, message, aad);
+  }
+
+  @Benchmark
+  public Bytes aesgcmDecrypt() {
+    return Functions.aesgcm_decrypt(aesKey, authTag, encrypted, aad);
+  }
+
+  @Benchmark
+  public int logDistance() {
+    return Functions.logDistance(srcNodeId, destNodeId);
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt64;
+import org.ethereum.beacon.discovery.message.NodesMessage;
+import org.ethereum.beacon.discovery.packet.WhoAreYouPacket;
+import org.ethereum.beacon.discovery.schema.NodeRecord;
+import org.ethereum.beacon.discovery.schema.NodeRecordBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.web3j.rlp.RlpDecoder;
+import org.web3j.rlp.RlpList;
+import org.web3j.rlp.RlpString;
+import org.web3j.rlp.RlpType;
+
+/** Compares {@link RlpReader} with web3j {@link RlpDecoder} on typical discovery payloads */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RlpDecodingBenchmark {
+  private Bytes whoAreYouPayload;
+  private Bytes nodesPayload;
+
+  @Setup
+  public void setup() {
+    whoAreYouPayload =
+        WhoAreYouPacket.createFromMagic(
+                Bytes32.random(), Bytes.random(12), Bytes32.random(), UInt64.valueOf(1))
+            .getBytes()
+            .slice(32);
+    List<NodeRecord> nodeRecords = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      nodeRecords.add(
+          new NodeRecordBuilder()
+              .privateKey(Bytes32.random())
+              .address("127.0.0.1", 30303 + i)
+              .build());
+    }
+    nodesPayload =
+        new NodesMessage(Bytes.random(8), 1, () -> nodeRecords, nodeRecords.size())
+            .getBytes()
+            .slice(1);
+  }
+
+  @Benchmark
+  public void whoAreYouWeb3j(Blackhole blackhole) {
+    RlpList payload =
+        (RlpList) RlpDecoder.decode(whoAreYouPayload.toArray()).getValues().get(0);
+    blackhole.consume(Bytes.wrap(((RlpString) payload.getValues().get(0)).getBytes()));
+    blackhole.consume(Bytes.wrap(((RlpString) payload.getValues().get(1)).getBytes()));
+    blackhole.consume(
+        UInt64.fromBytes(
+            Utils.leftPad(Bytes.wrap(((RlpString) payload.getValues().get(2)).getBytes()), 8)));
+  }
+
+  @Benchmark
+  public void whoAreYouReader(Blackhole blackhole) {
+    RlpReader payload = RlpReader.create(whoAreYouPayload).readList();
+    blackhole.consume(payload.readBytes());
+    blackhole.consume(payload.readBytes());
+    blackhole.consume(payload.readUInt64());
+  }
+
+  @Benchmark
+  public void nodesWeb3j(Blackhole blackhole) {
+    List<RlpType> payload =
+        ((RlpList) RlpDecoder.decode(nodesPayload.toArray()).getValues().get(0)).getValues();
+    blackhole.consume(Bytes.wrap(((RlpString) payload.get(0)).getBytes()));
+    blackhole.consume(((RlpString) payload.get(1)).asPositiveBigInteger().intValueExact());
+    for (RlpType nodeRecord : ((RlpList) payload.get(2)).getValues()) {
+      blackhole.consume(nodeRecord);
+    }
+  }
+
+  @Benchmark
+  public void nodesReader(Blackhole blackhole) {
+    RlpReader payload = RlpReader.create(nodesPayload).readList();
+    blackhole.consume(payload.readBytes());
+    blackhole.consume(payload.readInt());
+    RlpReader nodeRecords = payload.readList();
+    while (nodeRecords.hasNext()) {
+      blackhole.consume(nodeRecords.readRaw());
+    }
+  }
+}
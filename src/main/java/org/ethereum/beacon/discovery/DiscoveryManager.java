@@ -4,9 +4,15 @@
 
 package org.ethereum.beacon.discovery;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
 import org.apache.tuweni.bytes.Bytes;
+import org.ethereum.beacon.discovery.message.FindNodeMessage;
 import org.ethereum.beacon.discovery.schema.NodeRecord;
+import org.reactivestreams.Publisher;
 
 /**
  * Discovery Manager, top interface for peer discovery mechanism as described at <a
@@ -32,6 +38,33 @@ public interface DiscoveryManager {
    */
   CompletableFuture<Void> findNodes(NodeRecord nodeRecord, int distance);
 
+  /**
+   * Initiates FINDNODE with node `nodeRecord` for several distances at once
+   *
+   * @param nodeRecord Ethereum Node record
+   * @param distances Distances to search for, at most {@link FindNodeMessage#MAX_DISTANCES}, only
+   *     peers supporting list of distances are able to answer several of them
+   * @return Future which is completed with all valid node records from the reply when it's
+   *     received or fails in timeout/not successful handshake/bad message exchange.
+   */
+  CompletableFuture<Collection<NodeRecord>> findNodes(
+      NodeRecord nodeRecord, List<Integer> distances);
+
+  /**
+   * Initiates FINDNODE with node `nodeRecord` for several distances at once, waiting for the reply
+   * not longer than `timeout`
+   *
+   * @param nodeRecord Ethereum Node record
+   * @param distances Distances to search for, see {@link #findNodes(NodeRecord, List)}
+   * @param timeout Time to wait for all NODES messages of the reply
+   * @return Future which is completed with all valid node records from the reply when it's
+   *     received, or with records received so far when timeout is reached. Fails with {@link
+   *     TimeoutException} if there are no records by that time or fails in not successful
+   *     handshake/bad message exchange.
+   */
+  CompletableFuture<Collection<NodeRecord>> findNodes(
+      NodeRecord nodeRecord, List<Integer> distances, Duration timeout);
+
   /**
    * Initiates PING with node `nodeRecord`
    *
@@ -40,4 +73,13 @@ public interface DiscoveryManager {
    *     handshake/bad message exchange.
    */
   CompletableFuture<Void> ping(NodeRecord nodeRecord);
+
+  /** Records of previously unknown nodes received in NODES replies, emitted on discovery thread */
+  Publisher<NodeRecord> getDiscoveredNodes();
+
+  /**
+   * Records of nodes which replied to our request while not considered live before, emitted on
+   * discovery thread
+   */
+  Publisher<NodeRecord> getVerifiedNodes();
 }
@@ -6,18 +6,39 @@ package org.ethereum.beacon.discovery;
 
 import com.google.common.annotations.VisibleForTesting;
 import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.ethereum.beacon.discovery.metrics.DiscoveryMetrics;
+import org.ethereum.beacon.discovery.metrics.PacketType;
+import org.ethereum.beacon.discovery.network.AdmissionControl;
+import org.ethereum.beacon.discovery.network.AdmissionOptions;
 import org.ethereum.beacon.discovery.network.DiscoveryClient;
-import org.ethereum.beacon.discovery.network.NettyDiscoveryClientImpl;
-import org.ethereum.beacon.discovery.network.NettyDiscoveryServer;
-import org.ethereum.beacon.discovery.network.NettyDiscoveryServerImpl;
+import org.ethereum.beacon.discovery.network.DiscoveryNetworkFactory;
+import org.ethereum.beacon.discovery.network.DiscoveryServer;
+import org.ethereum.beacon.discovery.network.IncomingPacketClassifier;
 import org.ethereum.beacon.discovery.network.NetworkParcel;
+import org.ethereum.beacon.discovery.network.OverloadOptions;
+import org.ethereum.beacon.discovery.network.PacketPriority;
+import org.ethereum.beacon.discovery.network.PrioritizedIncomingQueue;
+import org.ethereum.beacon.discovery.network.StatelessChallenge;
 import org.ethereum.beacon.discovery.pipeline.Envelope;
 import org.ethereum.beacon.discovery.pipeline.Field;
 import org.ethereum.beacon.discovery.pipeline.Pipeline;
 import org.ethereum.beacon.discovery.pipeline.PipelineImpl;
+import org.ethereum.beacon.discovery.pipeline.handler.AdmissionControlHandler;
 import org.ethereum.beacon.discovery.pipeline.handler.AuthHeaderMessagePacketHandler;
 import org.ethereum.beacon.discovery.pipeline.handler.BadPacketHandler;
 import org.ethereum.beacon.discovery.pipeline.handler.IncomingDataPacker;
@@ -28,7 +49,6 @@ import org.ethereum.beacon.discovery.pipeline.handler.NextTaskHandler;
 import org.ethereum.beacon.discovery.pipeline.handler.NodeIdToSession;
 import org.ethereum.beacon.discovery.pipeline.handler.NodeSessionRequestHandler;
 import org.ethereum.beacon.discovery.pipeline.handler.NotExpectedIncomingPacketHandler;
-import org.ethereum.beacon.discovery.pipeline.handler.OutgoingParcelHandler;
 import org.ethereum.beacon.discovery.pipeline.handler.UnknownPacketTagToSender;
 import org.ethereum.beacon.discovery.pipeline.handler.UnknownPacketTypeByStatus;
 import org.ethereum.beacon.discovery.pipeline.handler.WhoAreYouAttempt;
@@ -38,23 +58,43 @@ import org.ethereum.beacon.discovery.scheduler.ExpirationSchedulerFactory;
 import org.ethereum.beacon.discovery.scheduler.Scheduler;
 import org.ethereum.beacon.discovery.schema.NodeRecord;
 import org.ethereum.beacon.discovery.schema.NodeRecordFactory;
+import org.ethereum.beacon.discovery.schema.NodeRecordInfo;
 import org.ethereum.beacon.discovery.storage.AuthTagRepository;
 import org.ethereum.beacon.discovery.storage.LocalNodeRecordStore;
+import org.ethereum.beacon.discovery.storage.NodeBucket;
 import org.ethereum.beacon.discovery.storage.NodeBucketStorage;
+import org.ethereum.beacon.discovery.storage.NodeRecordListener;
 import org.ethereum.beacon.discovery.storage.NodeTable;
+import org.ethereum.beacon.discovery.task.RequestCoalescer;
 import org.ethereum.beacon.discovery.task.TaskOptions;
 import org.ethereum.beacon.discovery.task.TaskType;
+import org.ethereum.beacon.discovery.util.EphemeralKeyPool;
+import org.ethereum.beacon.discovery.util.Functions;
+import org.ethereum.beacon.discovery.util.PublicKeyCache;
 import org.reactivestreams.Publisher;
+import reactor.core.publisher.DirectProcessor;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.FluxSink;
-import reactor.core.publisher.ReplayProcessor;
 
 public class DiscoveryManagerImpl implements DiscoveryManager {
-  private final ReplayProcessor<NetworkParcel> outgoingMessages = ReplayProcessor.cacheLast();
-  private final NettyDiscoveryServer discoveryServer;
+  private static final Duration COALESCED_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+  private static final Duration PONG_CACHE_TTL = Duration.ofSeconds(5);
+  private static final Logger logger = LogManager.getLogger(DiscoveryManagerImpl.class);
+  // Copy of sent parcels for tests, not used while there are no subscribers
+  private final DirectProcessor<NetworkParcel> outgoingMessages = DirectProcessor.create();
+  private final FluxSink<NetworkParcel> outgoingMessagesSink = outgoingMessages.sink();
+  private final DirectProcessor<NodeRecord> discoveredNodes = DirectProcessor.create();
+  private final DirectProcessor<NodeRecord> verifiedNodes = DirectProcessor.create();
+  private final DiscoveryNetworkFactory networkFactory;
+  private final DiscoveryServer discoveryServer;
+  // Receives incoming packets from the server, either directly or through the prioritized queue
+  private final Consumer<Envelope> incomingPacketConsumer;
   private final Pipeline incomingPipeline = new PipelineImpl();
   private final Pipeline outgoingPipeline = new PipelineImpl();
   private final LocalNodeRecordStore localNodeRecordStore;
+  private final RequestCoalescer requestCoalescer;
+  private final Scheduler taskScheduler;
+  private final DiscoveryMetrics metrics;
   private volatile DiscoveryClient discoveryClient;
 
   public DiscoveryManagerImpl(
@@ -65,13 +105,40 @@ public class DiscoveryManagerImpl implements DiscoveryManager {
       Bytes homeNodePrivateKey,
       NodeRecordFactory nodeRecordFactory,
       Scheduler taskScheduler,
-      ExpirationSchedulerFactory expirationSchedulerFactory) {
+      Scheduler validationScheduler,
+      ExpirationSchedulerFactory expirationSchedulerFactory,
+      EphemeralKeyPool ephemeralKeyPool,
+      int maxRequestsInFlightPerNode,
+      AdmissionOptions admissionOptions,
+      boolean statelessChallenge,
+      OverloadOptions overloadOptions,
+      DiscoveryMetrics metrics,
+      DiscoveryNetworkFactory networkFactory) {
+    this.networkFactory = networkFactory;
+    this.taskScheduler = taskScheduler;
+    this.metrics = metrics;
     this.localNodeRecordStore = localNodeRecordStore;
+    this.requestCoalescer =
+        new RequestCoalescer(expirationSchedulerFactory, COALESCED_REQUEST_TIMEOUT, PONG_CACHE_TTL);
     final NodeRecord homeNodeRecord = localNodeRecordStore.getLocalNodeRecord();
     AuthTagRepository authTagRepo = new AuthTagRepository();
+    final FluxSink<NodeRecord> discoveredNodesSink = discoveredNodes.sink();
+    final FluxSink<NodeRecord> verifiedNodesSink = verifiedNodes.sink();
+    final NodeRecordListener nodeRecordListener =
+        new NodeRecordListener() {
+          @Override
+          public void onNodeDiscovered(NodeRecord nodeRecord) {
+            discoveredNodesSink.next(nodeRecord);
+          }
+
+          @Override
+          public void onNodeVerified(NodeRecord nodeRecord) {
+            verifiedNodesSink.next(nodeRecord);
+          }
+        };
 
     this.discoveryServer =
-        new NettyDiscoveryServerImpl(
+        networkFactory.createServer(
             listenAddress
                 .or(homeNodeRecord::getUdpAddress)
                 .orElseThrow(
@@ -83,42 +150,105 @@ public class DiscoveryManagerImpl implements DiscoveryManager {
             localNodeRecordStore,
             homeNodePrivateKey,
             nodeBucketStorage,
+            nodeRecordListener,
             authTagRepo,
             nodeTable,
-            outgoingPipeline,
-            expirationSchedulerFactory);
+            this::sendOutgoing,
+            expirationSchedulerFactory,
+            maxRequestsInFlightPerNode,
+            metrics,
+            statelessChallenge
+                ? Optional.of(
+                    new StatelessChallenge(
+                        StatelessChallenge.DEFAULT_EPOCH, taskScheduler::getCurrentTime))
+                : Optional.empty(),
+            taskScheduler::getCurrentTime);
+    incomingPipeline.addHandler(new IncomingDataPacker());
+    if (admissionOptions.isEnabled()) {
+      incomingPipeline.addHandler(
+          new AdmissionControlHandler(
+              new AdmissionControl(admissionOptions, taskScheduler::getCurrentTime), metrics));
+    }
     incomingPipeline
-        .addHandler(new IncomingDataPacker())
-        .addHandler(new WhoAreYouAttempt(homeNodeRecord.getNodeId()))
+        .addHandler(new WhoAreYouAttempt(homeNodeRecord.getNodeId(), metrics))
         .addHandler(new WhoAreYouSessionResolver(authTagRepo))
         .addHandler(new UnknownPacketTagToSender(homeNodeRecord.getNodeId()))
         .addHandler(nodeIdToSession)
-        .addHandler(new UnknownPacketTypeByStatus())
+        .addHandler(new UnknownPacketTypeByStatus(metrics))
         .addHandler(new NotExpectedIncomingPacketHandler())
-        .addHandler(new WhoAreYouPacketHandler(outgoingPipeline, taskScheduler))
+        .addHandler(new WhoAreYouPacketHandler(outgoingPipeline, taskScheduler, ephemeralKeyPool))
         .addHandler(
             new AuthHeaderMessagePacketHandler(outgoingPipeline, taskScheduler, nodeRecordFactory))
         .addHandler(new MessagePacketHandler())
-        .addHandler(new MessageHandler(nodeRecordFactory, localNodeRecordStore))
-        .addHandler(new BadPacketHandler());
-    final FluxSink<NetworkParcel> outgoingSink = outgoingMessages.sink();
+        .addHandler(
+            new MessageHandler(
+                nodeRecordFactory, localNodeRecordStore, validationScheduler, taskScheduler))
+        .addHandler(new BadPacketHandler(metrics));
+    // Only task envelopes go through the outgoing pipeline, sessions send packets directly
     outgoingPipeline
-        .addHandler(new OutgoingParcelHandler(outgoingSink))
         .addHandler(new NodeSessionRequestHandler())
         .addHandler(nodeIdToSession)
         .addHandler(new NewTaskHandler())
-        .addHandler(new NextTaskHandler(outgoingPipeline, taskScheduler));
+        .addHandler(new NextTaskHandler());
+
+    metrics.registerSessionCount(nodeIdToSession::getSessionCount);
+    metrics.registerNodeCounts(
+        () ->
+            nodeTable
+                .streamClosestNodes(Bytes32.ZERO, 0)
+                .collect(
+                    Collectors.groupingBy(
+                        NodeRecordInfo::getStatus, Collectors.summingInt(node -> 1))));
+    metrics.registerBucketSizes(
+        index -> nodeBucketStorage.get(index).map(NodeBucket::size).orElse(0));
+    metrics.registerPipelineQueueDepth("incoming", incomingPipeline::getQueueDepth);
+    metrics.registerPipelineQueueDepth("outgoing", outgoingPipeline::getQueueDepth);
+    PublicKeyCache publicKeyCache = Functions.getPublicKeyCache();
+    metrics.registerPublicKeyCache(publicKeyCache::getHitCount, publicKeyCache::getMissCount);
+
+    if (overloadOptions.isEnabled()) {
+      IncomingPacketClassifier classifier =
+          new IncomingPacketClassifier(
+              homeNodeRecord.getNodeId(), authTagRepo, nodeIdToSession::getSession);
+      PrioritizedIncomingQueue queue =
+          new PrioritizedIncomingQueue(
+              overloadOptions,
+              classifier::classify,
+              incomingPipeline::push,
+              taskScheduler::executeR,
+              metrics);
+      for (PacketPriority priority : PacketPriority.values()) {
+        metrics.registerPipelineQueueDepth(
+            "incoming_" + priority.name().toLowerCase(Locale.ROOT),
+            () -> queue.getQueueSize(priority));
+      }
+      this.incomingPacketConsumer = queue::offer;
+    } else {
+      this.incomingPacketConsumer = incomingPipeline::push;
+    }
   }
 
   @Override
   public CompletableFuture<Void> start() {
     incomingPipeline.build();
     outgoingPipeline.build();
-    Flux.from(discoveryServer.getIncomingPackets()).subscribe(incomingPipeline::push);
-    return discoveryServer
-        .start()
-        .thenAccept(
-            channel -> discoveryClient = new NettyDiscoveryClientImpl(outgoingMessages, channel));
+    Flux.from(discoveryServer.getIncomingPackets()).subscribe(incomingPacketConsumer);
+    return networkFactory
+        .start(discoveryServer, metrics)
+        .thenAccept(client -> discoveryClient = client);
+  }
+
+  private void sendOutgoing(NetworkParcel parcel) {
+    final DiscoveryClient client = this.discoveryClient;
+    if (client == null) {
+      logger.debug("Client is not started, dropping packet to {}", parcel.getDestination());
+      return;
+    }
+    if (outgoingMessages.hasDownstreams()) {
+      outgoingMessagesSink.next(parcel);
+    }
+    client.send(parcel);
+    metrics.onPacketSent(PacketType.of(parcel.getPacket()));
   }
 
   @Override
@@ -154,12 +284,87 @@ public class DiscoveryManagerImpl implements DiscoveryManager {
 
   @Override
   public CompletableFuture<Void> findNodes(NodeRecord nodeRecord, int distance) {
-    return executeTaskImpl(nodeRecord, TaskType.FINDNODE, new TaskOptions(true, distance));
+    CompletableFuture<Void> result = new CompletableFuture<>();
+    findNodes(nodeRecord, Collections.singletonList(distance))
+        .whenComplete(
+            (nodes, error) -> {
+              if (error != null) {
+                result.completeExceptionally(error);
+              } else {
+                result.complete(null);
+              }
+            });
+    return result;
+  }
+
+  /** Identical FINDNODE requests to the same node in flight are sent once */
+  @Override
+  public CompletableFuture<Collection<NodeRecord>> findNodes(
+      NodeRecord nodeRecord, List<Integer> distances) {
+    return findNodes(nodeRecord, distances, Optional.empty());
   }
 
+  /**
+   * Identical FINDNODE requests to the same node in flight are sent once, the timeout of the first
+   * of them applies
+   */
+  @Override
+  public CompletableFuture<Collection<NodeRecord>> findNodes(
+      NodeRecord nodeRecord, List<Integer> distances, Duration timeout) {
+    return findNodes(nodeRecord, distances, Optional.of(timeout));
+  }
+
+  private CompletableFuture<Collection<NodeRecord>> findNodes(
+      NodeRecord nodeRecord, List<Integer> distances, Optional<Duration> timeout) {
+    return requestCoalescer.findNodes(
+        nodeRecord.getNodeId(),
+        distances,
+        () -> {
+          Collection<NodeRecord> foundNodes = new ConcurrentLinkedQueue<>();
+          CompletableFuture<Collection<NodeRecord>> request =
+              executeTaskImpl(
+                      nodeRecord, TaskType.FINDNODE, new TaskOptions(true, distances, foundNodes))
+                  .thenApply(__ -> foundNodes);
+          timeout.ifPresent(
+              delay ->
+                  taskScheduler.executeWithDelayR(
+                      delay, () -> completeOnTimeout(request, foundNodes)));
+          return request;
+        });
+  }
+
+  /**
+   * Some of NODES replies could be lost or the peer could announce more of them than it sends, so
+   * records received so far are returned, request fails only if there are none
+   */
+  private static void completeOnTimeout(
+      CompletableFuture<Collection<NodeRecord>> request, Collection<NodeRecord> foundNodes) {
+    if (foundNodes.isEmpty()) {
+      request.completeExceptionally(new TimeoutException("No nodes received in timeout"));
+    } else {
+      request.complete(List.copyOf(foundNodes));
+    }
+  }
+
+  /**
+   * PING requests to the same node in flight are sent once, successful reply is reused for {@link
+   * #PONG_CACHE_TTL}
+   */
   @Override
   public CompletableFuture<Void> ping(NodeRecord nodeRecord) {
-    return executeTaskImpl(nodeRecord, TaskType.PING, new TaskOptions(true));
+    return requestCoalescer.ping(
+        nodeRecord.getNodeId(),
+        () -> executeTaskImpl(nodeRecord, TaskType.PING, new TaskOptions(true)));
+  }
+
+  @Override
+  public Publisher<NodeRecord> getDiscoveredNodes() {
+    return discoveredNodes;
+  }
+
+  @Override
+  public Publisher<NodeRecord> getVerifiedNodes() {
+    return verifiedNodes;
   }
 
   @VisibleForTesting
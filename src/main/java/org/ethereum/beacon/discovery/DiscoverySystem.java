@@ -3,8 +3,11 @@
  */
 package org.ethereum.beacon.discovery;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -15,9 +18,13 @@ import org.ethereum.beacon.discovery.schema.NodeRecord;
 import org.ethereum.beacon.discovery.schema.NodeRecordInfo;
 import org.ethereum.beacon.discovery.storage.NodeTable;
 import org.ethereum.beacon.discovery.task.DiscoveryTaskManager;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
 
 public class DiscoverySystem {
   private static final Logger LOG = LogManager.getLogger();
+  public static final int NODE_EVENTS_BUFFER_SIZE = 1024;
   private final DiscoveryManager discoveryManager;
   private final DiscoveryTaskManager taskManager;
   private final ExpirationSchedulerFactory expirationSchedulerFactory;
@@ -79,6 +86,19 @@ public class DiscoverySystem {
     return discoveryManager.findNodes(nodeRecord, distance);
   }
 
+  /**
+   * Initiates FINDNODE with node `nodeRecord` for several distances at once
+   *
+   * @param nodeRecord Ethereum Node record
+   * @param distances Distances to search for
+   * @return Future which is completed with all valid node records from the reply when it's
+   *     received or fails in timeout/not successful handshake/bad message exchange.
+   */
+  public CompletableFuture<Collection<NodeRecord>> findNodes(
+      NodeRecord nodeRecord, List<Integer> distances) {
+    return discoveryManager.findNodes(nodeRecord, distances);
+  }
+
   /**
    * Initiates PING with node `nodeRecord`
    *
@@ -98,4 +118,93 @@ public class DiscoverySystem {
   public CompletableFuture<Void> searchForNewPeers() {
     return taskManager.searchForNewPeers();
   }
+
+  /**
+   * Returns known nodes with ENR field `key` matching `predicate`. Fields configured with {@link
+   * DiscoverySystemBuilder#indexFields(String...)} or {@link
+   * DiscoverySystemBuilder#indexBitfields(String...)} are found via index, use {@link
+   * org.ethereum.beacon.discovery.storage.FieldPredicate} for the fastest search. Other fields
+   * require scan of all known nodes.
+   *
+   * @param key ENR field key
+   * @param predicate Predicate over field value, never called for records without the field
+   * @param limit Maximum number of nodes to return, 0 means no limit
+   */
+  public List<NodeRecord> findNodesWithField(String key, Predicate<Object> predicate, int limit) {
+    return nodeTable.findNodesWithField(key, predicate, limit).stream()
+        .map(NodeRecordInfo::getNode)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Same as {@link #findNodesWithField(String, Predicate, int)}, but if there are not enough known
+   * matching nodes, performs lookups for new nodes until `limit` matching nodes are found or
+   * lookups limit is reached.
+   *
+   * @return Future with up to `limit` nodes having field matching predicate
+   */
+  public CompletableFuture<List<NodeRecord>> searchForNodesWithField(
+      String key, Predicate<Object> predicate, int limit) {
+    return taskManager.searchForNodesWithField(key, predicate, limit);
+  }
+
+  /**
+   * Performs iterative Kademlia lookup for the nodes closest to `targetNodeId`. Concurrent lookups
+   * for the same target share the same network queries, number of lookups executed at once is
+   * limited, the rest are queued.
+   *
+   * @param targetNodeId Node id to search nodes around, doesn't need to be the id of existing node
+   * @param k Maximum number of nodes to return
+   * @return Future with up to k nodes which replied during the lookup ordered by XOR distance to
+   *     the target, the target node itself comes first if it was found.
+   */
+  public CompletableFuture<List<NodeRecord>> lookup(Bytes targetNodeId, int k) {
+    return taskManager.lookup(targetNodeId, k);
+  }
+
+  /**
+   * Stream of node records received from other nodes which were not known before. Records are
+   * emitted as soon as they are stored in the node table, so there is no need to rescan the table
+   * with {@link #streamKnownNodes()}. Records are delivered on discovery threads, consumers doing
+   * any heavy work should switch to their own scheduler with {@link Flux#publishOn}. When consumer
+   * falls behind by more than {@link #NODE_EVENTS_BUFFER_SIZE} records, the oldest are dropped.
+   */
+  public Flux<NodeRecord> streamDiscoveredNodes() {
+    return streamNodeEvents(discoveryManager.getDiscoveredNodes());
+  }
+
+  /**
+   * Same as {@link #streamDiscoveredNodes()}, only records matching the filter are emitted
+   *
+   * @param filter Node record filter, like presence of required ENR field
+   */
+  public Flux<NodeRecord> streamDiscoveredNodes(Predicate<NodeRecord> filter) {
+    return streamDiscoveredNodes().filter(filter);
+  }
+
+  /**
+   * Stream of node records which just became live: node replied to our request while it was
+   * unknown or not considered live before. Delivery details are the same as for {@link
+   * #streamDiscoveredNodes()}
+   */
+  public Flux<NodeRecord> streamVerifiedNodes() {
+    return streamNodeEvents(discoveryManager.getVerifiedNodes());
+  }
+
+  /**
+   * Same as {@link #streamVerifiedNodes()}, only records matching the filter are emitted
+   *
+   * @param filter Node record filter, like presence of required ENR field
+   */
+  public Flux<NodeRecord> streamVerifiedNodes(Predicate<NodeRecord> filter) {
+    return streamVerifiedNodes().filter(filter);
+  }
+
+  private Flux<NodeRecord> streamNodeEvents(Publisher<NodeRecord> events) {
+    return Flux.from(events)
+        .onBackpressureBuffer(
+            NODE_EVENTS_BUFFER_SIZE,
+            nodeRecord -> LOG.debug("Node event dropped, consumer is too slow: " + nodeRecord),
+            BufferOverflowStrategy.DROP_OLDEST);
+  }
 }
@@ -6,30 +6,39 @@ package org.ethereum.beacon.discovery;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.util.Arrays.asList;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.net.InetSocketAddress;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.Executors;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.tuweni.bytes.Bytes;
 import org.ethereum.beacon.discovery.database.Database;
+import org.ethereum.beacon.discovery.metrics.DiscoveryMetrics;
+import org.ethereum.beacon.discovery.network.AdmissionOptions;
+import org.ethereum.beacon.discovery.network.DiscoveryNetworkFactory;
+import org.ethereum.beacon.discovery.network.OverloadOptions;
 import org.ethereum.beacon.discovery.scheduler.ExpirationSchedulerFactory;
 import org.ethereum.beacon.discovery.scheduler.Schedulers;
 import org.ethereum.beacon.discovery.schema.NodeRecord;
 import org.ethereum.beacon.discovery.schema.NodeRecordFactory;
+import org.ethereum.beacon.discovery.schema.NodeSession;
 import org.ethereum.beacon.discovery.storage.LocalNodeRecordStore;
 import org.ethereum.beacon.discovery.storage.NodeBucketStorage;
 import org.ethereum.beacon.discovery.storage.NodeBucketStorageImpl;
+import org.ethereum.beacon.discovery.storage.NodeFieldIndex;
 import org.ethereum.beacon.discovery.storage.NodeSerializerFactory;
 import org.ethereum.beacon.discovery.storage.NodeTable;
 import org.ethereum.beacon.discovery.storage.NodeTableStorage;
 import org.ethereum.beacon.discovery.storage.NodeTableStorageFactory;
 import org.ethereum.beacon.discovery.storage.NodeTableStorageFactoryImpl;
 import org.ethereum.beacon.discovery.task.DiscoveryTaskManager;
+import org.ethereum.beacon.discovery.task.LivenessOptions;
+import org.ethereum.beacon.discovery.task.LookupOptions;
+import org.ethereum.beacon.discovery.util.EphemeralKeyPool;
 
 public class DiscoverySystemBuilder {
   private static final AtomicInteger COUNTER = new AtomicInteger();
@@ -40,6 +49,16 @@ public class DiscoverySystemBuilder {
   private final NodeRecordFactory nodeRecordFactory = NodeRecordFactory.DEFAULT;
   private Database database;
   private Schedulers schedulers;
+  private LookupOptions lookupOptions = LookupOptions.DEFAULT;
+  private LivenessOptions livenessOptions = LivenessOptions.DEFAULT;
+  private int maxRequestsInFlightPerNode = NodeSession.DEFAULT_MAX_REQUESTS_IN_FLIGHT;
+  private AdmissionOptions admissionOptions = AdmissionOptions.DEFAULT;
+  private boolean statelessChallenge = false;
+  private OverloadOptions overloadOptions = OverloadOptions.DEFAULT;
+  private DiscoveryMetrics metrics = DiscoveryMetrics.NOOP;
+  private DiscoveryNetworkFactory networkFactory = DiscoveryNetworkFactory.NETTY;
+  private final Set<String> indexedFields = new HashSet<>();
+  private final Set<String> indexedBitfields = new HashSet<>();
 
   public DiscoverySystemBuilder localNodeRecord(final NodeRecord localNodeRecord) {
     this.localNodeRecord = localNodeRecord;
@@ -80,6 +99,80 @@ public class DiscoverySystemBuilder {
     return this;
   }
 
+  public DiscoverySystemBuilder lookupOptions(final LookupOptions lookupOptions) {
+    this.lookupOptions = lookupOptions;
+    return this;
+  }
+
+  public DiscoverySystemBuilder livenessOptions(final LivenessOptions livenessOptions) {
+    this.livenessOptions = livenessOptions;
+    return this;
+  }
+
+  /**
+   * Maximum number of requests to a single node awaiting reply, requests over the limit are sent as
+   * replies come
+   */
+  public DiscoverySystemBuilder maxRequestsInFlightPerNode(final int maxRequestsInFlightPerNode) {
+    this.maxRequestsInFlightPerNode = maxRequestsInFlightPerNode;
+    return this;
+  }
+
+  /** Limits of incoming packet rates per sender and in total */
+  public DiscoverySystemBuilder admissionOptions(final AdmissionOptions admissionOptions) {
+    this.admissionOptions = admissionOptions;
+    return this;
+  }
+
+  /**
+   * Answers packets of unknown senders with WHOAREYOU without creating a session until the
+   * challenge is answered. Keeps memory of busy nodes like bootnodes independent of spoofed
+   * traffic, off by default.
+   */
+  public DiscoverySystemBuilder statelessChallenge(final boolean statelessChallenge) {
+    this.statelessChallenge = statelessChallenge;
+    return this;
+  }
+
+  /**
+   * Queue thresholds and weights of incoming packets, so replies to our requests are handled
+   * before unsolicited packets under load
+   */
+  public DiscoverySystemBuilder overloadOptions(final OverloadOptions overloadOptions) {
+    this.overloadOptions = overloadOptions;
+    return this;
+  }
+
+  /**
+   * Metrics receiver, see {@link org.ethereum.beacon.discovery.metrics.PrometheusDiscoveryMetrics}.
+   * Metrics are not collected by default.
+   */
+  public DiscoverySystemBuilder metrics(final DiscoveryMetrics metrics) {
+    this.metrics = metrics;
+    return this;
+  }
+
+  /** Transport of discovery packets, UDP sockets by default */
+  public DiscoverySystemBuilder networkFactory(final DiscoveryNetworkFactory networkFactory) {
+    this.networkFactory = networkFactory;
+    return this;
+  }
+
+  /** ENR fields indexed by value for {@link DiscoverySystem#findNodesWithField} */
+  public DiscoverySystemBuilder indexFields(final String... keys) {
+    indexedFields.addAll(asList(keys));
+    return this;
+  }
+
+  /**
+   * ENR bitfields indexed by each set bit for {@link DiscoverySystem#findNodesWithField} with
+   * {@link org.ethereum.beacon.discovery.storage.FieldPredicate#intersects(Bytes)}
+   */
+  public DiscoverySystemBuilder indexBitfields(final String... keys) {
+    indexedBitfields.addAll(asList(keys));
+    return this;
+  }
+
   public DiscoverySystem build() {
     checkNotNull(localNodeRecord, "Missing local node record");
     checkNotNull(privateKey, "Missing private key");
@@ -91,7 +184,11 @@ public class DiscoverySystemBuilder {
     final NodeSerializerFactory serializerFactory = new NodeSerializerFactory(nodeRecordFactory);
     final NodeTableStorage nodeTableStorage =
         nodeTableStorageFactory.createTable(
-            database, serializerFactory, oldSeq -> localNodeRecord, () -> bootnodes);
+            database,
+            serializerFactory,
+            oldSeq -> localNodeRecord,
+            () -> bootnodes,
+            new NodeFieldIndex(indexedFields, indexedBitfields));
     final NodeTable nodeTable = nodeTableStorage.get();
     if (schedulers == null) {
       schedulers = Schedulers.createDefault();
@@ -103,8 +200,7 @@ public class DiscoverySystemBuilder {
         new LocalNodeRecordStore(localNodeRecord, privateKey);
     final ExpirationSchedulerFactory expirationSchedulerFactory =
         new ExpirationSchedulerFactory(
-            Executors.newSingleThreadScheduledExecutor(
-                new ThreadFactoryBuilder().setNameFormat("discovery-expiration-%d").build()));
+            schedulers.newSingleThreadScheduledExecutor("discovery-expiration-%d"));
     final DiscoveryManager discoveryManager =
         new DiscoveryManagerImpl(
             listenAddress,
@@ -114,7 +210,15 @@ public class DiscoverySystemBuilder {
             privateKey,
             nodeRecordFactory,
             schedulers.newSingleThreadDaemon("discovery-client-" + clientNumber),
-            expirationSchedulerFactory);
+            schedulers.cpuHeavy(),
+            expirationSchedulerFactory,
+            new EphemeralKeyPool(EphemeralKeyPool.DEFAULT_SIZE, schedulers.cpuHeavy()),
+            maxRequestsInFlightPerNode,
+            admissionOptions,
+            statelessChallenge,
+            overloadOptions,
+            metrics,
+            networkFactory);
 
     final DiscoveryTaskManager discoveryTaskManager =
         new DiscoveryTaskManager(
@@ -125,6 +229,8 @@ public class DiscoverySystemBuilder {
             schedulers.newSingleThreadDaemon("discovery-tasks-" + clientNumber),
             true,
             true,
+            lookupOptions,
+            livenessOptions,
             expirationSchedulerFactory);
     return new DiscoverySystem(
         discoveryManager, discoveryTaskManager, expirationSchedulerFactory, nodeTable, bootnodes);
@@ -4,18 +4,13 @@
 
 package org.ethereum.beacon.discovery.message;
 
-import java.util.List;
 import org.apache.tuweni.bytes.Bytes;
 import org.ethereum.beacon.discovery.schema.NodeRecordFactory;
 import org.ethereum.beacon.discovery.schema.Protocol;
-import org.web3j.rlp.RlpDecoder;
-import org.web3j.rlp.RlpList;
-import org.web3j.rlp.RlpString;
-import org.web3j.rlp.RlpType;
+import org.ethereum.beacon.discovery.util.RlpReader;
 
 public class DiscoveryV5Message implements DiscoveryMessage {
   private final Bytes bytes;
-  private List<RlpType> payload = null;
 
   public DiscoveryV5Message(Bytes bytes) {
     this.bytes = bytes;
@@ -39,21 +34,17 @@ public class DiscoveryV5Message implements DiscoveryMessage {
     return MessageCode.fromNumber(getBytes().get(0));
   }
 
-  private synchronized void decode() {
-    if (payload != null) {
-      return;
-    }
-    this.payload =
-        ((RlpList) RlpDecoder.decode(getBytes().slice(1).toArray()).getValues().get(0)).getValues();
+  /** Creates fresh reader over message-data list, it's cheap as reader doesn't copy bytes */
+  private RlpReader payload() {
+    return RlpReader.create(getBytes().slice(1)).readList();
   }
 
   public Bytes getRequestId() {
-    decode();
-    return Bytes.wrap(((RlpString) payload.get(0)).getBytes());
+    return payload().readBytes();
   }
 
   public V5Message create(NodeRecordFactory nodeRecordFactory) {
-    decode();
+    RlpReader payload = payload();
     MessageCode code = MessageCode.fromNumber(getBytes().get(0));
     switch (code) {
       case PING:
@@ -4,35 +4,69 @@
 
 package org.ethereum.beacon.discovery.message;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import com.google.common.base.Objects;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import org.apache.tuweni.bytes.Bytes;
-import org.web3j.rlp.RlpEncoder;
-import org.web3j.rlp.RlpList;
-import org.web3j.rlp.RlpString;
-import org.web3j.rlp.RlpType;
+import org.ethereum.beacon.discovery.util.RlpReader;
+import org.ethereum.beacon.discovery.util.RlpWriter;
 
 /**
  * FINDNODE queries for nodes at the given logarithmic distance from the recipient's node ID. The
  * node IDs of all nodes in the response must have a shared prefix length of distance with the
  * recipient's node ID. A request with distance 0 should return the recipient's current record as
  * the only result.
+ *
+ * <p>Up to {@link #MAX_DISTANCES} distances could be requested at once, in this case they are
+ * encoded as a list and the recipient answers with nodes from all requested buckets. Single
+ * distance is encoded as a plain number, so such requests stay compatible with peers supporting
+ * only one distance.
  */
 public class FindNodeMessage implements V5Message {
+  /** Max number of distances in one request, each is answered with the whole bucket */
+  public static final int MAX_DISTANCES = 3;
+
   // Unique request id
   private final Bytes requestId;
-  // The requested log2 distance, a positive integer
-  private final Integer distance;
+  // The requested log2 distances, positive integers
+  private final List<Integer> distances;
 
   public FindNodeMessage(Bytes requestId, Integer distance) {
+    this(requestId, Collections.singletonList(distance));
+  }
+
+  public FindNodeMessage(Bytes requestId, List<Integer> distances) {
+    checkArgument(
+        !distances.isEmpty(),
+        "At least one distance should be requested, request id %s",
+        requestId);
+    checkArgument(
+        distances.size() <= MAX_DISTANCES,
+        "Too many distances requested: %s, request id %s",
+        distances.size(),
+        requestId);
     this.requestId = requestId;
-    this.distance = distance;
+    this.distances = distances;
   }
 
-  public static FindNodeMessage fromRlp(List<RlpType> rlpList) {
-    return new FindNodeMessage(
-        Bytes.wrap(((RlpString) rlpList.get(0)).getBytes()),
-        ((RlpString) rlpList.get(1)).asPositiveBigInteger().intValueExact());
+  public static FindNodeMessage fromRlp(RlpReader rlpList) {
+    Bytes requestId = rlpList.readBytes();
+    if (!rlpList.isNextList()) {
+      return new FindNodeMessage(requestId, rlpList.readInt());
+    }
+    List<Integer> distances = new ArrayList<>();
+    RlpReader distancesReader = rlpList.readList();
+    while (distancesReader.hasNext()) {
+      checkArgument(
+          distances.size() < MAX_DISTANCES,
+          "Too many distances requested, request id %s",
+          requestId);
+      distances.add(distancesReader.readInt());
+    }
+    return new FindNodeMessage(requestId, distances);
   }
 
   @Override
@@ -40,17 +74,37 @@ public class FindNodeMessage implements V5Message {
     return requestId;
   }
 
+  /** First of the requested distances, the only one for single distance request */
   public Integer getDistance() {
-    return distance;
+    return distances.get(0);
+  }
+
+  public List<Integer> getDistances() {
+    return distances;
   }
 
   @Override
   public Bytes getBytes() {
-    return Bytes.concatenate(
-        Bytes.of(MessageCode.FINDNODE.byteCode()),
-        Bytes.wrap(
-            RlpEncoder.encode(
-                new RlpList(RlpString.create(requestId.toArray()), RlpString.create(distance)))));
+    int distancesSize = 0;
+    for (int distance : distances) {
+      distancesSize += RlpWriter.sizeOfLong(distance);
+    }
+    boolean single = distances.size() == 1;
+    int payloadSize =
+        RlpWriter.sizeOfBytes(requestId)
+            + (single ? distancesSize : RlpWriter.sizeOfList(distancesSize));
+    RlpWriter writer =
+        RlpWriter.create(1 + RlpWriter.sizeOfList(payloadSize))
+            .writeByte(MessageCode.FINDNODE.byteCode())
+            .writeListHeader(payloadSize)
+            .writeBytes(requestId);
+    if (!single) {
+      writer.writeListHeader(distancesSize);
+    }
+    for (int distance : distances) {
+      writer.writeLong(distance);
+    }
+    return writer.toBytes();
   }
 
   @Override
@@ -58,16 +112,16 @@ public class FindNodeMessage implements V5Message {
     if (this == o) return true;
     if (o == null || getClass() != o.getClass()) return false;
     FindNodeMessage that = (FindNodeMessage) o;
-    return Objects.equal(requestId, that.requestId) && Objects.equal(distance, that.distance);
+    return Objects.equal(requestId, that.requestId) && Objects.equal(distances, that.distances);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hashCode(requestId, distance);
+    return Objects.hashCode(requestId, distances);
   }
 
   @Override
   public String toString() {
-    return "FindNodeMessage{" + "requestId=" + requestId + ", distance=" + distance + '}';
+    return "FindNodeMessage{" + "requestId=" + requestId + ", distances=" + distances + '}';
   }
 }
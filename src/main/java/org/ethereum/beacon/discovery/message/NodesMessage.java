@@ -4,23 +4,42 @@
 
 package org.ethereum.beacon.discovery.message;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import com.google.common.base.Objects;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.apache.tuweni.bytes.Bytes;
 import org.ethereum.beacon.discovery.schema.NodeRecord;
 import org.ethereum.beacon.discovery.schema.NodeRecordFactory;
-import org.web3j.rlp.RlpEncoder;
-import org.web3j.rlp.RlpList;
-import org.web3j.rlp.RlpString;
-import org.web3j.rlp.RlpType;
+import org.ethereum.beacon.discovery.util.RlpReader;
+import org.ethereum.beacon.discovery.util.RlpWriter;
 
 /**
  * NODES is the response to a FINDNODE or TOPICQUERY message. Multiple NODES messages may be sent as
  * responses to a single query.
  */
 public class NodesMessage implements V5Message {
+  /**
+   * The maximum size of any packet is 1280 bytes. Implementations should not generate or process
+   * packets larger than this size. A NODES message containing all FINDNODE response records would
+   * not fit into it, so NODES responses are sent as multiple messages and specify the total number
+   * of responses in the message.
+   */
+  public static final int MAX_PACKET_SIZE = 1280;
+
+  /** Request id is at most 8 bytes */
+  public static final int MAX_REQUEST_ID_SIZE = 8;
+
+  /** Max size of message-pt: packet without tag, RLP of 12 bytes auth-tag and AES-GCM tag */
+  public static final int MAX_MESSAGE_SIZE = MAX_PACKET_SIZE - 32 - 13 - 16;
+
+  // Responses are encoded before request is known, so request id of the max size is assumed
+  private static final int MAX_REQUEST_ID_RLP_SIZE =
+      RlpWriter.sizeOfBytes(Bytes.wrap(new byte[MAX_REQUEST_ID_SIZE]));
+
   // Unique request id
   private final Bytes requestId;
   // Total number of responses to the request
@@ -29,6 +48,8 @@ public class NodesMessage implements V5Message {
   private final Supplier<List<NodeRecord>> nodeRecordsSupplier;
   // Size of nodes in current response
   private final Integer nodeRecordsSize;
+  // Records as received, null if the message is not parsed from RLP
+  private final List<Bytes> encodedNodeRecords;
   private List<NodeRecord> nodeRecords = null;
 
   public NodesMessage(
@@ -36,22 +57,38 @@ public class NodesMessage implements V5Message {
       Integer total,
       Supplier<List<NodeRecord>> nodeRecordsSupplier,
       Integer nodeRecordsSize) {
+    this(requestId, total, nodeRecordsSupplier, nodeRecordsSize, null);
+  }
+
+  private NodesMessage(
+      Bytes requestId,
+      Integer total,
+      Supplier<List<NodeRecord>> nodeRecordsSupplier,
+      Integer nodeRecordsSize,
+      List<Bytes> encodedNodeRecords) {
     this.requestId = requestId;
     this.total = total;
     this.nodeRecordsSupplier = nodeRecordsSupplier;
     this.nodeRecordsSize = nodeRecordsSize;
+    this.encodedNodeRecords = encodedNodeRecords;
   }
 
-  public static NodesMessage fromRlp(List<RlpType> rlpList, NodeRecordFactory nodeRecordFactory) {
-    RlpList nodeRecords = (RlpList) rlpList.get(2);
+  public static NodesMessage fromRlp(RlpReader rlpList, NodeRecordFactory nodeRecordFactory) {
+    Bytes requestId = rlpList.readBytes();
+    int total = rlpList.readInt();
+    // Records are kept as raw slices and decoded only when requested
+    List<Bytes> nodeRecords = new ArrayList<>();
+    RlpReader nodeRecordsReader = rlpList.readList();
+    while (nodeRecordsReader.hasNext()) {
+      nodeRecords.add(nodeRecordsReader.readRaw());
+    }
     return new NodesMessage(
-        Bytes.wrap(((RlpString) rlpList.get(0)).getBytes()),
-        ((RlpString) rlpList.get(1)).asPositiveBigInteger().intValueExact(),
+        requestId,
+        total,
         () ->
-            nodeRecords.getValues().stream()
-                .map(rl -> nodeRecordFactory.fromRlpList((RlpList) rl))
-                .collect(Collectors.toList()),
-        nodeRecords.getValues().size());
+            nodeRecords.stream().map(nodeRecordFactory::fromBytes).collect(Collectors.toList()),
+        nodeRecords.size(),
+        nodeRecords);
   }
 
   @Override
@@ -70,23 +107,141 @@ public class NodesMessage implements V5Message {
     return nodeRecords;
   }
 
+  /**
+   * Encoded records, as they were received, so they could be filtered before decoding with {@link
+   * NodeRecordFactory#fromBytes(Bytes)}
+   */
+  public List<Bytes> getEncodedNodeRecords() {
+    if (encodedNodeRecords != null) {
+      return encodedNodeRecords;
+    }
+    return getNodeRecords().stream().map(NodeRecord::serialize).collect(Collectors.toList());
+  }
+
   public Integer getNodeRecordsSize() {
     return nodeRecordsSize;
   }
 
+  /**
+   * Packs records into as few NODES responses as possible using their actual encoded sizes, each
+   * fits into {@link #MAX_PACKET_SIZE} with any request id. Responses are encoded without request
+   * id, so the result could be reused for any request with {@link #withRequestId(Bytes, Bytes)}. At
+   * least one response is returned, even for empty records.
+   */
+  public static List<Bytes> encodeResponses(List<NodeRecord> nodeRecords) {
+    // Number of responses is not known before packing, but it's not more than number of records
+    int totalSize = RlpWriter.sizeOfLong(Math.max(1, nodeRecords.size()));
+    List<List<NodeRecord>> packed = new ArrayList<>();
+    List<NodeRecord> records = new ArrayList<>();
+    int recordsSize = 0;
+    for (NodeRecord record : nodeRecords) {
+      int recordSize = record.serialize().size();
+      if (!records.isEmpty()
+          && messageSize(totalSize, recordsSize + recordSize) > MAX_MESSAGE_SIZE) {
+        packed.add(records);
+        records = new ArrayList<>();
+        recordsSize = 0;
+      }
+      records.add(record);
+      recordsSize += recordSize;
+    }
+    packed.add(records);
+
+    int total = packed.size();
+    List<Bytes> responses = new ArrayList<>(total);
+    for (List<NodeRecord> response : packed) {
+      int responseRecordsSize = recordsSize(response);
+      RlpWriter writer =
+          RlpWriter.create(RlpWriter.sizeOfLong(total) + RlpWriter.sizeOfList(responseRecordsSize))
+              .writeLong(total)
+              .writeListHeader(responseRecordsSize);
+      writeRecords(writer, response);
+      responses.add(writer.toBytes());
+    }
+    return responses;
+  }
+
+  /** Size of NODES message-pt with request id of the max size */
+  private static int messageSize(int totalSize, int recordsSize) {
+    return 1
+        + RlpWriter.sizeOfList(
+            MAX_REQUEST_ID_RLP_SIZE + totalSize + RlpWriter.sizeOfList(recordsSize));
+  }
+
+  /**
+   * Completes response encoded with {@link #encodeResponses(List)}, returns the same as {@link
+   * #getBytes()}
+   */
+  public static Bytes withRequestId(Bytes requestId, Bytes encodedResponse) {
+    checkArgument(requestId.size() <= MAX_REQUEST_ID_SIZE, "Request id is too long: %s", requestId);
+    int payloadSize = RlpWriter.sizeOfBytes(requestId) + encodedResponse.size();
+    return RlpWriter.create(1 + RlpWriter.sizeOfList(payloadSize))
+        .writeByte(MessageCode.NODES.byteCode())
+        .writeListHeader(payloadSize)
+        .writeBytes(requestId)
+        .writeRaw(encodedResponse)
+        .toBytes();
+  }
+
+  /**
+   * Same as {@link #withRequestId(Bytes, Bytes)} but with the total number of responses replaced,
+   * so responses encoded separately could be sent to one request
+   */
+  public static Bytes withRequestId(Bytes requestId, int total, Bytes encodedResponse) {
+    checkArgument(requestId.size() <= MAX_REQUEST_ID_SIZE, "Request id is too long: %s", requestId);
+    RlpReader reader = RlpReader.create(encodedResponse);
+    reader.skip();
+    Bytes encodedRecords = encodedResponse.slice(reader.position());
+    int payloadSize =
+        RlpWriter.sizeOfBytes(requestId) + RlpWriter.sizeOfLong(total) + encodedRecords.size();
+    return RlpWriter.create(1 + RlpWriter.sizeOfList(payloadSize))
+        .writeByte(MessageCode.NODES.byteCode())
+        .writeListHeader(payloadSize)
+        .writeBytes(requestId)
+        .writeLong(total)
+        .writeRaw(encodedRecords)
+        .toBytes();
+  }
+
+  /** Whether response encoded with {@link #encodeResponses(List)} has no records */
+  public static boolean isEmptyResponse(Bytes encodedResponse) {
+    RlpReader reader = RlpReader.create(encodedResponse);
+    reader.skip();
+    return !reader.readList().hasNext();
+  }
+
+  private static int recordsSize(List<NodeRecord> records) {
+    int recordsSize = 0;
+    for (NodeRecord record : records) {
+      recordsSize += record.serialize().size();
+    }
+    return recordsSize;
+  }
+
+  private static void writeRecords(RlpWriter writer, List<NodeRecord> records) {
+    // Records are spliced in with their cached encoding
+    for (NodeRecord record : records) {
+      writer.writeRaw(record.serialize());
+    }
+  }
+
   @Override
   public Bytes getBytes() {
-    return Bytes.concatenate(
-        Bytes.of(MessageCode.NODES.byteCode()),
-        Bytes.wrap(
-            RlpEncoder.encode(
-                new RlpList(
-                    RlpString.create(requestId.toArray()),
-                    RlpString.create(total),
-                    new RlpList(
-                        getNodeRecords().stream()
-                            .map(NodeRecord::asRlp)
-                            .collect(Collectors.toList()))))));
+    List<NodeRecord> records = getNodeRecords();
+    int recordsSize = recordsSize(records);
+    int payloadSize =
+        RlpWriter.sizeOfBytes(requestId)
+            + RlpWriter.sizeOfLong(total)
+            + RlpWriter.sizeOfList(recordsSize);
+    RlpWriter writer =
+        RlpWriter.create(1 + RlpWriter.sizeOfList(payloadSize))
+            .writeByte(MessageCode.NODES.byteCode())
+            .writeListHeader(payloadSize)
+            .writeBytes(requestId)
+            .writeLong(total)
+            .writeListHeader(recordsSize);
+    writeRecords(writer, records);
+    return writer.toBytes();
   }
 
   @Override
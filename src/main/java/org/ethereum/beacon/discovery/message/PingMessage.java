@@ -5,14 +5,10 @@
 package org.ethereum.beacon.discovery.message;
 
 import com.google.common.base.Objects;
-import java.util.List;
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.units.bigints.UInt64;
-import org.ethereum.beacon.discovery.util.Utils;
-import org.web3j.rlp.RlpEncoder;
-import org.web3j.rlp.RlpList;
-import org.web3j.rlp.RlpString;
-import org.web3j.rlp.RlpType;
+import org.ethereum.beacon.discovery.util.RlpReader;
+import org.ethereum.beacon.discovery.util.RlpWriter;
 
 /**
  * PING checks whether the recipient is alive and informs it about the sender's ENR sequence number.
@@ -28,10 +24,8 @@ public class PingMessage implements V5Message {
     this.enrSeq = enrSeq;
   }
 
-  public static PingMessage fromRlp(List<RlpType> rlpList) {
-    return new PingMessage(
-        Bytes.wrap(((RlpString) rlpList.get(0)).getBytes()),
-        UInt64.fromBytes(Utils.leftPad(Bytes.wrap(((RlpString) rlpList.get(1)).getBytes()), 8)));
+  public static PingMessage fromRlp(RlpReader rlpList) {
+    return new PingMessage(rlpList.readBytes(), rlpList.readUInt64());
   }
 
   @Override
@@ -45,13 +39,13 @@ public class PingMessage implements V5Message {
 
   @Override
   public Bytes getBytes() {
-    return Bytes.concatenate(
-        Bytes.of(MessageCode.PING.byteCode()),
-        Bytes.wrap(
-            RlpEncoder.encode(
-                new RlpList(
-                    RlpString.create(requestId.toArray()),
-                    RlpString.create(enrSeq.toBigInteger())))));
+    int payloadSize = RlpWriter.sizeOfBytes(requestId) + RlpWriter.sizeOfUInt64(enrSeq);
+    return RlpWriter.create(1 + RlpWriter.sizeOfList(payloadSize))
+        .writeByte(MessageCode.PING.byteCode())
+        .writeListHeader(payloadSize)
+        .writeBytes(requestId)
+        .writeUInt64(enrSeq)
+        .toBytes();
   }
 
   @Override
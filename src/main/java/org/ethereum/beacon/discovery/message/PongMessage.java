@@ -5,14 +5,10 @@
 package org.ethereum.beacon.discovery.message;
 
 import com.google.common.base.Objects;
-import java.util.List;
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.units.bigints.UInt64;
-import org.ethereum.beacon.discovery.util.Utils;
-import org.web3j.rlp.RlpEncoder;
-import org.web3j.rlp.RlpList;
-import org.web3j.rlp.RlpString;
-import org.web3j.rlp.RlpType;
+import org.ethereum.beacon.discovery.util.RlpReader;
+import org.ethereum.beacon.discovery.util.RlpWriter;
 
 /** PONG is the reply to PING {@link PingMessage} */
 public class PongMessage implements V5Message {
@@ -32,12 +28,9 @@ public class PongMessage implements V5Message {
     this.recipientPort = recipientPort;
   }
 
-  public static PongMessage fromRlp(List<RlpType> rlpList) {
+  public static PongMessage fromRlp(RlpReader rlpList) {
     return new PongMessage(
-        Bytes.wrap(((RlpString) rlpList.get(0)).getBytes()),
-        UInt64.fromBytes(Utils.leftPad(Bytes.wrap(((RlpString) rlpList.get(1)).getBytes()), 8)),
-        Bytes.wrap(((RlpString) rlpList.get(2)).getBytes()),
-        ((RlpString) rlpList.get(3)).asPositiveBigInteger().intValueExact());
+        rlpList.readBytes(), rlpList.readUInt64(), rlpList.readBytes(), rlpList.readInt());
   }
 
   @Override
@@ -59,15 +52,19 @@ public class PongMessage implements V5Message {
 
   @Override
   public Bytes getBytes() {
-    return Bytes.concatenate(
-        Bytes.of(MessageCode.PONG.byteCode()),
-        Bytes.wrap(
-            RlpEncoder.encode(
-                new RlpList(
-                    RlpString.create(requestId.toArray()),
-                    RlpString.create(enrSeq.toBigInteger()),
-                    RlpString.create(recipientIp.toArray()),
-                    RlpString.create(recipientPort)))));
+    int payloadSize =
+        RlpWriter.sizeOfBytes(requestId)
+            + RlpWriter.sizeOfUInt64(enrSeq)
+            + RlpWriter.sizeOfBytes(recipientIp)
+            + RlpWriter.sizeOfLong(recipientPort);
+    return RlpWriter.create(1 + RlpWriter.sizeOfList(payloadSize))
+        .writeByte(MessageCode.PONG.byteCode())
+        .writeListHeader(payloadSize)
+        .writeBytes(requestId)
+        .writeUInt64(enrSeq)
+        .writeBytes(recipientIp)
+        .writeLong(recipientPort)
+        .toBytes();
   }
 
   @Override
@@ -4,78 +4,74 @@
 
 package org.ethereum.beacon.discovery.message.handler;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
+import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes;
 import org.ethereum.beacon.discovery.message.DiscoveryV5Message;
 import org.ethereum.beacon.discovery.message.FindNodeMessage;
 import org.ethereum.beacon.discovery.message.NodesMessage;
 import org.ethereum.beacon.discovery.packet.MessagePacket;
-import org.ethereum.beacon.discovery.schema.NodeRecord;
-import org.ethereum.beacon.discovery.schema.NodeRecordInfo;
 import org.ethereum.beacon.discovery.schema.NodeSession;
-import org.ethereum.beacon.discovery.storage.NodeBucket;
 
 public class FindNodeHandler implements MessageHandler<FindNodeMessage> {
   private static final Logger logger = LogManager.getLogger(FindNodeHandler.class);
-  /**
-   * The maximum size of any packet is 1280 bytes. Implementations should not generate or process
-   * packets larger than this size. As per specification the maximum size of an ENR is 300 bytes. A
-   * NODES message containing all FINDNODE response records would be at least 4800 bytes, not
-   * including additional data such as the header. To stay below the size limit, NODES responses are
-   * sent as multiple messages and specify the total number of responses in the message. 4х300 =
-   * 1200 and we always have 80 bytes for everything else.
-   */
-  private static final int MAX_NODES_PER_MESSAGE = 4;
 
   public FindNodeHandler() {}
 
   @Override
   public void handle(FindNodeMessage message, NodeSession session) {
-    Optional<NodeBucket> nodeBucketOptional = session.getBucket(message.getDistance());
-    List<List<NodeRecord>> nodeRecordsList = new ArrayList<>();
-    int total = 0;
-
-    // Repack to lists of MAX_NODES_PER_MESSAGE size
-    List<NodeRecordInfo> bucketRecords =
-        nodeBucketOptional.isPresent()
-            ? nodeBucketOptional.get().getNodeRecords()
-            : Collections.emptyList();
-    for (NodeRecordInfo nodeRecordInfo : bucketRecords) {
-      if (total % MAX_NODES_PER_MESSAGE == 0) {
-        nodeRecordsList.add(new ArrayList<>());
-      }
-      List<NodeRecord> currentList = nodeRecordsList.get(nodeRecordsList.size() - 1);
-      currentList.add(nodeRecordInfo.getNode());
-      ++total;
-    }
+    List<Bytes> responses =
+        message.getDistances().size() == 1
+            // Responses are pre-encoded by bucket storage, only request id is added here
+            ? withRequestId(
+                message.getRequestId(), session.getNodesResponses(message.getDistance()))
+            : collectResponses(message, session);
     logger.trace(
         () ->
             String.format(
-                "Sending %s nodes in reply to request with distance %s in session %s",
-                bucketRecords.size(), message.getDistance(), session));
+                "Sending %s NODES messages in reply to request with distances %s in session %s",
+                responses.size(), message.getDistances(), session));
 
     // Send
-    if (nodeRecordsList.isEmpty()) {
-      nodeRecordsList.add(Collections.emptyList());
-    }
-    int finalTotal = total;
-    nodeRecordsList.forEach(
-        recordsList ->
+    responses.forEach(
+        response ->
             session.sendOutgoing(
                 MessagePacket.create(
                     session.getHomeNodeId(),
                     session.getNodeId(),
                     session.getAuthTag().orElseThrow(),
                     session.getInitiatorKey(),
-                    DiscoveryV5Message.from(
-                        new NodesMessage(
-                            message.getRequestId(),
-                            finalTotal,
-                            () -> recordsList,
-                            recordsList.size())))));
+                    new DiscoveryV5Message(response))));
+  }
+
+  private List<Bytes> withRequestId(Bytes requestId, List<Bytes> responses) {
+    return responses.stream()
+        .map(response -> NodesMessage.withRequestId(requestId, response))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Joins pre-encoded responses of the requested buckets, total number of responses is replaced in
+   * each of them. Responses without records are dropped unless all buckets are empty.
+   */
+  private List<Bytes> collectResponses(FindNodeMessage message, NodeSession session) {
+    List<Bytes> responses =
+        message.getDistances().stream()
+            .distinct()
+            .flatMap(distance -> session.getNodesResponses(distance).stream())
+            .filter(response -> !NodesMessage.isEmptyResponse(response))
+            .collect(Collectors.toList());
+    if (responses.isEmpty()) {
+      return withRequestId(
+          message.getRequestId(), NodesMessage.encodeResponses(Collections.emptyList()));
+    }
+    return responses.stream()
+        .map(
+            response ->
+                NodesMessage.withRequestId(message.getRequestId(), responses.size(), response))
+        .collect(Collectors.toList());
   }
 }
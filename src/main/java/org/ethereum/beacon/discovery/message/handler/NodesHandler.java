@@ -4,25 +4,56 @@
 
 package org.ethereum.beacon.discovery.message.handler;
 
+import com.google.common.collect.Lists;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes;
 import org.ethereum.beacon.discovery.message.NodesMessage;
 import org.ethereum.beacon.discovery.pipeline.info.FindNodeRequestInfo;
 import org.ethereum.beacon.discovery.pipeline.info.RequestInfo;
+import org.ethereum.beacon.discovery.scheduler.Scheduler;
 import org.ethereum.beacon.discovery.schema.NodeRecord;
+import org.ethereum.beacon.discovery.schema.NodeRecordFactory;
 import org.ethereum.beacon.discovery.schema.NodeRecordInfo;
+import org.ethereum.beacon.discovery.schema.NodeRecordSummary;
 import org.ethereum.beacon.discovery.schema.NodeSession;
 import org.ethereum.beacon.discovery.task.TaskStatus;
 import org.ethereum.beacon.discovery.task.TaskType;
 import org.ethereum.beacon.discovery.util.Functions;
 
+/**
+ * Handles NODES response. Records are validated in parallel on the validation scheduler, then the
+ * accepted ones are stored and the request is updated in a single task on the session scheduler.
+ *
+ * <p>Before decoding and signature verification, records are pre-filtered by {@link
+ * NodeRecordSummary}: oversized records and records at wrong distance are rejected, records
+ * already stored with the same or newer sequence number are replaced with the stored ones.
+ */
 public class NodesHandler implements MessageHandler<NodesMessage> {
   private static final Logger logger = LogManager.getLogger(NodesHandler.class);
+  // Max number of validation tasks for one message
+  private static final int VALIDATION_PARALLELISM = 4;
+
+  private final NodeRecordFactory nodeRecordFactory;
+  private final Scheduler validationScheduler;
+  private final Scheduler sessionScheduler;
+
+  public NodesHandler(
+      NodeRecordFactory nodeRecordFactory,
+      Scheduler validationScheduler,
+      Scheduler sessionScheduler) {
+    this.nodeRecordFactory = nodeRecordFactory;
+    this.validationScheduler = validationScheduler;
+    this.sessionScheduler = sessionScheduler;
+  }
 
   @Override
   public void handle(NodesMessage message, NodeSession session) {
-    // NODES total count handling
     Optional<RequestInfo> requestInfoOpt = session.getRequestId(message.getRequestId());
     if (requestInfoOpt.isEmpty()) {
       throw new RuntimeException(
@@ -31,6 +62,132 @@ public class NodesHandler implements MessageHandler<NodesMessage> {
               message.getRequestId(), session, message));
     }
     FindNodeRequestInfo requestInfo = (FindNodeRequestInfo) requestInfoOpt.get();
+    logger.trace(
+        () ->
+            String.format(
+                "Received %s node records in session %s. Total buckets expected: %s",
+                message.getNodeRecordsSize(), session, message.getTotal()));
+    List<Bytes> records = message.getEncodedNodeRecords();
+    SkippedVerifications skipped = new SkippedVerifications();
+    validate(records, session, requestInfo, skipped)
+        .whenComplete(
+            (acceptedRecords, error) ->
+                sessionScheduler.executeR(
+                    () -> {
+                      try {
+                        if (error != null) {
+                          logger.debug("Failed to validate node records {}", records, error);
+                        } else {
+                          saveRecords(acceptedRecords, records.size(), session, requestInfo);
+                          session
+                              .getMetrics()
+                              .onNodeRecordVerificationsSkipped(
+                                  skipped.known.get(), skipped.rejected.get());
+                        }
+                      } finally {
+                        updateRequest(message, session);
+                      }
+                    }));
+  }
+
+  private CompletableFuture<List<NodeRecord>> validate(
+      List<Bytes> records,
+      NodeSession session,
+      FindNodeRequestInfo requestInfo,
+      SkippedVerifications skipped) {
+    if (records.isEmpty()) {
+      return CompletableFuture.completedFuture(List.of());
+    }
+    int batchSize = (records.size() + VALIDATION_PARALLELISM - 1) / VALIDATION_PARALLELISM;
+    List<CompletableFuture<List<NodeRecord>>> batches =
+        Lists.partition(records, batchSize).stream()
+            .map(
+                batch ->
+                    validationScheduler.execute(
+                        () ->
+                            batch.stream()
+                                .flatMap(
+                                    record ->
+                                        accept(record, session, requestInfo, skipped).stream())
+                                .collect(Collectors.toList())))
+            .collect(Collectors.toList());
+    return CompletableFuture.allOf(batches.toArray(new CompletableFuture<?>[0]))
+        .thenApply(
+            __ ->
+                batches.stream()
+                    .flatMap(batch -> batch.join().stream())
+                    .collect(Collectors.toList()));
+  }
+
+  /** Returns record to store or empty if it's rejected */
+  private Optional<NodeRecord> accept(
+      Bytes encoded,
+      NodeSession session,
+      FindNodeRequestInfo requestInfo,
+      SkippedVerifications skipped) {
+    try {
+      if (encoded.size() > NodeRecord.MAX_ENCODED_SIZE) {
+        logger.debug("Rejecting node record of {} bytes", encoded.size());
+        skipped.rejected.incrementAndGet();
+        return Optional.empty();
+      }
+      Optional<NodeRecordSummary> summary = NodeRecordSummary.read(encoded);
+      if (summary.isPresent()) {
+        Bytes nodeId = summary.get().getNodeId();
+        if (!hasCorrectDistance(session, requestInfo, nodeId)) {
+          skipped.rejected.incrementAndGet();
+          return Optional.empty();
+        }
+        Optional<NodeRecordInfo> known = session.getNodeTable().getNode(nodeId);
+        if (known.isPresent()
+            && known.get().getNode().getSeq().compareTo(summary.get().getSeq()) >= 0) {
+          skipped.known.incrementAndGet();
+          return Optional.of(known.get().getNode());
+        }
+      }
+      // Summary is not trusted, so the decoded record is checked in full
+      NodeRecord record = nodeRecordFactory.fromBytes(encoded);
+      if (!isValid(record) || !hasCorrectDistance(session, requestInfo, record.getNodeId())) {
+        return Optional.empty();
+      }
+      return Optional.of(record);
+    } catch (RuntimeException e) {
+      logger.debug("Rejecting malformed node record {}", encoded, e);
+      return Optional.empty();
+    }
+  }
+
+  private void saveRecords(
+      List<NodeRecord> acceptedRecords,
+      int receivedCount,
+      NodeSession session,
+      FindNodeRequestInfo requestInfo) {
+    acceptedRecords.forEach(
+        nodeRecordV5 -> {
+          NodeRecordInfo nodeRecordInfo = NodeRecordInfo.createDefault(nodeRecordV5);
+          if (session.getNodeTable().getNode(nodeRecordV5.getNodeId()).isEmpty()) {
+            session.getNodeTable().save(nodeRecordInfo);
+            session.getNodeRecordListener().onNodeDiscovered(nodeRecordV5);
+          }
+          requestInfo.getFoundNodes().add(nodeRecordV5);
+        });
+    session
+        .getMetrics()
+        .onNodeRecordsReceived(acceptedRecords.size(), receivedCount - acceptedRecords.size());
+  }
+
+  /**
+   * NODES total count handling, done after records are collected as clearing the request completes
+   * its future. Request info is read again as other responses to the request could be handled
+   * meanwhile.
+   */
+  private void updateRequest(NodesMessage message, NodeSession session) {
+    Optional<RequestInfo> requestInfoOpt = session.getRequestId(message.getRequestId());
+    if (requestInfoOpt.isEmpty()) {
+      // Request has timed out or was cancelled
+      return;
+    }
+    FindNodeRequestInfo requestInfo = (FindNodeRequestInfo) requestInfoOpt.get();
     int newNodesCount =
         requestInfo.getRemainingNodes() == null
             ? message.getTotal() - 1
@@ -44,26 +201,11 @@ public class NodesHandler implements MessageHandler<NodesMessage> {
               TaskStatus.IN_PROCESS,
               message.getRequestId(),
               requestInfo.getFuture(),
-              requestInfo.getDistance(),
-              newNodesCount));
+              requestInfo.getDistances(),
+              requestInfo.getFoundNodes(),
+              newNodesCount,
+              requestInfo.getSentTime()));
     }
-
-    // Parse node records
-    logger.trace(
-        () ->
-            String.format(
-                "Received %s node records in session %s. Total buckets expected: %s",
-                message.getNodeRecordsSize(), session, message.getTotal()));
-    message.getNodeRecords().stream()
-        .filter(this::isValid)
-        .filter(record -> hasCorrectDistance(session, requestInfo, record))
-        .forEach(
-            nodeRecordV5 -> {
-              NodeRecordInfo nodeRecordInfo = NodeRecordInfo.createDefault(nodeRecordV5);
-              if (session.getNodeTable().getNode(nodeRecordV5.getNodeId()).isEmpty()) {
-                session.getNodeTable().save(nodeRecordInfo);
-              }
-            });
   }
 
   private boolean isValid(final NodeRecord record) {
@@ -74,20 +216,25 @@ public class NodesHandler implements MessageHandler<NodesMessage> {
     return true;
   }
 
+  /** Request should be answered only with nodes at one of the requested distances */
   private boolean hasCorrectDistance(
-      final NodeSession session,
-      final FindNodeRequestInfo requestInfo,
-      final NodeRecord nodeRecordV5) {
-    final int actualDistance = Functions.logDistance(nodeRecordV5.getNodeId(), session.getNodeId());
-    final int requestedDistance = requestInfo.getDistance();
-    if (actualDistance != requestedDistance) {
+      final NodeSession session, final FindNodeRequestInfo requestInfo, final Bytes nodeId) {
+    final List<Integer> requestedDistances = requestInfo.getDistances();
+    final int actualDistance = Functions.logDistance(nodeId, session.getNodeId());
+    if (!requestedDistances.contains(actualDistance)) {
       logger.debug(
           "Rejecting node record {} received from {} because distance was not {}.",
-          nodeRecordV5.getNodeId(),
+          nodeId,
           session.getNodeId(),
-          requestInfo.getDistance());
+          requestedDistances);
       return false;
     }
     return true;
   }
+
+  /** Counts records which signatures were not verified, updated from validation tasks */
+  private static class SkippedVerifications {
+    private final AtomicInteger known = new AtomicInteger();
+    private final AtomicInteger rejected = new AtomicInteger();
+  }
 }
@@ -0,0 +1,20 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.metrics;
+
+/** Reason of incoming packet rejection as reported to {@link DiscoveryMetrics} */
+public enum BadPacketReason {
+  /** Packet is too short or its structure is broken */
+  MALFORMED,
+  /** Sender node id couldn't be recovered from the packet tag */
+  UNKNOWN_SENDER,
+  /** WHOAREYOU packet which doesn't match any handshake we've started */
+  UNEXPECTED_WHOAREYOU,
+  /** Message packet couldn't be decrypted with session keys */
+  UNDECRYPTABLE,
+  /** Handshake answer to a stateless challenge we didn't issue or which has expired */
+  INVALID_CHALLENGE,
+  OTHER
+}
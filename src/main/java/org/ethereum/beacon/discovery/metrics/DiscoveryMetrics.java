@@ -0,0 +1,119 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.metrics;
+
+import java.util.Map;
+import java.util.function.IntSupplier;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.ethereum.beacon.discovery.schema.NodeStatus;
+import org.ethereum.beacon.discovery.task.TaskType;
+
+/**
+ * Receives discovery metrics. Event methods are called on the packet processing path for every
+ * packet, so implementations should not allocate or block. Gauges are registered once on start and
+ * their suppliers are expected to be called only when metrics are collected.
+ */
+public interface DiscoveryMetrics {
+  DiscoveryMetrics NOOP =
+      new DiscoveryMetrics() {
+        @Override
+        public void onPacketReceived(PacketType type) {}
+
+        @Override
+        public void onPacketSent(PacketType type) {}
+
+        @Override
+        public void onBadPacket(BadPacketReason reason) {}
+
+        @Override
+        public void onPacketDropped(DropReason reason) {}
+
+        @Override
+        public void onHandshakeCompleted(long durationNanos) {}
+
+        @Override
+        public void onHandshakeFailed() {}
+
+        @Override
+        public void onRequestCompleted(TaskType taskType, long roundTripNanos) {}
+
+        @Override
+        public void onNodeRecordsReceived(int accepted, int rejected) {}
+
+        @Override
+        public void onNodeRecordVerificationsSkipped(int known, int rejected) {}
+
+        @Override
+        public void registerSessionCount(IntSupplier sessionCount) {}
+
+        @Override
+        public void registerNodeCounts(Supplier<Map<NodeStatus, Integer>> nodeCounts) {}
+
+        @Override
+        public void registerBucketSizes(IntUnaryOperator bucketSize) {}
+
+        @Override
+        public void registerPipelineQueueDepth(String pipeline, IntSupplier queueDepth) {}
+
+        @Override
+        public void registerPublicKeyCache(LongSupplier hits, LongSupplier misses) {}
+      };
+
+  /** Incoming packet is recognized */
+  void onPacketReceived(PacketType type);
+
+  /** Outgoing packet is passed to the network */
+  void onPacketSent(PacketType type);
+
+  /** Incoming packet is rejected */
+  void onBadPacket(BadPacketReason reason);
+
+  /** Incoming packet is dropped without handling or outgoing packet is dropped without sending */
+  void onPacketDropped(DropReason reason);
+
+  /**
+   * Session is authenticated
+   *
+   * @param durationNanos Time from the first handshake packet sent by us till authentication
+   */
+  void onHandshakeCompleted(long durationNanos);
+
+  /** Handshake packet from the other side is rejected */
+  void onHandshakeFailed();
+
+  /**
+   * Reply to our request is received
+   *
+   * @param taskType Type of the request
+   * @param roundTripNanos Time from sending the request till the last reply packet
+   */
+  void onRequestCompleted(TaskType taskType, long roundTripNanos);
+
+  /** NODES message is handled, `rejected` records failed validation */
+  void onNodeRecordsReceived(int accepted, int rejected);
+
+  /**
+   * Records of NODES message are not verified: `known` ones are already stored with the same or
+   * newer sequence number, `rejected` ones are oversized or at wrong distance
+   */
+  void onNodeRecordVerificationsSkipped(int known, int rejected);
+
+  /** Number of sessions with other nodes */
+  void registerSessionCount(IntSupplier sessionCount);
+
+  /** Number of nodes in the node table by status, computing it requires a scan of the table */
+  void registerNodeCounts(Supplier<Map<NodeStatus, Integer>> nodeCounts);
+
+  /** Number of nodes in Kademlia bucket by its index, from 0 up to 256 */
+  void registerBucketSizes(IntUnaryOperator bucketSize);
+
+  /** Number of envelopes pushed to pipeline but not yet handled */
+  void registerPipelineQueueDepth(String pipeline, IntSupplier queueDepth);
+
+  /** Total lookups of decoded public keys which were found in the cache and which were not */
+  void registerPublicKeyCache(LongSupplier hits, LongSupplier misses);
+}
@@ -0,0 +1,22 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.metrics;
+
+/**
+ * Reason of dropping incoming packet before handling or outgoing packet before sending as reported
+ * to {@link DiscoveryMetrics}
+ */
+public enum DropReason {
+  /** Sender IP address exceeded its packet rate */
+  SOURCE_RATE_LIMITED,
+  /** Sender IPv4 /24 or IPv6 /64 subnet exceeded its packet rate */
+  SUBNET_RATE_LIMITED,
+  /** All senders together exceeded the packet rate of the node */
+  GLOBAL_RATE_LIMITED,
+  /** Incoming queue exceeded the threshold for the priority of the packet */
+  OVERLOADED,
+  /** Outgoing queue of the network client is full */
+  OUTGOING_QUEUE_FULL
+}
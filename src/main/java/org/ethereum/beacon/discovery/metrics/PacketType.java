@@ -0,0 +1,31 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.metrics;
+
+import org.ethereum.beacon.discovery.packet.AuthHeaderMessagePacket;
+import org.ethereum.beacon.discovery.packet.MessagePacket;
+import org.ethereum.beacon.discovery.packet.Packet;
+import org.ethereum.beacon.discovery.packet.WhoAreYouPacket;
+
+/** Type of discovery packet as reported to {@link DiscoveryMetrics} */
+public enum PacketType {
+  /** Random packet starting handshake, or incoming packet not recognized in session status */
+  RANDOM,
+  WHOAREYOU,
+  AUTH_HEADER_MESSAGE,
+  MESSAGE;
+
+  public static PacketType of(Packet packet) {
+    if (packet instanceof MessagePacket) {
+      return MESSAGE;
+    } else if (packet instanceof AuthHeaderMessagePacket) {
+      return AUTH_HEADER_MESSAGE;
+    } else if (packet instanceof WhoAreYouPacket) {
+      return WHOAREYOU;
+    } else {
+      return RANDOM;
+    }
+  }
+}
@@ -0,0 +1,292 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.metrics;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import io.prometheus.client.Histogram;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntSupplier;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.ethereum.beacon.discovery.schema.NodeStatus;
+import org.ethereum.beacon.discovery.storage.NodeBucketStorageImpl;
+import org.ethereum.beacon.discovery.task.TaskType;
+
+/**
+ * Reports discovery metrics to Prometheus {@link CollectorRegistry}. Prometheus simpleclient is not
+ * a dependency of discovery library, application using this class should provide it.
+ *
+ * <p>Metric children for every label value are resolved on creation, so recording events doesn't
+ * allocate.
+ */
+public class PrometheusDiscoveryMetrics implements DiscoveryMetrics {
+  private static final String PREFIX = "discovery_";
+  private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+  private final CollectorRegistry registry;
+  private final Counter.Child[] packetsReceived;
+  private final Counter.Child[] packetsSent;
+  private final Counter.Child[] badPackets;
+  private final Counter.Child[] droppedPackets;
+  private final Histogram handshakeDuration;
+  private final Counter handshakeFailures;
+  private final Histogram.Child[] requestRoundTrip;
+  private final Counter.Child nodeRecordsAccepted;
+  private final Counter.Child nodeRecordsRejected;
+  private final Counter.Child verificationsSkippedKnown;
+  private final Counter.Child verificationsSkippedRejected;
+  private final Gauge pipelineQueueDepth;
+
+  public PrometheusDiscoveryMetrics(CollectorRegistry registry) {
+    this.registry = registry;
+    Counter packetsReceivedCounter =
+        Counter.build()
+            .name(PREFIX + "packets_received_total")
+            .help("Incoming packets by type")
+            .labelNames("type")
+            .register(registry);
+    this.packetsReceived = resolveChildren(packetsReceivedCounter, PacketType.values());
+    Counter packetsSentCounter =
+        Counter.build()
+            .name(PREFIX + "packets_sent_total")
+            .help("Outgoing packets by type")
+            .labelNames("type")
+            .register(registry);
+    this.packetsSent = resolveChildren(packetsSentCounter, PacketType.values());
+    Counter badPacketsCounter =
+        Counter.build()
+            .name(PREFIX + "bad_packets_total")
+            .help("Rejected incoming packets by reason")
+            .labelNames("reason")
+            .register(registry);
+    this.badPackets = resolveChildren(badPacketsCounter, BadPacketReason.values());
+    Counter droppedPacketsCounter =
+        Counter.build()
+            .name(PREFIX + "dropped_packets_total")
+            .help("Packets dropped without handling or sending by reason")
+            .labelNames("reason")
+            .register(registry);
+    this.droppedPackets = resolveChildren(droppedPacketsCounter, DropReason.values());
+    this.handshakeDuration =
+        Histogram.build()
+            .name(PREFIX + "handshake_duration_seconds")
+            .help("Time from the first handshake packet till session authentication")
+            .register(registry);
+    this.handshakeFailures =
+        Counter.build()
+            .name(PREFIX + "handshake_failures_total")
+            .help("Handshakes failed due to bad packet from the other side")
+            .register(registry);
+    Histogram requestRoundTripHistogram =
+        Histogram.build()
+            .name(PREFIX + "request_round_trip_seconds")
+            .help("Time from sending request till the last reply packet by request type")
+            .labelNames("task_type")
+            .register(registry);
+    TaskType[] taskTypes = TaskType.values();
+    this.requestRoundTrip = new Histogram.Child[taskTypes.length];
+    for (TaskType taskType : taskTypes) {
+      requestRoundTrip[taskType.ordinal()] = requestRoundTripHistogram.labels(taskType.name());
+    }
+    Counter nodeRecordsCounter =
+        Counter.build()
+            .name(PREFIX + "node_records_received_total")
+            .help("Node records received in NODES messages by validation result")
+            .labelNames("result")
+            .register(registry);
+    this.nodeRecordsAccepted = nodeRecordsCounter.labels("accepted");
+    this.nodeRecordsRejected = nodeRecordsCounter.labels("rejected");
+    Counter verificationsSkippedCounter =
+        Counter.build()
+            .name(PREFIX + "node_record_verifications_skipped_total")
+            .help("Node records received in NODES messages which signatures were not checked")
+            .labelNames("reason")
+            .register(registry);
+    this.verificationsSkippedKnown = verificationsSkippedCounter.labels("known");
+    this.verificationsSkippedRejected = verificationsSkippedCounter.labels("rejected");
+    this.pipelineQueueDepth =
+        Gauge.build()
+            .name(PREFIX + "pipeline_queue_depth")
+            .help("Envelopes pushed to pipeline but not yet handled")
+            .labelNames("pipeline")
+            .register(registry);
+  }
+
+  private static Counter.Child[] resolveChildren(Counter counter, Enum<?>[] labelValues) {
+    Counter.Child[] children = new Counter.Child[labelValues.length];
+    for (Enum<?> labelValue : labelValues) {
+      children[labelValue.ordinal()] = counter.labels(labelValue.name());
+    }
+    return children;
+  }
+
+  @Override
+  public void onPacketReceived(PacketType type) {
+    packetsReceived[type.ordinal()].inc();
+  }
+
+  @Override
+  public void onPacketSent(PacketType type) {
+    packetsSent[type.ordinal()].inc();
+  }
+
+  @Override
+  public void onBadPacket(BadPacketReason reason) {
+    badPackets[reason.ordinal()].inc();
+  }
+
+  @Override
+  public void onPacketDropped(DropReason reason) {
+    droppedPackets[reason.ordinal()].inc();
+  }
+
+  @Override
+  public void onHandshakeCompleted(long durationNanos) {
+    handshakeDuration.observe(durationNanos / NANOS_PER_SECOND);
+  }
+
+  @Override
+  public void onHandshakeFailed() {
+    handshakeFailures.inc();
+  }
+
+  @Override
+  public void onRequestCompleted(TaskType taskType, long roundTripNanos) {
+    requestRoundTrip[taskType.ordinal()].observe(roundTripNanos / NANOS_PER_SECOND);
+  }
+
+  @Override
+  public void onNodeRecordsReceived(int accepted, int rejected) {
+    nodeRecordsAccepted.inc(accepted);
+    nodeRecordsRejected.inc(rejected);
+  }
+
+  @Override
+  public void onNodeRecordVerificationsSkipped(int known, int rejected) {
+    verificationsSkippedKnown.inc(known);
+    verificationsSkippedRejected.inc(rejected);
+  }
+
+  @Override
+  public void registerSessionCount(IntSupplier sessionCount) {
+    Gauge.build()
+        .name(PREFIX + "sessions")
+        .help("Sessions with other nodes")
+        .register(registry)
+        .setChild(new SupplierGaugeChild(sessionCount));
+  }
+
+  @Override
+  public void registerNodeCounts(Supplier<Map<NodeStatus, Integer>> nodeCounts) {
+    new LabelledGaugeCollector(
+            PREFIX + "nodes",
+            "Nodes in the node table by status",
+            "status",
+            () -> {
+              List<Map.Entry<String, Integer>> values = new ArrayList<>();
+              Map<NodeStatus, Integer> counts = nodeCounts.get();
+              for (NodeStatus status : NodeStatus.values()) {
+                values.add(Map.entry(status.name(), counts.getOrDefault(status, 0)));
+              }
+              return values;
+            })
+        .register(registry);
+  }
+
+  @Override
+  public void registerBucketSizes(IntUnaryOperator bucketSize) {
+    new LabelledGaugeCollector(
+            PREFIX + "bucket_size",
+            "Nodes in Kademlia bucket by bucket index, empty buckets are omitted",
+            "bucket",
+            () -> {
+              List<Map.Entry<String, Integer>> values = new ArrayList<>();
+              for (int i = 0; i <= NodeBucketStorageImpl.MAXIMUM_BUCKET; i++) {
+                int size = bucketSize.applyAsInt(i);
+                if (size > 0) {
+                  values.add(Map.entry(Integer.toString(i), size));
+                }
+              }
+              return values;
+            })
+        .register(registry);
+  }
+
+  @Override
+  public void registerPipelineQueueDepth(String pipeline, IntSupplier queueDepth) {
+    pipelineQueueDepth.setChild(new SupplierGaugeChild(queueDepth), pipeline);
+  }
+
+  @Override
+  public void registerPublicKeyCache(LongSupplier hits, LongSupplier misses) {
+    new Collector() {
+      @Override
+      public List<MetricFamilySamples> collect() {
+        String name = PREFIX + "public_key_cache_lookups_total";
+        List<String> labelNames = Collections.singletonList("result");
+        return Collections.singletonList(
+            new MetricFamilySamples(
+                name,
+                Type.COUNTER,
+                "Lookups of decoded public keys by result",
+                List.of(
+                    new MetricFamilySamples.Sample(
+                        name, labelNames, List.of("hit"), hits.getAsLong()),
+                    new MetricFamilySamples.Sample(
+                        name, labelNames, List.of("miss"), misses.getAsLong()))));
+      }
+    }.register(registry);
+  }
+
+  private static class SupplierGaugeChild extends Gauge.Child {
+    private final IntSupplier supplier;
+
+    private SupplierGaugeChild(IntSupplier supplier) {
+      this.supplier = supplier;
+    }
+
+    @Override
+    public double get() {
+      return supplier.getAsInt();
+    }
+  }
+
+  /** Gauge with a single label, all values are computed at once on collection */
+  private static class LabelledGaugeCollector extends Collector {
+    private final String name;
+    private final String help;
+    private final List<String> labelNames;
+    private final Supplier<List<Map.Entry<String, Integer>>> values;
+
+    private LabelledGaugeCollector(
+        String name,
+        String help,
+        String labelName,
+        Supplier<List<Map.Entry<String, Integer>>> values) {
+      this.name = name;
+      this.help = help;
+      this.labelNames = Collections.singletonList(labelName);
+      this.values = values;
+    }
+
+    @Override
+    public List<MetricFamilySamples> collect() {
+      List<MetricFamilySamples.Sample> samples = new ArrayList<>();
+      for (Map.Entry<String, Integer> value : values.get()) {
+        samples.add(
+            new MetricFamilySamples.Sample(
+                name, labelNames, Collections.singletonList(value.getKey()), value.getValue()));
+      }
+      return Collections.singletonList(new MetricFamilySamples(name, Type.GAUGE, help, samples));
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.network;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+import org.ethereum.beacon.discovery.metrics.DropReason;
+import org.ethereum.beacon.discovery.util.TokenBucket;
+import org.ethereum.beacon.discovery.util.TokenBucketTable;
+
+/**
+ * Decides whether incoming packet is handled at all, before it could create a session or trigger
+ * WHOAREYOU. Packet rate is limited per sender IP address, per its IPv4 /24 or IPv6 /64 subnet, so
+ * a host spoofing addresses around its own is limited too, and for all senders together.
+ */
+public class AdmissionControl {
+  // Keeps IPv6 keys apart from IPv4 ones, which fit into 32 bits
+  private static final long IPV6_KEY = Long.MIN_VALUE;
+
+  private final TokenBucketTable sourceBuckets;
+  private final TokenBucketTable subnetBuckets;
+  private final TokenBucket globalBucket;
+
+  public AdmissionControl(AdmissionOptions options, LongSupplier clockMillis) {
+    checkArgument(options.isEnabled(), "Admission control is disabled");
+    this.sourceBuckets =
+        new TokenBucketTable(
+            options.getSourcePacketsPerSecond(),
+            options.getSourceBurst(),
+            options.getTrackedSources(),
+            clockMillis);
+    this.subnetBuckets =
+        new TokenBucketTable(
+            options.getSubnetPacketsPerSecond(),
+            options.getSubnetBurst(),
+            options.getTrackedSources(),
+            clockMillis);
+    this.globalBucket =
+        new TokenBucket(
+            options.getGlobalPacketsPerSecond(), options.getGlobalBurst(), clockMillis);
+  }
+
+  /** Returns reason to drop packet from `sender` or empty if it should be handled */
+  public Optional<DropReason> admit(InetAddress sender) {
+    byte[] address = sender.getAddress();
+    long sourceKey;
+    long subnetKey;
+    if (address.length == 4) {
+      int ip = ByteBuffer.wrap(address).getInt();
+      sourceKey = ip & 0xFFFFFFFFL;
+      subnetKey = (ip >>> 8) & 0xFFFFFFL;
+    } else {
+      ByteBuffer buffer = ByteBuffer.wrap(address);
+      long prefix = buffer.getLong();
+      long interfaceId = buffer.getLong();
+      sourceKey = (prefix ^ Long.rotateLeft(interfaceId * 0x9E3779B97F4A7C15L, 32)) | IPV6_KEY;
+      subnetKey = prefix | IPV6_KEY;
+    }
+    if (!sourceBuckets.tryAcquire(sourceKey)) {
+      return Optional.of(DropReason.SOURCE_RATE_LIMITED);
+    }
+    if (!subnetBuckets.tryAcquire(subnetKey)) {
+      return Optional.of(DropReason.SUBNET_RATE_LIMITED);
+    }
+    if (!globalBucket.tryAcquire()) {
+      return Optional.of(DropReason.GLOBAL_RATE_LIMITED);
+    }
+    return Optional.empty();
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.network;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/** Limits of incoming packet rates, see {@link AdmissionControl} */
+public class AdmissionOptions {
+  public static final AdmissionOptions DEFAULT =
+      new AdmissionOptions(100, 200, 400, 800, 10_000, 20_000, 4096);
+  /** Admits all packets, for tests and simulations with many nodes behind one address */
+  public static final AdmissionOptions DISABLED = new AdmissionOptions();
+
+  private final boolean enabled;
+  private final double sourcePacketsPerSecond;
+  private final int sourceBurst;
+  private final double subnetPacketsPerSecond;
+  private final int subnetBurst;
+  private final double globalPacketsPerSecond;
+  private final int globalBurst;
+  private final int trackedSources;
+
+  /**
+   * @param sourcePacketsPerSecond Sustained packet rate from a single IP address
+   * @param sourceBurst Packets from a single IP address accepted at once after idle period
+   * @param subnetPacketsPerSecond Sustained packet rate from IPv4 /24 or IPv6 /64 subnet
+   * @param subnetBurst Packets from a subnet accepted at once after idle period
+   * @param globalPacketsPerSecond Sustained packet rate from all senders
+   * @param globalBurst Packets from all senders accepted at once after idle period
+   * @param trackedSources Number of addresses and subnets tracked at once, power of 2. When more
+   *     senders are active, some of them get a fresh limit
+   */
+  public AdmissionOptions(
+      double sourcePacketsPerSecond,
+      int sourceBurst,
+      double subnetPacketsPerSecond,
+      int subnetBurst,
+      double globalPacketsPerSecond,
+      int globalBurst,
+      int trackedSources) {
+    checkArgument(
+        sourcePacketsPerSecond > 0 && subnetPacketsPerSecond > 0 && globalPacketsPerSecond > 0,
+        "Packet rates should be positive");
+    checkArgument(
+        sourceBurst > 0 && subnetBurst > 0 && globalBurst > 0, "Bursts should be positive");
+    checkArgument(
+        trackedSources >= 2 && Integer.bitCount(trackedSources) == 1,
+        "Number of tracked sources should be a power of 2: %s",
+        trackedSources);
+    this.enabled = true;
+    this.sourcePacketsPerSecond = sourcePacketsPerSecond;
+    this.sourceBurst = sourceBurst;
+    this.subnetPacketsPerSecond = subnetPacketsPerSecond;
+    this.subnetBurst = subnetBurst;
+    this.globalPacketsPerSecond = globalPacketsPerSecond;
+    this.globalBurst = globalBurst;
+    this.trackedSources = trackedSources;
+  }
+
+  private AdmissionOptions() {
+    this.enabled = false;
+    this.sourcePacketsPerSecond = Double.POSITIVE_INFINITY;
+    this.sourceBurst = Integer.MAX_VALUE;
+    this.subnetPacketsPerSecond = Double.POSITIVE_INFINITY;
+    this.subnetBurst = Integer.MAX_VALUE;
+    this.globalPacketsPerSecond = Double.POSITIVE_INFINITY;
+    this.globalBurst = Integer.MAX_VALUE;
+    this.trackedSources = 0;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public double getSourcePacketsPerSecond() {
+    return sourcePacketsPerSecond;
+  }
+
+  public int getSourceBurst() {
+    return sourceBurst;
+  }
+
+  public double getSubnetPacketsPerSecond() {
+    return subnetPacketsPerSecond;
+  }
+
+  public int getSubnetBurst() {
+    return subnetBurst;
+  }
+
+  public double getGlobalPacketsPerSecond() {
+    return globalPacketsPerSecond;
+  }
+
+  public int getGlobalBurst() {
+    return globalBurst;
+  }
+
+  public int getTrackedSources() {
+    return trackedSources;
+  }
+
+  @Override
+  public String toString() {
+    if (!enabled) {
+      return "AdmissionOptions{disabled}";
+    }
+    return "AdmissionOptions{"
+        + "sourcePacketsPerSecond="
+        + sourcePacketsPerSecond
+        + ", sourceBurst="
+        + sourceBurst
+        + ", subnetPacketsPerSecond="
+        + subnetPacketsPerSecond
+        + ", subnetBurst="
+        + subnetBurst
+        + ", globalPacketsPerSecond="
+        + globalPacketsPerSecond
+        + ", globalBurst="
+        + globalBurst
+        + ", trackedSources="
+        + trackedSources
+        + '}';
+  }
+}
@@ -12,4 +12,8 @@ public interface DiscoveryClient {
   void stop();
 
   void send(Bytes data, InetSocketAddress destination);
+
+  default void send(NetworkParcel parcel) {
+    send(parcel.getPacket().getBytes(), parcel.getDestination());
+  }
 }
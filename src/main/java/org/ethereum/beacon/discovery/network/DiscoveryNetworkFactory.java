@@ -0,0 +1,29 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.network;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import org.ethereum.beacon.discovery.metrics.DiscoveryMetrics;
+
+/**
+ * Creates network layer of discovery: {@link DiscoveryServer} receiving packets and {@link
+ * DiscoveryClient} sending them. Allows to run discovery over other transport than UDP sockets,
+ * like in-memory network of benchmarks and simulations.
+ */
+public interface DiscoveryNetworkFactory {
+  DiscoveryNetworkFactory NETTY = new NettyDiscoveryNetworkFactory();
+
+  DiscoveryServer createServer(InetSocketAddress listenAddress);
+
+  /**
+   * Starts `server` and creates client sending packets from its socket
+   *
+   * @param server Server created by this factory
+   * @param metrics Metrics to report outgoing packets dropped by the client
+   * @return Future with client which is completed when server is started
+   */
+  CompletableFuture<DiscoveryClient> start(DiscoveryServer server, DiscoveryMetrics metrics);
+}
@@ -0,0 +1,73 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.network;
+
+import java.net.InetSocketAddress;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import org.apache.tuweni.bytes.Bytes;
+import org.ethereum.beacon.discovery.packet.WhoAreYouPacket;
+import org.ethereum.beacon.discovery.pipeline.Envelope;
+import org.ethereum.beacon.discovery.pipeline.Field;
+import org.ethereum.beacon.discovery.schema.NodeSession;
+import org.ethereum.beacon.discovery.storage.AuthTagRepository;
+import org.ethereum.beacon.discovery.type.Hashes;
+
+/**
+ * Assigns {@link PacketPriority} to raw incoming packet in {@link Field#INCOMING} without
+ * decrypting it: the sender is recovered from the packet tag and looked up among the sessions.
+ * Whether the packet is a reply to a particular request is known only after decryption, so a
+ * session with any of our requests awaiting reply is enough for {@link PacketPriority#RESPONSE}.
+ */
+public class IncomingPacketClassifier {
+  private static final int TAG_LENGTH = 32;
+
+  private final Bytes homeNodeIdHash;
+  private final Bytes whoAreYouMagic;
+  private final AuthTagRepository authTagRepo;
+  private final BiFunction<Bytes, InetSocketAddress, Optional<NodeSession>> sessionLookup;
+
+  /**
+   * @param homeNodeId Our node id
+   * @param authTagRepo Auth tags of our packets awaiting WHOAREYOU
+   * @param sessionLookup Existing session by node id and address of the other side
+   */
+  public IncomingPacketClassifier(
+      Bytes homeNodeId,
+      AuthTagRepository authTagRepo,
+      BiFunction<Bytes, InetSocketAddress, Optional<NodeSession>> sessionLookup) {
+    this.homeNodeIdHash = Hashes.sha256(homeNodeId);
+    this.whoAreYouMagic = WhoAreYouPacket.getStartMagic(homeNodeId);
+    this.authTagRepo = authTagRepo;
+    this.sessionLookup = sessionLookup;
+  }
+
+  public PacketPriority classify(Envelope envelope) {
+    Bytes data = (Bytes) envelope.get(Field.INCOMING);
+    InetSocketAddress sender = (InetSocketAddress) envelope.get(Field.REMOTE_SENDER);
+    if (data == null || sender == null || data.size() <= TAG_LENGTH) {
+      return PacketPriority.UNSOLICITED;
+    }
+    Bytes tag = data.slice(0, TAG_LENGTH);
+    if (tag.equals(whoAreYouMagic)) {
+      return isOwnAuthTag(data) ? PacketPriority.RESPONSE : PacketPriority.UNSOLICITED;
+    }
+    return sessionLookup
+        .apply(homeNodeIdHash.xor(tag), sender)
+        .map(
+            session ->
+                session.hasRequestsInFlight() ? PacketPriority.RESPONSE : PacketPriority.SESSION)
+        .orElse(PacketPriority.UNSOLICITED);
+  }
+
+  private boolean isOwnAuthTag(Bytes whoAreYouData) {
+    try {
+      return authTagRepo.get(new WhoAreYouPacket(whoAreYouData).getAuthTag()).isPresent();
+    } catch (Exception ex) {
+      // Malformed, will be reported by the pipeline
+      return false;
+    }
+  }
+}
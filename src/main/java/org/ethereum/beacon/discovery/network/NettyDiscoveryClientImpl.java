@@ -7,31 +7,47 @@ package org.ethereum.beacon.discovery.network;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.socket.DatagramPacket;
 import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.util.internal.PlatformDependent;
 import java.net.InetSocketAddress;
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.tuweni.bytes.Bytes;
-import org.reactivestreams.Publisher;
-import reactor.core.publisher.Flux;
+import org.ethereum.beacon.discovery.metrics.DiscoveryMetrics;
+import org.ethereum.beacon.discovery.metrics.DropReason;
 
-/** Netty discovery UDP client */
+/**
+ * Netty discovery UDP client. Packets are put to a bounded queue which is drained on the channel
+ * event loop, so packets sent from other threads are written with a single task and flushed
+ * together. Packets are dropped when the queue is full, like UDP socket drops them when its buffer
+ * is full, drops are reported as {@link DropReason#OUTGOING_QUEUE_FULL}.
+ */
 public class NettyDiscoveryClientImpl implements DiscoveryClient {
   private static final Logger logger = LogManager.getLogger(NettyDiscoveryClientImpl.class);
-  private NioDatagramChannel channel;
+  public static final int DEFAULT_MAX_QUEUED_PACKETS = 4096;
+
+  private final NioDatagramChannel channel;
+  private final Queue<DatagramPacket> outgoingQueue;
+  private final AtomicBoolean drainScheduled = new AtomicBoolean();
+  private final DiscoveryMetrics metrics;
 
   /**
    * Constructs UDP client using
    *
-   * @param outgoingStream Stream of outgoing packets, client will forward them to the channel
    * @param channel Nio channel
+   * @param metrics Metrics to report dropped packets
    */
+  public NettyDiscoveryClientImpl(NioDatagramChannel channel, DiscoveryMetrics metrics) {
+    this(channel, DEFAULT_MAX_QUEUED_PACKETS, metrics);
+  }
+
   public NettyDiscoveryClientImpl(
-      Publisher<NetworkParcel> outgoingStream, NioDatagramChannel channel) {
+      NioDatagramChannel channel, int maxQueuedPackets, DiscoveryMetrics metrics) {
     this.channel = channel;
-    Flux.from(outgoingStream)
-        .subscribe(
-            networkPacket ->
-                send(networkPacket.getPacket().getBytes(), networkPacket.getDestination()));
+    this.outgoingQueue = PlatformDependent.newFixedMpscQueue(maxQueuedPackets);
+    this.metrics = metrics;
     logger.info("UDP discovery client started");
   }
 
@@ -40,9 +56,33 @@ public class NettyDiscoveryClientImpl implements DiscoveryClient {
 
   @Override
   public void send(Bytes data, InetSocketAddress destination) {
-    DatagramPacket packet = new DatagramPacket(Unpooled.copiedBuffer(data.toArray()), destination);
-    logger.trace(() -> String.format("Sending packet %s", packet));
-    channel.write(packet);
+    DatagramPacket packet =
+        new DatagramPacket(Unpooled.wrappedBuffer(data.toArrayUnsafe()), destination);
+    if (!outgoingQueue.offer(packet)) {
+      metrics.onPacketDropped(DropReason.OUTGOING_QUEUE_FULL);
+      packet.release();
+      logger.debug("Outgoing queue is full, dropping packet to {}", destination);
+      return;
+    }
+    if (drainScheduled.compareAndSet(false, true)) {
+      try {
+        channel.eventLoop().execute(this::drain);
+      } catch (RejectedExecutionException e) {
+        // Allow the next packet to try scheduling the drain again
+        drainScheduled.set(false);
+        logger.debug("Channel event loop is shut down, dropping packet to {}", destination);
+      }
+    }
+  }
+
+  private void drain() {
+    // Reset before polling: a packet offered after that schedules another drain
+    drainScheduled.set(false);
+    DatagramPacket packet;
+    while ((packet = outgoingQueue.poll()) != null) {
+      logger.trace("Sending packet {}", packet);
+      channel.write(packet, channel.voidPromise());
+    }
     channel.flush();
   }
 }
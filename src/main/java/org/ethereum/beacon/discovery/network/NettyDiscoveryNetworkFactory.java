@@ -0,0 +1,26 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.network;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import org.ethereum.beacon.discovery.metrics.DiscoveryMetrics;
+
+/** UDP network, client sends packets from the server channel */
+public class NettyDiscoveryNetworkFactory implements DiscoveryNetworkFactory {
+
+  @Override
+  public DiscoveryServer createServer(InetSocketAddress listenAddress) {
+    return new NettyDiscoveryServerImpl(listenAddress);
+  }
+
+  @Override
+  public CompletableFuture<DiscoveryClient> start(
+      DiscoveryServer server, DiscoveryMetrics metrics) {
+    return ((NettyDiscoveryServer) server)
+        .start()
+        .thenApply(channel -> new NettyDiscoveryClientImpl(channel, metrics));
+  }
+}
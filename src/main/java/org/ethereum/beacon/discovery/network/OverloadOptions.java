@@ -0,0 +1,80 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.network;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Arrays;
+
+/** Incoming queue thresholds and weights per priority, see {@link PrioritizedIncomingQueue} */
+public class OverloadOptions {
+  public static final OverloadOptions DEFAULT = new OverloadOptions(4096, 2048, 512, 8, 4, 1);
+  /** Handles packets on the receiving thread in order of arrival, for tests and simulations */
+  public static final OverloadOptions DISABLED = new OverloadOptions();
+
+  private final boolean enabled;
+  private final int[] thresholds;
+  private final int[] weights;
+
+  /**
+   * @param responseThreshold Packets queued at most, when {@link PacketPriority#RESPONSE} packets
+   *     are still accepted
+   * @param sessionThreshold Same for {@link PacketPriority#SESSION} packets
+   * @param unsolicitedThreshold Same for {@link PacketPriority#UNSOLICITED} packets
+   * @param responseWeight Number of {@link PacketPriority#RESPONSE} packets handled per round
+   * @param sessionWeight Same for {@link PacketPriority#SESSION} packets
+   * @param unsolicitedWeight Same for {@link PacketPriority#UNSOLICITED} packets
+   */
+  public OverloadOptions(
+      int responseThreshold,
+      int sessionThreshold,
+      int unsolicitedThreshold,
+      int responseWeight,
+      int sessionWeight,
+      int unsolicitedWeight) {
+    checkArgument(
+        responseThreshold >= sessionThreshold
+            && sessionThreshold >= unsolicitedThreshold
+            && unsolicitedThreshold > 0,
+        "Thresholds should be positive and not increase with lower priority");
+    checkArgument(
+        responseWeight > 0 && sessionWeight > 0 && unsolicitedWeight > 0,
+        "Weights should be positive");
+    this.enabled = true;
+    this.thresholds = new int[] {responseThreshold, sessionThreshold, unsolicitedThreshold};
+    this.weights = new int[] {responseWeight, sessionWeight, unsolicitedWeight};
+  }
+
+  private OverloadOptions() {
+    this.enabled = false;
+    this.thresholds = new int[] {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE};
+    this.weights = new int[] {1, 1, 1};
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public int getThreshold(PacketPriority priority) {
+    return thresholds[priority.ordinal()];
+  }
+
+  public int getWeight(PacketPriority priority) {
+    return weights[priority.ordinal()];
+  }
+
+  @Override
+  public String toString() {
+    if (!enabled) {
+      return "OverloadOptions{disabled}";
+    }
+    return "OverloadOptions{"
+        + "thresholds="
+        + Arrays.toString(thresholds)
+        + ", weights="
+        + Arrays.toString(weights)
+        + '}';
+  }
+}
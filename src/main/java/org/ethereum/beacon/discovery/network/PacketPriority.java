@@ -0,0 +1,15 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.network;
+
+/** Priority class of incoming packet, see {@link IncomingPacketClassifier}. Highest first */
+public enum PacketPriority {
+  /** Packet in a session with our requests awaiting reply or WHOAREYOU answering our packet */
+  RESPONSE,
+  /** Any other packet in an existing session */
+  SESSION,
+  /** Packet from a sender without session: new handshake or junk */
+  UNSOLICITED
+}
@@ -0,0 +1,122 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.network;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.ethereum.beacon.discovery.metrics.DiscoveryMetrics;
+import org.ethereum.beacon.discovery.metrics.DropReason;
+import org.ethereum.beacon.discovery.pipeline.Envelope;
+
+/**
+ * Decouples receiving of incoming packets from handling them. Packets are queued by their {@link
+ * PacketPriority} and handled on a single threaded executor with weighted round robin, so replies
+ * to our own requests don't wait behind a flood of unsolicited packets. When the total number of
+ * queued packets reaches the threshold of a priority, new packets of this priority are dropped, so
+ * lower priorities are shed first.
+ */
+public class PrioritizedIncomingQueue {
+  private static final Logger logger = LogManager.getLogger(PrioritizedIncomingQueue.class);
+  private static final PacketPriority[] PRIORITIES = PacketPriority.values();
+  // Packets handled by a single executor task, so other tasks of the executor are not delayed
+  static final int DRAIN_BATCH = 256;
+
+  private final OverloadOptions options;
+  private final Function<Envelope, PacketPriority> classifier;
+  private final Consumer<Envelope> handler;
+  private final Executor executor;
+  private final DiscoveryMetrics metrics;
+  private final List<Queue<Envelope>> queues = new ArrayList<>();
+  private final AtomicInteger[] queueSizes;
+  private final AtomicInteger totalSize = new AtomicInteger();
+  private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+  public PrioritizedIncomingQueue(
+      OverloadOptions options,
+      Function<Envelope, PacketPriority> classifier,
+      Consumer<Envelope> handler,
+      Executor executor,
+      DiscoveryMetrics metrics) {
+    checkArgument(options.isEnabled(), "Overload handling is disabled");
+    this.options = options;
+    this.classifier = classifier;
+    this.handler = handler;
+    this.executor = executor;
+    this.metrics = metrics;
+    this.queueSizes = new AtomicInteger[PRIORITIES.length];
+    for (int i = 0; i < PRIORITIES.length; i++) {
+      queues.add(new ConcurrentLinkedQueue<>());
+      queueSizes[i] = new AtomicInteger();
+    }
+  }
+
+  /** Queues incoming packet, called on the receiving thread */
+  public void offer(Envelope envelope) {
+    PacketPriority priority = classifier.apply(envelope);
+    if (totalSize.get() >= options.getThreshold(priority)) {
+      logger.trace("Envelope {}: dropping {} packet, queue is full", envelope.getId(), priority);
+      metrics.onPacketDropped(DropReason.OVERLOADED);
+      return;
+    }
+    queues.get(priority.ordinal()).offer(envelope);
+    queueSizes[priority.ordinal()].incrementAndGet();
+    totalSize.incrementAndGet();
+    scheduleDrain();
+  }
+
+  public int getQueueSize(PacketPriority priority) {
+    return queueSizes[priority.ordinal()].get();
+  }
+
+  private void scheduleDrain() {
+    if (drainScheduled.compareAndSet(false, true)) {
+      executor.execute(this::drain);
+    }
+  }
+
+  private void drain() {
+    // Reset before polling: a packet offered after that schedules another drain
+    drainScheduled.set(false);
+    int handled = 0;
+    boolean polled = true;
+    while (polled && handled < DRAIN_BATCH) {
+      polled = false;
+      for (PacketPriority priority : PRIORITIES) {
+        for (int i = 0; i < options.getWeight(priority); i++) {
+          Envelope envelope = poll(priority);
+          if (envelope == null) {
+            break;
+          }
+          polled = true;
+          handled++;
+          handler.accept(envelope);
+        }
+      }
+    }
+    if (totalSize.get() > 0) {
+      scheduleDrain();
+    }
+  }
+
+  private Envelope poll(PacketPriority priority) {
+    Envelope envelope = queues.get(priority.ordinal()).poll();
+    if (envelope != null) {
+      queueSizes[priority.ordinal()].decrementAndGet();
+      totalSize.decrementAndGet();
+    }
+    return envelope;
+  }
+}
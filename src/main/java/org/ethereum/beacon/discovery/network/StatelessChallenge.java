@@ -0,0 +1,100 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.network;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.net.InetSocketAddress;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.function.LongSupplier;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.macs.HMac;
+import org.bouncycastle.crypto.params.KeyParameter;
+
+/**
+ * Issues WHOAREYOU id-nonces which could be verified without storing them, so no session is kept
+ * for a sender until it answers the challenge.
+ *
+ * <p>The id-nonce is echoed back in the auth header, so it carries everything needed to check it:
+ * <code>id-nonce = auth-tag || HMAC-SHA256(secret, ip || port || src-node-id || auth-tag || epoch)
+ * </code>, where auth-tag is the one of the packet we answer and the MAC is truncated to 20 bytes.
+ * The secret is replaced by a random one every epoch, nonces of the current and the previous epoch
+ * are accepted.
+ */
+public class StatelessChallenge {
+  public static final Duration DEFAULT_EPOCH = Duration.ofSeconds(30);
+  private static final int ID_NONCE_SIZE = 32;
+  private static final int AUTH_TAG_SIZE = 12;
+  private static final int MAC_SIZE = ID_NONCE_SIZE - AUTH_TAG_SIZE;
+
+  private final long epochMillis;
+  private final LongSupplier clockMillis;
+  private final HMac mac = new HMac(new SHA256Digest());
+  private final byte[] macOutput = new byte[mac.getMacSize()];
+  private long currentEpoch;
+  private Bytes currentSecret = Bytes32.random();
+  private Bytes previousSecret = Bytes32.random();
+
+  public StatelessChallenge(Duration epoch, LongSupplier clockMillis) {
+    checkArgument(epoch.toMillis() > 0, "Epoch should be positive: %s", epoch);
+    this.epochMillis = epoch.toMillis();
+    this.clockMillis = clockMillis;
+    this.currentEpoch = clockMillis.getAsLong() / epochMillis;
+  }
+
+  /** Creates id-nonce for WHOAREYOU answering packet with `authTag` */
+  public synchronized Bytes createIdNonce(InetSocketAddress sender, Bytes nodeId, Bytes authTag) {
+    checkArgument(authTag.size() == AUTH_TAG_SIZE, "Invalid auth tag: %s", authTag);
+    rotateSecrets();
+    return Bytes.concatenate(authTag, mac(currentSecret, currentEpoch, sender, nodeId, authTag));
+  }
+
+  /** Checks that `idNonce` was created by this node for the sender within the last two epochs */
+  public synchronized boolean isValid(Bytes idNonce, InetSocketAddress sender, Bytes nodeId) {
+    if (idNonce.size() != ID_NONCE_SIZE) {
+      return false;
+    }
+    rotateSecrets();
+    Bytes authTag = idNonce.slice(0, AUTH_TAG_SIZE);
+    byte[] expectedMac = idNonce.slice(AUTH_TAG_SIZE).toArrayUnsafe();
+    return isEqual(expectedMac, mac(currentSecret, currentEpoch, sender, nodeId, authTag))
+        || isEqual(expectedMac, mac(previousSecret, currentEpoch - 1, sender, nodeId, authTag));
+  }
+
+  /** Constant time comparison, so the MAC couldn't be guessed byte by byte from timings */
+  private static boolean isEqual(byte[] expectedMac, Bytes mac) {
+    return MessageDigest.isEqual(expectedMac, mac.toArrayUnsafe());
+  }
+
+  private void rotateSecrets() {
+    long epoch = clockMillis.getAsLong() / epochMillis;
+    if (epoch == currentEpoch) {
+      return;
+    }
+    // After a pause longer than an epoch both secrets are stale
+    previousSecret = epoch == currentEpoch + 1 ? currentSecret : Bytes32.random();
+    currentSecret = Bytes32.random();
+    currentEpoch = epoch;
+  }
+
+  private Bytes mac(
+      Bytes secret, long epoch, InetSocketAddress sender, Bytes nodeId, Bytes authTag) {
+    mac.init(new KeyParameter(secret.toArrayUnsafe()));
+    update(sender.getAddress().getAddress());
+    update(new byte[] {(byte) (sender.getPort() >>> 8), (byte) sender.getPort()});
+    update(nodeId.toArrayUnsafe());
+    update(authTag.toArrayUnsafe());
+    update(Bytes.ofUnsignedLong(epoch).toArrayUnsafe());
+    mac.doFinal(macOutput, 0);
+    return Bytes.wrap(macOutput, 0, MAC_SIZE).copy();
+  }
+
+  private void update(byte[] input) {
+    mac.update(input, 0, input.length);
+  }
+}
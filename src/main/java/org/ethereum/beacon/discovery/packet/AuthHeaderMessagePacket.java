@@ -15,12 +15,8 @@ import org.ethereum.beacon.discovery.message.DiscoveryV5Message;
 import org.ethereum.beacon.discovery.schema.NodeRecord;
 import org.ethereum.beacon.discovery.schema.NodeRecordFactory;
 import org.ethereum.beacon.discovery.util.Functions;
-import org.ethereum.beacon.discovery.util.RlpUtil;
-import org.ethereum.beacon.discovery.util.RlpUtil.DecodedList;
-import org.web3j.rlp.RlpDecoder;
-import org.web3j.rlp.RlpEncoder;
-import org.web3j.rlp.RlpList;
-import org.web3j.rlp.RlpString;
+import org.ethereum.beacon.discovery.util.RlpReader;
+import org.ethereum.beacon.discovery.util.RlpWriter;
 
 /**
  * Used as first encrypted message sent in response to WHOAREYOU {@link WhoAreYouPacket}. Contains
@@ -50,6 +46,8 @@ public class AuthHeaderMessagePacket extends AbstractPacket {
 
   private static final Logger logger = LogManager.getLogger();
   public static final String AUTH_SCHEME_NAME = "gcm";
+  private static final Bytes AUTH_SCHEME_NAME_BYTES = Bytes.wrap(AUTH_SCHEME_NAME.getBytes());
+  private static final Bytes EMPTY_LIST_RLP = RlpWriter.create(1).writeListHeader(0).toBytes();
   public static final Bytes DISCOVERY_ID_NONCE = Bytes.wrap("discovery-id-nonce".getBytes());
   private static final Bytes ZERO_NONCE = Bytes.wrap(new byte[12]);
   public static final BigInteger AUTH_HEADER_VERSION = BigInteger.valueOf(5);
@@ -78,11 +76,18 @@ public class AuthHeaderMessagePacket extends AbstractPacket {
   }
 
   public static byte[] createAuthMessagePt(Bytes idNonceSig, @Nullable NodeRecord nodeRecord) {
-    return RlpEncoder.encode(
-        new RlpList(
-            RlpString.create(5),
-            RlpString.create(idNonceSig.toArray()),
-            nodeRecord == null ? new RlpList() : nodeRecord.asRlp()));
+    Bytes nodeRecordRlp = nodeRecord == null ? EMPTY_LIST_RLP : nodeRecord.serialize();
+    int payloadSize =
+        RlpWriter.sizeOfLong(AUTH_HEADER_VERSION.longValue())
+            + RlpWriter.sizeOfBytes(idNonceSig)
+            + nodeRecordRlp.size();
+    return RlpWriter.create(RlpWriter.sizeOfList(payloadSize))
+        .writeListHeader(payloadSize)
+        .writeLong(AUTH_HEADER_VERSION.longValue())
+        .writeBytes(idNonceSig)
+        .writeRaw(nodeRecordRlp)
+        .toBytes()
+        .toArrayUnsafe();
   }
 
   public static Bytes encodeAuthResponse(byte[] authResponsePt, Bytes authResponseKey) {
@@ -92,14 +97,20 @@ public class AuthHeaderMessagePacket extends AbstractPacket {
 
   public static Bytes encodeAuthHeaderRlp(
       Bytes authTag, Bytes idNonce, Bytes ephemeralPubkey, Bytes authResponse) {
-    RlpList authHeaderRlp =
-        new RlpList(
-            RlpString.create(authTag.toArray()),
-            RlpString.create(idNonce.toArray()),
-            RlpString.create(AUTH_SCHEME_NAME.getBytes()),
-            RlpString.create(ephemeralPubkey.toArray()),
-            RlpString.create(authResponse.toArray()));
-    return Bytes.wrap(RlpEncoder.encode(authHeaderRlp));
+    int payloadSize =
+        RlpWriter.sizeOfBytes(authTag)
+            + RlpWriter.sizeOfBytes(idNonce)
+            + RlpWriter.sizeOfBytes(AUTH_SCHEME_NAME_BYTES)
+            + RlpWriter.sizeOfBytes(ephemeralPubkey)
+            + RlpWriter.sizeOfBytes(authResponse);
+    return RlpWriter.create(RlpWriter.sizeOfList(payloadSize))
+        .writeListHeader(payloadSize)
+        .writeBytes(authTag)
+        .writeBytes(idNonce)
+        .writeBytes(AUTH_SCHEME_NAME_BYTES)
+        .writeBytes(ephemeralPubkey)
+        .writeBytes(authResponse)
+        .toBytes();
   }
 
   public static AuthHeaderMessagePacket create(
@@ -152,8 +163,9 @@ public class AuthHeaderMessagePacket extends AbstractPacket {
     return decodedEphemeralPubKeyPt.authTag;
   }
 
+  /** Available after {@link #decodeEphemeralPubKey()} */
   public Bytes getIdNonce() {
-    verifyDecode();
+    verifyEphemeralPubKeyDecode();
     return decodedEphemeralPubKeyPt.idNonce;
   }
 
@@ -194,16 +206,16 @@ public class AuthHeaderMessagePacket extends AbstractPacket {
       return;
     }
     EphemeralPubKeyDecoded blank = new EphemeralPubKeyDecoded();
-    blank.tag = Bytes.wrap(getBytes().slice(0, 32));
-    DecodedList decodeRes = RlpUtil.decodeFirstList(getBytes().slice(32));
-    blank.messageEncrypted = decodeRes.getRemainingData();
-    RlpList authHeaderParts = (RlpList) decodeRes.getList().getValues().get(0);
+    blank.tag = getBytes().slice(0, 32);
+    RlpReader reader = RlpReader.create(getBytes().slice(32));
+    RlpReader authHeaderParts = reader.readList();
+    blank.messageEncrypted = getBytes().slice(32 + reader.position());
     // [auth-tag, id-nonce, auth-scheme-name, ephemeral-pubkey, auth-response]
-    blank.authTag = Bytes.wrap(((RlpString) authHeaderParts.getValues().get(0)).getBytes());
-    blank.idNonce = Bytes.wrap(((RlpString) authHeaderParts.getValues().get(1)).getBytes());
-    blank.authSchemeName = new String(((RlpString) authHeaderParts.getValues().get(2)).getBytes());
-    blank.ephemeralPubkey = Bytes.wrap(((RlpString) authHeaderParts.getValues().get(3)).getBytes());
-    blank.authResponse = Bytes.wrap(((RlpString) authHeaderParts.getValues().get(4)).getBytes());
+    blank.authTag = authHeaderParts.readBytes();
+    blank.idNonce = authHeaderParts.readBytes();
+    blank.authSchemeName = new String(authHeaderParts.readBytes().toArrayUnsafe());
+    blank.ephemeralPubkey = authHeaderParts.readBytes();
+    blank.authResponse = authHeaderParts.readBytes();
     this.decodedEphemeralPubKeyPt = blank;
   }
 
@@ -220,18 +232,16 @@ public class AuthHeaderMessagePacket extends AbstractPacket {
     Bytes authResponsePt =
         Functions.aesgcm_decrypt(
             authResponseKey, ZERO_NONCE, decodedEphemeralPubKeyPt.authResponse, Bytes.EMPTY);
-    RlpList authResponsePtParts =
-        (RlpList) RlpDecoder.decode(authResponsePt.toArray()).getValues().get(0);
+    RlpReader authResponsePtParts = RlpReader.create(authResponsePt).readList();
     Preconditions.checkArgument(
-        AUTH_HEADER_VERSION.equals(
-            ((RlpString) authResponsePtParts.getValues().get(0)).asPositiveBigInteger()),
+        AUTH_HEADER_VERSION.equals(authResponsePtParts.readBigInteger()),
         "Invalid auth header version");
-    blank.idNonceSig = Bytes.wrap(((RlpString) authResponsePtParts.getValues().get(1)).getBytes());
-    RlpList nodeRecordDataList = ((RlpList) authResponsePtParts.getValues().get(2));
+    blank.idNonceSig = authResponsePtParts.readBytes();
+    Bytes nodeRecordRlp = authResponsePtParts.readRaw();
     blank.nodeRecord =
-        nodeRecordDataList.getValues().isEmpty()
-            ? null
-            : nodeRecordFactory.fromRlpList(nodeRecordDataList);
+        RlpReader.create(nodeRecordRlp).readList().hasNext()
+            ? nodeRecordFactory.fromBytes(nodeRecordRlp)
+            : null;
     blank.message =
         new DiscoveryV5Message(
             Functions.aesgcm_decrypt(
@@ -9,9 +9,8 @@ import org.apache.tuweni.bytes.MutableBytes;
 import org.ethereum.beacon.discovery.message.DiscoveryMessage;
 import org.ethereum.beacon.discovery.message.DiscoveryV5Message;
 import org.ethereum.beacon.discovery.util.Functions;
-import org.web3j.rlp.RlpDecoder;
-import org.web3j.rlp.RlpEncoder;
-import org.web3j.rlp.RlpString;
+import org.ethereum.beacon.discovery.util.RlpReader;
+import org.ethereum.beacon.discovery.util.RlpWriter;
 
 /**
  * Used when handshake is completed as a {@link DiscoveryMessage} authenticated container
@@ -29,9 +28,12 @@ public class MessagePacket extends AbstractPacket {
   }
 
   public static MessagePacket create(Bytes tag, Bytes authTag, Bytes messageCipherText) {
-    byte[] authTagBytesRlp = RlpEncoder.encode(RlpString.create(authTag.toArray()));
-    Bytes authTagEncoded = Bytes.wrap(authTagBytesRlp);
-    return new MessagePacket(Bytes.concatenate(tag, authTagEncoded, messageCipherText));
+    return new MessagePacket(
+        RlpWriter.create(tag.size() + RlpWriter.sizeOfBytes(authTag) + messageCipherText.size())
+            .writeRaw(tag)
+            .writeBytes(authTag)
+            .writeRaw(messageCipherText)
+            .toBytes());
   }
 
   public static MessagePacket create(
@@ -52,9 +54,7 @@ public class MessagePacket extends AbstractPacket {
 
   public Bytes getAuthTag() {
     if (decoded == null) {
-      return Bytes.wrap(
-          ((RlpString) RlpDecoder.decode(getBytes().slice(32, 13).toArray()).getValues().get(0))
-              .getBytes());
+      return RlpReader.create(getBytes().slice(32)).readBytes();
     }
     return decoded.authTag;
   }
@@ -75,14 +75,13 @@ public class MessagePacket extends AbstractPacket {
       return;
     }
     MessagePacketDecoded blank = new MessagePacketDecoded();
-    blank.tag = Bytes.wrap(getBytes().slice(0, 32));
-    blank.authTag =
-        Bytes.wrap(
-            ((RlpString) RlpDecoder.decode(getBytes().slice(32, 13).toArray()).getValues().get(0))
-                .getBytes());
+    blank.tag = getBytes().slice(0, 32);
+    RlpReader reader = RlpReader.create(getBytes().slice(32));
+    blank.authTag = reader.readBytes();
     blank.message =
         new DiscoveryV5Message(
-            Functions.aesgcm_decrypt(readKey, blank.authTag, getBytes().slice(45), blank.tag));
+            Functions.aesgcm_decrypt(
+                readKey, blank.authTag, getBytes().slice(32 + reader.position()), blank.tag));
     this.decoded = blank;
   }
 
@@ -8,9 +8,8 @@ import com.google.common.base.Preconditions;
 import java.util.Random;
 import org.apache.tuweni.bytes.Bytes;
 import org.ethereum.beacon.discovery.util.Functions;
-import org.web3j.rlp.RlpDecoder;
-import org.web3j.rlp.RlpEncoder;
-import org.web3j.rlp.RlpString;
+import org.ethereum.beacon.discovery.util.RlpReader;
+import org.ethereum.beacon.discovery.util.RlpWriter;
 
 /**
  * Sent if no session keys are available to initiate handshake
@@ -39,9 +38,12 @@ public class RandomPacket extends AbstractPacket {
     Preconditions.checkArgument(
         randomBytes.size() >= MIN_RANDOM_BYTES,
         "Random bytes must be at least " + MIN_RANDOM_BYTES + " bytes");
-    byte[] authTagRlp = RlpEncoder.encode(RlpString.create(authTag.toArray()));
-    Bytes authTagEncoded = Bytes.wrap(authTagRlp);
-    return new RandomPacket(Bytes.concatenate(tag, authTagEncoded, randomBytes));
+    return new RandomPacket(
+        RlpWriter.create(tag.size() + RlpWriter.sizeOfBytes(authTag) + randomBytes.size())
+            .writeRaw(tag)
+            .writeBytes(authTag)
+            .writeRaw(randomBytes)
+            .toBytes());
   }
 
   public static RandomPacket create(Bytes homeNodeId, Bytes destNodeId, Bytes authTag, Random rnd) {
@@ -65,14 +67,10 @@ public class RandomPacket extends AbstractPacket {
       return;
     }
     RandomPacketDecoded blank = new RandomPacketDecoded();
-    blank.tag = Bytes.wrap(getBytes().slice(0, 32));
+    blank.tag = getBytes().slice(0, 32);
     blank.authTag =
-        Bytes.wrap(
-            ((RlpString)
-                    RlpDecoder.decode(getBytes().slice(32, getBytes().size() - 32 - 44).toArray())
-                        .getValues()
-                        .get(0))
-                .getBytes());
+        RlpReader.create(getBytes().slice(32, getBytes().size() - 32 - MIN_RANDOM_BYTES))
+            .readBytes();
     this.decoded = blank;
   }
 
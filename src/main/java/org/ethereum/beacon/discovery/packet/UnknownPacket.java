@@ -39,6 +39,15 @@ public class UnknownPacket extends AbstractPacket {
         && WhoAreYouPacket.getStartMagic(destNodeId).equals(bytes.slice(0, START_MAGIC_LENGTH));
   }
 
+  /**
+   * Auth header packet has RLP list of the header after the tag, while message and random packets
+   * have RLP encoded auth tag there
+   */
+  public boolean isAuthHeaderMessagePacket() {
+    final Bytes bytes = getBytes();
+    return bytes.size() > START_MAGIC_LENGTH && (bytes.get(START_MAGIC_LENGTH) & 0xFF) >= 0xC0;
+  }
+
   // tag              = xor(sha256(dest-node-id), src-node-id)
   // dest-node-id     = 32-byte node ID of B
   // src-node-id      = 32-byte node ID of A
@@ -7,11 +7,8 @@ package org.ethereum.beacon.discovery.packet;
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.units.bigints.UInt64;
 import org.ethereum.beacon.discovery.util.Functions;
-import org.ethereum.beacon.discovery.util.Utils;
-import org.web3j.rlp.RlpDecoder;
-import org.web3j.rlp.RlpEncoder;
-import org.web3j.rlp.RlpList;
-import org.web3j.rlp.RlpString;
+import org.ethereum.beacon.discovery.util.RlpReader;
+import org.ethereum.beacon.discovery.util.RlpWriter;
 
 /**
  * The WHOAREYOU packet, used during the handshake as a response to any message received from
@@ -42,13 +39,18 @@ public class WhoAreYouPacket extends AbstractPacket {
 
   public static WhoAreYouPacket createFromMagic(
       Bytes magic, Bytes authTag, Bytes idNonce, UInt64 enrSeq) {
-    byte[] rlpListEncoded =
-        RlpEncoder.encode(
-            new RlpList(
-                RlpString.create(authTag.toArray()),
-                RlpString.create(idNonce.toArray()),
-                RlpString.create(enrSeq.toBigInteger())));
-    return new WhoAreYouPacket(Bytes.concatenate(magic, Bytes.wrap(rlpListEncoded)));
+    int payloadSize =
+        RlpWriter.sizeOfBytes(authTag)
+            + RlpWriter.sizeOfBytes(idNonce)
+            + RlpWriter.sizeOfUInt64(enrSeq);
+    return new WhoAreYouPacket(
+        RlpWriter.create(magic.size() + RlpWriter.sizeOfList(payloadSize))
+            .writeRaw(magic)
+            .writeListHeader(payloadSize)
+            .writeBytes(authTag)
+            .writeBytes(idNonce)
+            .writeUInt64(enrSeq)
+            .toBytes());
   }
 
   /** Calculates first 32 bytes of WHOAREYOU packet */
@@ -82,14 +84,11 @@ public class WhoAreYouPacket extends AbstractPacket {
       return;
     }
     WhoAreYouDecoded blank = new WhoAreYouDecoded();
-    blank.magic = Bytes.wrap(getBytes().slice(0, 32));
-    RlpList payload =
-        (RlpList) RlpDecoder.decode(getBytes().slice(32).toArray()).getValues().get(0);
-    blank.authTag = Bytes.wrap(((RlpString) payload.getValues().get(0)).getBytes());
-    blank.idNonce = Bytes.wrap(((RlpString) payload.getValues().get(1)).getBytes());
-    blank.enrSeq =
-        UInt64.fromBytes(
-            Utils.leftPad(Bytes.wrap(((RlpString) payload.getValues().get(2)).getBytes()), 8));
+    blank.magic = getBytes().slice(0, 32);
+    RlpReader payload = RlpReader.create(getBytes().slice(32)).readList();
+    blank.authTag = payload.readBytes();
+    blank.idNonce = payload.readBytes();
+    blank.enrSeq = payload.readUInt64();
     this.decoded = blank;
   }
 
@@ -18,6 +18,7 @@ public enum Field {
   BAD_PACKET, // Bad, rejected packet
   BAD_MESSAGE, // Bad, rejected message
   BAD_EXCEPTION, // Stores exception for bad packet or message
+  BAD_PACKET_REASON, // Reason of bad packet rejection, BadPacketReason
   TASK, // Task to perform
   TASK_OPTIONS, // Task options
   FUTURE, // Completable future
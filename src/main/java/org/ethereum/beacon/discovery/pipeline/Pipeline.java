@@ -22,4 +22,10 @@ public interface Pipeline {
 
   /** Stream from the exit of built pipeline */
   Publisher<Envelope> getOutgoingEnvelopes();
+
+  /**
+   * Number of objects pushed but not yet passed through all handlers, including ones waiting for
+   * concurrent pushes to complete
+   */
+  int getQueueDepth();
 }
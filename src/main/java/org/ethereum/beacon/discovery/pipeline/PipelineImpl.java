@@ -9,6 +9,7 @@ import static org.ethereum.beacon.discovery.pipeline.Field.INCOMING;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.FluxSink;
@@ -17,6 +18,7 @@ import reactor.core.publisher.ReplayProcessor;
 public class PipelineImpl implements Pipeline {
   private final List<EnvelopeHandler> envelopeHandlers = new ArrayList<>();
   private final AtomicBoolean started = new AtomicBoolean(false);
+  private final AtomicInteger queueDepth = new AtomicInteger();
   private Flux<Envelope> pipeline = ReplayProcessor.cacheLast();
   private final FluxSink<Envelope> pipelineSink = ((ReplayProcessor<Envelope>) pipeline).sink();
 
@@ -26,7 +28,7 @@ public class PipelineImpl implements Pipeline {
     for (EnvelopeHandler handler : envelopeHandlers) {
       pipeline = pipeline.doOnNext(handler::handle);
     }
-    Flux.from(pipeline).subscribe();
+    Flux.from(pipeline).subscribe(envelope -> queueDepth.decrementAndGet());
     return this;
   }
 
@@ -35,6 +37,7 @@ public class PipelineImpl implements Pipeline {
     if (!started.get()) {
       throw new RuntimeException("You should build pipeline first");
     }
+    queueDepth.incrementAndGet();
     if (!(object instanceof Envelope)) {
       Envelope envelope = new Envelope();
       envelope.put(INCOMING, object);
@@ -57,4 +60,9 @@ public class PipelineImpl implements Pipeline {
   public Publisher<Envelope> getOutgoingEnvelopes() {
     return pipeline;
   }
+
+  @Override
+  public int getQueueDepth() {
+    return queueDepth.get();
+  }
 }
@@ -0,0 +1,51 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.pipeline.handler;
+
+import java.net.InetSocketAddress;
+import java.util.Optional;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.ethereum.beacon.discovery.metrics.DiscoveryMetrics;
+import org.ethereum.beacon.discovery.metrics.DropReason;
+import org.ethereum.beacon.discovery.network.AdmissionControl;
+import org.ethereum.beacon.discovery.pipeline.Envelope;
+import org.ethereum.beacon.discovery.pipeline.EnvelopeHandler;
+import org.ethereum.beacon.discovery.pipeline.Field;
+import org.ethereum.beacon.discovery.pipeline.HandlerUtil;
+
+/**
+ * Drops packet in {@link Field#PACKET_UNKNOWN} if its sender from {@link Field#REMOTE_SENDER} is
+ * over the limits of {@link AdmissionControl}, so no session is created for it.
+ */
+public class AdmissionControlHandler implements EnvelopeHandler {
+  private static final Logger logger = LogManager.getLogger(AdmissionControlHandler.class);
+  private final AdmissionControl admissionControl;
+  private final DiscoveryMetrics metrics;
+
+  public AdmissionControlHandler(AdmissionControl admissionControl, DiscoveryMetrics metrics) {
+    this.admissionControl = admissionControl;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void handle(Envelope envelope) {
+    if (!HandlerUtil.requireField(Field.PACKET_UNKNOWN, envelope)
+        || !HandlerUtil.requireField(Field.REMOTE_SENDER, envelope)) {
+      return;
+    }
+    InetSocketAddress sender = (InetSocketAddress) envelope.get(Field.REMOTE_SENDER);
+    Optional<DropReason> dropReason = admissionControl.admit(sender.getAddress());
+    if (dropReason.isPresent()) {
+      logger.trace(
+          "Envelope {}: dropping packet from {}, {}",
+          envelope.getId(),
+          sender,
+          dropReason.get());
+      envelope.remove(Field.PACKET_UNKNOWN);
+      metrics.onPacketDropped(dropReason.get());
+    }
+  }
+}
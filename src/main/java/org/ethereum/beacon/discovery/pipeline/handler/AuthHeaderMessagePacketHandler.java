@@ -62,13 +62,11 @@ public class AuthHeaderMessagePacketHandler implements EnvelopeHandler {
     try {
       packet.decodeEphemeralPubKey();
       Bytes ephemeralPubKey = packet.getEphemeralPubkey();
+      Bytes keyAgreement =
+          Functions.deriveEphemeralECDHKeyAgreement(session.getStaticNodeKey(), ephemeralPubKey);
       Functions.HKDFKeys keys =
           Functions.hkdf_expand(
-              session.getNodeId(),
-              session.getHomeNodeId(),
-              session.getStaticNodeKey(),
-              ephemeralPubKey,
-              session.getIdNonce());
+              session.getNodeId(), session.getHomeNodeId(), keyAgreement, session.getIdNonce());
       // Swap keys because we are not initiator, other side is
       session.setInitiatorKey(keys.getRecipientKey());
       session.setRecipientKey(keys.getInitiatorKey());
@@ -120,6 +118,7 @@ public class AuthHeaderMessagePacketHandler implements EnvelopeHandler {
 
   private void markHandshakeAsFailed(final Envelope envelope, final NodeSession session) {
     envelope.remove(Field.PACKET_AUTH_HEADER_MESSAGE);
+    session.getMetrics().onHandshakeFailed();
     session.cancelAllRequests("Failed to handshake");
   }
 }
@@ -6,14 +6,21 @@ package org.ethereum.beacon.discovery.pipeline.handler;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.ethereum.beacon.discovery.metrics.BadPacketReason;
+import org.ethereum.beacon.discovery.metrics.DiscoveryMetrics;
 import org.ethereum.beacon.discovery.pipeline.Envelope;
 import org.ethereum.beacon.discovery.pipeline.EnvelopeHandler;
 import org.ethereum.beacon.discovery.pipeline.Field;
 import org.ethereum.beacon.discovery.pipeline.HandlerUtil;
 
-/** Handles packet from {@link Field#BAD_PACKET}. Currently just logs it. */
+/** Handles packet from {@link Field#BAD_PACKET}. Currently just logs it and reports to metrics. */
 public class BadPacketHandler implements EnvelopeHandler {
   private static final Logger logger = LogManager.getLogger(BadPacketHandler.class);
+  private final DiscoveryMetrics metrics;
+
+  public BadPacketHandler(DiscoveryMetrics metrics) {
+    this.metrics = metrics;
+  }
 
   @Override
   public void handle(Envelope envelope) {
@@ -37,6 +44,8 @@ public class BadPacketHandler implements EnvelopeHandler {
         envelope.get(Field.BAD_EXCEPTION) == null
             ? null
             : (Exception) envelope.get(Field.BAD_EXCEPTION));
+    BadPacketReason reason = (BadPacketReason) envelope.get(Field.BAD_PACKET_REASON);
+    metrics.onBadPacket(reason == null ? BadPacketReason.OTHER : reason);
     // TODO: Reputation penalty etc
   }
 }
@@ -7,6 +7,7 @@ package org.ethereum.beacon.discovery.pipeline.handler;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.tuweni.bytes.Bytes;
+import org.ethereum.beacon.discovery.metrics.BadPacketReason;
 import org.ethereum.beacon.discovery.packet.UnknownPacket;
 import org.ethereum.beacon.discovery.pipeline.Envelope;
 import org.ethereum.beacon.discovery.pipeline.EnvelopeHandler;
@@ -42,6 +43,7 @@ public class IncomingDataPacker implements EnvelopeHandler {
               String.format("Incoming packet %s in envelope #%s", unknownPacket, envelope.getId()));
     } catch (Exception ex) {
       envelope.put(Field.BAD_PACKET, unknownPacket);
+      envelope.put(Field.BAD_PACKET_REASON, BadPacketReason.MALFORMED);
       envelope.put(Field.BAD_EXCEPTION, ex);
       envelope.put(Field.BAD_MESSAGE, "Incoming packet verification not passed");
       logger.trace(
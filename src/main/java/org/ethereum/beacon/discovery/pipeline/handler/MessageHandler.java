@@ -13,6 +13,7 @@ import org.ethereum.beacon.discovery.pipeline.Field;
 import org.ethereum.beacon.discovery.pipeline.HandlerUtil;
 import org.ethereum.beacon.discovery.processor.DiscoveryV5MessageProcessor;
 import org.ethereum.beacon.discovery.processor.MessageProcessor;
+import org.ethereum.beacon.discovery.scheduler.Scheduler;
 import org.ethereum.beacon.discovery.schema.NodeRecordFactory;
 import org.ethereum.beacon.discovery.schema.NodeSession;
 import org.ethereum.beacon.discovery.storage.LocalNodeRecordStore;
@@ -22,10 +23,14 @@ public class MessageHandler implements EnvelopeHandler {
   private final MessageProcessor messageProcessor;
 
   public MessageHandler(
-      NodeRecordFactory nodeRecordFactory, final LocalNodeRecordStore localNodeRecordStore) {
+      NodeRecordFactory nodeRecordFactory,
+      final LocalNodeRecordStore localNodeRecordStore,
+      Scheduler validationScheduler,
+      Scheduler sessionScheduler) {
     this.messageProcessor =
         new MessageProcessor(
-            new DiscoveryV5MessageProcessor(nodeRecordFactory, localNodeRecordStore));
+            new DiscoveryV5MessageProcessor(
+                nodeRecordFactory, localNodeRecordStore, validationScheduler, sessionScheduler));
   }
 
   @Override
@@ -6,6 +6,7 @@ package org.ethereum.beacon.discovery.pipeline.handler;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.ethereum.beacon.discovery.metrics.BadPacketReason;
 import org.ethereum.beacon.discovery.packet.MessagePacket;
 import org.ethereum.beacon.discovery.pipeline.Envelope;
 import org.ethereum.beacon.discovery.pipeline.EnvelopeHandler;
@@ -50,6 +51,7 @@ public class MessagePacketHandler implements EnvelopeHandler {
       logger.debug(error, ex);
       envelope.remove(Field.PACKET_MESSAGE);
       envelope.put(Field.BAD_PACKET, packet);
+      envelope.put(Field.BAD_PACKET_REASON, BadPacketReason.UNDECRYPTABLE);
       return;
     }
     envelope.remove(Field.PACKET_MESSAGE);
@@ -5,12 +5,10 @@
 package org.ethereum.beacon.discovery.pipeline.handler;
 
 import java.security.SecureRandom;
-import java.time.Duration;
 import java.util.Optional;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.tuweni.bytes.Bytes;
-import org.ethereum.beacon.discovery.packet.MessagePacket;
 import org.ethereum.beacon.discovery.packet.RandomPacket;
 import org.ethereum.beacon.discovery.pipeline.Envelope;
 import org.ethereum.beacon.discovery.pipeline.EnvelopeHandler;
@@ -20,28 +18,20 @@ import org.ethereum.beacon.discovery.pipeline.Pipeline;
 import org.ethereum.beacon.discovery.pipeline.info.RequestInfo;
 import org.ethereum.beacon.discovery.scheduler.Scheduler;
 import org.ethereum.beacon.discovery.schema.NodeSession;
-import org.ethereum.beacon.discovery.task.TaskMessageFactory;
-import org.ethereum.beacon.discovery.task.TaskStatus;
 
-/** Gets next request task in session and processes it */
+/**
+ * Sends requests queued in session: starts handshake for a new session or sends all requests the
+ * session in-flight window allows when it's authenticated
+ */
 public class NextTaskHandler implements EnvelopeHandler {
   private static final Logger logger = LogManager.getLogger(NextTaskHandler.class);
-  private static final int DEFAULT_DELAY_MS = 1000;
-  private final Pipeline outgoingPipeline;
-  private final Scheduler scheduler;
-
-  public NextTaskHandler(Pipeline outgoingPipeline, Scheduler scheduler) {
-    this.outgoingPipeline = outgoingPipeline;
-    this.scheduler = scheduler;
-  }
 
   public static void tryToSendAwaitTaskIfAny(
       NodeSession session, Pipeline outgoingPipeline, Scheduler scheduler) {
     if (session.getFirstAwaitRequestInfo().isPresent()) {
       Envelope dummy = new Envelope();
       dummy.put(Field.SESSION, session);
-      scheduler.executeWithDelay(
-          Duration.ofMillis(DEFAULT_DELAY_MS), () -> outgoingPipeline.push(dummy));
+      scheduler.execute(() -> outgoingPipeline.push(dummy));
     }
   }
 
@@ -61,20 +51,18 @@ public class NextTaskHandler implements EnvelopeHandler {
                 "Envelope %s in NextTaskHandler, requirements are satisfied!", envelope.getId()));
 
     NodeSession session = (NodeSession) envelope.get(Field.SESSION);
-    Optional<RequestInfo> requestInfoOpt = session.getFirstAwaitRequestInfo();
-    if (!requestInfoOpt.isPresent()) {
-      logger.trace(() -> String.format("Envelope %s: no awaiting requests", envelope.getId()));
-      return;
-    }
-
-    RequestInfo requestInfo = requestInfoOpt.get();
-    logger.trace(
-        () ->
-            String.format(
-                "Envelope %s: processing awaiting request %s", envelope.getId(), requestInfo));
-    Bytes authTag = session.generateNonce();
-    Bytes requestId = requestInfo.getRequestId();
     if (session.getStatus().equals(NodeSession.SessionStatus.INITIAL)) {
+      Optional<RequestInfo> requestInfoOpt = session.getFirstAwaitRequestInfo();
+      if (requestInfoOpt.isEmpty()) {
+        logger.trace(() -> String.format("Envelope %s: no awaiting requests", envelope.getId()));
+        return;
+      }
+      logger.trace(
+          () ->
+              String.format(
+                  "Envelope %s: starting handshake for awaiting request %s",
+                  envelope.getId(), requestInfoOpt.get()));
+      Bytes authTag = session.generateNonce();
       RandomPacket randomPacket =
           RandomPacket.create(
               session.getHomeNodeId(), session.getNodeId(), authTag, new SecureRandom());
@@ -82,11 +70,7 @@ public class NextTaskHandler implements EnvelopeHandler {
       session.sendOutgoing(randomPacket);
       session.setStatus(NodeSession.SessionStatus.RANDOM_PACKET_SENT);
     } else if (session.getStatus().equals(NodeSession.SessionStatus.AUTHENTICATED)) {
-      MessagePacket messagePacket =
-          TaskMessageFactory.createPacketFromRequest(requestInfo, authTag, session);
-      session.sendOutgoing(messagePacket);
-      session.updateRequestInfo(requestId, requestInfo.withStatus(TaskStatus.SENT));
-      tryToSendAwaitTaskIfAny(session, outgoingPipeline, scheduler);
+      session.sendAwaitingRequests();
     }
   }
 }
@@ -13,14 +13,25 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.units.bigints.UInt64;
+import org.ethereum.beacon.discovery.metrics.BadPacketReason;
+import org.ethereum.beacon.discovery.metrics.DiscoveryMetrics;
+import org.ethereum.beacon.discovery.metrics.PacketType;
+import org.ethereum.beacon.discovery.network.NetworkParcel;
+import org.ethereum.beacon.discovery.network.NetworkParcelV5;
+import org.ethereum.beacon.discovery.network.StatelessChallenge;
+import org.ethereum.beacon.discovery.packet.AuthHeaderMessagePacket;
+import org.ethereum.beacon.discovery.packet.UnknownPacket;
+import org.ethereum.beacon.discovery.packet.WhoAreYouPacket;
 import org.ethereum.beacon.discovery.pipeline.Envelope;
 import org.ethereum.beacon.discovery.pipeline.EnvelopeHandler;
 import org.ethereum.beacon.discovery.pipeline.Field;
 import org.ethereum.beacon.discovery.pipeline.HandlerUtil;
-import org.ethereum.beacon.discovery.pipeline.Pipeline;
 import org.ethereum.beacon.discovery.scheduler.ExpirationScheduler;
 import org.ethereum.beacon.discovery.scheduler.ExpirationSchedulerFactory;
 import org.ethereum.beacon.discovery.schema.NodeRecord;
@@ -29,6 +40,7 @@ import org.ethereum.beacon.discovery.schema.NodeSession;
 import org.ethereum.beacon.discovery.storage.AuthTagRepository;
 import org.ethereum.beacon.discovery.storage.LocalNodeRecordStore;
 import org.ethereum.beacon.discovery.storage.NodeBucketStorage;
+import org.ethereum.beacon.discovery.storage.NodeRecordListener;
 import org.ethereum.beacon.discovery.storage.NodeTable;
 
 /**
@@ -42,31 +54,56 @@ public class NodeIdToSession implements EnvelopeHandler {
   private final LocalNodeRecordStore localNodeRecordStore;
   private final Bytes staticNodeKey;
   private final NodeBucketStorage nodeBucketStorage;
+  private final NodeRecordListener nodeRecordListener;
   private final AuthTagRepository authTagRepo;
   private final Map<SessionKey, NodeSession> recentSessions = new ConcurrentHashMap<>();
   private final NodeTable nodeTable;
-  private final Pipeline outgoingPipeline;
+  private final Consumer<NetworkParcel> outgoingSender;
   private final ExpirationScheduler<SessionKey> sessionExpirationScheduler;
   private final ExpirationScheduler<Bytes> requestExpirationScheduler;
+  private final int maxRequestsInFlight;
+  private final DiscoveryMetrics metrics;
+  private final Optional<StatelessChallenge> statelessChallenge;
+  private final LongSupplier clockMillis;
 
   public NodeIdToSession(
       LocalNodeRecordStore localNodeRecordStore,
       Bytes staticNodeKey,
       NodeBucketStorage nodeBucketStorage,
+      NodeRecordListener nodeRecordListener,
       AuthTagRepository authTagRepo,
       NodeTable nodeTable,
-      Pipeline outgoingPipeline,
-      ExpirationSchedulerFactory expirationSchedulerFactory) {
+      Consumer<NetworkParcel> outgoingSender,
+      ExpirationSchedulerFactory expirationSchedulerFactory,
+      int maxRequestsInFlight,
+      DiscoveryMetrics metrics,
+      Optional<StatelessChallenge> statelessChallenge,
+      LongSupplier clockMillis) {
     this.localNodeRecordStore = localNodeRecordStore;
     this.staticNodeKey = staticNodeKey;
     this.nodeBucketStorage = nodeBucketStorage;
+    this.nodeRecordListener = nodeRecordListener;
     this.authTagRepo = authTagRepo;
     this.nodeTable = nodeTable;
-    this.outgoingPipeline = outgoingPipeline;
+    this.outgoingSender = outgoingSender;
     this.sessionExpirationScheduler =
         expirationSchedulerFactory.create(SESSION_CLEANUP_DELAY_SECONDS, TimeUnit.SECONDS);
     this.requestExpirationScheduler =
         expirationSchedulerFactory.create(REQUEST_CLEANUP_DELAY_SECONDS, TimeUnit.SECONDS);
+    this.maxRequestsInFlight = maxRequestsInFlight;
+    this.metrics = metrics;
+    this.statelessChallenge = statelessChallenge;
+    this.clockMillis = clockMillis;
+  }
+
+  /** Number of sessions with other nodes, including sessions which are not authenticated */
+  public int getSessionCount() {
+    return recentSessions.size();
+  }
+
+  /** Existing session with the node at `remoteAddress`, doesn't create one. Thread-safe. */
+  public Optional<NodeSession> getSession(Bytes nodeId, InetSocketAddress remoteAddress) {
+    return Optional.ofNullable(recentSessions.get(new SessionKey(nodeId, remoteAddress)));
   }
 
   @Override
@@ -84,9 +121,25 @@ public class NodeIdToSession implements EnvelopeHandler {
         "Envelope {}: Session lookup requested for nodeId {}",
         envelope.getId(),
         sessionRequest.getNodeId());
-    getOrCreateSession(sessionRequest.getNodeId(), envelope)
+    final Bytes nodeId = sessionRequest.getNodeId();
+    final Optional<Bytes> answeredIdNonce;
+    if (isUnknownSender(nodeId, envelope)) {
+      answeredIdNonce = handleUnknownSender(nodeId, envelope);
+      if (answeredIdNonce.isEmpty()) {
+        return;
+      }
+    } else {
+      answeredIdNonce = Optional.empty();
+    }
+    getOrCreateSession(nodeId, envelope)
         .ifPresentOrElse(
             nodeSession -> {
+              answeredIdNonce.ifPresent(
+                  idNonce -> {
+                    // Session starts as if it has sent the challenge which is answered
+                    nodeSession.setIdNonce(idNonce);
+                    nodeSession.setStatus(NodeSession.SessionStatus.WHOAREYOU_SENT);
+                  });
               envelope.put(Field.SESSION, nodeSession);
               logger.trace("Session resolved: {} in envelope #{}", nodeSession, envelope.getId());
             },
@@ -95,6 +148,54 @@ public class NodeIdToSession implements EnvelopeHandler {
                     "Session could not be resolved or created for {}", sessionRequest.getNodeId()));
   }
 
+  /** Incoming packet from a sender without session, while stateless challenge is enabled */
+  private boolean isUnknownSender(Bytes nodeId, Envelope envelope) {
+    InetSocketAddress sender = (InetSocketAddress) envelope.get(Field.REMOTE_SENDER);
+    return statelessChallenge.isPresent()
+        && sender != null
+        && envelope.contains(Field.PACKET_UNKNOWN)
+        && !recentSessions.containsKey(new SessionKey(nodeId, sender));
+  }
+
+  /**
+   * Answers packet of unknown sender with WHOAREYOU without creating a session. Returns id-nonce
+   * if the packet is a valid answer to such a challenge and a session should be created for it.
+   */
+  private Optional<Bytes> handleUnknownSender(Bytes nodeId, Envelope envelope) {
+    StatelessChallenge challenge = statelessChallenge.orElseThrow();
+    InetSocketAddress sender = (InetSocketAddress) envelope.get(Field.REMOTE_SENDER);
+    UnknownPacket packet = (UnknownPacket) envelope.get(Field.PACKET_UNKNOWN);
+    try {
+      if (packet.isAuthHeaderMessagePacket()) {
+        AuthHeaderMessagePacket authHeaderPacket = packet.getAuthHeaderMessagePacket();
+        authHeaderPacket.decodeEphemeralPubKey();
+        Bytes idNonce = authHeaderPacket.getIdNonce();
+        if (challenge.isValid(idNonce, sender, nodeId)) {
+          return Optional.of(idNonce);
+        }
+        logger.trace("Envelope {}: invalid challenge answer from {}", envelope.getId(), sender);
+        envelope.put(Field.BAD_PACKET, packet);
+        envelope.put(Field.BAD_PACKET_REASON, BadPacketReason.INVALID_CHALLENGE);
+      } else {
+        metrics.onPacketReceived(PacketType.RANDOM);
+        Bytes authTag = NotExpectedIncomingPacketHandler.getAuthTag(packet);
+        UInt64 enrSeq =
+            nodeTable.getNode(nodeId).map(node -> node.getNode().getSeq()).orElse(UInt64.ZERO);
+        WhoAreYouPacket whoAreYouPacket =
+            WhoAreYouPacket.createFromNodeId(
+                nodeId, authTag, challenge.createIdNonce(sender, nodeId, authTag), enrSeq);
+        outgoingSender.accept(new NetworkParcelV5(whoAreYouPacket, sender));
+      }
+    } catch (Exception ex) {
+      logger.debug(String.format("Failed to read packet %s from %s", packet, sender), ex);
+      envelope.put(Field.BAD_PACKET, packet);
+      envelope.put(Field.BAD_PACKET_REASON, BadPacketReason.MALFORMED);
+      envelope.put(Field.BAD_EXCEPTION, ex);
+    }
+    envelope.remove(Field.PACKET_UNKNOWN);
+    return Optional.empty();
+  }
+
   private Optional<NodeSession> getOrCreateSession(Bytes nodeId, Envelope envelope) {
     return getRemoteSocketAddress(envelope)
         .map(
@@ -124,10 +225,14 @@ public class NodeIdToSession implements EnvelopeHandler {
         staticNodeKey,
         nodeTable,
         nodeBucketStorage,
+        nodeRecordListener,
         authTagRepo,
-        outgoingPipeline::push,
+        outgoingSender,
         random,
-        requestExpirationScheduler);
+        requestExpirationScheduler,
+        maxRequestsInFlight,
+        metrics,
+        clockMillis);
   }
 
   private Optional<InetSocketAddress> getRemoteSocketAddress(final Envelope envelope) {
@@ -8,8 +8,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.units.bigints.UInt64;
-import org.ethereum.beacon.discovery.packet.MessagePacket;
-import org.ethereum.beacon.discovery.packet.RandomPacket;
+import org.ethereum.beacon.discovery.metrics.BadPacketReason;
 import org.ethereum.beacon.discovery.packet.UnknownPacket;
 import org.ethereum.beacon.discovery.packet.WhoAreYouPacket;
 import org.ethereum.beacon.discovery.pipeline.Envelope;
@@ -46,19 +45,7 @@ public class NotExpectedIncomingPacketHandler implements EnvelopeHandler {
     UnknownPacket unknownPacket = (UnknownPacket) envelope.get(Field.PACKET_UNKNOWN);
     NodeSession session = (NodeSession) envelope.get(Field.SESSION);
     try {
-      // packet it either random or message packet if session is expired
-      Bytes authTag = null;
-      try {
-        RandomPacket randomPacket = unknownPacket.getRandomPacket();
-        authTag = randomPacket.getAuthTag();
-      } catch (Exception ex) {
-        // Not fatal, 1st attempt
-      }
-      // 2nd attempt
-      if (authTag == null) {
-        MessagePacket messagePacket = unknownPacket.getMessagePacket();
-        authTag = messagePacket.getAuthTag();
-      }
+      Bytes authTag = getAuthTag(unknownPacket);
       session.setAuthTag(authTag);
       byte[] idNonceBytes = new byte[32];
       Functions.getRandom().nextBytes(idNonceBytes);
@@ -78,6 +65,7 @@ public class NotExpectedIncomingPacketHandler implements EnvelopeHandler {
               unknownPacket, session.getNodeRecord(), session.getStatus());
       logger.debug(error, ex);
       envelope.put(Field.BAD_PACKET, envelope.get(Field.PACKET_UNKNOWN));
+      envelope.put(Field.BAD_PACKET_REASON, BadPacketReason.MALFORMED);
       envelope.put(Field.BAD_EXCEPTION, ex);
       envelope.remove(Field.PACKET_UNKNOWN);
       return;
@@ -85,4 +73,16 @@ public class NotExpectedIncomingPacketHandler implements EnvelopeHandler {
     session.setStatus(NodeSession.SessionStatus.WHOAREYOU_SENT);
     envelope.remove(Field.PACKET_UNKNOWN);
   }
+
+  /** Auth tag of packet which should be answered with WHOAREYOU */
+  static Bytes getAuthTag(UnknownPacket unknownPacket) {
+    // packet it either random or message packet if session is expired
+    try {
+      return unknownPacket.getRandomPacket().getAuthTag();
+    } catch (Exception ex) {
+      // Not fatal, 1st attempt
+    }
+    // 2nd attempt
+    return unknownPacket.getMessagePacket().getAuthTag();
+  }
 }
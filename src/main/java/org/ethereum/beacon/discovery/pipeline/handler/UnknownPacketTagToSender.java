@@ -7,6 +7,7 @@ package org.ethereum.beacon.discovery.pipeline.handler;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.tuweni.bytes.Bytes;
+import org.ethereum.beacon.discovery.metrics.BadPacketReason;
 import org.ethereum.beacon.discovery.packet.UnknownPacket;
 import org.ethereum.beacon.discovery.pipeline.Envelope;
 import org.ethereum.beacon.discovery.pipeline.EnvelopeHandler;
@@ -54,6 +55,7 @@ public class UnknownPacketTagToSender implements EnvelopeHandler {
             fromNodeId -> envelope.put(Field.SESSION_LOOKUP, new SessionLookup(fromNodeId)),
             () -> {
               envelope.put(Field.BAD_PACKET, envelope.get(Field.PACKET_UNKNOWN));
+              envelope.put(Field.BAD_PACKET_REASON, BadPacketReason.UNKNOWN_SENDER);
               envelope.remove(Field.PACKET_UNKNOWN);
             });
   }
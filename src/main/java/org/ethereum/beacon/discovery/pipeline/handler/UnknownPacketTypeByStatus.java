@@ -6,6 +6,8 @@ package org.ethereum.beacon.discovery.pipeline.handler;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.ethereum.beacon.discovery.metrics.DiscoveryMetrics;
+import org.ethereum.beacon.discovery.metrics.PacketType;
 import org.ethereum.beacon.discovery.packet.AuthHeaderMessagePacket;
 import org.ethereum.beacon.discovery.packet.MessagePacket;
 import org.ethereum.beacon.discovery.packet.UnknownPacket;
@@ -21,6 +23,11 @@ import org.ethereum.beacon.discovery.schema.NodeSession;
  */
 public class UnknownPacketTypeByStatus implements EnvelopeHandler {
   private static final Logger logger = LogManager.getLogger(UnknownPacketTypeByStatus.class);
+  private final DiscoveryMetrics metrics;
+
+  public UnknownPacketTypeByStatus(DiscoveryMetrics metrics) {
+    this.metrics = metrics;
+  }
 
   @Override
   public void handle(Envelope envelope) {
@@ -47,11 +54,13 @@ public class UnknownPacketTypeByStatus implements EnvelopeHandler {
       case INITIAL:
         {
           // We still don't know what's the type of the packet
+          metrics.onPacketReceived(PacketType.RANDOM);
           break;
         }
       case RANDOM_PACKET_SENT:
         {
           // Should receive WHOAREYOU in answer, not our case
+          metrics.onPacketReceived(PacketType.RANDOM);
           break;
         }
       case WHOAREYOU_SENT:
@@ -60,6 +69,7 @@ public class UnknownPacketTypeByStatus implements EnvelopeHandler {
               unknownPacket.getAuthHeaderMessagePacket();
           envelope.put(Field.PACKET_AUTH_HEADER_MESSAGE, authHeaderMessagePacket);
           envelope.remove(Field.PACKET_UNKNOWN);
+          metrics.onPacketReceived(PacketType.AUTH_HEADER_MESSAGE);
           break;
         }
       case AUTHENTICATED:
@@ -67,6 +77,7 @@ public class UnknownPacketTypeByStatus implements EnvelopeHandler {
           MessagePacket messagePacket = unknownPacket.getMessagePacket();
           envelope.put(Field.PACKET_MESSAGE, messagePacket);
           envelope.remove(Field.PACKET_UNKNOWN);
+          metrics.onPacketReceived(PacketType.MESSAGE);
           break;
         }
       default:
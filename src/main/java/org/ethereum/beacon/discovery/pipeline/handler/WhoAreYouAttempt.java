@@ -7,6 +7,8 @@ package org.ethereum.beacon.discovery.pipeline.handler;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.tuweni.bytes.Bytes;
+import org.ethereum.beacon.discovery.metrics.DiscoveryMetrics;
+import org.ethereum.beacon.discovery.metrics.PacketType;
 import org.ethereum.beacon.discovery.packet.UnknownPacket;
 import org.ethereum.beacon.discovery.pipeline.Envelope;
 import org.ethereum.beacon.discovery.pipeline.EnvelopeHandler;
@@ -20,9 +22,11 @@ import org.ethereum.beacon.discovery.pipeline.HandlerUtil;
 public class WhoAreYouAttempt implements EnvelopeHandler {
   private static final Logger logger = LogManager.getLogger(WhoAreYouAttempt.class);
   private final Bytes homeNodeId;
+  private final DiscoveryMetrics metrics;
 
-  public WhoAreYouAttempt(Bytes homeNodeId) {
+  public WhoAreYouAttempt(Bytes homeNodeId, DiscoveryMetrics metrics) {
     this.homeNodeId = homeNodeId;
+    this.metrics = metrics;
   }
 
   @Override
@@ -49,5 +53,6 @@ public class WhoAreYouAttempt implements EnvelopeHandler {
     UnknownPacket unknownPacket = (UnknownPacket) envelope.get(Field.PACKET_UNKNOWN);
     envelope.put(Field.PACKET_WHOAREYOU, unknownPacket.getWhoAreYouPacket());
     envelope.remove(Field.PACKET_UNKNOWN);
+    metrics.onPacketReceived(PacketType.WHOAREYOU);
   }
 }
@@ -4,8 +4,6 @@
 
 package org.ethereum.beacon.discovery.pipeline.handler;
 
-import static org.ethereum.beacon.discovery.util.Functions.PUBKEY_SIZE;
-
 import java.util.Optional;
 import java.util.function.Supplier;
 import org.apache.logging.log4j.LogManager;
@@ -26,19 +24,22 @@ import org.ethereum.beacon.discovery.schema.EnrField;
 import org.ethereum.beacon.discovery.schema.NodeRecord;
 import org.ethereum.beacon.discovery.schema.NodeSession;
 import org.ethereum.beacon.discovery.task.TaskMessageFactory;
+import org.ethereum.beacon.discovery.task.TaskStatus;
+import org.ethereum.beacon.discovery.util.EphemeralKeyPool;
 import org.ethereum.beacon.discovery.util.Functions;
-import org.ethereum.beacon.discovery.util.Utils;
-import org.web3j.crypto.ECKeyPair;
 
 /** Handles {@link WhoAreYouPacket} in {@link Field#PACKET_WHOAREYOU} field */
 public class WhoAreYouPacketHandler implements EnvelopeHandler {
   private static final Logger logger = LogManager.getLogger(WhoAreYouPacketHandler.class);
   private final Pipeline outgoingPipeline;
   private final Scheduler scheduler;
+  private final EphemeralKeyPool ephemeralKeyPool;
 
-  public WhoAreYouPacketHandler(Pipeline outgoingPipeline, Scheduler scheduler) {
+  public WhoAreYouPacketHandler(
+      Pipeline outgoingPipeline, Scheduler scheduler, EphemeralKeyPool ephemeralKeyPool) {
     this.outgoingPipeline = outgoingPipeline;
     this.scheduler = scheduler;
+    this.ephemeralKeyPool = ephemeralKeyPool;
   }
 
   @Override
@@ -71,6 +72,7 @@ public class WhoAreYouPacketHandler implements EnvelopeHandler {
             nodeRecord,
             session.getStatus());
         envelope.remove(Field.PACKET_WHOAREYOU);
+        session.getMetrics().onHandshakeFailed();
         session.cancelAllRequests("Bad WHOAREYOU received from node");
         return;
       }
@@ -79,15 +81,13 @@ public class WhoAreYouPacketHandler implements EnvelopeHandler {
         respRecord = session.getHomeNodeRecord();
       }
       Bytes remotePubKey = (Bytes) nodeRecord.get(EnrField.PKEY_SECP256K1);
-      byte[] ephemeralKeyBytes = new byte[32];
-      Functions.getRandom().nextBytes(ephemeralKeyBytes);
-      ECKeyPair ephemeralKey = ECKeyPair.create(ephemeralKeyBytes);
+      EphemeralKeyPool.KeyPair ephemeralKey = ephemeralKeyPool.take();
 
       Functions.HKDFKeys hkdfKeys =
           Functions.hkdf_expand(
               session.getHomeNodeId(),
               nodeRecord.getNodeId(),
-              Bytes.wrap(ephemeralKeyBytes),
+              ephemeralKey.getPrivateKey(),
               remotePubKey,
               packet.getIdNonce());
       session.setInitiatorKey(hkdfKeys.getInitiatorKey());
@@ -105,9 +105,7 @@ public class WhoAreYouPacketHandler implements EnvelopeHandler {
                                   "Received WHOAREYOU in envelope #%s but no requests await in %s session",
                                   envelope.getId(), session)));
 
-      Bytes ephemeralPubKey =
-          Bytes.wrap(
-              Utils.extractBytesFromUnsignedBigInt(ephemeralKey.getPublicKey(), PUBKEY_SIZE));
+      Bytes ephemeralPubKey = ephemeralKey.getPublicKey();
       AuthHeaderMessagePacket response =
           AuthHeaderMessagePacket.create(
               session.getHomeNodeId(),
@@ -121,6 +119,10 @@ public class WhoAreYouPacketHandler implements EnvelopeHandler {
               hkdfKeys.getInitiatorKey(),
               DiscoveryV5Message.from(message));
       session.sendOutgoing(response);
+      // Request is delivered with handshake, so it shouldn't be sent again after authentication
+      RequestInfo sentRequest = requestInfoOpt.get();
+      session.updateRequestInfo(
+          sentRequest.getRequestId(), sentRequest.withStatus(TaskStatus.SENT));
     } catch (Throwable ex) {
       String error =
           String.format(
@@ -128,6 +130,7 @@ public class WhoAreYouPacketHandler implements EnvelopeHandler {
               packet, nodeRecord, session.getStatus());
       logger.debug(error, ex);
       envelope.remove(Field.PACKET_WHOAREYOU);
+      session.getMetrics().onHandshakeFailed();
       session.cancelAllRequests("Bad WHOAREYOU received from node");
       return;
     }
@@ -7,6 +7,7 @@ package org.ethereum.beacon.discovery.pipeline.handler;
 import java.util.Optional;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.ethereum.beacon.discovery.metrics.BadPacketReason;
 import org.ethereum.beacon.discovery.packet.WhoAreYouPacket;
 import org.ethereum.beacon.discovery.pipeline.Envelope;
 import org.ethereum.beacon.discovery.pipeline.EnvelopeHandler;
@@ -70,6 +71,7 @@ public class WhoAreYouSessionResolver implements EnvelopeHandler {
                   "Unexpected WHOAREYOU packet from session %s in state %s",
                   nodeSessionOptional, nodeSessionOptional.map(NodeSession::getStatus)));
       envelope.put(Field.BAD_PACKET, envelope.get(Field.PACKET_WHOAREYOU));
+      envelope.put(Field.BAD_PACKET_REASON, BadPacketReason.UNEXPECTED_WHOAREYOU);
       envelope.remove(Field.PACKET_WHOAREYOU);
       envelope.put(Field.BAD_EXCEPTION, new RuntimeException("Not expected WHOAREYOU packet"));
     }
@@ -4,35 +4,75 @@
 
 package org.ethereum.beacon.discovery.pipeline.info;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import javax.annotation.Nullable;
 import org.apache.tuweni.bytes.Bytes;
+import org.ethereum.beacon.discovery.schema.NodeRecord;
 import org.ethereum.beacon.discovery.task.TaskStatus;
 import org.ethereum.beacon.discovery.task.TaskType;
 
 public class FindNodeRequestInfo extends GeneralRequestInfo {
   private final Integer remainingNodes;
-  private final int distance;
+  private final List<Integer> distances;
+  private final Collection<NodeRecord> foundNodes;
 
   public FindNodeRequestInfo(
       TaskStatus taskStatus,
       Bytes requestId,
       CompletableFuture<Void> future,
-      int distance,
+      List<Integer> distances,
+      Collection<NodeRecord> foundNodes,
       @Nullable Integer remainingNodes) {
-    super(TaskType.FINDNODE, taskStatus, requestId, future);
-    this.distance = distance;
+    this(taskStatus, requestId, future, distances, foundNodes, remainingNodes, -1);
+  }
+
+  public FindNodeRequestInfo(
+      TaskStatus taskStatus,
+      Bytes requestId,
+      CompletableFuture<Void> future,
+      List<Integer> distances,
+      Collection<NodeRecord> foundNodes,
+      @Nullable Integer remainingNodes,
+      long sentTime) {
+    super(TaskType.FINDNODE, taskStatus, requestId, future, sentTime);
+    this.distances = distances;
+    this.foundNodes = foundNodes;
     this.remainingNodes = remainingNodes;
   }
 
   @Override
   public RequestInfo withStatus(final TaskStatus status) {
     return new FindNodeRequestInfo(
-        status, getRequestId(), getFuture(), getDistance(), getRemainingNodes());
+        status,
+        getRequestId(),
+        getFuture(),
+        getDistances(),
+        getFoundNodes(),
+        getRemainingNodes(),
+        getSentTime());
+  }
+
+  @Override
+  public RequestInfo withSentTime(final long sentTime) {
+    return new FindNodeRequestInfo(
+        getTaskStatus(),
+        getRequestId(),
+        getFuture(),
+        getDistances(),
+        getFoundNodes(),
+        getRemainingNodes(),
+        sentTime);
+  }
+
+  public List<Integer> getDistances() {
+    return distances;
   }
 
-  public int getDistance() {
-    return distance;
+  /** Records received in all replies to this request so far */
+  public Collection<NodeRecord> getFoundNodes() {
+    return foundNodes;
   }
 
   public Integer getRemainingNodes() {
@@ -44,8 +84,8 @@ public class FindNodeRequestInfo extends GeneralRequestInfo {
     return "FindNodeRequestInfo{"
         + "remainingNodes="
         + remainingNodes
-        + ", distance="
-        + distance
+        + ", distances="
+        + distances
         + '}';
   }
 }
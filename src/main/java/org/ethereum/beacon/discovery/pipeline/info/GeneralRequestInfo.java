@@ -14,13 +14,24 @@ public class GeneralRequestInfo implements RequestInfo {
   private final TaskStatus taskStatus;
   private final Bytes requestId;
   private final CompletableFuture<Void> future;
+  private final long sentTime;
 
   public GeneralRequestInfo(
       TaskType taskType, TaskStatus taskStatus, Bytes requestId, CompletableFuture<Void> future) {
+    this(taskType, taskStatus, requestId, future, -1);
+  }
+
+  public GeneralRequestInfo(
+      TaskType taskType,
+      TaskStatus taskStatus,
+      Bytes requestId,
+      CompletableFuture<Void> future,
+      long sentTime) {
     this.taskType = taskType;
     this.taskStatus = taskStatus;
     this.requestId = requestId;
     this.future = future;
+    this.sentTime = sentTime;
   }
 
   @Override
@@ -43,9 +54,19 @@ public class GeneralRequestInfo implements RequestInfo {
     return future;
   }
 
+  @Override
+  public long getSentTime() {
+    return sentTime;
+  }
+
   @Override
   public RequestInfo withStatus(final TaskStatus status) {
-    return new GeneralRequestInfo(getTaskType(), status, getRequestId(), getFuture());
+    return new GeneralRequestInfo(getTaskType(), status, getRequestId(), getFuture(), sentTime);
+  }
+
+  @Override
+  public RequestInfo withSentTime(final long sentTime) {
+    return new GeneralRequestInfo(getTaskType(), taskStatus, getRequestId(), getFuture(), sentTime);
   }
 
   @Override
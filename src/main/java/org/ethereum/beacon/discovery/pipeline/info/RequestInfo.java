@@ -25,4 +25,10 @@ public interface RequestInfo {
 
   /** Return a new RequestInfo with the same information as this one but task status changed. */
   RequestInfo withStatus(TaskStatus status);
+
+  /** Clock time in milliseconds when request was sent, -1 if it was not sent yet */
+  long getSentTime();
+
+  /** Return a new RequestInfo with the same information as this one but sent time changed. */
+  RequestInfo withSentTime(long sentTime);
 }
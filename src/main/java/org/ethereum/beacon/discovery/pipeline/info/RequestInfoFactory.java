@@ -17,7 +17,8 @@ public class RequestInfoFactory {
     switch (taskType) {
       case FINDNODE:
         {
-          return new FindNodeRequestInfo(AWAIT, id, future, taskOptions.getDistance(), null);
+          return new FindNodeRequestInfo(
+              AWAIT, id, future, taskOptions.getDistances(), taskOptions.getFoundNodes(), null);
         }
       case PING:
         {
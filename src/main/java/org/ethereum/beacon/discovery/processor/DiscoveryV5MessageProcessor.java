@@ -16,6 +16,7 @@ import org.ethereum.beacon.discovery.message.handler.MessageHandler;
 import org.ethereum.beacon.discovery.message.handler.NodesHandler;
 import org.ethereum.beacon.discovery.message.handler.PingHandler;
 import org.ethereum.beacon.discovery.message.handler.PongHandler;
+import org.ethereum.beacon.discovery.scheduler.Scheduler;
 import org.ethereum.beacon.discovery.schema.NodeRecordFactory;
 import org.ethereum.beacon.discovery.schema.NodeSession;
 import org.ethereum.beacon.discovery.schema.Protocol;
@@ -34,12 +35,17 @@ public class DiscoveryV5MessageProcessor implements DiscoveryMessageProcessor<Di
   private final NodeRecordFactory nodeRecordFactory;
 
   public DiscoveryV5MessageProcessor(
-      NodeRecordFactory nodeRecordFactory, final LocalNodeRecordStore localNodeRecordStore) {
+      NodeRecordFactory nodeRecordFactory,
+      final LocalNodeRecordStore localNodeRecordStore,
+      Scheduler validationScheduler,
+      Scheduler sessionScheduler) {
     messageHandlers.put(MessageCode.PING, new PingHandler());
     messageHandlers.put(
         MessageCode.PONG, new PongHandler(new ExternalAddressSelector(localNodeRecordStore)));
     messageHandlers.put(MessageCode.FINDNODE, new FindNodeHandler());
-    messageHandlers.put(MessageCode.NODES, new NodesHandler());
+    messageHandlers.put(
+        MessageCode.NODES,
+        new NodesHandler(nodeRecordFactory, validationScheduler, sessionScheduler));
     this.nodeRecordFactory = nodeRecordFactory;
   }
 
@@ -35,6 +35,11 @@ public class ControlledSchedulersImpl extends AbstractSchedulers implements Cont
     return service;
   }
 
+  @Override
+  public ScheduledExecutorService newSingleThreadScheduledExecutor(String threadNamePattern) {
+    return createExecutor(threadNamePattern, 1);
+  }
+
   @Override
   public TimeController getTimeController() {
     return timeController;
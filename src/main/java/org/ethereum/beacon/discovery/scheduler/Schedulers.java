@@ -4,7 +4,10 @@
 
 package org.ethereum.beacon.discovery.scheduler;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Supplier;
 
 /**
@@ -81,4 +84,13 @@ public interface Schedulers {
    * threads
    */
   Scheduler newParallelDaemon(String threadNamePattern, int threadPoolCount);
+
+  /**
+   * Creates new single thread executor of delayed tasks like request timeouts, see {@link
+   * ExpirationSchedulerFactory}
+   */
+  default ScheduledExecutorService newSingleThreadScheduledExecutor(String threadNamePattern) {
+    return Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat(threadNamePattern).build());
+  }
 }
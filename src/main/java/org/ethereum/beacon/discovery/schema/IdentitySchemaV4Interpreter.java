@@ -56,7 +56,18 @@ public class IdentitySchemaV4Interpreter implements IdentitySchemaInterpreter {
   public Bytes getNodeId(NodeRecord nodeRecord) {
     Bytes pkey = (Bytes) nodeRecord.get(EnrField.PKEY_SECP256K1);
     Preconditions.checkNotNull(pkey, "Missing PKEY_SECP256K1 field");
-    ECPoint pudDestPoint = Functions.publicKeyToPoint(pkey);
+    return nodeIdFromPoint(Functions.publicKeyToPoint(pkey));
+  }
+
+  /**
+   * Node id of v4 identity scheme, Keccak256 of the uncompressed public key. Key is not trusted, so
+   * it's decoded without caching
+   */
+  public static Bytes nodeIdFromPublicKey(Bytes pkey) {
+    return nodeIdFromPoint(Functions.decodePublicKey(pkey));
+  }
+
+  private static Bytes nodeIdFromPoint(ECPoint pudDestPoint) {
     Bytes xPart =
         Bytes.wrap(
             Utils.extractBytesFromUnsignedBigInt(pudDestPoint.getXCoord().toBigInteger(), 32));
@@ -44,6 +44,8 @@ public class NodeRecord {
   // optional fields
   private Map<String, Object> fields = new HashMap<>();
   private IdentitySchemaInterpreter identitySchemaInterpreter;
+  // Canonical encoding cache, reset on any modification
+  private volatile Bytes serialized = null;
 
   private NodeRecord(
       IdentitySchemaInterpreter identitySchemaInterpreter, UInt64 seq, Bytes signature) {
@@ -95,6 +97,7 @@ public class NodeRecord {
 
   public void set(String key, Object value) {
     fields.put(key, value);
+    this.serialized = null;
   }
 
   public Object get(String key) {
@@ -119,6 +122,21 @@ public class NodeRecord {
 
   public void setSignature(Bytes signature) {
     this.signature = signature;
+    this.serialized = null;
+  }
+
+  /**
+   * Caches encoding the record was decoded from when it's canonical. Non-canonical encodings, e.g.
+   * with unsorted keys, are dropped, so {@link #serialize()} re-encodes the record. Oversized
+   * encodings are not cached either, so {@link #serialize()} still rejects them.
+   */
+  void cacheSerialized(Bytes encoded) {
+    if (encoded.size() <= MAX_ENCODED_SIZE) {
+      Bytes canonical = serializeImpl(true);
+      if (canonical.equals(encoded)) {
+        this.serialized = canonical;
+      }
+    }
   }
 
   @Override
@@ -178,8 +196,14 @@ public class NodeRecord {
     return new RlpList(values);
   }
 
+  /** Canonical RLP encoding of the record. Calculated once and cached until modification */
   public Bytes serialize() {
-    return serializeImpl(true);
+    Bytes result = serialized;
+    if (result == null) {
+      result = serializeImpl(true);
+      this.serialized = result;
+    }
+    return result;
   }
 
   public Bytes serializeNoSignature() {
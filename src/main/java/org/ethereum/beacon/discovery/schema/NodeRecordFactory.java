@@ -11,6 +11,7 @@ import java.util.List;
 import java.util.Map;
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.units.bigints.UInt64;
+import org.ethereum.beacon.discovery.util.RlpReader;
 import org.ethereum.beacon.discovery.util.Utils;
 import org.web3j.rlp.RlpDecoder;
 import org.web3j.rlp.RlpList;
@@ -60,7 +61,12 @@ public class NodeRecordFactory {
   }
 
   public NodeRecord fromBytes(Bytes bytes) {
-    return fromBytes(bytes.toArray());
+    // record    = [signature, seq, k, v, ...]
+    Bytes encoded = RlpReader.create(bytes).readRaw();
+    RlpList rlpList = (RlpList) RlpDecoder.decode(encoded.toArray()).getValues().get(0);
+    NodeRecord nodeRecord = fromRlpList(rlpList);
+    nodeRecord.cacheSerialized(encoded);
+    return nodeRecord;
   }
 
   @SuppressWarnings({"DefaultCharset"})
@@ -110,8 +116,6 @@ public class NodeRecordFactory {
   }
 
   public NodeRecord fromBytes(byte[] bytes) {
-    // record    = [signature, seq, k, v, ...]
-    RlpList rlpList = (RlpList) RlpDecoder.decode(bytes).getValues().get(0);
-    return fromRlpList(rlpList);
+    return fromBytes(Bytes.wrap(bytes));
   }
 }
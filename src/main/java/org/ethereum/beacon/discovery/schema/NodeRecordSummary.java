@@ -0,0 +1,74 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.schema;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.units.bigints.UInt64;
+import org.ethereum.beacon.discovery.util.RlpReader;
+
+/**
+ * Sequence number and node id of an encoded v4 node record, read directly from its RLP without
+ * decoding other fields and without checking the signature. Used to discard records which are not
+ * needed before spending time on their full decoding and verification, so nothing read here should
+ * be trusted.
+ */
+public class NodeRecordSummary {
+  private static final Bytes ID_KEY = Bytes.wrap(EnrField.ID.getBytes(StandardCharsets.UTF_8));
+  private static final Bytes V4_ID =
+      Bytes.wrap(IdentitySchema.V4.stringName().getBytes(StandardCharsets.UTF_8));
+  private static final Bytes PKEY_KEY =
+      Bytes.wrap(EnrField.PKEY_SECP256K1.getBytes(StandardCharsets.UTF_8));
+  private static final int COMPRESSED_PKEY_SIZE = 33;
+
+  private final UInt64 seq;
+  private final Bytes nodeId;
+
+  private NodeRecordSummary(UInt64 seq, Bytes nodeId) {
+    this.seq = seq;
+    this.nodeId = nodeId;
+  }
+
+  /**
+   * Reads summary of record `encoded` as [signature, seq, k, v, ...]. Returns empty if the record
+   * is malformed, is not of v4 identity scheme or has no valid compressed secp256k1 key.
+   */
+  public static Optional<NodeRecordSummary> read(Bytes encoded) {
+    try {
+      RlpReader reader = RlpReader.create(encoded).readList();
+      reader.skip(); // signature
+      UInt64 seq = reader.readUInt64();
+      Bytes id = null;
+      Bytes publicKey = null;
+      while (reader.hasNext()) {
+        Bytes key = reader.readBytes();
+        if (ID_KEY.equals(key)) {
+          id = reader.readBytes();
+        } else if (PKEY_KEY.equals(key)) {
+          publicKey = reader.readBytes();
+        } else {
+          reader.skip();
+        }
+      }
+      if (!V4_ID.equals(id) || publicKey == null || publicKey.size() != COMPRESSED_PKEY_SIZE) {
+        return Optional.empty();
+      }
+      // Fails if the key is not a point on the curve
+      Bytes nodeId = IdentitySchemaV4Interpreter.nodeIdFromPublicKey(publicKey);
+      return Optional.of(new NodeRecordSummary(seq, nodeId));
+    } catch (IllegalArgumentException e) {
+      return Optional.empty();
+    }
+  }
+
+  public UInt64 getSeq() {
+    return seq;
+  }
+
+  public Bytes getNodeId() {
+    return nodeId;
+  }
+}
@@ -9,19 +9,27 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static org.ethereum.beacon.discovery.task.TaskStatus.AWAIT;
 
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.tuweni.bytes.Bytes;
+import org.ethereum.beacon.discovery.metrics.DiscoveryMetrics;
 import org.ethereum.beacon.discovery.network.NetworkParcel;
 import org.ethereum.beacon.discovery.network.NetworkParcelV5;
+import org.ethereum.beacon.discovery.packet.MessagePacket;
 import org.ethereum.beacon.discovery.packet.Packet;
 import org.ethereum.beacon.discovery.pipeline.info.RequestInfo;
 import org.ethereum.beacon.discovery.pipeline.info.RequestInfoFactory;
@@ -30,8 +38,11 @@ import org.ethereum.beacon.discovery.storage.AuthTagRepository;
 import org.ethereum.beacon.discovery.storage.LocalNodeRecordStore;
 import org.ethereum.beacon.discovery.storage.NodeBucket;
 import org.ethereum.beacon.discovery.storage.NodeBucketStorage;
+import org.ethereum.beacon.discovery.storage.NodeRecordListener;
 import org.ethereum.beacon.discovery.storage.NodeTable;
+import org.ethereum.beacon.discovery.task.TaskMessageFactory;
 import org.ethereum.beacon.discovery.task.TaskOptions;
+import org.ethereum.beacon.discovery.task.TaskStatus;
 import org.ethereum.beacon.discovery.task.TaskType;
 import org.ethereum.beacon.discovery.util.Functions;
 
@@ -42,14 +53,16 @@ import org.ethereum.beacon.discovery.util.Functions;
 public class NodeSession {
   public static final int NONCE_SIZE = 12;
   public static final int REQUEST_ID_SIZE = 8;
+  public static final int DEFAULT_MAX_REQUESTS_IN_FLIGHT = 16;
   private static final Logger logger = LogManager.getLogger(NodeSession.class);
   private final Bytes homeNodeId;
   private final LocalNodeRecordStore localNodeRecordStore;
   private final AuthTagRepository authTagRepo;
   private final NodeTable nodeTable;
   private final NodeBucketStorage nodeBucketStorage;
+  private final NodeRecordListener nodeRecordListener;
   private final InetSocketAddress remoteAddress;
-  private final Consumer<NetworkParcel> outgoingPipeline;
+  private final Consumer<NetworkParcel> outgoingSender;
   private final Random rnd;
   private final Bytes nodeId;
   private Optional<NodeRecord> nodeRecord;
@@ -58,7 +71,14 @@ public class NodeSession {
   private Bytes initiatorKey;
   private Bytes recipientKey;
   private final Map<Bytes, RequestInfo> requestIdStatuses = new ConcurrentHashMap<>();
+  // ids of AWAIT requests from requestIdStatuses in order of creation
+  private final Set<Bytes> awaitingRequestIds = new LinkedHashSet<>();
+  private final int maxRequestsInFlight;
   private final ExpirationScheduler<Bytes> requestExpirationScheduler;
+  private final DiscoveryMetrics metrics;
+  private final LongSupplier clockMillis;
+  // Clock time in millis when we sent the first packet of the current handshake, -1 if no handshake
+  private long handshakeStartTime = -1;
   private final Bytes staticNodeKey;
   private Optional<InetSocketAddress> reportedExternalAddress = Optional.empty();
 
@@ -70,10 +90,18 @@ public class NodeSession {
       Bytes staticNodeKey,
       NodeTable nodeTable,
       NodeBucketStorage nodeBucketStorage,
+      NodeRecordListener nodeRecordListener,
       AuthTagRepository authTagRepo,
-      Consumer<NetworkParcel> outgoingPipeline,
+      Consumer<NetworkParcel> outgoingSender,
       Random rnd,
-      ExpirationScheduler<Bytes> requestExpirationScheduler) {
+      ExpirationScheduler<Bytes> requestExpirationScheduler,
+      int maxRequestsInFlight,
+      DiscoveryMetrics metrics,
+      LongSupplier clockMillis) {
+    checkArgument(
+        maxRequestsInFlight > 0,
+        "Requests in flight limit should be positive: %s",
+        maxRequestsInFlight);
     this.nodeId = nodeId;
     this.nodeRecord = nodeRecord;
     this.remoteAddress = remoteAddress;
@@ -81,11 +109,15 @@ public class NodeSession {
     this.authTagRepo = authTagRepo;
     this.nodeTable = nodeTable;
     this.nodeBucketStorage = nodeBucketStorage;
+    this.nodeRecordListener = nodeRecordListener;
     this.staticNodeKey = staticNodeKey;
     this.homeNodeId = localNodeRecordStore.getLocalNodeRecord().getNodeId();
-    this.outgoingPipeline = outgoingPipeline;
+    this.outgoingSender = outgoingSender;
     this.rnd = rnd;
     this.requestExpirationScheduler = requestExpirationScheduler;
+    this.maxRequestsInFlight = maxRequestsInFlight;
+    this.metrics = metrics;
+    this.clockMillis = clockMillis;
   }
 
   public Bytes getNodeId() {
@@ -111,7 +143,7 @@ public class NodeSession {
 
   public void sendOutgoing(Packet packet) {
     logger.trace(() -> String.format("Sending outgoing packet %s in session %s", packet, this));
-    outgoingPipeline.accept(new NetworkParcelV5(packet, remoteAddress));
+    outgoingSender.accept(new NetworkParcelV5(packet, remoteAddress));
   }
 
   /**
@@ -146,24 +178,13 @@ public class NodeSession {
     }
     RequestInfo requestInfo = RequestInfoFactory.create(taskType, wrappedId, taskOptions, future);
     requestIdStatuses.put(wrappedId, requestInfo);
-    requestExpirationScheduler.put(
-        wrappedId,
-        new Runnable() {
-          @Override
-          public void run() {
-            logger.debug(
-                () ->
-                    String.format(
-                        "Request %s expired for id %s in session %s: no reply",
-                        requestInfo, wrappedId, this));
-            requestIdStatuses.remove(wrappedId);
-          }
-        });
+    awaitingRequestIds.add(wrappedId);
+    requestExpirationScheduler.put(wrappedId, () -> expireRequest(wrappedId, requestInfo));
     return requestInfo;
   }
 
-  /** Updates request info. Thread-safe. */
-  public synchronized void updateRequestInfo(Bytes requestId, RequestInfo newRequestInfo) {
+  /** Updates request info, sent time is kept from the previous request info. Thread-safe. */
+  public synchronized void updateRequestInfo(Bytes requestId, RequestInfo requestInfo) {
     RequestInfo oldRequestInfo = requestIdStatuses.remove(requestId);
     if (oldRequestInfo == null) {
       logger.debug(
@@ -173,19 +194,72 @@ public class NodeSession {
                   requestId, this));
       return;
     }
+    final RequestInfo newRequestInfo;
+    if (AWAIT.equals(requestInfo.getTaskStatus())) {
+      awaitingRequestIds.add(requestId);
+      newRequestInfo = requestInfo;
+    } else {
+      awaitingRequestIds.remove(requestId);
+      long sentTime =
+          oldRequestInfo.getSentTime() >= 0
+              ? oldRequestInfo.getSentTime()
+              : clockMillis.getAsLong();
+      newRequestInfo =
+          requestInfo.getSentTime() == sentTime ? requestInfo : requestInfo.withSentTime(sentTime);
+    }
     requestIdStatuses.put(requestId, newRequestInfo);
-    requestExpirationScheduler.put(
-        requestId,
-        new Runnable() {
-          @Override
-          public void run() {
-            logger.debug(
-                String.format(
-                    "Request %s expired for id %s in session %s: no reply",
-                    newRequestInfo, requestId, this));
-            requestIdStatuses.remove(requestId);
-          }
-        });
+    requestExpirationScheduler.put(requestId, () -> expireRequest(requestId, newRequestInfo));
+  }
+
+  private void expireRequest(Bytes requestId, RequestInfo requestInfo) {
+    synchronized (this) {
+      if (!requestIdStatuses.remove(requestId, requestInfo)) {
+        return;
+      }
+      awaitingRequestIds.remove(requestId);
+    }
+    logger.debug(
+        () ->
+            String.format(
+                "Request %s expired for id %s in session %s: no reply",
+                requestInfo, requestId, this));
+    sendAwaitingRequests();
+  }
+
+  /**
+   * Sends queued requests in order of creation until the limit of requests awaiting reply is
+   * reached. Does nothing until session is authenticated, next requests are sent when replies come
+   * or requests expire.
+   */
+  public void sendAwaitingRequests() {
+    for (RequestInfo requestInfo : takeRequestsToSend()) {
+      logger.trace(() -> String.format("Sending request %s in session %s", requestInfo, this));
+      MessagePacket messagePacket =
+          TaskMessageFactory.createPacketFromRequest(requestInfo, generateNonce(), this);
+      sendOutgoing(messagePacket);
+    }
+  }
+
+  private synchronized List<RequestInfo> takeRequestsToSend() {
+    List<RequestInfo> requests = new ArrayList<>();
+    if (!isAuthenticated()) {
+      return requests;
+    }
+    int inFlight = requestIdStatuses.size() - awaitingRequestIds.size();
+    Iterator<Bytes> awaiting = awaitingRequestIds.iterator();
+    while (inFlight + requests.size() < maxRequestsInFlight && awaiting.hasNext()) {
+      Bytes requestId = awaiting.next();
+      RequestInfo sentRequest =
+          requestIdStatuses
+              .get(requestId)
+              .withStatus(TaskStatus.SENT)
+              .withSentTime(clockMillis.getAsLong());
+      awaiting.remove();
+      requestIdStatuses.put(requestId, sentRequest);
+      requestExpirationScheduler.put(requestId, () -> expireRequest(requestId, sentRequest));
+      requests.add(sentRequest);
+    }
+    return requests;
   }
 
   public synchronized void cancelAllRequests(String message) {
@@ -215,6 +289,11 @@ public class NodeSession {
     return SessionStatus.AUTHENTICATED.equals(status);
   }
 
+  /** If true we've sent requests in this session which are not replied or expired yet */
+  public synchronized boolean hasRequestsInFlight() {
+    return requestIdStatuses.size() > awaitingRequestIds.size();
+  }
+
   /** Resets stored authTags for this session making them obsolete */
   public void cleanup() {
     authTagRepo.expire(this);
@@ -258,35 +337,48 @@ public class NodeSession {
     this.reportedExternalAddress = Optional.of(reportedExternalAddress);
   }
 
-  public synchronized void clearRequestId(Bytes requestId, TaskType taskType) {
+  /** Completes request with reply received, sends next queued request if any */
+  public void clearRequestId(Bytes requestId, TaskType taskType) {
     final RequestInfo requestInfo = clearRequestId(requestId);
     checkNotNull(requestInfo, "Attempting to clear an unknown request");
     checkArgument(
         taskType.equals(requestInfo.getTaskType()),
         "Attempting to clear a request but task type did not match");
+    if (requestInfo.getSentTime() >= 0) {
+      metrics.onRequestCompleted(taskType, elapsedNanos(requestInfo.getSentTime()));
+    }
     requestInfo.getFuture().complete(null);
+    sendAwaitingRequests();
   }
 
   /** Updates nodeRecord {@link NodeStatus} to ACTIVE of the node associated with this session */
   public synchronized void updateLiveness() {
     nodeRecord.ifPresent(
         record -> {
+          boolean wasActive =
+              nodeTable
+                  .getNode(record.getNodeId())
+                  .map(info -> info.getStatus() == NodeStatus.ACTIVE)
+                  .orElse(false);
           NodeRecordInfo nodeRecordInfo =
               new NodeRecordInfo(record, Functions.getTime(), NodeStatus.ACTIVE, 0);
           nodeTable.save(nodeRecordInfo);
           nodeBucketStorage.put(nodeRecordInfo);
+          if (!wasActive) {
+            nodeRecordListener.onNodeVerified(record);
+          }
         });
   }
 
   private synchronized RequestInfo clearRequestId(Bytes requestId) {
     RequestInfo requestInfo = requestIdStatuses.remove(requestId);
+    awaitingRequestIds.remove(requestId);
     requestExpirationScheduler.cancel(requestId);
     return requestInfo;
   }
 
   public synchronized Optional<RequestInfo> getRequestId(Bytes requestId) {
-    RequestInfo requestInfo = requestIdStatuses.get(requestId);
-    return requestId == null ? Optional.empty() : Optional.of(requestInfo);
+    return Optional.ofNullable(requestIdStatuses.get(requestId));
   }
 
   /**
@@ -294,15 +386,21 @@ public class NodeSession {
    * authenticated
    */
   public synchronized Optional<RequestInfo> getFirstAwaitRequestInfo() {
-    return requestIdStatuses.values().stream()
-        .filter(requestInfo -> AWAIT.equals(requestInfo.getTaskStatus()))
-        .findFirst();
+    return awaitingRequestIds.stream().findFirst().map(requestIdStatuses::get);
   }
 
   public NodeTable getNodeTable() {
     return nodeTable;
   }
 
+  public NodeRecordListener getNodeRecordListener() {
+    return nodeRecordListener;
+  }
+
+  public DiscoveryMetrics getMetrics() {
+    return metrics;
+  }
+
   public void putRecordInBucket(NodeRecordInfo nodeRecordInfo) {
     nodeBucketStorage.put(nodeRecordInfo);
   }
@@ -311,6 +409,11 @@ public class NodeSession {
     return nodeBucketStorage.get(index);
   }
 
+  /** Encoded NODES responses for the bucket, see {@link NodeBucketStorage#getNodesResponses} */
+  public List<Bytes> getNodesResponses(int index) {
+    return nodeBucketStorage.getNodesResponses(index);
+  }
+
   public synchronized Bytes getIdNonce() {
     return idNonce;
   }
@@ -336,9 +439,20 @@ public class NodeSession {
     logger.debug(
         () ->
             String.format("Switching status of node %s from %s to %s", nodeId, status, newStatus));
+    if (newStatus == SessionStatus.RANDOM_PACKET_SENT
+        || newStatus == SessionStatus.WHOAREYOU_SENT) {
+      handshakeStartTime = clockMillis.getAsLong();
+    } else if (newStatus == SessionStatus.AUTHENTICATED && handshakeStartTime >= 0) {
+      metrics.onHandshakeCompleted(elapsedNanos(handshakeStartTime));
+      handshakeStartTime = -1;
+    }
     this.status = newStatus;
   }
 
+  private long elapsedNanos(long startTimeMillis) {
+    return TimeUnit.MILLISECONDS.toNanos(clockMillis.getAsLong() - startTimeMillis);
+  }
+
   public Bytes getStaticNodeKey() {
     return staticNodeKey;
   }
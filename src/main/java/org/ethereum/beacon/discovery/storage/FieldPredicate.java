@@ -0,0 +1,76 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.storage;
+
+import java.util.Objects;
+import java.util.function.Predicate;
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * Predicate over the value of ENR field. Predicates created with {@link #equalTo(Object)} and
+ * {@link #intersects(Bytes)} are answered directly from {@link NodeFieldIndex} when the field is
+ * indexed, any other predicate is tested against each distinct indexed value of the field.
+ */
+public abstract class FieldPredicate implements Predicate<Object> {
+
+  /** Matches fields with value equal to the {@code value} */
+  public static FieldPredicate equalTo(Object value) {
+    return new EqualTo(value);
+  }
+
+  /**
+   * Matches bitfields having at least one of the {@code bits} set. Bit {@code i} is the bit {@code
+   * i % 8} (least significant first) of the byte {@code i / 8}, same as SSZ bitvector layout.
+   */
+  public static FieldPredicate intersects(Bytes bits) {
+    return new Intersects(bits);
+  }
+
+  static final class EqualTo extends FieldPredicate {
+    final Object value;
+
+    private EqualTo(final Object value) {
+      this.value = value;
+    }
+
+    @Override
+    public boolean test(final Object fieldValue) {
+      return Objects.equals(value, fieldValue);
+    }
+
+    @Override
+    public String toString() {
+      return "EqualTo{" + value + '}';
+    }
+  }
+
+  static final class Intersects extends FieldPredicate {
+    final Bytes bits;
+
+    private Intersects(final Bytes bits) {
+      this.bits = bits;
+    }
+
+    @Override
+    public boolean test(final Object fieldValue) {
+      if (!(fieldValue instanceof Bytes)) {
+        return false;
+      }
+      final Bytes bitfield = (Bytes) fieldValue;
+      final int size = Math.min(bits.size(), bitfield.size());
+      for (int i = 0; i < size; i++) {
+        if ((bits.get(i) & bitfield.get(i)) != 0) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public String toString() {
+      return "Intersects{" + bits + '}';
+    }
+  }
+}
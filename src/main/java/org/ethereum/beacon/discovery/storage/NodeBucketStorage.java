@@ -4,13 +4,22 @@
 
 package org.ethereum.beacon.discovery.storage;
 
+import java.util.List;
 import java.util.Optional;
+import org.apache.tuweni.bytes.Bytes;
+import org.ethereum.beacon.discovery.message.NodesMessage;
 import org.ethereum.beacon.discovery.schema.NodeRecordInfo;
 
 /** Stores {@link NodeRecordInfo}'s in {@link NodeBucket}'s */
 public interface NodeBucketStorage {
   Optional<NodeBucket> get(int index);
 
+  /**
+   * Returns NODES responses with nodes of the bucket, encoded without request id, see {@link
+   * NodesMessage#encodeResponses(List)}. Responses are cached until bucket modification.
+   */
+  List<Bytes> getNodesResponses(int index);
+
   void put(NodeRecordInfo nodeRecordInfo);
 
   void commit();
@@ -4,13 +4,19 @@
 
 package org.ethereum.beacon.discovery.storage;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
 import org.apache.tuweni.bytes.Bytes;
 import org.ethereum.beacon.discovery.database.DataSource;
 import org.ethereum.beacon.discovery.database.DataSourceList;
 import org.ethereum.beacon.discovery.database.Database;
 import org.ethereum.beacon.discovery.database.HoleyList;
 import org.ethereum.beacon.discovery.format.SerializerFactory;
+import org.ethereum.beacon.discovery.message.NodesMessage;
 import org.ethereum.beacon.discovery.schema.NodeRecord;
 import org.ethereum.beacon.discovery.schema.NodeRecordInfo;
 import org.ethereum.beacon.discovery.util.Functions;
@@ -19,12 +25,18 @@ import org.ethereum.beacon.discovery.util.Functions;
  * Stores {@link NodeRecordInfo}'s in {@link NodeBucket}'s calculating index number of bucket as
  * {@link Functions#logDistance(Bytes, Bytes)} from homeNodeId and ignoring index above {@link
  * #MAXIMUM_BUCKET}
+ *
+ * <p>Encoded NODES responses are cached per bucket together with the bucket version, which is
+ * incremented on every bucket update, so stale responses are never served.
  */
 public class NodeBucketStorageImpl implements NodeBucketStorage {
   public static final String NODE_BUCKET_STORAGE_NAME = "node-bucket-table";
   public static final int MAXIMUM_BUCKET = 256;
   private final HoleyList<NodeBucket> nodeBucketsTable;
   private final Bytes homeNodeId;
+  private final AtomicLongArray bucketVersions = new AtomicLongArray(MAXIMUM_BUCKET + 1);
+  private final AtomicReferenceArray<NodesResponses> nodesResponses =
+      new AtomicReferenceArray<>(MAXIMUM_BUCKET + 1);
 
   public NodeBucketStorageImpl(
       Database database, SerializerFactory serializerFactory, NodeRecord homeNode) {
@@ -48,6 +60,31 @@ public class NodeBucketStorageImpl implements NodeBucketStorage {
     return nodeBucketsTable.get(index);
   }
 
+  @Override
+  public List<Bytes> getNodesResponses(int index) {
+    if (index < 0 || index > MAXIMUM_BUCKET) {
+      return NodesMessage.encodeResponses(Collections.emptyList());
+    }
+    // Version is read before the bucket, so concurrent update makes the result stale, not wrong
+    long version = bucketVersions.get(index);
+    NodesResponses cached = nodesResponses.get(index);
+    if (cached != null && cached.version == version) {
+      return cached.responses;
+    }
+    List<NodeRecord> nodeRecords =
+        get(index)
+            .map(
+                bucket ->
+                    bucket.getNodeRecords().stream()
+                        .map(NodeRecordInfo::getNode)
+                        .collect(Collectors.toList()))
+            .orElse(Collections.emptyList());
+    List<Bytes> responses =
+        Collections.unmodifiableList(NodesMessage.encodeResponses(nodeRecords));
+    nodesResponses.set(index, new NodesResponses(version, responses));
+    return responses;
+  }
+
   @Override
   public void put(NodeRecordInfo nodeRecordInfo) {
     int logDistance = Functions.logDistance(homeNodeId, nodeRecordInfo.getNode().getNodeId());
@@ -58,15 +95,27 @@ public class NodeBucketStorageImpl implements NodeBucketStorage {
         boolean updated = nodeBucket.put(nodeRecordInfo);
         if (updated) {
           nodeBucketsTable.put(logDistance, nodeBucket);
+          bucketVersions.incrementAndGet(logDistance);
         }
       } else {
         NodeBucket nodeBucket = new NodeBucket();
         nodeBucket.put(nodeRecordInfo);
         nodeBucketsTable.put(logDistance, nodeBucket);
+        bucketVersions.incrementAndGet(logDistance);
       }
     }
   }
 
   @Override
   public void commit() {}
+
+  private static class NodesResponses {
+    private final long version;
+    private final List<Bytes> responses;
+
+    private NodesResponses(long version, List<Bytes> responses) {
+      this.version = version;
+      this.responses = responses;
+    }
+  }
 }
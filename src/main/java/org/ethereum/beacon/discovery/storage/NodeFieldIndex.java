@@ -0,0 +1,137 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.storage;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import org.apache.tuweni.bytes.Bytes;
+import org.ethereum.beacon.discovery.schema.NodeRecord;
+
+/**
+ * In-memory secondary index of node records by the values of selected ENR fields. Every indexed
+ * field is indexed by its exact value, bitfields (like eth2 `attnets`) are additionally indexed by
+ * each set bit, so {@link FieldPredicate#intersects(Bytes)} queries don't need to check every
+ * record.
+ *
+ * <p>Index is not persisted, {@link NodeTableImpl} rebuilds it from stored records on start and
+ * keeps it up to date on each save and remove.
+ */
+public class NodeFieldIndex {
+  public static final NodeFieldIndex NONE = new NodeFieldIndex(Set.of(), Set.of());
+
+  // field -> value -> node ids
+  private final Map<String, Map<Object, Set<Bytes>>> valueIndex = new HashMap<>();
+  // bitfield -> bit -> node ids
+  private final Map<String, Map<Integer, Set<Bytes>>> bitIndex = new HashMap<>();
+
+  /**
+   * @param fields ENR keys indexed by exact value
+   * @param bitfields ENR keys with bitfield values, indexed both by exact value and by set bits
+   */
+  public NodeFieldIndex(Set<String> fields, Set<String> bitfields) {
+    fields.forEach(field -> valueIndex.put(field, new HashMap<>()));
+    bitfields.forEach(
+        field -> {
+          valueIndex.put(field, new HashMap<>());
+          bitIndex.put(field, new HashMap<>());
+        });
+  }
+
+  public boolean isEmpty() {
+    return valueIndex.isEmpty();
+  }
+
+  public boolean isIndexed(String field) {
+    return valueIndex.containsKey(field);
+  }
+
+  public synchronized void add(NodeRecord nodeRecord) {
+    final Bytes nodeId = nodeRecord.getNodeId();
+    valueIndex.forEach(
+        (field, values) -> {
+          final Object value = nodeRecord.get(field);
+          if (value == null) {
+            return;
+          }
+          values.computeIfAbsent(value, __ -> new HashSet<>()).add(nodeId);
+          final Map<Integer, Set<Bytes>> bits = bitIndex.get(field);
+          if (bits != null && value instanceof Bytes) {
+            forEachSetBit(
+                (Bytes) value, bit -> bits.computeIfAbsent(bit, __ -> new HashSet<>()).add(nodeId));
+          }
+        });
+  }
+
+  public synchronized void remove(NodeRecord nodeRecord) {
+    final Bytes nodeId = nodeRecord.getNodeId();
+    valueIndex.forEach(
+        (field, values) -> {
+          final Object value = nodeRecord.get(field);
+          if (value == null) {
+            return;
+          }
+          removeFrom(values, value, nodeId);
+          final Map<Integer, Set<Bytes>> bits = bitIndex.get(field);
+          if (bits != null && value instanceof Bytes) {
+            forEachSetBit((Bytes) value, bit -> removeFrom(bits, bit, nodeId));
+          }
+        });
+  }
+
+  /**
+   * Finds ids of the nodes with field matching predicate
+   *
+   * @return ids of matching nodes or empty if the field is not indexed
+   */
+  public synchronized Optional<Set<Bytes>> find(String field, Predicate<Object> predicate) {
+    final Map<Object, Set<Bytes>> values = valueIndex.get(field);
+    if (values == null) {
+      return Optional.empty();
+    }
+    final Set<Bytes> result = new LinkedHashSet<>();
+    if (predicate instanceof FieldPredicate.EqualTo) {
+      result.addAll(
+          values.getOrDefault(((FieldPredicate.EqualTo) predicate).value, Collections.emptySet()));
+    } else if (predicate instanceof FieldPredicate.Intersects && bitIndex.containsKey(field)) {
+      final Map<Integer, Set<Bytes>> bits = bitIndex.get(field);
+      forEachSetBit(
+          ((FieldPredicate.Intersects) predicate).bits,
+          bit -> result.addAll(bits.getOrDefault(bit, Collections.emptySet())));
+    } else {
+      values.forEach(
+          (value, nodeIds) -> {
+            if (predicate.test(value)) {
+              result.addAll(nodeIds);
+            }
+          });
+    }
+    return Optional.of(result);
+  }
+
+  private static <K> void removeFrom(Map<K, Set<Bytes>> index, K key, Bytes nodeId) {
+    final Set<Bytes> nodeIds = index.get(key);
+    if (nodeIds != null && nodeIds.remove(nodeId) && nodeIds.isEmpty()) {
+      index.remove(key);
+    }
+  }
+
+  private static void forEachSetBit(Bytes bitfield, IntConsumer consumer) {
+    for (int i = 0; i < bitfield.size(); i++) {
+      final int b = bitfield.get(i) & 0xFF;
+      for (int bit = 0; bit < Byte.SIZE; bit++) {
+        if ((b & (1 << bit)) != 0) {
+          consumer.accept(i * Byte.SIZE + bit);
+        }
+      }
+    }
+  }
+}
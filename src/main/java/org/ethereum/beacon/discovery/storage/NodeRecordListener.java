@@ -0,0 +1,28 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.storage;
+
+import org.ethereum.beacon.discovery.schema.NodeRecord;
+
+/**
+ * Notified about changes of the {@link NodeTable} which are interesting for the application. Called
+ * on discovery threads, so implementations should return quickly.
+ */
+public interface NodeRecordListener {
+  NodeRecordListener NOOP =
+      new NodeRecordListener() {
+        @Override
+        public void onNodeDiscovered(NodeRecord nodeRecord) {}
+
+        @Override
+        public void onNodeVerified(NodeRecord nodeRecord) {}
+      };
+
+  /** Record of previously unknown node is received from other node and stored in the table */
+  void onNodeDiscovered(NodeRecord nodeRecord);
+
+  /** Node replied to our request while it wasn't considered live before */
+  void onNodeVerified(NodeRecord nodeRecord);
+}
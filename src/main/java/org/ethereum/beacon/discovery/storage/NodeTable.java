@@ -6,6 +6,7 @@ package org.ethereum.beacon.discovery.storage;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 import org.apache.tuweni.bytes.Bytes;
 import org.ethereum.beacon.discovery.schema.NodeRecord;
@@ -28,5 +29,12 @@ public interface NodeTable {
   /** Returns list of nodes including `nodeId` (if it's found) in logLimit distance from it. */
   List<NodeRecordInfo> findClosestNodes(Bytes nodeId, int logLimit);
 
+  /**
+   * Returns up to `limit` nodes with ENR field `key` matching `predicate`. A limit of zero implies
+   * no limit. Fields indexed with {@link NodeFieldIndex} are looked up in the index, others require
+   * scan of all nodes.
+   */
+  List<NodeRecordInfo> findNodesWithField(String key, Predicate<Object> predicate, int limit);
+
   NodeRecord getHomeNode();
 }
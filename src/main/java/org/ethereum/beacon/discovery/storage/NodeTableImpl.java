@@ -14,10 +14,12 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
 import org.ethereum.beacon.discovery.database.DataSource;
 import org.ethereum.beacon.discovery.database.HoleyList;
 import org.ethereum.beacon.discovery.database.SingleValueSource;
@@ -27,7 +29,8 @@ import org.ethereum.beacon.discovery.util.Functions;
 
 /**
  * Stores Ethereum Node Records in {@link NodeRecordInfo} containers. Also stores home node as node
- * record. Uses indexes, {@link NodeIndex} for quick access to nodes that are close to others.
+ * record. Uses indexes, {@link NodeIndex} for quick access to nodes that are close to others and
+ * {@link NodeFieldIndex} for search by ENR fields.
  */
 public class NodeTableImpl implements NodeTable {
   static final long NUMBER_OF_INDEXES = 256;
@@ -36,14 +39,28 @@ public class NodeTableImpl implements NodeTable {
   private final DataSource<Bytes, NodeRecordInfo> nodeTable;
   private final HoleyList<NodeIndex> indexTable;
   private final SingleValueSource<NodeRecordInfo> homeNodeSource;
+  private final NodeFieldIndex fieldIndex;
 
   public NodeTableImpl(
       DataSource<Bytes, NodeRecordInfo> nodeTable,
       HoleyList<NodeIndex> indexTable,
       SingleValueSource<NodeRecordInfo> homeNodeSource) {
+    this(nodeTable, indexTable, homeNodeSource, NodeFieldIndex.NONE);
+  }
+
+  public NodeTableImpl(
+      DataSource<Bytes, NodeRecordInfo> nodeTable,
+      HoleyList<NodeIndex> indexTable,
+      SingleValueSource<NodeRecordInfo> homeNodeSource,
+      NodeFieldIndex fieldIndex) {
     this.nodeTable = nodeTable;
     this.indexTable = indexTable;
     this.homeNodeSource = homeNodeSource;
+    this.fieldIndex = fieldIndex;
+    if (!fieldIndex.isEmpty()) {
+      // field index is not persisted, so it's rebuilt from stored nodes
+      streamAllNodes().forEach(node -> fieldIndex.add(node.getNode()));
+    }
   }
 
   @VisibleForTesting
@@ -74,6 +91,10 @@ public class NodeTableImpl implements NodeTable {
   @Override
   public void save(NodeRecordInfo node) {
     Bytes nodeKey = node.getNode().getNodeId();
+    if (!fieldIndex.isEmpty()) {
+      nodeTable.get(nodeKey).ifPresent(oldNode -> fieldIndex.remove(oldNode.getNode()));
+      fieldIndex.add(node.getNode());
+    }
     nodeTable.put(nodeKey, node);
     NodeIndex activeIndex = indexTable.get(getNodeIndex(nodeKey)).orElseGet(NodeIndex::new);
     List<Bytes> nodes = activeIndex.getEntries();
@@ -86,6 +107,9 @@ public class NodeTableImpl implements NodeTable {
   @Override
   public void remove(NodeRecordInfo node) {
     Bytes nodeKey = node.getNode().getNodeId();
+    if (!fieldIndex.isEmpty()) {
+      nodeTable.get(nodeKey).ifPresent(oldNode -> fieldIndex.remove(oldNode.getNode()));
+    }
     nodeTable.remove(nodeKey);
     NodeIndex activeIndex = indexTable.get(getNodeIndex(nodeKey)).orElseGet(NodeIndex::new);
     List<Bytes> nodes = activeIndex.getEntries();
@@ -118,6 +142,31 @@ public class NodeTableImpl implements NodeTable {
     return streamClosestNodes(nodeId, logLimit).collect(Collectors.toList());
   }
 
+  @Override
+  public List<NodeRecordInfo> findNodesWithField(
+      String key, Predicate<Object> predicate, int limit) {
+    // index is updated separately from the table, so nodes found via index are checked again
+    Stream<NodeRecordInfo> nodes =
+        fieldIndex
+            .find(key, predicate)
+            .map(nodeIds -> nodeIds.stream().map(this::getNode).flatMap(Optional::stream))
+            .orElseGet(this::streamAllNodes)
+            .filter(node -> hasMatchingField(node, key, predicate));
+    if (limit > 0) {
+      nodes = nodes.limit(limit);
+    }
+    return nodes.collect(Collectors.toList());
+  }
+
+  private static boolean hasMatchingField(
+      NodeRecordInfo node, String key, Predicate<Object> predicate) {
+    return node.getNode().containsKey(key) && predicate.test(node.getNode().get(key));
+  }
+
+  private Stream<NodeRecordInfo> streamAllNodes() {
+    return streamClosestNodes(Bytes32.ZERO, 0);
+  }
+
   @Override
   public NodeRecord getHomeNode() {
     return homeNodeSource.get().map(NodeRecordInfo::getNode).orElse(null);
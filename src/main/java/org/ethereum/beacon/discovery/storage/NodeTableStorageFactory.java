@@ -33,6 +33,17 @@ public interface NodeTableStorageFactory {
       Function<UInt64, NodeRecord> homeNodeProvider,
       Supplier<List<NodeRecord>> bootNodesSupplier);
 
+  /**
+   * Same as {@link #createTable(Database, SerializerFactory, Function, Supplier)} but with node
+   * table indexing ENR fields with `fieldIndex`
+   */
+  NodeTableStorage createTable(
+      Database database,
+      SerializerFactory serializerFactory,
+      Function<UInt64, NodeRecord> homeNodeProvider,
+      Supplier<List<NodeRecord>> bootNodesSupplier,
+      NodeFieldIndex fieldIndex);
+
   NodeBucketStorage createBucketStorage(
       Database database, SerializerFactory serializerFactory, NodeRecord homeNode);
 }
@@ -40,7 +40,19 @@ public class NodeTableStorageFactoryImpl implements NodeTableStorageFactory {
       SerializerFactory serializerFactory,
       Function<UInt64, NodeRecord> homeNodeProvider,
       Supplier<List<NodeRecord>> bootNodesSupplier) {
-    NodeTableStorage nodeTableStorage = new NodeTableStorageImpl(database, serializerFactory);
+    return createTable(
+        database, serializerFactory, homeNodeProvider, bootNodesSupplier, NodeFieldIndex.NONE);
+  }
+
+  @Override
+  public NodeTableStorage createTable(
+      Database database,
+      SerializerFactory serializerFactory,
+      Function<UInt64, NodeRecord> homeNodeProvider,
+      Supplier<List<NodeRecord>> bootNodesSupplier,
+      NodeFieldIndex fieldIndex) {
+    NodeTableStorage nodeTableStorage =
+        new NodeTableStorageImpl(database, serializerFactory, fieldIndex);
 
     // Init storage with boot nodes if its empty
     if (isStorageEmpty(nodeTableStorage)) {
@@ -31,6 +31,11 @@ public class NodeTableStorageImpl implements NodeTableStorage {
   private final NodeTable nodeTable;
 
   public NodeTableStorageImpl(Database database, SerializerFactory serializerFactory) {
+    this(database, serializerFactory, NodeFieldIndex.NONE);
+  }
+
+  public NodeTableStorageImpl(
+      Database database, SerializerFactory serializerFactory, NodeFieldIndex fieldIndex) {
     DataSource<Bytes, Bytes> nodeTableSource = database.createStorage(NODE_TABLE_STORAGE_NAME);
     this.nodeTableSource = nodeTableSource;
     DataSource<Bytes, Bytes> nodeIndexesSource = database.createStorage(INDEXES_STORAGE_NAME);
@@ -48,7 +53,7 @@ public class NodeTableStorageImpl implements NodeTableStorage {
             serializerFactory.getSerializer(NodeIndex.class),
             serializerFactory.getDeserializer(NodeIndex.class));
     this.homeNodeSource = SingleValueSource.fromDataSource(nodeTable, HOME_NODE_KEY);
-    this.nodeTable = new NodeTableImpl(nodeTable, nodeIndexesTable, homeNodeSource);
+    this.nodeTable = new NodeTableImpl(nodeTable, nodeIndexesTable, homeNodeSource, fieldIndex);
   }
 
   @Override
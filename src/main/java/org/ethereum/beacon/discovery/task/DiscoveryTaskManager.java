@@ -4,9 +4,12 @@
 
 package org.ethereum.beacon.discovery.task;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static org.ethereum.beacon.discovery.schema.NodeStatus.DEAD;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
@@ -14,7 +17,7 @@ import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.stream.Stream;
+import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.tuweni.bytes.Bytes;
@@ -33,18 +36,22 @@ import org.ethereum.beacon.discovery.util.Functions;
 public class DiscoveryTaskManager {
   private static final Logger LOG = LogManager.getLogger();
   static final int STATUS_EXPIRATION_SECONDS = 600;
-  private static final int CONCURRENT_LIVENESS_CHECK_LIMIT = 5;
-  private static final int LIVE_CHECK_INTERVAL_SECONDS = 1;
+  private static final Duration LIVE_CHECK_INTERVAL = Duration.ofMillis(100);
   private static final int RECURSIVE_LOOKUP_INTERVAL_SECONDS = 10;
-  private static final int RECURSIVE_SEARCH_QUERY_LIMIT = 15;
   private static final int RETRY_TIMEOUT_SECONDS = 10;
   private static final int MAX_RETRIES = 10;
+  private static final int MAX_CONCURRENT_LOOKUPS = 3;
+  private static final int MAX_QUEUED_LOOKUPS = 16;
+  private static final int MAX_FIELD_SEARCH_LOOKUPS = 10;
   private final Scheduler scheduler;
   private final Bytes homeNodeId;
   private final LiveCheckTasks liveCheckTasks;
+  private final LivenessScheduler livenessScheduler;
   private final RecursiveLookupTasks recursiveLookupTasks;
+  private final LookupTasks lookupTasks;
   private final NodeTable nodeTable;
   private final NodeBucketStorage nodeBucketStorage;
+  private final LookupOptions lookupOptions;
   /**
    * Checks whether {@link NodeRecord} is ready for alive status check. Plus, marks records as DEAD
    * if there were a lot of unsuccessful retries to get reply from node.
@@ -101,6 +108,8 @@ public class DiscoveryTaskManager {
   private boolean removeDead;
   private CompletableFuture<Void> liveCheckSchedule;
   private CompletableFuture<Void> recursiveLookupSchedule;
+  // Accessed only from the periodic task
+  private CompletableFuture<Void> periodicLookup = CompletableFuture.completedFuture(null);
 
   /**
    * @param discoveryManager Discovery manager
@@ -113,6 +122,8 @@ public class DiscoveryTaskManager {
    *     status at startup and sets number of used retries to 0. Reset applies after remove, so if
    *     remove is on, reset will be applied to 0 nodes
    * @param removeDead Whether to remove nodes that are found dead after several retries
+   * @param lookupOptions Parameters of recursive lookups searching for new peers
+   * @param livenessOptions Rate and concurrency limits of node liveness checks
    * @param nodeRecordUpdatesConsumers consumers are executed when nodeRecord is updated with new
    *     sequence number, so it should be updated in nodeSession
    */
@@ -125,24 +136,34 @@ public class DiscoveryTaskManager {
       Scheduler scheduler,
       boolean resetDead,
       boolean removeDead,
+      LookupOptions lookupOptions,
+      LivenessOptions livenessOptions,
       ExpirationSchedulerFactory expirationSchedulerFactory,
       Consumer<NodeRecord>... nodeRecordUpdatesConsumers) {
     this.scheduler = scheduler;
     this.nodeTable = nodeTable;
     this.nodeBucketStorage = nodeBucketStorage;
     this.homeNodeId = homeNode.getNodeId();
+    this.lookupOptions = lookupOptions;
     this.liveCheckTasks =
         new LiveCheckTasks(
             discoveryManager,
             scheduler,
             expirationSchedulerFactory,
             Duration.ofSeconds(RETRY_TIMEOUT_SECONDS));
+    this.livenessScheduler =
+        new LivenessScheduler(
+            nodeTable,
+            nodeBucketStorage,
+            homeNodeId,
+            LIVE_CHECK_NODE_RULE,
+            livenessOptions,
+            scheduler::getCurrentTime);
     this.recursiveLookupTasks =
-        new RecursiveLookupTasks(
-            discoveryManager,
-            scheduler,
-            expirationSchedulerFactory,
-            Duration.ofSeconds(RETRY_TIMEOUT_SECONDS));
+        new RecursiveLookupTasks(discoveryManager, scheduler, lookupOptions.getQueryTimeout());
+    this.lookupTasks =
+        new LookupTasks(
+            nodeTable, this::findNodes, lookupOptions, MAX_CONCURRENT_LOOKUPS, MAX_QUEUED_LOOKUPS);
     this.resetDead = resetDead;
     this.removeDead = removeDead;
     this.nodeRecordUpdatesConsumers = nodeRecordUpdatesConsumers;
@@ -151,12 +172,12 @@ public class DiscoveryTaskManager {
   public synchronized void start() {
     liveCheckSchedule =
         scheduler.executeAtFixedRate(
-            Duration.ZERO, Duration.ofSeconds(LIVE_CHECK_INTERVAL_SECONDS), this::liveCheckTask);
+            Duration.ZERO, LIVE_CHECK_INTERVAL, this::liveCheckTask);
     recursiveLookupSchedule =
         scheduler.executeAtFixedRate(
             Duration.ZERO,
             Duration.ofSeconds(RECURSIVE_LOOKUP_INTERVAL_SECONDS),
-            this::performSearchForNewPeers);
+            this::performPeriodicSearchForNewPeers);
   }
 
   public synchronized void stop() {
@@ -171,62 +192,55 @@ public class DiscoveryTaskManager {
   }
 
   private void liveCheckTask() {
-    List<NodeRecordInfo> nodes = nodeTable.findClosestNodes(homeNodeId, 0);
-
-    // Dead nodes handling
-    nodes.stream()
-        .filter(DEAD_RULE)
-        .forEach(
-            deadMarkedNode -> {
-              if (removeDead) {
-                nodeTable.remove(deadMarkedNode);
-              } else {
-                nodeTable.save(
-                    new NodeRecordInfo(
-                        deadMarkedNode.getNode(),
-                        deadMarkedNode.getLastRetry(),
-                        DEAD,
-                        deadMarkedNode.getRetry()));
-              }
-            });
+    if (livenessScheduler.isRescanDue()) {
+      livenessScheduler.reschedule(updateDeadNodes(nodeTable.findClosestNodes(homeNodeId, 0)));
+    }
+    livenessScheduler.nextBatch(liveCheckTasks.getActiveTaskCount()).forEach(this::checkLiveness);
+  }
 
-    // resets dead records
-    Stream<NodeRecordInfo> closestNodes = nodes.stream();
-    if (resetDead) {
-      closestNodes =
-          closestNodes.map(
-              nodeRecordInfo -> {
-                if (DEAD.equals(nodeRecordInfo.getStatus())) {
-                  return new NodeRecordInfo(
-                      nodeRecordInfo.getNode(), nodeRecordInfo.getLastRetry(), NodeStatus.SLEEP, 0);
-                } else {
-                  return nodeRecordInfo;
-                }
-              });
-      resetDead = false;
+  /**
+   * Marks nodes with too many failed retries as DEAD or removes them, resets DEAD nodes on the
+   * first run if requested. Returns nodes which are still eligible for liveness checks.
+   */
+  private List<NodeRecordInfo> updateDeadNodes(List<NodeRecordInfo> nodes) {
+    List<NodeRecordInfo> result = new ArrayList<>(nodes.size());
+    for (NodeRecordInfo node : nodes) {
+      if (resetDead && DEAD.equals(node.getStatus())) {
+        NodeRecordInfo resetNode =
+            new NodeRecordInfo(node.getNode(), node.getLastRetry(), NodeStatus.SLEEP, 0);
+        nodeTable.save(resetNode);
+        result.add(resetNode);
+      } else if (DEAD_RULE.test(node)) {
+        if (removeDead) {
+          nodeTable.remove(node);
+        } else if (!DEAD.equals(node.getStatus())) {
+          nodeTable.save(
+              new NodeRecordInfo(node.getNode(), node.getLastRetry(), DEAD, node.getRetry()));
+        }
+      } else {
+        result.add(node);
+      }
     }
+    resetDead = false;
+    return result;
+  }
 
-    // Live check task
-    closestNodes
-        .filter(LIVE_CHECK_NODE_RULE)
-        .limit(CONCURRENT_LIVENESS_CHECK_LIMIT)
-        .forEach(
-            nodeRecord ->
-                liveCheckTasks.add(
-                    nodeRecord,
-                    () ->
-                        updateNode(
-                            nodeRecord,
-                            new NodeRecordInfo(
-                                nodeRecord.getNode(), Functions.getTime(), NodeStatus.ACTIVE, 0)),
-                    () ->
-                        updateNode(
-                            nodeRecord,
-                            new NodeRecordInfo(
-                                nodeRecord.getNode(),
-                                Functions.getTime(),
-                                NodeStatus.SLEEP,
-                                (nodeRecord.getRetry() + 1)))));
+  private void checkLiveness(NodeRecordInfo nodeRecord) {
+    liveCheckTasks.add(
+        nodeRecord,
+        () ->
+            updateNode(
+                nodeRecord,
+                new NodeRecordInfo(
+                    nodeRecord.getNode(), Functions.getTime(), NodeStatus.ACTIVE, 0)),
+        () ->
+            updateNode(
+                nodeRecord,
+                new NodeRecordInfo(
+                    nodeRecord.getNode(),
+                    Functions.getTime(),
+                    NodeStatus.SLEEP,
+                    (nodeRecord.getRetry() + 1))));
   }
 
   public CompletableFuture<Void> searchForNewPeers() {
@@ -234,16 +248,61 @@ public class DiscoveryTaskManager {
     return scheduler.execute(this::performSearchForNewPeers).thenCompose(Function.identity());
   }
 
+  /**
+   * Looks up for k nodes closest to the target, concurrent lookups for the same target are
+   * executed only once
+   */
+  public CompletableFuture<List<NodeRecord>> lookup(Bytes targetNodeId, int k) {
+    return lookupTasks.lookup(targetNodeId, k);
+  }
+
+  /**
+   * Searches for nodes with ENR field matching predicate. Known nodes are taken from the node table
+   * first, if there are not enough of them, runs lookups for random targets until `limit` nodes
+   * are found or {@link #MAX_FIELD_SEARCH_LOOKUPS} lookups are done. As ENR fields are not related
+   * to node ids, there is no target which is closer to the matching nodes than others, but all
+   * records received during the lookup are stored, so the search is not limited to the k closest
+   * nodes of each lookup.
+   */
+  public CompletableFuture<List<NodeRecord>> searchForNodesWithField(
+      String key, Predicate<Object> predicate, int limit) {
+    checkArgument(limit > 0, "Number of nodes to search should be positive: %s", limit);
+    return searchForNodesWithField(key, predicate, limit, MAX_FIELD_SEARCH_LOOKUPS);
+  }
+
+  private CompletableFuture<List<NodeRecord>> searchForNodesWithField(
+      String key, Predicate<Object> predicate, int limit, int remainingLookups) {
+    final List<NodeRecord> found =
+        nodeTable.findNodesWithField(key, predicate, 0).stream()
+            .filter(nodeRecordInfo -> !DEAD.equals(nodeRecordInfo.getStatus()))
+            .limit(limit)
+            .map(NodeRecordInfo::getNode)
+            .collect(Collectors.toList());
+    if (found.size() >= limit || remainingLookups <= 0) {
+      return CompletableFuture.completedFuture(found);
+    }
+    return lookupTasks
+        .lookup(Bytes32.random(), lookupOptions.getK())
+        .thenCompose(__ -> searchForNodesWithField(key, predicate, limit, remainingLookups - 1));
+  }
+
+  /** New periodic lookup is not started until the previous one is completed */
+  private void performPeriodicSearchForNewPeers() {
+    if (!periodicLookup.isDone()) {
+      LOG.trace("Skipping periodic lookup as the previous one is not completed yet");
+      return;
+    }
+    periodicLookup = performSearchForNewPeers();
+  }
+
   private CompletableFuture<Void> performSearchForNewPeers() {
-    return new RecursiveLookupTask(
-            nodeTable, this::findNodes, RECURSIVE_SEARCH_QUERY_LIMIT, Bytes32.random())
-        .execute();
+    return lookupTasks.lookup(Bytes32.random(), lookupOptions.getK()).thenAccept(__ -> {});
   }
 
-  private CompletableFuture<Void> findNodes(
-      final NodeRecordInfo nodeRecordInfo, final int distance) {
-    final CompletableFuture<Void> searchResult =
-        recursiveLookupTasks.add(nodeRecordInfo.getNode(), distance);
+  private CompletableFuture<Collection<NodeRecord>> findNodes(
+      final NodeRecordInfo nodeRecordInfo, final List<Integer> distances) {
+    final CompletableFuture<Collection<NodeRecord>> searchResult =
+        recursiveLookupTasks.add(nodeRecordInfo.getNode(), distances);
     searchResult.handle(
         (__, error) -> {
           if (error != null) {
@@ -70,6 +70,11 @@ public class LiveCheckTasks {
         });
   }
 
+  /** Number of checks awaiting reply */
+  public int getActiveTaskCount() {
+    return currentTasks.size();
+  }
+
   private void addTimeout(final NodeRecordInfo nodeRecordInfo, final CompletableFuture<Void> ping) {
     taskTimeouts.put(
         nodeRecordInfo.getNode().getNodeId(),
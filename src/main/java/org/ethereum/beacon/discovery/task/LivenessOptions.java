@@ -0,0 +1,76 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.task;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.time.Duration;
+
+/** Parameters of node liveness checks, see {@link LivenessScheduler} */
+public class LivenessOptions {
+  public static final LivenessOptions DEFAULT =
+      new LivenessOptions(20, 20, 200, Duration.ofSeconds(60));
+
+  private final double pingsPerSecond;
+  private final int burst;
+  private final int maxConcurrentChecks;
+  private final Duration rescanInterval;
+
+  /**
+   * @param pingsPerSecond Sustained rate of liveness PINGs
+   * @param burst Maximum number of PINGs sent at once after idle period. Checks are dispatched
+   *     every 100 milliseconds, burst below the number of pings per interval limits the rate
+   * @param maxConcurrentChecks Maximum number of checks awaiting reply
+   * @param rescanInterval How often nodes due for a check are collected from the node table again,
+   *     so newly learned nodes get ahead of stale ones queued before
+   */
+  public LivenessOptions(
+      double pingsPerSecond, int burst, int maxConcurrentChecks, Duration rescanInterval) {
+    checkArgument(pingsPerSecond > 0, "Ping rate should be positive: %s", pingsPerSecond);
+    checkArgument(burst > 0, "Burst should be positive: %s", burst);
+    checkArgument(
+        maxConcurrentChecks > 0,
+        "Concurrent checks limit should be positive: %s",
+        maxConcurrentChecks);
+    checkArgument(
+        !rescanInterval.isNegative() && !rescanInterval.isZero(),
+        "Rescan interval should be positive: %s",
+        rescanInterval);
+    this.pingsPerSecond = pingsPerSecond;
+    this.burst = burst;
+    this.maxConcurrentChecks = maxConcurrentChecks;
+    this.rescanInterval = rescanInterval;
+  }
+
+  public double getPingsPerSecond() {
+    return pingsPerSecond;
+  }
+
+  public int getBurst() {
+    return burst;
+  }
+
+  public int getMaxConcurrentChecks() {
+    return maxConcurrentChecks;
+  }
+
+  public Duration getRescanInterval() {
+    return rescanInterval;
+  }
+
+  @Override
+  public String toString() {
+    return "LivenessOptions{"
+        + "pingsPerSecond="
+        + pingsPerSecond
+        + ", burst="
+        + burst
+        + ", maxConcurrentChecks="
+        + maxConcurrentChecks
+        + ", rescanInterval="
+        + rescanInterval
+        + '}';
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.task;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import org.apache.tuweni.bytes.Bytes;
+import org.ethereum.beacon.discovery.schema.NodeRecordInfo;
+import org.ethereum.beacon.discovery.storage.NodeBucket;
+import org.ethereum.beacon.discovery.storage.NodeBucketStorage;
+import org.ethereum.beacon.discovery.storage.NodeTable;
+import org.ethereum.beacon.discovery.util.Functions;
+import org.ethereum.beacon.discovery.util.TokenBucket;
+
+/**
+ * Decides which nodes are checked for liveness and when. PINGs are limited by a {@link TokenBucket}
+ * of {@link LivenessOptions#getPingsPerSecond()} and by the number of checks awaiting reply. Nodes
+ * due for a check are queued in the following order:
+ *
+ * <ol>
+ *   <li>members of {@link NodeBucket}s, as we serve them in NODES replies
+ *   <li>recently learned nodes, which were never checked
+ *   <li>other stale nodes, least recently checked first
+ * </ol>
+ *
+ * <p>Within each group buckets (log distances from the home node) take turns, so a crowded distance
+ * doesn't delay the others. The queue is rebuilt from the node table when it is drained or every
+ * {@link LivenessOptions#getRescanInterval()}, the stored record is reread right before the check.
+ */
+public class LivenessScheduler {
+  private static final long MIN_RESCAN_INTERVAL_MILLIS = 1000;
+  private final NodeTable nodeTable;
+  private final NodeBucketStorage nodeBucketStorage;
+  private final Bytes homeNodeId;
+  private final Predicate<NodeRecordInfo> checkRule;
+  private final LivenessOptions options;
+  private final LongSupplier clockMillis;
+  private final TokenBucket pingBudget;
+  private final Deque<Bytes> queue = new ArrayDeque<>();
+  private boolean scanned = false;
+  private long lastScan;
+
+  /**
+   * @param nodeTable Storage of all known nodes
+   * @param nodeBucketStorage Buckets which members are checked first
+   * @param homeNodeId Home node id, buckets are log distances from it
+   * @param checkRule Whether node is due for liveness check
+   * @param options Rate and concurrency limits
+   * @param clockMillis Current time in milliseconds
+   */
+  public LivenessScheduler(
+      NodeTable nodeTable,
+      NodeBucketStorage nodeBucketStorage,
+      Bytes homeNodeId,
+      Predicate<NodeRecordInfo> checkRule,
+      LivenessOptions options,
+      LongSupplier clockMillis) {
+    this.nodeTable = nodeTable;
+    this.nodeBucketStorage = nodeBucketStorage;
+    this.homeNodeId = homeNodeId;
+    this.checkRule = checkRule;
+    this.options = options;
+    this.clockMillis = clockMillis;
+    this.pingBudget =
+        new TokenBucket(options.getPingsPerSecond(), options.getBurst(), clockMillis);
+  }
+
+  /** Whether nodes should be collected from the node table with {@link #reschedule(Collection)} */
+  public synchronized boolean isRescanDue() {
+    if (!scanned) {
+      return true;
+    }
+    long sinceLastScan = clockMillis.getAsLong() - lastScan;
+    return sinceLastScan >= options.getRescanInterval().toMillis()
+        || (queue.isEmpty() && sinceLastScan >= MIN_RESCAN_INTERVAL_MILLIS);
+  }
+
+  /** Replaces the queue with `nodes` which are due for a check, ordered by priority */
+  public synchronized void reschedule(Collection<NodeRecordInfo> nodes) {
+    scanned = true;
+    lastScan = clockMillis.getAsLong();
+
+    Map<Integer, List<NodeRecordInfo>> dueByDistance = new TreeMap<>();
+    nodes.stream()
+        .filter(checkRule)
+        .sorted(Comparator.comparing(NodeRecordInfo::getLastRetry))
+        .forEach(
+            node ->
+                dueByDistance
+                    .computeIfAbsent(
+                        Functions.logDistance(homeNodeId, node.getNode().getNodeId()),
+                        __ -> new ArrayList<>())
+                    .add(node));
+
+    List<Map<Integer, Deque<NodeRecordInfo>>> groups = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      groups.add(new TreeMap<>());
+    }
+    dueByDistance.forEach(
+        (distance, bucketNodes) -> {
+          Set<Bytes> bucketMembers = getBucketMembers(distance);
+          for (NodeRecordInfo node : bucketNodes) {
+            final int group;
+            if (bucketMembers.contains(node.getNode().getNodeId())) {
+              group = 0;
+            } else if (node.getLastRetry() < 0) {
+              group = 1;
+            } else {
+              group = 2;
+            }
+            groups.get(group).computeIfAbsent(distance, __ -> new ArrayDeque<>()).add(node);
+          }
+        });
+
+    queue.clear();
+    groups.forEach(this::enqueueRoundRobin);
+  }
+
+  /**
+   * Takes nodes to check now, limited by available PING budget and `activeChecks`, the number of
+   * checks awaiting reply. Nodes which are no longer due for a check are dropped from the queue.
+   */
+  public synchronized List<NodeRecordInfo> nextBatch(int activeChecks) {
+    List<NodeRecordInfo> batch = new ArrayList<>();
+    while (!queue.isEmpty() && activeChecks + batch.size() < options.getMaxConcurrentChecks()) {
+      Optional<NodeRecordInfo> node = nodeTable.getNode(queue.peek()).filter(checkRule);
+      if (node.isEmpty()) {
+        queue.poll();
+        continue;
+      }
+      if (!pingBudget.tryAcquire()) {
+        break;
+      }
+      queue.poll();
+      batch.add(node.get());
+    }
+    return batch;
+  }
+
+  public synchronized int getQueueSize() {
+    return queue.size();
+  }
+
+  private Set<Bytes> getBucketMembers(int distance) {
+    Set<Bytes> members = new HashSet<>();
+    nodeBucketStorage
+        .get(distance)
+        .ifPresent(
+            bucket ->
+                bucket.getNodeRecords().forEach(node -> members.add(node.getNode().getNodeId())));
+    return members;
+  }
+
+  private void enqueueRoundRobin(Map<Integer, Deque<NodeRecordInfo>> buckets) {
+    while (!buckets.isEmpty()) {
+      Iterator<Deque<NodeRecordInfo>> iterator = buckets.values().iterator();
+      while (iterator.hasNext()) {
+        Deque<NodeRecordInfo> bucket = iterator.next();
+        queue.add(bucket.poll().getNode().getNodeId());
+        if (bucket.isEmpty()) {
+          iterator.remove();
+        }
+      }
+    }
+  }
+}
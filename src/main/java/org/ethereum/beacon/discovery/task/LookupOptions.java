@@ -0,0 +1,91 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.task;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.time.Duration;
+import org.ethereum.beacon.discovery.storage.NodeBucket;
+
+/** Parameters of iterative node lookup, see {@link RecursiveLookupTask} */
+public class LookupOptions {
+  public static final LookupOptions DEFAULT =
+      new LookupOptions(3, NodeBucket.K, 3 * NodeBucket.K, Duration.ofSeconds(10));
+
+  private final int alpha;
+  private final int k;
+  private final int maxQueries;
+  private final Duration queryTimeout;
+  private final boolean multiDistanceRequests;
+
+  public LookupOptions(int alpha, int k, int maxQueries, Duration queryTimeout) {
+    this(alpha, k, maxQueries, queryTimeout, false);
+  }
+
+  /**
+   * @param alpha Maximum number of FINDNODE queries in flight at any moment
+   * @param k Size of the result set, lookup converges when the k closest known nodes are queried
+   * @param maxQueries Hard limit of queries made by a single lookup
+   * @param queryTimeout Time given to each queried node to reply, node is skipped after that
+   * @param multiDistanceRequests Whether FINDNODE requests neighbour distances too, only for
+   *     networks where all peers are known to decode the list of distances
+   */
+  public LookupOptions(
+      int alpha, int k, int maxQueries, Duration queryTimeout, boolean multiDistanceRequests) {
+    checkArgument(alpha > 0, "Alpha should be positive: %s", alpha);
+    checkArgument(k > 0, "K should be positive: %s", k);
+    checkArgument(maxQueries > 0, "Query limit should be positive: %s", maxQueries);
+    checkArgument(
+        !queryTimeout.isNegative() && !queryTimeout.isZero(),
+        "Query timeout should be positive: %s",
+        queryTimeout);
+    this.alpha = alpha;
+    this.k = k;
+    this.maxQueries = maxQueries;
+    this.queryTimeout = queryTimeout;
+    this.multiDistanceRequests = multiDistanceRequests;
+  }
+
+  public int getAlpha() {
+    return alpha;
+  }
+
+  public int getK() {
+    return k;
+  }
+
+  public int getMaxQueries() {
+    return maxQueries;
+  }
+
+  public Duration getQueryTimeout() {
+    return queryTimeout;
+  }
+
+  public boolean isMultiDistanceRequests() {
+    return multiDistanceRequests;
+  }
+
+  /** Same options with another result set size */
+  public LookupOptions withK(int k) {
+    return new LookupOptions(alpha, k, maxQueries, queryTimeout, multiDistanceRequests);
+  }
+
+  @Override
+  public String toString() {
+    return "LookupOptions{"
+        + "alpha="
+        + alpha
+        + ", k="
+        + k
+        + ", maxQueries="
+        + maxQueries
+        + ", queryTimeout="
+        + queryTimeout
+        + ", multiDistanceRequests="
+        + multiDistanceRequests
+        + '}';
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.task;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import org.apache.tuweni.bytes.Bytes;
+import org.ethereum.beacon.discovery.schema.NodeRecord;
+import org.ethereum.beacon.discovery.storage.NodeTable;
+import org.ethereum.beacon.discovery.task.RecursiveLookupTask.FindNodesAction;
+
+/**
+ * Runs {@link RecursiveLookupTask}s for targets added via {@link #lookup(Bytes, int)}. Not more
+ * than {@code maxConcurrentLookups} lookups are executed at once, the rest wait in the queue of at
+ * most {@code maxQueuedLookups}, lookups over that are rejected. Requests for the target which is
+ * already looked up for at least the same number of nodes share the running lookup.
+ */
+public class LookupTasks {
+  private final NodeTable nodeTable;
+  private final FindNodesAction findNodesAction;
+  private final LookupOptions lookupOptions;
+  private final int maxConcurrentLookups;
+  private final int maxQueuedLookups;
+  // Running and queued lookups by target
+  private final Map<Bytes, Lookup> lookups = new HashMap<>();
+  private final Queue<Lookup> queue = new ArrayDeque<>();
+  private int activeLookups = 0;
+
+  public LookupTasks(
+      NodeTable nodeTable,
+      FindNodesAction findNodesAction,
+      LookupOptions lookupOptions,
+      int maxConcurrentLookups,
+      int maxQueuedLookups) {
+    checkArgument(maxConcurrentLookups > 0, "Lookups limit should be positive");
+    checkArgument(maxQueuedLookups >= 0, "Queued lookups limit should not be negative");
+    this.nodeTable = nodeTable;
+    this.findNodesAction = findNodesAction;
+    this.lookupOptions = lookupOptions;
+    this.maxConcurrentLookups = maxConcurrentLookups;
+    this.maxQueuedLookups = maxQueuedLookups;
+  }
+
+  /**
+   * Looks up for the nodes closest to the target
+   *
+   * @param targetNodeId Node id to search nodes around
+   * @param k Maximum number of nodes to return
+   * @return Future with up to k closest to the target nodes which replied during the lookup,
+   *     ordered by XOR distance to the target, fails with {@link RejectedExecutionException} if
+   *     the queue is full
+   */
+  public synchronized CompletableFuture<List<NodeRecord>> lookup(Bytes targetNodeId, int k) {
+    checkArgument(k > 0, "Number of nodes to lookup should be positive: %s", k);
+    final Lookup existing = lookups.get(targetNodeId);
+    if (existing != null && existing.k >= k) {
+      return existing.result.thenApply(nodes -> nodes.subList(0, Math.min(k, nodes.size())));
+    }
+    if (activeLookups >= maxConcurrentLookups && queue.size() >= maxQueuedLookups) {
+      return CompletableFuture.failedFuture(
+          new RejectedExecutionException("Too many lookups queued: " + queue.size()));
+    }
+    final Lookup lookup = new Lookup(targetNodeId, k);
+    lookups.put(targetNodeId, lookup);
+    queue.add(lookup);
+    startQueued();
+    // copy, so the caller couldn't complete the shared future
+    return lookup.result.copy();
+  }
+
+  private synchronized void startQueued() {
+    while (activeLookups < maxConcurrentLookups && !queue.isEmpty()) {
+      final Lookup lookup = queue.remove();
+      activeLookups++;
+      new RecursiveLookupTask(
+              nodeTable, findNodesAction, lookupOptions.withK(lookup.k), lookup.targetNodeId)
+          .execute()
+          .whenComplete(
+              (nodes, error) -> {
+                synchronized (LookupTasks.this) {
+                  activeLookups--;
+                  lookups.remove(lookup.targetNodeId, lookup);
+                }
+                if (error != null) {
+                  lookup.result.completeExceptionally(error);
+                } else {
+                  lookup.result.complete(nodes);
+                }
+                startQueued();
+              });
+    }
+  }
+
+  private static class Lookup {
+    private final Bytes targetNodeId;
+    private final int k;
+    private final CompletableFuture<List<NodeRecord>> result = new CompletableFuture<>();
+
+    private Lookup(final Bytes targetNodeId, final int k) {
+      this.targetNodeId = targetNodeId;
+      this.k = k;
+    }
+  }
+}
@@ -4,86 +4,201 @@
 
 package org.ethereum.beacon.discovery.task;
 
-import static com.google.common.base.Preconditions.checkArgument;
-
-import java.util.HashSet;
-import java.util.Set;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.tuweni.bytes.Bytes;
+import org.ethereum.beacon.discovery.schema.NodeRecord;
 import org.ethereum.beacon.discovery.schema.NodeRecordInfo;
 import org.ethereum.beacon.discovery.storage.NodeTable;
 import org.ethereum.beacon.discovery.util.Functions;
 
+/**
+ * Kademlia iterative lookup of the nodes closest to the target.
+ *
+ * <p>Candidates are kept ordered by XOR distance to the target. Lookup is seeded with the closest
+ * live nodes from the node table, then up to {@link LookupOptions#getAlpha()} closest not yet
+ * queried candidates are asked with FINDNODE at once. Nodes from each NODES reply are added back to
+ * the candidates, so the following queries move closer to the target. Lookup converges when the
+ * {@link LookupOptions#getK()} closest candidates which haven't failed are all queried, it also
+ * stops when {@link LookupOptions#getMaxQueries()} is reached. Finding the target itself doesn't
+ * stop the lookup, it's queried like any other candidate.
+ *
+ * <p>Result is the list of up to k closest nodes which replied, ordered by distance to the target.
+ * The target node comes first if it replied.
+ */
 public class RecursiveLookupTask {
   private static final Logger LOG = LogManager.getLogger();
-  private static final int MAX_CONCURRENT_QUERIES = 3;
+  private static final int MAX_DISTANCE = 256;
   private final NodeTable nodeTable;
   private final FindNodesAction sendFindNodesRequest;
+  private final LookupOptions options;
+  private final Bytes homeNodeId;
   private final Bytes targetNodeId;
-  private final Set<Bytes> queriedNodeIds = new HashSet<>();
-  private int availableQuerySlots = MAX_CONCURRENT_QUERIES;
+  // All known candidates by XOR distance to the target
+  private final NavigableMap<BigInteger, Candidate> candidates = new TreeMap<>();
+  private int inFlightQueries = 0;
   private int remainingTotalQueryLimit;
-  private final CompletableFuture<Void> future = new CompletableFuture<>();
+  private final CompletableFuture<List<NodeRecord>> future = new CompletableFuture<>();
 
   public RecursiveLookupTask(
       final NodeTable nodeTable,
       final FindNodesAction sendFindNodesRequest,
-      final int totalQueryLimit,
+      final LookupOptions options,
       final Bytes targetNodeId) {
     this.nodeTable = nodeTable;
     this.sendFindNodesRequest = sendFindNodesRequest;
-    this.remainingTotalQueryLimit = totalQueryLimit;
+    this.options = options;
+    this.remainingTotalQueryLimit = options.getMaxQueries();
+    this.homeNodeId = nodeTable.getHomeNode().getNodeId();
     this.targetNodeId = targetNodeId;
   }
 
-  public CompletableFuture<Void> execute() {
+  public CompletableFuture<List<NodeRecord>> execute() {
+    synchronized (this) {
+      nodeTable
+          .streamClosestNodes(targetNodeId, 0)
+          .filter(DiscoveryTaskManager.RECURSIVE_LOOKUP_NODE_RULE)
+          // no sense to have more seeds than queries allowed
+          .limit(options.getMaxQueries())
+          .forEach(this::addCandidate);
+      nodeTable
+          .getNode(targetNodeId)
+          .filter(DiscoveryTaskManager.RECURSIVE_LOOKUP_NODE_RULE)
+          .ifPresent(this::addCandidate);
+    }
     sendRequests();
     return future;
   }
 
   private synchronized void sendRequests() {
-    checkArgument(availableQuerySlots >= 0, "Available query slots should never be negative");
-    if (availableQuerySlots == 0 || future.isDone()) {
+    if (future.isDone()) {
       return;
     }
-    if (nodeTable.getNode(targetNodeId).isPresent()) {
-      future.complete(null);
-      return;
+    List<Candidate> toQuery = new ArrayList<>();
+    int closest = 0;
+    for (Candidate candidate : candidates.values()) {
+      if (closest >= options.getK()
+          || inFlightQueries + toQuery.size() >= options.getAlpha()
+          || remainingTotalQueryLimit - toQuery.size() <= 0) {
+        break;
+      }
+      if (candidate.state == CandidateState.FAILED) {
+        continue;
+      }
+      closest++;
+      if (candidate.state == CandidateState.NOT_QUERIED) {
+        toQuery.add(candidate);
+      }
     }
-    nodeTable
-        .streamClosestNodes(targetNodeId, 0)
-        .filter(DiscoveryTaskManager.RECURSIVE_LOOKUP_NODE_RULE)
-        .filter(record -> !queriedNodeIds.contains(record.getNode().getNodeId()))
-        .limit(Math.min(availableQuerySlots, remainingTotalQueryLimit))
-        .forEach(this::queryPeer);
-    if (availableQuerySlots == MAX_CONCURRENT_QUERIES) {
-      // There are no in-progress queries even after we looked for more to send so must have run out
-      // of possible nodes to query or reached the query limit.
-      future.complete(null);
+    if (toQuery.isEmpty() && inFlightQueries == 0) {
+      // Either k closest are queried, or there are no candidates left or query limit is reached
+      complete();
+      return;
     }
+    toQuery.forEach(
+        candidate -> {
+          candidate.state = CandidateState.IN_FLIGHT;
+          inFlightQueries++;
+          remainingTotalQueryLimit--;
+        });
+    // Replies could be delivered synchronously, so queries are sent after state is updated
+    toQuery.forEach(this::queryPeer);
   }
 
-  private void queryPeer(final NodeRecordInfo peer) {
-    queriedNodeIds.add(peer.getNode().getNodeId());
-    availableQuerySlots--;
-    remainingTotalQueryLimit--;
+  private void queryPeer(final Candidate candidate) {
+    final NodeRecordInfo peer = candidate.nodeRecordInfo;
     sendFindNodesRequest
-        .findNodes(peer, Functions.logDistance(peer.getNode().getNodeId(), targetNodeId))
+        .findNodes(
+            peer,
+            lookupDistances(
+                peer.getNode().getNodeId(), targetNodeId, options.isMultiDistanceRequests()))
         .whenComplete(
-            (__, error) -> {
-              if (error != null) {
-                LOG.debug("Failed to query " + peer.getNode().getNodeId(), error);
-              }
+            (nodes, error) -> {
               synchronized (RecursiveLookupTask.this) {
-                availableQuerySlots++;
+                inFlightQueries--;
+                if (error != null) {
+                  LOG.debug("Failed to query " + peer.getNode().getNodeId(), error);
+                  candidate.state = CandidateState.FAILED;
+                } else {
+                  candidate.state = CandidateState.SUCCEEDED;
+                  nodes.forEach(node -> addCandidate(NodeRecordInfo.createDefault(node)));
+                }
                 sendRequests();
               }
             });
   }
 
+  private void addCandidate(final NodeRecordInfo nodeRecordInfo) {
+    final Bytes nodeId = nodeRecordInfo.getNode().getNodeId();
+    if (nodeId.equals(homeNodeId)) {
+      return;
+    }
+    candidates.putIfAbsent(
+        nodeId.xor(targetNodeId).toUnsignedBigInteger(), new Candidate(nodeRecordInfo));
+  }
+
+  private void complete() {
+    final List<NodeRecord> result = new ArrayList<>();
+    for (Candidate candidate : candidates.values()) {
+      if (result.size() >= options.getK()) {
+        break;
+      }
+      if (candidate.state == CandidateState.SUCCEEDED) {
+        result.add(candidate.nodeRecordInfo.getNode());
+      }
+    }
+    future.complete(result);
+  }
+
+  /**
+   * Distances to request from the peer: the distance of the target from the peer. Peers supporting
+   * only single distance can't decode the list, so neighbour distances are added only with {@link
+   * LookupOptions#isMultiDistanceRequests()}, then single request covers more of the target
+   * neighbourhood when the exact bucket of the peer is sparse.
+   */
+  static List<Integer> lookupDistances(
+      Bytes peerId, Bytes targetNodeId, boolean multiDistanceRequests) {
+    int distance = Functions.logDistance(peerId, targetNodeId);
+    List<Integer> distances = new ArrayList<>();
+    distances.add(distance);
+    if (!multiDistanceRequests) {
+      return distances;
+    }
+    if (distance < MAX_DISTANCE) {
+      distances.add(distance + 1);
+    }
+    if (distance > 1) {
+      distances.add(distance - 1);
+    }
+    return distances;
+  }
+
+  private enum CandidateState {
+    NOT_QUERIED,
+    IN_FLIGHT,
+    SUCCEEDED,
+    FAILED
+  }
+
+  private static class Candidate {
+    private final NodeRecordInfo nodeRecordInfo;
+    private CandidateState state = CandidateState.NOT_QUERIED;
+
+    private Candidate(final NodeRecordInfo nodeRecordInfo) {
+      this.nodeRecordInfo = nodeRecordInfo;
+    }
+  }
+
   public interface FindNodesAction {
-    CompletableFuture<Void> findNodes(NodeRecordInfo sendTo, int distance);
+    /** Sends FINDNODE to the node, returned future is completed with all received records */
+    CompletableFuture<Collection<NodeRecord>> findNodes(
+        NodeRecordInfo sendTo, List<Integer> distances);
   }
 }
@@ -0,0 +1,136 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.task;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Sets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.apache.tuweni.bytes.Bytes;
+import org.ethereum.beacon.discovery.scheduler.ExpirationScheduler;
+import org.ethereum.beacon.discovery.scheduler.ExpirationSchedulerFactory;
+import org.ethereum.beacon.discovery.schema.NodeRecord;
+import org.ethereum.beacon.discovery.util.Utils;
+
+/**
+ * Coalesces identical concurrent requests: while a request to a node is in flight, the same request
+ * to the same node gets the in-flight result instead of sending another packet. Successful PING
+ * results are reused for a short time too.
+ *
+ * <p>Each caller receives its own future, so completing it, for example on caller timeout, doesn't
+ * affect other callers. Session doesn't fail requests left without reply, so in-flight request is
+ * forgotten after a timeout and the next identical request is sent again.
+ */
+public class RequestCoalescer {
+  private final Map<RequestKey, CompletableFuture<?>> inFlight = new HashMap<>();
+  private final ExpirationScheduler<RequestKey> inFlightExpiration;
+  private final Set<Bytes> recentPongs = Sets.newConcurrentHashSet();
+  private final ExpirationScheduler<Bytes> pongExpiration;
+
+  /**
+   * @param expirationSchedulerFactory Factory of expiration schedulers
+   * @param inFlightTimeout Time after which request with no reply stops being shared
+   * @param pongTtl Time successful PING result is reused for
+   */
+  public RequestCoalescer(
+      ExpirationSchedulerFactory expirationSchedulerFactory,
+      Duration inFlightTimeout,
+      Duration pongTtl) {
+    this.inFlightExpiration =
+        expirationSchedulerFactory.create(inFlightTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    this.pongExpiration =
+        expirationSchedulerFactory.create(pongTtl.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /** Returns recent PONG or the result of in-flight PING to the node, otherwise starts `ping` */
+  public CompletableFuture<Void> ping(Bytes nodeId, Supplier<CompletableFuture<Void>> ping) {
+    if (recentPongs.contains(nodeId)) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return coalesce(
+        new RequestKey(nodeId, TaskType.PING, Collections.emptyList()),
+        () -> {
+          CompletableFuture<Void> request = ping.get();
+          request.thenRun(
+              () -> {
+                recentPongs.add(nodeId);
+                pongExpiration.put(nodeId, () -> recentPongs.remove(nodeId));
+              });
+          return request;
+        });
+  }
+
+  /** Returns the result of in-flight FINDNODE for the same distances, otherwise starts one */
+  public CompletableFuture<Collection<NodeRecord>> findNodes(
+      Bytes nodeId,
+      List<Integer> distances,
+      Supplier<CompletableFuture<Collection<NodeRecord>>> findNodes) {
+    return coalesce(new RequestKey(nodeId, TaskType.FINDNODE, distances), findNodes);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> CompletableFuture<T> coalesce(
+      RequestKey key, Supplier<CompletableFuture<T>> requestSupplier) {
+    final CompletableFuture<T> request;
+    synchronized (this) {
+      CompletableFuture<T> existing = (CompletableFuture<T>) inFlight.get(key);
+      if (existing != null) {
+        request = existing;
+      } else {
+        request = requestSupplier.get();
+        inFlight.put(key, request);
+        inFlightExpiration.put(key, () -> forget(key, request));
+        request.whenComplete(
+            (reply, error) -> {
+              if (forget(key, request)) {
+                inFlightExpiration.cancel(key);
+              }
+            });
+      }
+    }
+    CompletableFuture<T> result = new CompletableFuture<>();
+    Utils.futureForward(request, result);
+    return result;
+  }
+
+  private synchronized boolean forget(RequestKey key, CompletableFuture<?> request) {
+    return inFlight.remove(key, request);
+  }
+
+  private static class RequestKey {
+    private final Bytes nodeId;
+    private final TaskType taskType;
+    private final List<Integer> distances;
+
+    private RequestKey(Bytes nodeId, TaskType taskType, List<Integer> distances) {
+      this.nodeId = nodeId;
+      this.taskType = taskType;
+      this.distances = List.copyOf(distances);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      RequestKey that = (RequestKey) o;
+      return Objects.equal(nodeId, that.nodeId)
+          && taskType == that.taskType
+          && Objects.equal(distances, that.distances);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(nodeId, taskType, distances);
+    }
+  }
+}
@@ -4,6 +4,7 @@
 
 package org.ethereum.beacon.discovery.task;
 
+import java.util.List;
 import org.apache.tuweni.bytes.Bytes;
 import org.ethereum.beacon.discovery.message.DiscoveryV5Message;
 import org.ethereum.beacon.discovery.message.FindNodeMessage;
@@ -26,7 +27,7 @@ public class TaskMessageFactory {
         {
           FindNodeRequestInfo nodeRequestInfo = (FindNodeRequestInfo) requestInfo;
           return createFindNodePacket(
-              authTag, session, requestInfo.getRequestId(), nodeRequestInfo.getDistance());
+              authTag, session, requestInfo.getRequestId(), nodeRequestInfo.getDistances());
         }
       default:
         {
@@ -45,7 +46,7 @@ public class TaskMessageFactory {
       case FINDNODE:
         {
           FindNodeRequestInfo nodeRequestInfo = (FindNodeRequestInfo) requestInfo;
-          return createFindNode(requestInfo.getRequestId(), nodeRequestInfo.getDistance());
+          return createFindNode(requestInfo.getRequestId(), nodeRequestInfo.getDistances());
         }
       default:
         {
@@ -71,8 +72,8 @@ public class TaskMessageFactory {
   }
 
   public static MessagePacket createFindNodePacket(
-      Bytes authTag, NodeSession session, Bytes requestId, int distance) {
-    FindNodeMessage findNodeMessage = createFindNode(requestId, distance);
+      Bytes authTag, NodeSession session, Bytes requestId, List<Integer> distances) {
+    FindNodeMessage findNodeMessage = createFindNode(requestId, distances);
     return MessagePacket.create(
         session.getHomeNodeId(),
         session.getNodeId(),
@@ -81,7 +82,7 @@ public class TaskMessageFactory {
         DiscoveryV5Message.from(findNodeMessage));
   }
 
-  public static FindNodeMessage createFindNode(Bytes requestId, int distance) {
-    return new FindNodeMessage(requestId, distance);
+  public static FindNodeMessage createFindNode(Bytes requestId, List<Integer> distances) {
+    return new FindNodeMessage(requestId, distances);
   }
 }
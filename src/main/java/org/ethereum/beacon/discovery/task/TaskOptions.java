@@ -4,25 +4,48 @@
 
 package org.ethereum.beacon.discovery.task;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.ethereum.beacon.discovery.schema.NodeRecord;
+
 /** Specific options to clarify task features */
 public class TaskOptions {
   private boolean livenessUpdate;
-  private int distance;
+  private List<Integer> distances = Collections.emptyList();
+  private Collection<NodeRecord> foundNodes = new ConcurrentLinkedQueue<>();
 
   public TaskOptions(boolean livenessUpdate) {
     this.livenessUpdate = livenessUpdate;
   }
 
   public TaskOptions(boolean livenessUpdate, int distance) {
+    this(livenessUpdate, Collections.singletonList(distance));
+  }
+
+  public TaskOptions(boolean livenessUpdate, List<Integer> distances) {
+    this.livenessUpdate = livenessUpdate;
+    this.distances = distances;
+  }
+
+  public TaskOptions(
+      boolean livenessUpdate, List<Integer> distances, Collection<NodeRecord> foundNodes) {
     this.livenessUpdate = livenessUpdate;
-    this.distance = distance;
+    this.distances = distances;
+    this.foundNodes = foundNodes;
   }
 
   public boolean isLivenessUpdate() {
     return livenessUpdate;
   }
 
-  public int getDistance() {
-    return distance;
+  public List<Integer> getDistances() {
+    return distances;
+  }
+
+  /** Thread-safe collection accepted records from FINDNODE replies are added to */
+  public Collection<NodeRecord> getFoundNodes() {
+    return foundNodes;
   }
 }
@@ -0,0 +1,110 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.ethereum.beacon.discovery.util.Functions.PRIVKEY_SIZE;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.tuweni.bytes.Bytes;
+import org.ethereum.beacon.discovery.scheduler.Scheduler;
+
+/**
+ * Ephemeral key pairs for handshakes generated ahead on a background scheduler, so a burst of
+ * handshakes, like lookups on startup, doesn't wait for public key derivation. The pool is refilled
+ * when it's half empty, key pair is generated inline when the pool is empty.
+ */
+public class EphemeralKeyPool {
+  public static final int DEFAULT_SIZE = 64;
+  /** Generates every key pair inline */
+  public static final EphemeralKeyPool DISABLED = new EphemeralKeyPool();
+
+  private final int size;
+  private final Scheduler scheduler;
+  private final Queue<KeyPair> pool = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger available = new AtomicInteger();
+  private final AtomicBoolean refillScheduled = new AtomicBoolean();
+
+  /**
+   * @param size Maximum number of key pairs generated ahead
+   * @param scheduler Scheduler for generation, like {@link
+   *     org.ethereum.beacon.discovery.scheduler.Schedulers#cpuHeavy()}
+   */
+  public EphemeralKeyPool(int size, Scheduler scheduler) {
+    checkArgument(size > 0, "Pool size should be positive: %s", size);
+    this.size = size;
+    this.scheduler = scheduler;
+    scheduleRefill();
+  }
+
+  private EphemeralKeyPool() {
+    this.size = 0;
+    this.scheduler = null;
+  }
+
+  /** Takes key pair from the pool or generates it if the pool is empty. Thread-safe. */
+  public KeyPair take() {
+    KeyPair keyPair = pool.poll();
+    if (keyPair != null) {
+      available.decrementAndGet();
+    }
+    if (available.get() <= size / 2) {
+      scheduleRefill();
+    }
+    return keyPair != null ? keyPair : KeyPair.generate();
+  }
+
+  /** Number of key pairs ready in the pool */
+  public int getAvailable() {
+    return available.get();
+  }
+
+  private void scheduleRefill() {
+    if (scheduler != null && refillScheduled.compareAndSet(false, true)) {
+      scheduler.executeR(this::refill);
+    }
+  }
+
+  private void refill() {
+    try {
+      while (available.get() < size) {
+        pool.offer(KeyPair.generate());
+        available.incrementAndGet();
+      }
+    } finally {
+      refillScheduled.set(false);
+    }
+  }
+
+  /** Private key with its public key, uncompressed without prefix */
+  public static class KeyPair {
+    private final Bytes privateKey;
+    private final Bytes publicKey;
+
+    private KeyPair(Bytes privateKey, Bytes publicKey) {
+      this.privateKey = privateKey;
+      this.publicKey = publicKey;
+    }
+
+    static KeyPair generate() {
+      byte[] privateKeyBytes = new byte[PRIVKEY_SIZE];
+      Functions.getRandom().nextBytes(privateKeyBytes);
+      Bytes privateKey = Bytes.wrap(privateKeyBytes);
+      return new KeyPair(
+          privateKey, Functions.getSecp256k1Provider().derivePublicKeyUncompressed(privateKey));
+    }
+
+    public Bytes getPrivateKey() {
+      return privateKey;
+    }
+
+    public Bytes getPublicKey() {
+      return publicKey;
+    }
+  }
+}
@@ -4,18 +4,18 @@
 
 package org.ethereum.beacon.discovery.util;
 
-import static org.ethereum.beacon.discovery.util.Utils.extractBytesFromUnsignedBigInt;
 import static org.web3j.crypto.Sign.CURVE_PARAMS;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
-import java.math.BigInteger;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Random;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
@@ -31,12 +31,9 @@ import org.bouncycastle.crypto.generators.HKDFBytesGenerator;
 import org.bouncycastle.crypto.params.ECDomainParameters;
 import org.bouncycastle.crypto.params.HKDFParameters;
 import org.bouncycastle.math.ec.ECPoint;
-import org.bouncycastle.util.Arrays;
 import org.ethereum.beacon.discovery.type.Hashes;
-import org.web3j.crypto.ECDSASignature;
 import org.web3j.crypto.ECKeyPair;
 import org.web3j.crypto.Hash;
-import org.web3j.crypto.Sign;
 
 /** Set of cryptography and utilities functions used in discovery */
 public class Functions {
@@ -50,6 +47,9 @@ public class Functions {
   private static final int INITIATOR_KEY_LENGTH = 16;
   private static final int AUTH_RESP_KEY_LENGTH = 16;
   private static final int MS_IN_SECOND = 1000;
+  private static final PublicKeyCache PUBLIC_KEY_CACHE =
+      new PublicKeyCache(PublicKeyCache.DEFAULT_SIZE);
+  private static final Secp256k1Provider SECP256K1 = loadSecp256k1Provider();
 
   /** SHA2 (SHA256) */
   public static Bytes hash(Bytes value) {
@@ -69,11 +69,7 @@ public class Functions {
    * @return ECDSA signature with properties merged together: r || s
    */
   public static Bytes sign(Bytes key, Bytes x) {
-    Sign.SignatureData signatureData =
-        Sign.signMessage(x.toArray(), ECKeyPair.create(key.toArray()), false);
-    Bytes r = Bytes.wrap(signatureData.getR());
-    Bytes s = Bytes.wrap(signatureData.getS());
-    return Bytes.concatenate(r, s);
+    return SECP256K1.sign(key, x);
   }
 
   /**
@@ -86,29 +82,7 @@ public class Functions {
    */
   public static boolean verifyECDSASignature(Bytes signature, Bytes x, Bytes pubKey) {
     Preconditions.checkArgument(pubKey.size() == 33, "Invalid public key size");
-    ECPoint ecPoint = Functions.publicKeyToPoint(pubKey);
-    Bytes pubKeyUncompressed = Bytes.wrap(ecPoint.getEncoded(false)).slice(1);
-    ECDSASignature ecdsaSignature =
-        new ECDSASignature(
-            new BigInteger(1, signature.slice(0, 32).toArray()),
-            new BigInteger(1, signature.slice(32).toArray()));
-    try {
-      for (int recId = 0; recId < 4; ++recId) {
-        BigInteger calculatedPubKey = Sign.recoverFromSignature(recId, ecdsaSignature, x.toArray());
-        if (calculatedPubKey == null) {
-          continue;
-        }
-        if (Arrays.areEqual(
-            pubKeyUncompressed.toArray(),
-            extractBytesFromUnsignedBigInt(calculatedPubKey, PUBKEY_SIZE))) {
-          return true;
-        }
-      }
-    } catch (final IllegalArgumentException e) {
-      logger.trace("Failed to verify ECDSA signature", e);
-      return false;
-    }
-    return false;
+    return SECP256K1.verify(signature, x, pubKey);
   }
 
   /**
@@ -159,8 +133,19 @@ public class Functions {
     return ECKeyPair.create(keyBytes);
   }
 
-  /** Maps public key to point on {@link #SECP256K1_CURVE} */
+  /**
+   * Maps public key to point on {@link #SECP256K1_CURVE}. Points of keys seen recently are taken
+   * from {@link PublicKeyCache}
+   */
   public static ECPoint publicKeyToPoint(Bytes pkey) {
+    return PUBLIC_KEY_CACHE.get(pkey);
+  }
+
+  /**
+   * Maps public key to normalized point on {@link #SECP256K1_CURVE} without caching, for keys used
+   * once like ephemeral ones
+   */
+  public static ECPoint decodePublicKey(Bytes pkey) {
     byte[] destPubPointBytes;
     if (pkey.size() == 64) { // uncompressed
       destPubPointBytes = new byte[pkey.size() + 1];
@@ -169,23 +154,52 @@ public class Functions {
     } else {
       destPubPointBytes = pkey.toArray();
     }
-    return SECP256K1_CURVE.getCurve().decodePoint(destPubPointBytes);
+    return SECP256K1_CURVE.getCurve().decodePoint(destPubPointBytes).normalize();
+  }
+
+  /** Cache used by {@link #publicKeyToPoint(Bytes)} */
+  public static PublicKeyCache getPublicKeyCache() {
+    return PUBLIC_KEY_CACHE;
+  }
+
+  /** Provider of secp256k1 operations selected on startup */
+  public static Secp256k1Provider getSecp256k1Provider() {
+    return SECP256K1;
   }
 
   /** Derives public key in SECP256K1, compressed */
   public static Bytes derivePublicKeyFromPrivate(Bytes privateKey) {
-    ECKeyPair ecKeyPair = ECKeyPair.create(privateKey.toArray());
-    final Bytes pubKey =
-        Bytes.wrap(extractBytesFromUnsignedBigInt(ecKeyPair.getPublicKey(), PUBKEY_SIZE));
-    ECPoint ecPoint = Functions.publicKeyToPoint(pubKey);
-    return Bytes.wrap(ecPoint.getEncoded(true));
+    return SECP256K1.derivePublicKey(privateKey);
   }
 
   /** Derives key agreement ECDH by multiplying private key by public */
   public static Bytes deriveECDHKeyAgreement(Bytes srcPrivKey, Bytes destPubKey) {
-    ECPoint pudDestPoint = publicKeyToPoint(destPubKey);
-    ECPoint mult = pudDestPoint.multiply(new BigInteger(1, srcPrivKey.toArray()));
-    return Bytes.wrap(mult.getEncoded(true));
+    return SECP256K1.deriveECDHKeyAgreement(srcPrivKey, destPubKey, false);
+  }
+
+  /**
+   * {@link #deriveECDHKeyAgreement(Bytes, Bytes)} with public key used once, so it's not cached
+   */
+  public static Bytes deriveEphemeralECDHKeyAgreement(Bytes srcPrivKey, Bytes ephemeralPubKey) {
+    return SECP256K1.deriveECDHKeyAgreement(srcPrivKey, ephemeralPubKey, true);
+  }
+
+  /**
+   * First available {@link Secp256k1Provider} registered with {@link ServiceLoader}, falls back to
+   * {@link Web3jSecp256k1Provider}
+   */
+  private static Secp256k1Provider loadSecp256k1Provider() {
+    try {
+      for (Secp256k1Provider provider : ServiceLoader.load(Secp256k1Provider.class)) {
+        if (provider.isAvailable()) {
+          logger.info("Using {} secp256k1 provider", provider.getName());
+          return provider;
+        }
+      }
+    } catch (ServiceConfigurationError e) {
+      logger.warn("Failed to load secp256k1 provider, falling back to web3j", e);
+    }
+    return new Web3jSecp256k1Provider(PUBLIC_KEY_CACHE);
   }
 
   /**
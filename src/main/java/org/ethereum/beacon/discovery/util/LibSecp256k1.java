@@ -0,0 +1,125 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.util;
+
+import com.sun.jna.Library;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.LongByReference;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * JNA binding of native libsecp256k1 used by {@link LibSecp256k1Provider}. Library is looked up in
+ * <code>jna.library.path</code>, system library paths and on the classpath. All JNA types are kept
+ * in this class, so the provider could be loaded when JNA is missing.
+ *
+ * <p>Keys and signatures are passed in the internal 64 bytes representation of the library,
+ * callers are responsible for sizes of all arrays.
+ */
+final class LibSecp256k1 {
+  private static final Logger logger = LogManager.getLogger();
+  static final int INTERNAL_SIZE = 64;
+  private static final int CONTEXT_SIGN_VERIFY = 0x301;
+  private static final int EC_COMPRESSED = 0x102;
+  private static final int EC_UNCOMPRESSED = 0x2;
+
+  private static final Api API = load();
+  private static final Pointer CONTEXT =
+      API == null ? null : API.secp256k1_context_create(CONTEXT_SIGN_VERIFY);
+
+  /** Functions of secp256k1.h, size_t is mapped to long, so only 64-bit platforms are supported */
+  @SuppressWarnings("MethodName")
+  interface Api extends Library {
+    Pointer secp256k1_context_create(int flags);
+
+    int secp256k1_ec_pubkey_parse(Pointer ctx, byte[] pubkey, byte[] input, long inputlen);
+
+    int secp256k1_ec_pubkey_serialize(
+        Pointer ctx, byte[] output, LongByReference outputlen, byte[] pubkey, int flags);
+
+    int secp256k1_ec_pubkey_create(Pointer ctx, byte[] pubkey, byte[] seckey);
+
+    int secp256k1_ec_pubkey_tweak_mul(Pointer ctx, byte[] pubkey, byte[] tweak);
+
+    int secp256k1_ecdsa_sign(
+        Pointer ctx, byte[] sig, byte[] msghash32, byte[] seckey, Pointer noncefp, Pointer ndata);
+
+    int secp256k1_ecdsa_verify(Pointer ctx, byte[] sig, byte[] msghash32, byte[] pubkey);
+
+    int secp256k1_ecdsa_signature_parse_compact(Pointer ctx, byte[] sig, byte[] input64);
+
+    int secp256k1_ecdsa_signature_serialize_compact(Pointer ctx, byte[] output64, byte[] sig);
+
+    int secp256k1_ecdsa_signature_normalize(Pointer ctx, byte[] sigout, byte[] sigin);
+  }
+
+  private LibSecp256k1() {}
+
+  private static Api load() {
+    if (Native.POINTER_SIZE != 8) {
+      logger.debug("libsecp256k1 binding is not supported on 32-bit platforms");
+      return null;
+    }
+    try {
+      return Native.load("secp256k1", Api.class);
+    } catch (UnsatisfiedLinkError e) {
+      logger.debug("libsecp256k1 is not found", e);
+      return null;
+    }
+  }
+
+  static boolean isLoaded() {
+    return CONTEXT != null;
+  }
+
+  /** Parses compressed (33 bytes) or uncompressed (65 bytes) key, null if it's invalid */
+  static byte[] parsePublicKey(byte[] serialized) {
+    byte[] pubkey = new byte[INTERNAL_SIZE];
+    return API.secp256k1_ec_pubkey_parse(CONTEXT, pubkey, serialized, serialized.length) == 1
+        ? pubkey
+        : null;
+  }
+
+  static byte[] serializePublicKey(byte[] pubkey, boolean compressed) {
+    byte[] output = new byte[compressed ? 33 : 65];
+    LongByReference outputLength = new LongByReference(output.length);
+    API.secp256k1_ec_pubkey_serialize(
+        CONTEXT, output, outputLength, pubkey, compressed ? EC_COMPRESSED : EC_UNCOMPRESSED);
+    return output;
+  }
+
+  /** Public key of 32 bytes `secretKey`, null if secret key is invalid */
+  static byte[] createPublicKey(byte[] secretKey) {
+    byte[] pubkey = new byte[INTERNAL_SIZE];
+    return API.secp256k1_ec_pubkey_create(CONTEXT, pubkey, secretKey) == 1 ? pubkey : null;
+  }
+
+  /** Multiplies `pubkey` in place by 32 bytes `scalar`, false if scalar is invalid */
+  static boolean multiplyPublicKey(byte[] pubkey, byte[] scalar) {
+    return API.secp256k1_ec_pubkey_tweak_mul(CONTEXT, pubkey, scalar) == 1;
+  }
+
+  /** RFC 6979 signature of 32 bytes `hash`, r || s, null if secret key is invalid */
+  static byte[] sign(byte[] hash, byte[] secretKey) {
+    byte[] signature = new byte[INTERNAL_SIZE];
+    if (API.secp256k1_ecdsa_sign(CONTEXT, signature, hash, secretKey, null, null) != 1) {
+      return null;
+    }
+    byte[] compact = new byte[INTERNAL_SIZE];
+    API.secp256k1_ecdsa_signature_serialize_compact(CONTEXT, compact, signature);
+    return compact;
+  }
+
+  /** Verifies r || s `compactSignature` of 32 bytes `hash`, high s is accepted */
+  static boolean verify(byte[] compactSignature, byte[] hash, byte[] pubkey) {
+    byte[] signature = new byte[INTERNAL_SIZE];
+    if (API.secp256k1_ecdsa_signature_parse_compact(CONTEXT, signature, compactSignature) != 1) {
+      return false;
+    }
+    API.secp256k1_ecdsa_signature_normalize(CONTEXT, signature, signature);
+    return API.secp256k1_ecdsa_verify(CONTEXT, signature, hash, pubkey) == 1;
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * {@link Secp256k1Provider} on top of native libsecp256k1. Requires JNA and the library installed
+ * in the system or put on the classpath, when any of them is missing {@link #isAvailable()} is
+ * false and {@link Functions} uses {@link Web3jSecp256k1Provider}.
+ */
+public class LibSecp256k1Provider implements Secp256k1Provider {
+  private static final int SCALAR_SIZE = 32;
+  private static final int SIGNATURE_SIZE = 64;
+
+  @Override
+  public String getName() {
+    return "libsecp256k1";
+  }
+
+  @Override
+  public boolean isAvailable() {
+    try {
+      return LibSecp256k1.isLoaded();
+    } catch (LinkageError e) {
+      // JNA is not on the classpath
+      return false;
+    }
+  }
+
+  @Override
+  public Bytes sign(Bytes privateKey, Bytes messageHash) {
+    byte[] signature = LibSecp256k1.sign(toScalar(messageHash), toScalar(privateKey));
+    checkArgument(signature != null, "Invalid private key");
+    return Bytes.wrap(signature);
+  }
+
+  @Override
+  public boolean verify(Bytes signature, Bytes messageHash, Bytes publicKey) {
+    byte[] pubkey = parsePublicKey(publicKey);
+    if (signature.size() != SIGNATURE_SIZE) {
+      return false;
+    }
+    return LibSecp256k1.verify(signature.toArrayUnsafe(), toScalar(messageHash), pubkey);
+  }
+
+  @Override
+  public Bytes deriveECDHKeyAgreement(Bytes privateKey, Bytes publicKey, boolean ephemeral) {
+    // Keys are parsed natively, so there is no cache to skip for ephemeral ones
+    byte[] point = parsePublicKey(publicKey);
+    checkArgument(LibSecp256k1.multiplyPublicKey(point, toScalar(privateKey)), "Invalid key");
+    return Bytes.wrap(LibSecp256k1.serializePublicKey(point, true));
+  }
+
+  @Override
+  public Bytes derivePublicKey(Bytes privateKey) {
+    return Bytes.wrap(LibSecp256k1.serializePublicKey(createPublicKey(privateKey), true));
+  }
+
+  @Override
+  public Bytes derivePublicKeyUncompressed(Bytes privateKey) {
+    // Drops 0x04 prefix
+    return Bytes.wrap(LibSecp256k1.serializePublicKey(createPublicKey(privateKey), false)).slice(1);
+  }
+
+  private static byte[] createPublicKey(Bytes privateKey) {
+    byte[] pubkey = LibSecp256k1.createPublicKey(toScalar(privateKey));
+    checkArgument(pubkey != null, "Invalid private key");
+    return pubkey;
+  }
+
+  /** Native code reads exactly 32 bytes, so the size is checked before passing them */
+  private static byte[] toScalar(Bytes bytes) {
+    checkArgument(bytes.size() == SCALAR_SIZE, "Invalid size of 32 bytes value: %s", bytes.size());
+    return bytes.toArrayUnsafe();
+  }
+
+  private static byte[] parsePublicKey(Bytes publicKey) {
+    Bytes serialized =
+        publicKey.size() == Functions.PUBKEY_SIZE
+            ? Bytes.concatenate(Bytes.of(0x04), publicKey)
+            : publicKey;
+    byte[] pubkey = LibSecp256k1.parsePublicKey(serialized.toArrayUnsafe());
+    checkArgument(pubkey != null, "Invalid public key: %s", publicKey);
+    return pubkey;
+  }
+}
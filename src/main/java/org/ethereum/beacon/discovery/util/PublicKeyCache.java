@@ -0,0 +1,62 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.tuweni.bytes.Bytes;
+import org.bouncycastle.math.ec.ECPoint;
+
+/**
+ * Bounded cache of public keys decoded to points on {@link Functions#SECP256K1_CURVE}. Decoding a
+ * compressed key takes a modular square root, while keys of the same known nodes are decoded again
+ * on every signature verification, ECDH and node id derivation. Cached points are normalized and
+ * keep precomputations of multiplications made with them, so ECDH with a known key is faster too.
+ */
+public class PublicKeyCache {
+  public static final int DEFAULT_SIZE = 8192;
+
+  private final Cache<Bytes, ECPoint> cache;
+
+  public PublicKeyCache(int maximumSize) {
+    checkArgument(maximumSize > 0, "Cache size should be positive: %s", maximumSize);
+    this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+  }
+
+  /** Point of public key, compressed or not, see {@link Functions#decodePublicKey(Bytes)} */
+  public ECPoint get(Bytes publicKey) {
+    ECPoint point = cache.getIfPresent(publicKey);
+    if (point == null) {
+      point = Functions.decodePublicKey(publicKey);
+      // Key could be a slice of the whole packet, don't keep the packet in the cache
+      cache.put(publicKey.copy(), point);
+    }
+    return point;
+  }
+
+  /**
+   * Point of public key from the cache, otherwise it's decoded without caching. Used for keys which
+   * are not trusted yet, so junk keys couldn't flush the cache, see {@link #put(Bytes, ECPoint)}
+   */
+  public ECPoint getUntrusted(Bytes publicKey) {
+    ECPoint point = cache.getIfPresent(publicKey);
+    return point != null ? point : Functions.decodePublicKey(publicKey);
+  }
+
+  /** Caches point of the key once it's trusted, for example a signature made with it is verified */
+  public void put(Bytes publicKey, ECPoint point) {
+    cache.put(publicKey.copy(), point);
+  }
+
+  public long getHitCount() {
+    return cache.stats().hitCount();
+  }
+
+  public long getMissCount() {
+    return cache.stats().missCount();
+  }
+}
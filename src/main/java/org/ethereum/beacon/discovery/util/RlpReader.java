@@ -0,0 +1,172 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.math.BigInteger;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.units.bigints.UInt64;
+
+/**
+ * Streaming RLP decoder which reads items one by one directly from {@link Bytes} without building
+ * intermediate {@link org.web3j.rlp.RlpType} trees. All returned values are slices (views) of the
+ * source data, so no bytes are copied while walking the structure.
+ *
+ * <p>Reader is positioned over a sequence of RLP items: either the whole input created with {@link
+ * #create(Bytes)} or the payload of a list obtained with {@link #readList()}. Malformed or
+ * truncated input results in {@link IllegalArgumentException}.
+ *
+ * <p>Not thread-safe
+ */
+public class RlpReader {
+  private static final int OFFSET_SHORT_STRING = 0x80;
+  private static final int OFFSET_LONG_STRING = 0xb7;
+  private static final int OFFSET_SHORT_LIST = 0xc0;
+  private static final int OFFSET_LONG_LIST = 0xf7;
+  private static final int MAX_LENGTH_OF_LENGTH = 4;
+
+  private final Bytes data;
+  private final int end;
+  private int position;
+
+  // Payload bounds of the last item read with readItem()
+  private int itemStart;
+  private int itemLength;
+
+  private RlpReader(Bytes data, int start, int end) {
+    this.data = data;
+    this.position = start;
+    this.end = end;
+  }
+
+  /** Creates reader over the sequence of RLP items in {@code data} */
+  public static RlpReader create(Bytes data) {
+    return new RlpReader(data, 0, data.size());
+  }
+
+  /** Whether there are unread items left */
+  public boolean hasNext() {
+    return position < end;
+  }
+
+  /** Whether the next item is a list. Doesn't move reader position */
+  public boolean isNextList() {
+    checkArgument(hasNext(), "RLP item expected at position %s but no more data", position);
+    return (data.get(position) & 0xFF) >= OFFSET_SHORT_LIST;
+  }
+
+  /** Position of the reader relative to the start of the source data */
+  public int position() {
+    return position;
+  }
+
+  /** Reads the next string item and returns its payload as a slice of the source data */
+  public Bytes readBytes() {
+    checkArgument(!readItem(), "RLP string expected at position %s but found list", position);
+    return data.slice(itemStart, itemLength);
+  }
+
+  /** Reads the next list item and returns reader over its elements */
+  public RlpReader readList() {
+    checkArgument(readItem(), "RLP list expected at position %s but found string", position);
+    return new RlpReader(data, itemStart, itemStart + itemLength);
+  }
+
+  /** Reads the next item (string or list) and returns its full encoding including the prefix */
+  public Bytes readRaw() {
+    int start = position;
+    readItem();
+    return data.slice(start, position - start);
+  }
+
+  /** Skips the next item whatever it is */
+  public void skip() {
+    readItem();
+  }
+
+  /** Reads the next string item as an unsigned big-endian integer of at most 8 bytes */
+  public UInt64 readUInt64() {
+    Bytes bytes = readBytes();
+    checkArgument(bytes.size() <= 8, "UInt64 value is too long: %s bytes", bytes.size());
+    return UInt64.fromBytes(Utils.leftPad(bytes, 8));
+  }
+
+  /** Reads the next string item as a non-negative big-endian integer fitting into {@code int} */
+  public int readInt() {
+    Bytes bytes = readBytes();
+    checkArgument(bytes.size() <= 4, "Integer value is too long: %s bytes", bytes.size());
+    int value = 0;
+    for (int i = 0; i < bytes.size(); i++) {
+      value = (value << 8) | (bytes.get(i) & 0xFF);
+    }
+    checkArgument(value >= 0, "Integer value overflow: %s", bytes);
+    return value;
+  }
+
+  /** Reads the next string item as an unsigned big-endian integer */
+  public BigInteger readBigInteger() {
+    Bytes bytes = readBytes();
+    return bytes.isEmpty() ? BigInteger.ZERO : bytes.toUnsignedBigInteger();
+  }
+
+  /**
+   * Parses the prefix of the item at current position, stores its payload bounds in {@link
+   * #itemStart} and {@link #itemLength} and moves position past the item.
+   *
+   * @return true if the item is a list
+   */
+  private boolean readItem() {
+    checkArgument(hasNext(), "RLP item expected at position %s but no more data", position);
+    int prefix = data.get(position) & 0xFF;
+    boolean list;
+    int headerLength;
+    int length;
+    if (prefix < OFFSET_SHORT_STRING) {
+      list = false;
+      headerLength = 0;
+      length = 1;
+    } else if (prefix <= OFFSET_LONG_STRING) {
+      list = false;
+      headerLength = 1;
+      length = prefix - OFFSET_SHORT_STRING;
+    } else if (prefix < OFFSET_SHORT_LIST) {
+      list = false;
+      headerLength = 1 + prefix - OFFSET_LONG_STRING;
+      length = readLength(position + 1, prefix - OFFSET_LONG_STRING);
+    } else if (prefix <= OFFSET_LONG_LIST) {
+      list = true;
+      headerLength = 1;
+      length = prefix - OFFSET_SHORT_LIST;
+    } else {
+      list = true;
+      headerLength = 1 + prefix - OFFSET_LONG_LIST;
+      length = readLength(position + 1, prefix - OFFSET_LONG_LIST);
+    }
+    int start = position + headerLength;
+    checkArgument(
+        length <= end - start,
+        "RLP item at position %s of length %s exceeds available data",
+        position,
+        length);
+    itemStart = start;
+    itemLength = length;
+    position = start + length;
+    return list;
+  }
+
+  private int readLength(int offset, int lengthOfLength) {
+    checkArgument(
+        lengthOfLength <= MAX_LENGTH_OF_LENGTH && offset + lengthOfLength <= end,
+        "Invalid RLP length prefix at position %s",
+        offset - 1);
+    long length = 0;
+    for (int i = 0; i < lengthOfLength; i++) {
+      length = (length << 8) | (data.get(offset + i) & 0xFF);
+    }
+    checkArgument(length <= Integer.MAX_VALUE, "RLP item length overflow: %s", length);
+    return (int) length;
+  }
+}
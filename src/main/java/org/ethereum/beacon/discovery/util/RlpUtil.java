@@ -36,7 +36,7 @@ public class RlpUtil {
       // total payload is equal to the first byte minus 0xc0 follows the first byte;
 
       byte listLen = (byte) (prefix - OFFSET_SHORT_LIST);
-      return listLen & 0xFF + prefixAddon;
+      return (listLen & 0xFF) + prefixAddon;
     } else if (prefix > OFFSET_LONG_LIST) {
 
       // 5. the data is a list if the range of the
@@ -0,0 +1,166 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.MutableBytes;
+import org.apache.tuweni.units.bigints.UInt64;
+
+/**
+ * Single pass RLP encoder writing directly into a buffer of known size, counterpart of {@link
+ * RlpReader}. Caller calculates the final size upfront with the static {@code sizeOf*} methods,
+ * then writes items in order. Already encoded items (like cached node records) could be spliced
+ * in verbatim with {@link #writeRaw(Bytes)}.
+ *
+ * <p>Numbers are encoded as unsigned big-endian values without leading zeroes, zero is encoded as
+ * an empty string, same as {@link org.web3j.rlp.RlpString#create(long)} does.
+ *
+ * <p>Not thread-safe
+ */
+public class RlpWriter {
+  private static final int OFFSET_SHORT_STRING = 0x80;
+  private static final int OFFSET_LONG_STRING = 0xb7;
+  private static final int OFFSET_SHORT_LIST = 0xc0;
+  private static final int OFFSET_LONG_LIST = 0xf7;
+  private static final int SHORT_ITEM_MAX_LENGTH = 55;
+
+  private final byte[] buffer;
+  private final MutableBytes target;
+  private int position = 0;
+
+  private RlpWriter(int size) {
+    this.buffer = new byte[size];
+    this.target = MutableBytes.wrap(buffer);
+  }
+
+  /** Creates writer with buffer of exactly {@code size} bytes */
+  public static RlpWriter create(int size) {
+    return new RlpWriter(size);
+  }
+
+  /** Size of RLP encoded string */
+  public static int sizeOfBytes(Bytes value) {
+    int size = value.size();
+    if (size == 1 && (value.get(0) & 0xFF) < OFFSET_SHORT_STRING) {
+      return 1;
+    }
+    return sizeOfHeader(size) + size;
+  }
+
+  /** Size of RLP encoded unsigned number */
+  public static int sizeOfLong(long value) {
+    if (value >= 0 && value < OFFSET_SHORT_STRING) {
+      return 1;
+    }
+    return 1 + bytesLength(value);
+  }
+
+  /** Size of RLP encoded unsigned number */
+  public static int sizeOfUInt64(UInt64 value) {
+    return sizeOfLong(value.toLong());
+  }
+
+  /** Size of RLP encoded list with payload of {@code payloadSize} bytes */
+  public static int sizeOfList(int payloadSize) {
+    return sizeOfHeader(payloadSize) + payloadSize;
+  }
+
+  private static int sizeOfHeader(int length) {
+    return length <= SHORT_ITEM_MAX_LENGTH ? 1 : 1 + bytesLength(length);
+  }
+
+  private static int bytesLength(long value) {
+    return 8 - Long.numberOfLeadingZeros(value) / 8;
+  }
+
+  /** Writes single byte as is, without any RLP prefix */
+  public RlpWriter writeByte(int value) {
+    ensureCapacity(1);
+    buffer[position++] = (byte) value;
+    return this;
+  }
+
+  /** Writes already encoded data as is */
+  public RlpWriter writeRaw(Bytes encoded) {
+    ensureCapacity(encoded.size());
+    encoded.copyTo(target, position);
+    position += encoded.size();
+    return this;
+  }
+
+  /** Writes RLP string */
+  public RlpWriter writeBytes(Bytes value) {
+    if (value.size() == 1 && (value.get(0) & 0xFF) < OFFSET_SHORT_STRING) {
+      return writeByte(value.get(0));
+    }
+    writeHeader(OFFSET_SHORT_STRING, OFFSET_LONG_STRING, value.size());
+    return writeRaw(value);
+  }
+
+  /** Writes unsigned number as RLP string */
+  public RlpWriter writeLong(long value) {
+    if (value == 0) {
+      return writeByte(OFFSET_SHORT_STRING);
+    }
+    if (value > 0 && value < OFFSET_SHORT_STRING) {
+      return writeByte((int) value);
+    }
+    int length = bytesLength(value);
+    writeByte(OFFSET_SHORT_STRING + length);
+    writeNumber(value, length);
+    return this;
+  }
+
+  /** Writes unsigned number as RLP string */
+  public RlpWriter writeUInt64(UInt64 value) {
+    return writeLong(value.toLong());
+  }
+
+  /** Writes header of the list with payload of {@code payloadSize} bytes, items should follow */
+  public RlpWriter writeListHeader(int payloadSize) {
+    writeHeader(OFFSET_SHORT_LIST, OFFSET_LONG_LIST, payloadSize);
+    return this;
+  }
+
+  /** Returns encoded data, all bytes of the buffer should be written at this moment */
+  public Bytes toBytes() {
+    checkState(
+        position == buffer.length,
+        "Only %s bytes of %s were written, size calculation is incorrect",
+        position,
+        buffer.length);
+    return Bytes.wrap(buffer);
+  }
+
+  private void writeHeader(int shortOffset, int longOffset, int length) {
+    checkArgument(length >= 0, "Negative length %s", length);
+    if (length <= SHORT_ITEM_MAX_LENGTH) {
+      writeByte(shortOffset + length);
+    } else {
+      int lengthOfLength = bytesLength(length);
+      writeByte(longOffset + lengthOfLength);
+      writeNumber(length, lengthOfLength);
+    }
+  }
+
+  private void writeNumber(long value, int length) {
+    ensureCapacity(length);
+    for (int i = length - 1; i >= 0; i--) {
+      buffer[position++] = (byte) (value >>> (i * 8));
+    }
+  }
+
+  private void ensureCapacity(int length) {
+    checkState(
+        position + length <= buffer.length,
+        "Buffer overflow: %s bytes of %s are written, %s more requested",
+        position,
+        buffer.length,
+        length);
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.util;
+
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * Implementation of secp256k1 operations used by {@link Functions}. {@link Web3jSecp256k1Provider}
+ * is used by default, other implementations, like bindings to a native library, are picked up with
+ * {@link java.util.ServiceLoader} when registered in <code>
+ * META-INF/services/org.ethereum.beacon.discovery.util.Secp256k1Provider</code> and {@link
+ * #isAvailable()}.
+ *
+ * <p>Public keys are accepted compressed (33 bytes) or uncompressed without prefix (64 bytes),
+ * private keys are 32 bytes, hashes are 32 bytes.
+ */
+public interface Secp256k1Provider {
+
+  /** Name used in logs */
+  String getName();
+
+  /** Whether provider could be used in this environment, like its native library is loaded */
+  default boolean isAvailable() {
+    return true;
+  }
+
+  /** Deterministic (RFC 6979) ECDSA signature of `messageHash` with low s, r || s, 64 bytes */
+  Bytes sign(Bytes privateKey, Bytes messageHash);
+
+  /** Verifies ECDSA `signature`, r || s, of `messageHash` made with `publicKey` */
+  boolean verify(Bytes signature, Bytes messageHash, Bytes publicKey);
+
+  /**
+   * Key agreement ECDH, point of `publicKey` multiplied by `privateKey`, compressed. `ephemeral`
+   * public keys are used once, so they shouldn't be kept in caches of decoded keys.
+   */
+  Bytes deriveECDHKeyAgreement(Bytes privateKey, Bytes publicKey, boolean ephemeral);
+
+  /** Public key of `privateKey`, compressed */
+  Bytes derivePublicKey(Bytes privateKey);
+
+  /** Public key of `privateKey`, uncompressed without prefix, 64 bytes */
+  Bytes derivePublicKeyUncompressed(Bytes privateKey);
+}
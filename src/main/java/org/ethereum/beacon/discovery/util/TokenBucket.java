@@ -0,0 +1,59 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket rate limiter. Holds up to `capacity` tokens, which are refilled at `ratePerSecond`
+ * and taken one per permitted action. Bucket starts full.
+ */
+public class TokenBucket {
+  private final double capacity;
+  private final double tokensPerMilli;
+  private final LongSupplier clockMillis;
+  private double tokens;
+  private long lastRefill;
+
+  /**
+   * @param ratePerSecond Tokens added per second
+   * @param capacity Maximum number of tokens, defines the largest burst
+   * @param clockMillis Current time in milliseconds
+   */
+  public TokenBucket(double ratePerSecond, double capacity, LongSupplier clockMillis) {
+    checkArgument(ratePerSecond > 0, "Rate should be positive: %s", ratePerSecond);
+    checkArgument(capacity >= 1, "Capacity should be at least 1: %s", capacity);
+    this.capacity = capacity;
+    this.tokensPerMilli = ratePerSecond / 1000;
+    this.clockMillis = clockMillis;
+    this.tokens = capacity;
+    this.lastRefill = clockMillis.getAsLong();
+  }
+
+  /** Takes a token if there is one available */
+  public synchronized boolean tryAcquire() {
+    refill();
+    if (tokens < 1) {
+      return false;
+    }
+    tokens -= 1;
+    return true;
+  }
+
+  public synchronized double getAvailableTokens() {
+    refill();
+    return tokens;
+  }
+
+  private void refill() {
+    long now = clockMillis.getAsLong();
+    if (now > lastRefill) {
+      tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerMilli);
+      lastRefill = now;
+    }
+  }
+}
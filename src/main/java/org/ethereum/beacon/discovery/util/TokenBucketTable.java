@@ -0,0 +1,86 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link TokenBucket}s for many keys kept in fixed size arrays. Each key maps to one of two slots.
+ * When both slots hold other keys, the slot with more tokens is taken over. A bucket refilled up to
+ * capacity is indistinguishable from a new one, so idle keys decay away without any cleanup and
+ * memory doesn't depend on the number of keys seen.
+ *
+ * <p>Eviction of an active key gives it a full bucket, so the table should be sized above the
+ * number of keys expected to be limited at once.
+ */
+public class TokenBucketTable {
+  private final double capacity;
+  private final double tokensPerMilli;
+  private final LongSupplier clockMillis;
+  private final int mask;
+  private final long[] keys;
+  private final double[] tokens;
+  private final long[] lastRefill;
+
+  /**
+   * @param ratePerSecond Tokens added to each bucket per second
+   * @param capacity Maximum number of tokens in a bucket, defines the largest burst
+   * @param size Number of slots, power of 2
+   * @param clockMillis Current time in milliseconds
+   */
+  public TokenBucketTable(
+      double ratePerSecond, double capacity, int size, LongSupplier clockMillis) {
+    checkArgument(ratePerSecond > 0, "Rate should be positive: %s", ratePerSecond);
+    checkArgument(capacity >= 1, "Capacity should be at least 1: %s", capacity);
+    checkArgument(size >= 2 && Integer.bitCount(size) == 1, "Invalid table size: %s", size);
+    this.capacity = capacity;
+    this.tokensPerMilli = ratePerSecond / 1000;
+    this.clockMillis = clockMillis;
+    this.mask = size - 1;
+    this.keys = new long[size];
+    this.tokens = new double[size];
+    this.lastRefill = new long[size];
+    Arrays.fill(tokens, capacity);
+    Arrays.fill(lastRefill, clockMillis.getAsLong());
+  }
+
+  /** Takes a token from the bucket of `key` if there is one available */
+  public synchronized boolean tryAcquire(long key) {
+    long now = clockMillis.getAsLong();
+    long hash = key * 0x9E3779B97F4A7C15L;
+    int first = (int) (hash >>> 40) & mask;
+    int second = (int) (hash >>> 16) & mask;
+    if (second == first) {
+      second = first ^ 1;
+    }
+    int slot;
+    if (keys[first] == key) {
+      slot = first;
+    } else if (keys[second] == key) {
+      slot = second;
+    } else {
+      slot = refill(first, now) >= refill(second, now) ? first : second;
+      keys[slot] = key;
+      tokens[slot] = capacity;
+    }
+    if (refill(slot, now) < 1) {
+      return false;
+    }
+    tokens[slot] -= 1;
+    return true;
+  }
+
+  private double refill(int slot, long now) {
+    if (now > lastRefill[slot]) {
+      tokens[slot] =
+          Math.min(capacity, tokens[slot] + (now - lastRefill[slot]) * tokensPerMilli);
+      lastRefill[slot] = now;
+    }
+    return tokens[slot];
+  }
+}
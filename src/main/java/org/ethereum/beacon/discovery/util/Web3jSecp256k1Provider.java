@@ -0,0 +1,97 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.util;
+
+import static org.ethereum.beacon.discovery.util.Functions.PUBKEY_SIZE;
+import static org.ethereum.beacon.discovery.util.Utils.extractBytesFromUnsignedBigInt;
+
+import java.math.BigInteger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.util.Arrays;
+import org.web3j.crypto.ECDSASignature;
+import org.web3j.crypto.ECKeyPair;
+import org.web3j.crypto.Sign;
+
+/**
+ * Default {@link Secp256k1Provider} on top of web3j. Signature is verified by recovering public
+ * keys from it and comparing them with the expected one, public keys of other nodes are decoded
+ * through {@link PublicKeyCache}.
+ */
+public class Web3jSecp256k1Provider implements Secp256k1Provider {
+  private static final Logger logger = LogManager.getLogger();
+
+  private final PublicKeyCache publicKeyCache;
+
+  public Web3jSecp256k1Provider(PublicKeyCache publicKeyCache) {
+    this.publicKeyCache = publicKeyCache;
+  }
+
+  @Override
+  public String getName() {
+    return "web3j";
+  }
+
+  @Override
+  public Bytes sign(Bytes privateKey, Bytes messageHash) {
+    Sign.SignatureData signatureData =
+        Sign.signMessage(messageHash.toArray(), ECKeyPair.create(privateKey.toArray()), false);
+    Bytes r = Bytes.wrap(signatureData.getR());
+    Bytes s = Bytes.wrap(signatureData.getS());
+    return Bytes.concatenate(r, s);
+  }
+
+  @Override
+  public boolean verify(Bytes signature, Bytes messageHash, Bytes publicKey) {
+    // Key is cached only when the signature is valid
+    ECPoint point = publicKeyCache.getUntrusted(publicKey);
+    Bytes pubKeyUncompressed = Bytes.wrap(point.getEncoded(false)).slice(1);
+    ECDSASignature ecdsaSignature =
+        new ECDSASignature(
+            new BigInteger(1, signature.slice(0, 32).toArray()),
+            new BigInteger(1, signature.slice(32).toArray()));
+    try {
+      for (int recId = 0; recId < 4; ++recId) {
+        BigInteger calculatedPubKey =
+            Sign.recoverFromSignature(recId, ecdsaSignature, messageHash.toArray());
+        if (calculatedPubKey == null) {
+          continue;
+        }
+        if (Arrays.areEqual(
+            pubKeyUncompressed.toArray(),
+            extractBytesFromUnsignedBigInt(calculatedPubKey, PUBKEY_SIZE))) {
+          publicKeyCache.put(publicKey, point);
+          return true;
+        }
+      }
+    } catch (final IllegalArgumentException e) {
+      logger.trace("Failed to verify ECDSA signature", e);
+      return false;
+    }
+    return false;
+  }
+
+  @Override
+  public Bytes deriveECDHKeyAgreement(Bytes privateKey, Bytes publicKey, boolean ephemeral) {
+    ECPoint point =
+        ephemeral ? Functions.decodePublicKey(publicKey) : publicKeyCache.get(publicKey);
+    ECPoint mult = point.multiply(new BigInteger(1, privateKey.toArray()));
+    return Bytes.wrap(mult.getEncoded(true));
+  }
+
+  @Override
+  public Bytes derivePublicKey(Bytes privateKey) {
+    ECPoint ecPoint = Functions.decodePublicKey(derivePublicKeyUncompressed(privateKey));
+    return Bytes.wrap(ecPoint.getEncoded(true));
+  }
+
+  @Override
+  public Bytes derivePublicKeyUncompressed(Bytes privateKey) {
+    ECKeyPair ecKeyPair = ECKeyPair.create(privateKey.toArray());
+    return Bytes.wrap(extractBytesFromUnsignedBigInt(ecKeyPair.getPublicKey(), PUBKEY_SIZE));
+  }
+}
@@ -15,17 +15,23 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import org.ethereum.beacon.discovery.TestUtil.NodeInfo;
 import org.ethereum.beacon.discovery.database.Database;
+import org.ethereum.beacon.discovery.metrics.DiscoveryMetrics;
+import org.ethereum.beacon.discovery.network.AdmissionOptions;
+import org.ethereum.beacon.discovery.network.DiscoveryNetworkFactory;
+import org.ethereum.beacon.discovery.network.OverloadOptions;
 import org.ethereum.beacon.discovery.packet.AuthHeaderMessagePacket;
 import org.ethereum.beacon.discovery.packet.RandomPacket;
 import org.ethereum.beacon.discovery.packet.UnknownPacket;
 import org.ethereum.beacon.discovery.scheduler.ExpirationSchedulerFactory;
 import org.ethereum.beacon.discovery.scheduler.Schedulers;
 import org.ethereum.beacon.discovery.schema.NodeRecord;
+import org.ethereum.beacon.discovery.schema.NodeSession;
 import org.ethereum.beacon.discovery.storage.LocalNodeRecordStore;
 import org.ethereum.beacon.discovery.storage.NodeBucket;
 import org.ethereum.beacon.discovery.storage.NodeBucketStorage;
 import org.ethereum.beacon.discovery.storage.NodeTableStorage;
 import org.ethereum.beacon.discovery.storage.NodeTableStorageFactoryImpl;
+import org.ethereum.beacon.discovery.util.EphemeralKeyPool;
 import org.ethereum.beacon.discovery.util.Functions;
 import org.junit.jupiter.api.Assertions;
 import reactor.core.publisher.Flux;
@@ -80,7 +86,15 @@ public class DiscoveryInteropTest {
             nodePair1.getPrivateKey(),
             NODE_RECORD_FACTORY_NO_VERIFICATION,
             Schedulers.createDefault().newSingleThreadDaemon("tasks-1"),
-            new ExpirationSchedulerFactory(Executors.newSingleThreadScheduledExecutor()));
+            Schedulers.createDefault().cpuHeavy(),
+            new ExpirationSchedulerFactory(Executors.newSingleThreadScheduledExecutor()),
+            EphemeralKeyPool.DISABLED,
+            NodeSession.DEFAULT_MAX_REQUESTS_IN_FLIGHT,
+            AdmissionOptions.DEFAULT,
+            false,
+            OverloadOptions.DEFAULT,
+            DiscoveryMetrics.NOOP,
+            DiscoveryNetworkFactory.NETTY);
 
     // 3) Expect standard 1 => 2 dialog
     CountDownLatch randomSent1to2 = new CountDownLatch(1);
@@ -17,6 +17,10 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import org.ethereum.beacon.discovery.TestUtil.NodeInfo;
 import org.ethereum.beacon.discovery.database.Database;
+import org.ethereum.beacon.discovery.metrics.DiscoveryMetrics;
+import org.ethereum.beacon.discovery.network.AdmissionOptions;
+import org.ethereum.beacon.discovery.network.DiscoveryNetworkFactory;
+import org.ethereum.beacon.discovery.network.OverloadOptions;
 import org.ethereum.beacon.discovery.packet.AuthHeaderMessagePacket;
 import org.ethereum.beacon.discovery.packet.MessagePacket;
 import org.ethereum.beacon.discovery.packet.RandomPacket;
@@ -25,11 +29,13 @@ import org.ethereum.beacon.discovery.packet.WhoAreYouPacket;
 import org.ethereum.beacon.discovery.scheduler.ExpirationSchedulerFactory;
 import org.ethereum.beacon.discovery.scheduler.Schedulers;
 import org.ethereum.beacon.discovery.schema.NodeRecord;
+import org.ethereum.beacon.discovery.schema.NodeSession;
 import org.ethereum.beacon.discovery.storage.LocalNodeRecordStore;
 import org.ethereum.beacon.discovery.storage.NodeBucket;
 import org.ethereum.beacon.discovery.storage.NodeBucketStorage;
 import org.ethereum.beacon.discovery.storage.NodeTableStorage;
 import org.ethereum.beacon.discovery.storage.NodeTableStorageFactoryImpl;
+import org.ethereum.beacon.discovery.util.EphemeralKeyPool;
 import org.ethereum.beacon.discovery.util.Functions;
 import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Flux;
@@ -38,9 +44,19 @@ import reactor.core.publisher.Flux;
 public class DiscoveryNetworkTest {
   @Test
   public void test() throws Exception {
+    testDialog(30303, 30304, false);
+  }
+
+  @Test
+  public void testStatelessChallenge() throws Exception {
+    // Node 2 answers the first packet of node 1 without keeping a session
+    testDialog(30305, 30306, true);
+  }
+
+  private void testDialog(int port1, int port2, boolean statelessChallenge2) throws Exception {
     // 1) start 2 nodes
-    NodeInfo nodePair1 = TestUtil.generateNode(30303);
-    NodeInfo nodePair2 = TestUtil.generateNode(30304);
+    NodeInfo nodePair1 = TestUtil.generateNode(port1);
+    NodeInfo nodePair2 = TestUtil.generateNode(port2);
     NodeRecord nodeRecord1 = nodePair1.getNodeRecord();
     NodeRecord nodeRecord2 = nodePair2.getNodeRecord();
     NodeTableStorageFactoryImpl nodeTableStorageFactory = new NodeTableStorageFactoryImpl();
@@ -83,7 +99,15 @@ public class DiscoveryNetworkTest {
             nodePair1.getPrivateKey(),
             NODE_RECORD_FACTORY_NO_VERIFICATION,
             Schedulers.createDefault().newSingleThreadDaemon("tasks-1"),
-            expirationSchedulerFactory);
+            Schedulers.createDefault().cpuHeavy(),
+            expirationSchedulerFactory,
+            EphemeralKeyPool.DISABLED,
+            NodeSession.DEFAULT_MAX_REQUESTS_IN_FLIGHT,
+            AdmissionOptions.DEFAULT,
+            false,
+            OverloadOptions.DEFAULT,
+            DiscoveryMetrics.NOOP,
+            DiscoveryNetworkFactory.NETTY);
     DiscoveryManagerImpl discoveryManager2 =
         new DiscoveryManagerImpl(
             Optional.empty(),
@@ -93,7 +117,15 @@ public class DiscoveryNetworkTest {
             nodePair2.getPrivateKey(),
             NODE_RECORD_FACTORY_NO_VERIFICATION,
             Schedulers.createDefault().newSingleThreadDaemon("tasks-2"),
-            expirationSchedulerFactory);
+            Schedulers.createDefault().cpuHeavy(),
+            expirationSchedulerFactory,
+            EphemeralKeyPool.DISABLED,
+            NodeSession.DEFAULT_MAX_REQUESTS_IN_FLIGHT,
+            AdmissionOptions.DEFAULT,
+            statelessChallenge2,
+            OverloadOptions.DEFAULT,
+            DiscoveryMetrics.NOOP,
+            DiscoveryNetworkFactory.NETTY);
 
     // 3) Expect standard 1 => 2 dialog
     CountDownLatch randomSent1to2 = new CountDownLatch(1);
@@ -28,6 +28,7 @@ import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.units.bigints.UInt64;
 import org.ethereum.beacon.discovery.TestUtil.NodeInfo;
 import org.ethereum.beacon.discovery.database.Database;
+import org.ethereum.beacon.discovery.metrics.DiscoveryMetrics;
 import org.ethereum.beacon.discovery.network.NetworkParcel;
 import org.ethereum.beacon.discovery.packet.MessagePacket;
 import org.ethereum.beacon.discovery.packet.Packet;
@@ -49,11 +50,13 @@ import org.ethereum.beacon.discovery.schema.NodeSession;
 import org.ethereum.beacon.discovery.storage.AuthTagRepository;
 import org.ethereum.beacon.discovery.storage.LocalNodeRecordStore;
 import org.ethereum.beacon.discovery.storage.NodeBucketStorage;
+import org.ethereum.beacon.discovery.storage.NodeRecordListener;
 import org.ethereum.beacon.discovery.storage.NodeTableStorage;
 import org.ethereum.beacon.discovery.storage.NodeTableStorageFactoryImpl;
 import org.ethereum.beacon.discovery.task.TaskMessageFactory;
 import org.ethereum.beacon.discovery.task.TaskOptions;
 import org.ethereum.beacon.discovery.task.TaskType;
+import org.ethereum.beacon.discovery.util.EphemeralKeyPool;
 import org.ethereum.beacon.discovery.util.Functions;
 import org.junit.jupiter.api.Test;
 
@@ -125,10 +128,14 @@ public class HandshakeHandlersTest {
             nodePair1.getPrivateKey(),
             nodeTableStorage1.get(),
             nodeBucketStorage1,
+            NodeRecordListener.NOOP,
             authTagRepository1,
             outgoingMessages1to2,
             rnd,
-            reqeustExpirationScheduler);
+            reqeustExpirationScheduler,
+            NodeSession.DEFAULT_MAX_REQUESTS_IN_FLIGHT,
+            DiscoveryMetrics.NOOP,
+            System::currentTimeMillis);
     final Consumer<NetworkParcel> outgoingMessages2to1 =
         packet -> {
           // do nothing, we don't need to test it here
@@ -142,15 +149,19 @@ public class HandshakeHandlersTest {
             nodePair2.getPrivateKey(),
             nodeTableStorage2.get(),
             nodeBucketStorage2,
+            NodeRecordListener.NOOP,
             new AuthTagRepository(),
             outgoingMessages2to1,
             rnd,
-            reqeustExpirationScheduler);
+            reqeustExpirationScheduler,
+            NodeSession.DEFAULT_MAX_REQUESTS_IN_FLIGHT,
+            DiscoveryMetrics.NOOP,
+            System::currentTimeMillis);
 
     Scheduler taskScheduler = Schedulers.createDefault().events();
     Pipeline outgoingPipeline = new PipelineImpl().build();
     WhoAreYouPacketHandler whoAreYouPacketHandlerNode1 =
-        new WhoAreYouPacketHandler(outgoingPipeline, taskScheduler);
+        new WhoAreYouPacketHandler(outgoingPipeline, taskScheduler, EphemeralKeyPool.DISABLED);
     Envelope envelopeAt1From2 = new Envelope();
     byte[] idNonceBytes = new byte[32];
     Functions.getRandom().nextBytes(idNonceBytes);
@@ -198,7 +209,11 @@ public class HandshakeHandlersTest {
     assertNotNull(envelopeAt1From2WithMessage.get(MESSAGE));
 
     MessageHandler messageHandler =
-        new MessageHandler(NODE_RECORD_FACTORY_NO_VERIFICATION, localNodeRecordStoreAt1);
+        new MessageHandler(
+            NODE_RECORD_FACTORY_NO_VERIFICATION,
+            localNodeRecordStoreAt1,
+            taskScheduler,
+            taskScheduler);
     messageHandler.handle(envelopeAt1From2WithMessage);
     assertTrue(outgoing1PacketsSemaphore.tryAcquire(2, 1, TimeUnit.SECONDS));
 
@@ -13,6 +13,9 @@ import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.units.bigints.UInt64;
@@ -24,6 +27,9 @@ import org.ethereum.beacon.discovery.schema.NodeRecordBuilder;
 import org.ethereum.beacon.discovery.schema.NodeRecordFactory;
 import org.ethereum.beacon.discovery.util.Functions;
 import org.junit.jupiter.api.Test;
+import org.web3j.rlp.RlpEncoder;
+import org.web3j.rlp.RlpList;
+import org.web3j.rlp.RlpType;
 
 /**
  * ENR serialization/deserialization test
@@ -183,4 +189,22 @@ public class NodeRecordTest {
     assertEquals(Bytes.fromHexString("0x7F000001"), nodeRecord.get(EnrField.IP_V4));
     assertEquals(30303, nodeRecord.get(EnrField.UDP));
   }
+
+  @Test
+  public void shouldReEncodeRecordWithUnsortedKeys() {
+    final NodeRecord canonical =
+        NODE_RECORD_FACTORY.fromBase64(
+            "-IS4QHCYrYZbAKWCBRlAy5zzaDZXJBGkcnh4MHcBFZntXNFrdvJjX04jRzjzCBOonrkTfj499SZuOh8R33Ls8RRcy5wBgmlkgnY0gmlwhH8AAAGJc2VjcDI1NmsxoQPKY0yuDUmstAHYpMa2_oxVtw0RW_QAdpzBQA8yWM0xOIN1ZHCCdl8");
+    final List<RlpType> values = new ArrayList<>(canonical.asRlp().getValues());
+    // [signature, seq, "id", "v4", "ip", ip, ...] -> [signature, seq, "ip", ip, "id", "v4", ...]
+    Collections.swap(values, 2, 4);
+    Collections.swap(values, 3, 5);
+    final Bytes unsorted = Bytes.wrap(RlpEncoder.encode(new RlpList(values)));
+
+    final NodeRecord nodeRecord = NODE_RECORD_FACTORY.fromBytes(unsorted);
+
+    assertTrue(nodeRecord.isValid());
+    assertNotEquals(unsorted, nodeRecord.serialize());
+    assertEquals(canonical.serialize(), nodeRecord.serialize());
+  }
 }
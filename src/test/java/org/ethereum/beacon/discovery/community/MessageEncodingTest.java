@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import java.util.List;
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.units.bigints.UInt64;
+import org.ethereum.beacon.discovery.message.DiscoveryV5Message;
 import org.ethereum.beacon.discovery.message.FindNodeMessage;
 import org.ethereum.beacon.discovery.message.NodesMessage;
 import org.ethereum.beacon.discovery.message.PingMessage;
@@ -46,6 +47,25 @@ public class MessageEncodingTest {
     Assertions.assertEquals(Bytes.fromHexString("0x03c401820100"), findNodeMessage.getBytes());
   }
 
+  @Test
+  public void encodeFindNodeWithMultipleDistances() {
+    FindNodeMessage findNodeMessage =
+        new FindNodeMessage(
+            Bytes.wrap(UInt64.valueOf(1).toBigInteger().toByteArray()), List.of(256, 255));
+    Bytes encoded = findNodeMessage.getBytes();
+    Assertions.assertEquals(Bytes.fromHexString("0x03c701c582010081ff"), encoded);
+    Assertions.assertEquals(
+        findNodeMessage, new DiscoveryV5Message(encoded).create(NodeRecordFactory.DEFAULT));
+  }
+
+  @Test
+  public void rejectFindNodeWithTooManyDistances() {
+    Bytes encoded = Bytes.fromHexString("0x03c801c6010203040506");
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> new DiscoveryV5Message(encoded).create(NodeRecordFactory.DEFAULT));
+  }
+
   @Test
   public void encodeNodes() {
     NodeRecordFactory nodeRecordFactory = NodeRecordFactory.DEFAULT;
@@ -0,0 +1,273 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.load;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.ethereum.beacon.discovery.DiscoverySystem;
+import org.ethereum.beacon.discovery.DiscoverySystemBuilder;
+import org.ethereum.beacon.discovery.network.AdmissionOptions;
+import org.ethereum.beacon.discovery.schema.NodeRecord;
+import org.ethereum.beacon.discovery.schema.NodeRecordBuilder;
+import org.ethereum.beacon.discovery.schema.NodeRecordFactory;
+
+/**
+ * Drives a discovery node over loopback UDP with traffic of many synthetic identities. Each
+ * identity does a real handshake with the target, then PING and FINDNODE requests are sent from
+ * random authenticated identities at a fixed rate. Requests are built with packet classes directly
+ * rather than with {@link DiscoverySystem}, so they are not limited by in-flight limits and
+ * coalescing of the sending side.
+ *
+ * <p>Could be run from the IDE with arguments like {@code identities=1000 rate=5000
+ * durationSeconds=30 findNodeShare=0.5 target=enr:...}. Without target a node is started in the
+ * same JVM, GC stats include this node then.
+ */
+public class LoadGenerator {
+  private static final Logger logger = LogManager.getLogger();
+  private static final int MAX_PACKET_SIZE = 1280;
+  private static final long HANDSHAKE_RETRY_MILLIS = 500;
+
+  private final NodeRecord target;
+  private final int identityCount;
+  private final int requestsPerSecond;
+  private final double findNodeShare;
+  private final Duration replyTimeout;
+  private final Random random = new Random();
+  private final LoadStats stats = new LoadStats();
+  private final List<SyntheticNode> identities = new ArrayList<>();
+  private final Map<DatagramChannel, SyntheticNode> identitiesByChannel = new HashMap<>();
+  private Selector selector;
+  private Thread receiver;
+  private volatile boolean running;
+
+  public LoadGenerator(
+      NodeRecord target,
+      int identityCount,
+      int requestsPerSecond,
+      double findNodeShare,
+      Duration replyTimeout) {
+    checkArgument(identityCount > 0, "Invalid number of identities: %s", identityCount);
+    checkArgument(requestsPerSecond > 0, "Invalid rate: %s", requestsPerSecond);
+    checkArgument(
+        findNodeShare >= 0 && findNodeShare <= 1, "Invalid FINDNODE share: %s", findNodeShare);
+    checkArgument(target.getUdpAddress().isPresent(), "Target has no UDP address: %s", target);
+    this.target = target;
+    this.identityCount = identityCount;
+    this.requestsPerSecond = requestsPerSecond;
+    this.findNodeShare = findNodeShare;
+    this.replyTimeout = replyTimeout;
+  }
+
+  /**
+   * Handshakes all identities within `handshakeTimeout`, sends requests for `duration` and waits
+   * for late replies up to the reply timeout
+   */
+  public LoadReport run(Duration handshakeTimeout, Duration duration) throws IOException {
+    checkArgument(identities.isEmpty(), "Load generator is already used");
+    try {
+      openIdentities();
+      handshake(handshakeTimeout);
+      List<SyntheticNode> authenticated = new ArrayList<>();
+      identities.stream().filter(SyntheticNode::isAuthenticated).forEach(authenticated::add);
+      checkArgument(!authenticated.isEmpty(), "No identity completed handshake with %s", target);
+
+      long gcCountBefore = gcCount();
+      long gcTimeBefore = gcTimeMillis();
+      long startTime = System.nanoTime();
+      sendRequests(authenticated, duration.toNanos());
+      long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+      LockSupport.parkNanos(replyTimeout.toNanos());
+      return new LoadReport(
+          identityCount,
+          stats,
+          durationMillis,
+          gcCount() - gcCountBefore,
+          gcTimeMillis() - gcTimeBefore);
+    } finally {
+      stop();
+    }
+  }
+
+  private void openIdentities() throws IOException {
+    selector = Selector.open();
+    for (int i = 0; i < identityCount; i++) {
+      SyntheticNode identity = SyntheticNode.create(target, stats);
+      identity.getChannel().register(selector, SelectionKey.OP_READ);
+      identities.add(identity);
+      identitiesByChannel.put(identity.getChannel(), identity);
+    }
+    running = true;
+    receiver = new Thread(this::receive, "load-generator-receiver");
+    receiver.setDaemon(true);
+    receiver.start();
+  }
+
+  /** Starts handshakes at the request rate, resending to identities which got no WHOAREYOU */
+  private void handshake(Duration timeout) {
+    long deadline = System.nanoTime() + timeout.toNanos();
+    long pause = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+    while (System.nanoTime() < deadline) {
+      boolean allAuthenticated = true;
+      for (SyntheticNode identity : identities) {
+        if (!identity.isAuthenticated()) {
+          allAuthenticated = false;
+          identity.startHandshake();
+          LockSupport.parkNanos(pause);
+        }
+      }
+      if (allAuthenticated) {
+        return;
+      }
+      LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(HANDSHAKE_RETRY_MILLIS));
+    }
+    logger.warn("Handshake timed out, proceeding with authenticated identities only");
+  }
+
+  /** Sends requests keeping the rate over the whole period rather than per second */
+  private void sendRequests(List<SyntheticNode> authenticated, long durationNanos) {
+    long startTime = System.nanoTime();
+    long sent = 0;
+    while (true) {
+      long elapsed = System.nanoTime() - startTime;
+      if (elapsed >= durationNanos) {
+        return;
+      }
+      long due = elapsed * requestsPerSecond / TimeUnit.SECONDS.toNanos(1);
+      while (sent < due) {
+        SyntheticNode identity = authenticated.get(random.nextInt(authenticated.size()));
+        // Distances close to 256 are the most populated buckets of the target
+        identity.sendRequest(random.nextDouble() < findNodeShare ? 256 - random.nextInt(3) : -1);
+        sent++;
+      }
+      LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+    }
+  }
+
+  private void receive() {
+    ByteBuffer buffer = ByteBuffer.allocate(MAX_PACKET_SIZE);
+    while (running) {
+      try {
+        selector.select(100);
+        for (SelectionKey key : selector.selectedKeys()) {
+          DatagramChannel channel = (DatagramChannel) key.channel();
+          buffer.clear();
+          while (channel.receive(buffer) != null) {
+            buffer.flip();
+            byte[] data = new byte[buffer.remaining()];
+            buffer.get(data);
+            identitiesByChannel.get(channel).onPacket(Bytes.wrap(data));
+            buffer.clear();
+          }
+        }
+        selector.selectedKeys().clear();
+      } catch (IOException e) {
+        if (running) {
+          logger.error("Failed to receive packet", e);
+        }
+      } catch (RuntimeException e) {
+        stats.onBadReply();
+      }
+    }
+  }
+
+  private void stop() {
+    running = false;
+    if (receiver != null) {
+      try {
+        receiver.join(TimeUnit.SECONDS.toMillis(1));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    identities.forEach(SyntheticNode::close);
+    if (selector != null) {
+      try {
+        selector.close();
+      } catch (IOException e) {
+        logger.debug("Failed to close selector", e);
+      }
+    }
+  }
+
+  private static long gcCount() {
+    return ManagementFactory.getGarbageCollectorMXBeans().stream()
+        .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+        .filter(count -> count > 0)
+        .sum();
+  }
+
+  private static long gcTimeMillis() {
+    return ManagementFactory.getGarbageCollectorMXBeans().stream()
+        .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+        .filter(time -> time > 0)
+        .sum();
+  }
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      String[] keyValue = arg.split("=", 2);
+      checkArgument(keyValue.length == 2, "Expected key=value argument: %s", arg);
+      options.put(keyValue[0], keyValue[1]);
+    }
+    DiscoverySystem localTarget = null;
+    NodeRecord target;
+    if (options.containsKey("target")) {
+      String enr = options.get("target");
+      target =
+          NodeRecordFactory.DEFAULT.fromBase64(enr.startsWith("enr:") ? enr.substring(4) : enr);
+    } else {
+      Bytes32 privateKey = Bytes32.random();
+      localTarget =
+          new DiscoverySystemBuilder()
+              .localNodeRecord(
+                  new NodeRecordBuilder().privateKey(privateKey).address("127.0.0.1", 9000).build())
+              .privateKey(privateKey)
+              // All identities send from the loopback address
+              .admissionOptions(AdmissionOptions.DISABLED)
+              .build();
+      localTarget.start().get(10, TimeUnit.SECONDS);
+      target = localTarget.getLocalNodeRecord();
+    }
+    try {
+      LoadGenerator generator =
+          new LoadGenerator(
+              target,
+              Integer.parseInt(options.getOrDefault("identities", "100")),
+              Integer.parseInt(options.getOrDefault("rate", "1000")),
+              Double.parseDouble(options.getOrDefault("findNodeShare", "0.5")),
+              Duration.ofMillis(
+                  Long.parseLong(options.getOrDefault("replyTimeoutMillis", "1000"))));
+      LoadReport report =
+          generator.run(
+              Duration.ofSeconds(Long.parseLong(options.getOrDefault("handshakeSeconds", "30"))),
+              Duration.ofSeconds(Long.parseLong(options.getOrDefault("durationSeconds", "10"))));
+      logger.info(report);
+    } finally {
+      if (localTarget != null) {
+        localTarget.stop();
+      }
+    }
+  }
+}
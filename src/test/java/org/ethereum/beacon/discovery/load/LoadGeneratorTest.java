@@ -0,0 +1,65 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.apache.tuweni.bytes.Bytes32;
+import org.ethereum.beacon.discovery.DiscoverySystem;
+import org.ethereum.beacon.discovery.DiscoverySystemBuilder;
+import org.ethereum.beacon.discovery.network.AdmissionOptions;
+import org.ethereum.beacon.discovery.schema.NodeRecordBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LoadGeneratorTest {
+  private DiscoverySystem target;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    Bytes32 privateKey = Bytes32.random();
+    target =
+        new DiscoverySystemBuilder()
+            .localNodeRecord(
+                new NodeRecordBuilder()
+                    .privateKey(privateKey)
+                    .address("127.0.0.1", findFreePort())
+                    .build())
+            .privateKey(privateKey)
+            .admissionOptions(AdmissionOptions.DISABLED)
+            .build();
+    target.start().get(5, TimeUnit.SECONDS);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    target.stop();
+  }
+
+  @Test
+  public void shouldHandshakeAndGetRepliesFromTarget() throws Exception {
+    LoadGenerator generator =
+        new LoadGenerator(target.getLocalNodeRecord(), 5, 200, 0.5, Duration.ofMillis(200));
+
+    LoadReport report = generator.run(Duration.ofSeconds(5), Duration.ofMillis(500));
+
+    assertThat(report.getCompletedHandshakes()).isEqualTo(5);
+    assertThat(report.getSentRequests()).isGreaterThan(50);
+    assertThat(report.getReplies()).isGreaterThan(0);
+    assertThat(report.getLatencyMicros(0.5)).isPositive();
+  }
+
+  /** Port is bound by the target only after the record is built, so it's taken from a socket */
+  private static int findFreePort() throws IOException {
+    try (DatagramSocket socket = new DatagramSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.load;
+
+import java.util.concurrent.TimeUnit;
+
+/** Results of a {@link LoadGenerator} run */
+public class LoadReport {
+  private final int identities;
+  private final long completedHandshakes;
+  private final long meanHandshakeMicros;
+  private final long sentPings;
+  private final long sentFindNodes;
+  private final long sendFailures;
+  private final long badReplies;
+  private final long[] sortedLatencies;
+  private final long durationMillis;
+  private final long gcCount;
+  private final long gcTimeMillis;
+
+  LoadReport(
+      int identities, LoadStats stats, long durationMillis, long gcCount, long gcTimeMillis) {
+    this.identities = identities;
+    this.completedHandshakes = stats.getCompletedHandshakes();
+    this.meanHandshakeMicros =
+        completedHandshakes == 0
+            ? 0
+            : TimeUnit.NANOSECONDS.toMicros(stats.getHandshakeTimeNanos() / completedHandshakes);
+    this.sentPings = stats.getSentPings();
+    this.sentFindNodes = stats.getSentFindNodes();
+    this.sendFailures = stats.getSendFailures();
+    this.badReplies = stats.getBadReplies();
+    this.sortedLatencies = stats.getSortedLatencies();
+    this.durationMillis = durationMillis;
+    this.gcCount = gcCount;
+    this.gcTimeMillis = gcTimeMillis;
+  }
+
+  public long getCompletedHandshakes() {
+    return completedHandshakes;
+  }
+
+  public long getFailedHandshakes() {
+    return identities - completedHandshakes;
+  }
+
+  public long getSentRequests() {
+    return sentPings + sentFindNodes;
+  }
+
+  public long getReplies() {
+    return sortedLatencies.length;
+  }
+
+  /** Share of sent requests left without reply */
+  public double getDropRate() {
+    long sent = getSentRequests();
+    return sent == 0 ? 0 : (double) (sent - getReplies()) / sent;
+  }
+
+  /** Replies per second received while sending */
+  public double getThroughput() {
+    return durationMillis == 0 ? 0 : getReplies() * 1000.0 / durationMillis;
+  }
+
+  /** Reply latency in microseconds at `percentile` in [0, 1], -1 if there were no replies */
+  public long getLatencyMicros(double percentile) {
+    if (sortedLatencies.length == 0) {
+      return -1;
+    }
+    int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+    return TimeUnit.NANOSECONDS.toMicros(sortedLatencies[Math.max(index, 0)]);
+  }
+
+  /** Collections of all garbage collectors during the run */
+  public long getGcCount() {
+    return gcCount;
+  }
+
+  public long getGcTimeMillis() {
+    return gcTimeMillis;
+  }
+
+  @Override
+  public String toString() {
+    return "LoadReport{"
+        + "identities="
+        + identities
+        + ", handshakes(completed/failed)="
+        + completedHandshakes
+        + "/"
+        + getFailedHandshakes()
+        + ", meanHandshakeMicros="
+        + meanHandshakeMicros
+        + ", sent(ping/findNode)="
+        + sentPings
+        + "/"
+        + sentFindNodes
+        + ", sendFailures="
+        + sendFailures
+        + ", replies="
+        + getReplies()
+        + ", badReplies="
+        + badReplies
+        + ", dropRate="
+        + getDropRate()
+        + ", throughput="
+        + getThroughput()
+        + ", latencyMicros(p50/p90/p99/max)="
+        + getLatencyMicros(0.5)
+        + "/"
+        + getLatencyMicros(0.9)
+        + "/"
+        + getLatencyMicros(0.99)
+        + "/"
+        + getLatencyMicros(1)
+        + ", durationMillis="
+        + durationMillis
+        + ", gcCount="
+        + gcCount
+        + ", gcTimeMillis="
+        + gcTimeMillis
+        + '}';
+  }
+}
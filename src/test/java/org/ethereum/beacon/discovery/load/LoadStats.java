@@ -0,0 +1,75 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.load;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Counters updated by {@link SyntheticNode}s from sending and receiving threads */
+class LoadStats {
+  private final AtomicLong sentPings = new AtomicLong();
+  private final AtomicLong sentFindNodes = new AtomicLong();
+  private final AtomicLong sendFailures = new AtomicLong();
+  private final AtomicLong badReplies = new AtomicLong();
+  private final AtomicLong completedHandshakes = new AtomicLong();
+  private final AtomicLong handshakeTimeNanos = new AtomicLong();
+  private long[] latencies = new long[1024];
+  private int replies;
+
+  void onRequestSent(boolean ping) {
+    (ping ? sentPings : sentFindNodes).incrementAndGet();
+  }
+
+  void onSendFailed() {
+    sendFailures.incrementAndGet();
+  }
+
+  void onBadReply() {
+    badReplies.incrementAndGet();
+  }
+
+  void onHandshakeCompleted(long latencyNanos) {
+    completedHandshakes.incrementAndGet();
+    handshakeTimeNanos.addAndGet(latencyNanos);
+  }
+
+  synchronized void onReply(long latencyNanos) {
+    if (replies == latencies.length) {
+      latencies = Arrays.copyOf(latencies, latencies.length * 2);
+    }
+    latencies[replies++] = latencyNanos;
+  }
+
+  long getSentPings() {
+    return sentPings.get();
+  }
+
+  long getSentFindNodes() {
+    return sentFindNodes.get();
+  }
+
+  long getSendFailures() {
+    return sendFailures.get();
+  }
+
+  long getBadReplies() {
+    return badReplies.get();
+  }
+
+  long getCompletedHandshakes() {
+    return completedHandshakes.get();
+  }
+
+  long getHandshakeTimeNanos() {
+    return handshakeTimeNanos.get();
+  }
+
+  /** Sorted latencies of replies received so far */
+  synchronized long[] getSortedLatencies() {
+    long[] sorted = Arrays.copyOf(latencies, replies);
+    Arrays.sort(sorted);
+    return sorted;
+  }
+}
@@ -0,0 +1,230 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.load;
+
+import static org.ethereum.beacon.discovery.util.Functions.PUBKEY_SIZE;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.ethereum.beacon.discovery.message.DiscoveryV5Message;
+import org.ethereum.beacon.discovery.message.FindNodeMessage;
+import org.ethereum.beacon.discovery.message.PingMessage;
+import org.ethereum.beacon.discovery.message.V5Message;
+import org.ethereum.beacon.discovery.packet.AuthHeaderMessagePacket;
+import org.ethereum.beacon.discovery.packet.MessagePacket;
+import org.ethereum.beacon.discovery.packet.RandomPacket;
+import org.ethereum.beacon.discovery.packet.UnknownPacket;
+import org.ethereum.beacon.discovery.packet.WhoAreYouPacket;
+import org.ethereum.beacon.discovery.schema.EnrField;
+import org.ethereum.beacon.discovery.schema.NodeRecord;
+import org.ethereum.beacon.discovery.schema.NodeRecordBuilder;
+import org.ethereum.beacon.discovery.util.Functions;
+import org.ethereum.beacon.discovery.util.Utils;
+import org.web3j.crypto.ECKeyPair;
+
+/**
+ * Synthetic identity of {@link LoadGenerator} with its own UDP socket. Performs the initiator side
+ * of the handshake with the target and then sends requests encrypted with the session keys.
+ * Replies are matched to requests by request id, further packets of multi-packet NODES replies and
+ * requests of the target are ignored.
+ */
+class SyntheticNode {
+  private static final int AUTH_TAG_SIZE = 12;
+
+  private final Bytes privateKey;
+  private final NodeRecord nodeRecord;
+  private final DatagramChannel channel;
+  private final NodeRecord target;
+  private final InetSocketAddress targetAddress;
+  private final LoadStats stats;
+  private final AtomicLong requestCounter = new AtomicLong();
+  private final Map<Bytes, Long> pendingRequests = new ConcurrentHashMap<>();
+  private Bytes handshakeAuthTag;
+  private volatile Bytes handshakeRequestId;
+  private long handshakeStartTime;
+  private volatile Bytes initiatorKey;
+  private volatile Bytes recipientKey;
+  private volatile boolean authenticated;
+
+  private SyntheticNode(
+      Bytes privateKey, DatagramChannel channel, NodeRecord target, LoadStats stats)
+      throws IOException {
+    InetSocketAddress localAddress = (InetSocketAddress) channel.getLocalAddress();
+    this.privateKey = privateKey;
+    this.nodeRecord =
+        new NodeRecordBuilder()
+            .privateKey(privateKey)
+            .address(localAddress.getAddress().getHostAddress(), localAddress.getPort())
+            .build();
+    this.channel = channel;
+    this.target = target;
+    this.targetAddress = target.getUdpAddress().orElseThrow();
+    this.stats = stats;
+  }
+
+  /** Creates node with random key listening on an ephemeral loopback port */
+  static SyntheticNode create(NodeRecord target, LoadStats stats) throws IOException {
+    DatagramChannel channel = DatagramChannel.open();
+    channel.bind(new InetSocketAddress("127.0.0.1", 0));
+    channel.configureBlocking(false);
+    return new SyntheticNode(Bytes32.random(), channel, target, stats);
+  }
+
+  DatagramChannel getChannel() {
+    return channel;
+  }
+
+  boolean isAuthenticated() {
+    return authenticated;
+  }
+
+  /**
+   * Starts handshake, the target replies with WHOAREYOU to a random packet of unknown node. Called
+   * again if the handshake was not completed, its previous attempt is forgotten then.
+   */
+  synchronized void startHandshake() {
+    if (handshakeRequestId != null) {
+      pendingRequests.remove(handshakeRequestId);
+      handshakeRequestId = null;
+    }
+    handshakeAuthTag = Bytes.random(AUTH_TAG_SIZE);
+    handshakeStartTime = System.nanoTime();
+    send(
+        RandomPacket.create(
+                nodeRecord.getNodeId(),
+                target.getNodeId(),
+                handshakeAuthTag,
+                Functions.getRandom())
+            .getBytes());
+  }
+
+  /** Sends FINDNODE for `distance` or PING if `distance` is negative */
+  void sendRequest(int distance) {
+    Bytes requestId = nextRequestId();
+    V5Message message =
+        distance < 0
+            ? new PingMessage(requestId, nodeRecord.getSeq())
+            : new FindNodeMessage(requestId, List.of(distance));
+    Bytes packet =
+        MessagePacket.create(
+                nodeRecord.getNodeId(),
+                target.getNodeId(),
+                Bytes.random(AUTH_TAG_SIZE),
+                initiatorKey,
+                DiscoveryV5Message.from(message))
+            .getBytes();
+    pendingRequests.put(requestId, System.nanoTime());
+    if (send(packet)) {
+      stats.onRequestSent(distance < 0);
+    } else {
+      pendingRequests.remove(requestId);
+    }
+  }
+
+  /** Handles a packet received from the target */
+  void onPacket(Bytes data) {
+    if (!authenticated) {
+      UnknownPacket packet = new UnknownPacket(data);
+      if (packet.isWhoAreYouPacket(nodeRecord.getNodeId())) {
+        completeHandshake(packet.getWhoAreYouPacket());
+        return;
+      }
+    }
+    Bytes key = recipientKey;
+    if (key == null) {
+      return;
+    }
+    final DiscoveryV5Message message;
+    try {
+      MessagePacket packet = new MessagePacket(data);
+      packet.decode(key);
+      message = (DiscoveryV5Message) packet.getMessage();
+    } catch (Exception e) {
+      stats.onBadReply();
+      return;
+    }
+    Long sentTime = pendingRequests.remove(message.getRequestId());
+    if (sentTime == null) {
+      return;
+    }
+    long latency = System.nanoTime() - sentTime;
+    if (message.getRequestId().equals(handshakeRequestId)) {
+      authenticated = true;
+      stats.onHandshakeCompleted(System.nanoTime() - handshakeStartTime);
+    } else {
+      stats.onReply(latency);
+    }
+  }
+
+  /** Requests without reply, counted as dropped */
+  int getPendingRequestCount() {
+    return pendingRequests.size();
+  }
+
+  void close() {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      // Nothing to do, the node is not used anymore
+    }
+  }
+
+  private synchronized void completeHandshake(WhoAreYouPacket whoAreYou) {
+    if (handshakeRequestId != null
+        || !whoAreYou.isValid(nodeRecord.getNodeId(), handshakeAuthTag)) {
+      return;
+    }
+    Bytes ephemeralPrivateKey = Bytes32.random();
+    ECKeyPair ephemeralKey = ECKeyPair.create(ephemeralPrivateKey.toArray());
+    Bytes ephemeralPublicKey =
+        Bytes.wrap(Utils.extractBytesFromUnsignedBigInt(ephemeralKey.getPublicKey(), PUBKEY_SIZE));
+    Functions.HKDFKeys keys =
+        Functions.hkdf_expand(
+            nodeRecord.getNodeId(),
+            target.getNodeId(),
+            ephemeralPrivateKey,
+            (Bytes) target.get(EnrField.PKEY_SECP256K1),
+            whoAreYou.getIdNonce());
+    initiatorKey = keys.getInitiatorKey();
+    recipientKey = keys.getRecipientKey();
+    handshakeRequestId = nextRequestId();
+    // The target learns our record from the handshake
+    AuthHeaderMessagePacket packet =
+        AuthHeaderMessagePacket.create(
+            nodeRecord.getNodeId(),
+            target.getNodeId(),
+            keys.getAuthResponseKey(),
+            whoAreYou.getIdNonce(),
+            privateKey,
+            nodeRecord,
+            ephemeralPublicKey,
+            Bytes.random(AUTH_TAG_SIZE),
+            initiatorKey,
+            DiscoveryV5Message.from(new PingMessage(handshakeRequestId, nodeRecord.getSeq())));
+    pendingRequests.put(handshakeRequestId, System.nanoTime());
+    send(packet.getBytes());
+  }
+
+  private Bytes nextRequestId() {
+    return Bytes.ofUnsignedLong(requestCounter.incrementAndGet());
+  }
+
+  private boolean send(Bytes packet) {
+    try {
+      return channel.send(ByteBuffer.wrap(packet.toArrayUnsafe()), targetAddress) > 0;
+    } catch (IOException e) {
+      stats.onSendFailed();
+      return false;
+    }
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.message;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.ethereum.beacon.discovery.packet.MessagePacket;
+import org.ethereum.beacon.discovery.schema.NodeRecord;
+import org.ethereum.beacon.discovery.schema.NodeRecordBuilder;
+import org.ethereum.beacon.discovery.schema.NodeRecordFactory;
+import org.junit.jupiter.api.Test;
+
+class NodesMessageTest {
+  private static final Bytes REQUEST_ID = Bytes.fromHexString("0xFFFFFFFFFFFFFFFF");
+  private static final Bytes AUTH_TAG = Bytes.wrap(new byte[12]);
+  private static final Bytes KEY = Bytes.wrap(new byte[16]);
+
+  @Test
+  public void shouldFillPacketUpToMaxSize() {
+    List<NodeRecord> fixedRecords = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      fixedRecords.add(createRecord(90));
+    }
+    // Grow the last record until it doesn't fit into the same packet anymore
+    Bytes lastSinglePacket = null;
+    int lastSingleRecordSize = 0;
+    for (int padding = 0; padding <= 130; padding++) {
+      List<NodeRecord> records = new ArrayList<>(fixedRecords);
+      NodeRecord lastRecord = createRecord(padding);
+      records.add(lastRecord);
+      List<Bytes> responses = NodesMessage.encodeResponses(records);
+      if (responses.size() == 1) {
+        lastSinglePacket = toPacket(responses.get(0));
+        lastSingleRecordSize = lastRecord.serialize().size();
+        continue;
+      }
+      assertThat(lastSinglePacket).isNotNull();
+      assertThat(lastSinglePacket.size()).isLessThanOrEqualTo(NodesMessage.MAX_PACKET_SIZE);
+      // The record which didn't fit would make the packet exceed the limit
+      int growth = lastRecord.serialize().size() - lastSingleRecordSize;
+      assertThat(lastSinglePacket.size() + growth).isGreaterThan(NodesMessage.MAX_PACKET_SIZE);
+      assertThat(responses).hasSize(2);
+      assertThat(serialize(decode(responses.get(1)).getNodeRecords()))
+          .containsExactly(lastRecord.serialize());
+      return;
+    }
+    throw new AssertionError("Records were not split into several packets");
+  }
+
+  @Test
+  public void shouldPackRecordsTightlyWithCorrectTotal() {
+    List<NodeRecord> records = new ArrayList<>();
+    for (int i = 0; i < 16; i++) {
+      records.add(createRecord((i * 37) % 150));
+    }
+
+    List<Bytes> responses = NodesMessage.encodeResponses(records);
+
+    List<NodeRecord> decodedRecords = new ArrayList<>();
+    for (int i = 0; i < responses.size(); i++) {
+      NodesMessage message = decode(responses.get(i));
+      assertThat(message.getTotal()).isEqualTo(responses.size());
+      int packetSize = toPacket(responses.get(i)).size();
+      assertThat(packetSize).isLessThanOrEqualTo(NodesMessage.MAX_PACKET_SIZE);
+      if (i < responses.size() - 1) {
+        NodeRecord nextRecord = decode(responses.get(i + 1)).getNodeRecords().get(0);
+        assertThat(packetSize + nextRecord.serialize().size())
+            .isGreaterThan(NodesMessage.MAX_PACKET_SIZE);
+      }
+      decodedRecords.addAll(message.getNodeRecords());
+    }
+    assertThat(serialize(decodedRecords)).isEqualTo(serialize(records));
+  }
+
+  @Test
+  public void shouldEncodeSingleEmptyResponse() {
+    List<Bytes> responses = NodesMessage.encodeResponses(List.of());
+
+    assertThat(responses).hasSize(1);
+    NodesMessage message = decode(responses.get(0));
+    assertThat(message.getTotal()).isEqualTo(1);
+    assertThat(message.getNodeRecords()).isEmpty();
+  }
+
+  @Test
+  public void shouldReplaceTotalOfEncodedResponse() {
+    NodeRecord record = createRecord(10);
+    Bytes response = NodesMessage.encodeResponses(List.of(record)).get(0);
+
+    NodesMessage message =
+        (NodesMessage)
+            new DiscoveryV5Message(NodesMessage.withRequestId(REQUEST_ID, 3, response))
+                .create(NodeRecordFactory.DEFAULT);
+
+    assertThat(message.getRequestId()).isEqualTo(REQUEST_ID);
+    assertThat(message.getTotal()).isEqualTo(3);
+    assertThat(serialize(message.getNodeRecords())).containsExactly(record.serialize());
+    assertThat(NodesMessage.isEmptyResponse(response)).isFalse();
+    assertThat(NodesMessage.isEmptyResponse(NodesMessage.encodeResponses(List.of()).get(0)))
+        .isTrue();
+  }
+
+  private static NodeRecord createRecord(int paddingSize) {
+    return new NodeRecordBuilder()
+        .privateKey(Bytes32.random())
+        .address("127.0.0.1", 30303)
+        .customField("padding", Bytes.wrap(new byte[paddingSize]))
+        .build();
+  }
+
+  private static NodesMessage decode(Bytes response) {
+    return (NodesMessage)
+        new DiscoveryV5Message(NodesMessage.withRequestId(REQUEST_ID, response))
+            .create(NodeRecordFactory.DEFAULT);
+  }
+
+  private static Bytes toPacket(Bytes response) {
+    return MessagePacket.create(
+            Bytes32.ZERO,
+            Bytes32.ZERO,
+            AUTH_TAG,
+            KEY,
+            new DiscoveryV5Message(NodesMessage.withRequestId(REQUEST_ID, response)))
+        .getBytes();
+  }
+
+  private static List<Bytes> serialize(List<NodeRecord> records) {
+    return records.stream().map(NodeRecord::serialize).collect(Collectors.toList());
+  }
+}
@@ -4,25 +4,42 @@
 
 package org.ethereum.beacon.discovery.message.handler;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import org.apache.tuweni.bytes.Bytes;
 import org.ethereum.beacon.discovery.TestUtil;
 import org.ethereum.beacon.discovery.TestUtil.NodeInfo;
 import org.ethereum.beacon.discovery.message.NodesMessage;
+import org.ethereum.beacon.discovery.metrics.DiscoveryMetrics;
 import org.ethereum.beacon.discovery.pipeline.info.FindNodeRequestInfo;
+import org.ethereum.beacon.discovery.pipeline.info.RequestInfo;
+import org.ethereum.beacon.discovery.scheduler.ErrorHandlingScheduler;
+import org.ethereum.beacon.discovery.scheduler.ExpirationSchedulerFactory;
+import org.ethereum.beacon.discovery.scheduler.Scheduler;
+import org.ethereum.beacon.discovery.scheduler.Schedulers;
 import org.ethereum.beacon.discovery.schema.NodeRecord;
 import org.ethereum.beacon.discovery.schema.NodeRecordInfo;
 import org.ethereum.beacon.discovery.schema.NodeSession;
+import org.ethereum.beacon.discovery.storage.AuthTagRepository;
+import org.ethereum.beacon.discovery.storage.LocalNodeRecordStore;
+import org.ethereum.beacon.discovery.storage.NodeBucketStorage;
+import org.ethereum.beacon.discovery.storage.NodeRecordListener;
 import org.ethereum.beacon.discovery.storage.NodeTable;
+import org.ethereum.beacon.discovery.task.TaskOptions;
 import org.ethereum.beacon.discovery.task.TaskStatus;
 import org.ethereum.beacon.discovery.task.TaskType;
 import org.ethereum.beacon.discovery.util.Functions;
@@ -36,12 +53,18 @@ class NodesHandlerTest {
   private static final Bytes REQUEST_ID = Bytes.fromHexString("0x1234");
   private final NodeSession session = mock(NodeSession.class);
   private final NodeTable nodeTable = Mockito.mock(NodeTable.class);
-  private final NodesHandler handler = new NodesHandler();
+  private final NodeRecordListener nodeRecordListener = mock(NodeRecordListener.class);
+  private final DiscoveryMetrics metrics = mock(DiscoveryMetrics.class);
+  private final Scheduler scheduler = Schedulers.createControlled().cpuHeavy();
+  private final NodesHandler handler =
+      new NodesHandler(TestUtil.NODE_RECORD_FACTORY, scheduler, scheduler);
 
   @BeforeEach
   public void setUp() {
     when(session.getNodeTable()).thenReturn(nodeTable);
     when(session.getNodeId()).thenReturn(PEER_ID);
+    when(session.getNodeRecordListener()).thenReturn(nodeRecordListener);
+    when(session.getMetrics()).thenReturn(metrics);
   }
 
   @Test
@@ -50,7 +73,12 @@ class NodesHandlerTest {
     final int distance = Functions.logDistance(PEER_ID, nodeInfo.getNodeRecord().getNodeId());
     final FindNodeRequestInfo requestInfo =
         new FindNodeRequestInfo(
-            TaskStatus.SENT, REQUEST_ID, new CompletableFuture<>(), distance, null);
+            TaskStatus.SENT,
+            REQUEST_ID,
+            new CompletableFuture<>(),
+            List.of(distance),
+            new ArrayList<>(),
+            null);
     when(session.getRequestId(REQUEST_ID)).thenReturn(Optional.of(requestInfo));
     final List<NodeRecord> records = Collections.singletonList(nodeInfo.getNodeRecord());
     final NodesMessage message =
@@ -61,6 +89,9 @@ class NodesHandlerTest {
     verify(nodeTable).save(nodeRecordInfo);
     verify(session, never()).putRecordInBucket(nodeRecordInfo);
     verify(session).clearRequestId(REQUEST_ID, TaskType.FINDNODE);
+    assertThat(requestInfo.getFoundNodes()).containsExactly(nodeInfo.getNodeRecord());
+    verify(nodeRecordListener).onNodeDiscovered(nodeInfo.getNodeRecord());
+    verify(metrics).onNodeRecordsReceived(1, 0);
   }
 
   @Test
@@ -69,14 +100,20 @@ class NodesHandlerTest {
     final int distance = Functions.logDistance(PEER_ID, nodeInfo.getNodeRecord().getNodeId());
     final FindNodeRequestInfo requestInfo =
         new FindNodeRequestInfo(
-            TaskStatus.SENT, REQUEST_ID, new CompletableFuture<>(), distance, null);
+            TaskStatus.SENT,
+            REQUEST_ID,
+            new CompletableFuture<>(),
+            List.of(distance),
+            new ArrayList<>(),
+            null);
     when(session.getRequestId(REQUEST_ID)).thenReturn(Optional.of(requestInfo));
     final List<NodeRecord> records = Collections.singletonList(nodeInfo.getNodeRecord());
     final NodesMessage message =
         new NodesMessage(REQUEST_ID, records.size(), () -> records, records.size());
     handler.handle(message, session);
 
-    verifyNoInteractions(nodeTable);
+    verify(nodeTable, never()).save(any());
+    verify(metrics).onNodeRecordsReceived(0, 1);
   }
 
   @Test
@@ -85,7 +122,12 @@ class NodesHandlerTest {
     final int distance = Functions.logDistance(PEER_ID, nodeInfo.getNodeRecord().getNodeId());
     final FindNodeRequestInfo requestInfo =
         new FindNodeRequestInfo(
-            TaskStatus.SENT, REQUEST_ID, new CompletableFuture<>(), distance - 1, null);
+            TaskStatus.SENT,
+            REQUEST_ID,
+            new CompletableFuture<>(),
+            List.of(distance - 1),
+            new ArrayList<>(),
+            null);
     when(session.getRequestId(REQUEST_ID)).thenReturn(Optional.of(requestInfo));
     final List<NodeRecord> records = Collections.singletonList(nodeInfo.getNodeRecord());
     final NodesMessage message =
@@ -94,4 +136,186 @@ class NodesHandlerTest {
 
     verifyNoInteractions(nodeTable);
   }
+
+  @Test
+  public void shouldAcceptRecordsAtAnyOfRequestedDistances() {
+    final NodeInfo nodeInfo = TestUtil.generateNode(9000);
+    final int distance = Functions.logDistance(PEER_ID, nodeInfo.getNodeRecord().getNodeId());
+    final FindNodeRequestInfo requestInfo =
+        new FindNodeRequestInfo(
+            TaskStatus.SENT,
+            REQUEST_ID,
+            new CompletableFuture<>(),
+            List.of(distance - 1, distance),
+            new ArrayList<>(),
+            null);
+    when(session.getRequestId(REQUEST_ID)).thenReturn(Optional.of(requestInfo));
+    final List<NodeRecord> records = Collections.singletonList(nodeInfo.getNodeRecord());
+    final NodesMessage message =
+        new NodesMessage(REQUEST_ID, records.size(), () -> records, records.size());
+    handler.handle(message, session);
+
+    verify(nodeTable).save(NodeRecordInfo.createDefault(nodeInfo.getNodeRecord()));
+  }
+
+  @Test
+  public void shouldRejectRecordsNotAtRequestedDistancesForMultipleDistances() {
+    final NodeInfo nodeInfo = TestUtil.generateNode(9000);
+    final int distance = Functions.logDistance(PEER_ID, nodeInfo.getNodeRecord().getNodeId());
+    final FindNodeRequestInfo requestInfo =
+        new FindNodeRequestInfo(
+            TaskStatus.SENT,
+            REQUEST_ID,
+            new CompletableFuture<>(),
+            List.of(distance - 2, distance - 1),
+            new ArrayList<>(),
+            null);
+    when(session.getRequestId(REQUEST_ID)).thenReturn(Optional.of(requestInfo));
+    final List<NodeRecord> records = Collections.singletonList(nodeInfo.getNodeRecord());
+    final NodesMessage message =
+        new NodesMessage(REQUEST_ID, records.size(), () -> records, records.size());
+    handler.handle(message, session);
+
+    verifyNoInteractions(nodeTable);
+    assertThat(requestInfo.getFoundNodes()).isEmpty();
+  }
+
+  @Test
+  public void shouldNotNotifyAboutAlreadyKnownRecords() {
+    final NodeInfo nodeInfo = TestUtil.generateNode(9000);
+    final int distance = Functions.logDistance(PEER_ID, nodeInfo.getNodeRecord().getNodeId());
+    final FindNodeRequestInfo requestInfo =
+        new FindNodeRequestInfo(
+            TaskStatus.SENT,
+            REQUEST_ID,
+            new CompletableFuture<>(),
+            List.of(distance),
+            new ArrayList<>(),
+            null);
+    when(session.getRequestId(REQUEST_ID)).thenReturn(Optional.of(requestInfo));
+    when(nodeTable.getNode(nodeInfo.getNodeRecord().getNodeId()))
+        .thenReturn(Optional.of(NodeRecordInfo.createDefault(nodeInfo.getNodeRecord())));
+    final List<NodeRecord> records = Collections.singletonList(nodeInfo.getNodeRecord());
+    final NodesMessage message =
+        new NodesMessage(REQUEST_ID, records.size(), () -> records, records.size());
+    handler.handle(message, session);
+
+    verify(nodeTable, never()).save(any());
+    verifyNoInteractions(nodeRecordListener);
+    assertThat(requestInfo.getFoundNodes()).containsExactly(nodeInfo.getNodeRecord());
+  }
+
+  @Test
+  public void shouldCompleteRequestOnlyAfterRecordsAreValidated() {
+    final List<Runnable> validationTasks = new ArrayList<>();
+    final NodesHandler handler =
+        new NodesHandler(
+            TestUtil.NODE_RECORD_FACTORY,
+            Schedulers.createControlled(() -> validationTasks::add).cpuHeavy(),
+            scheduler);
+    final NodeInfo nodeInfo = TestUtil.generateNode(9000);
+    final int distance = Functions.logDistance(PEER_ID, nodeInfo.getNodeRecord().getNodeId());
+    final FindNodeRequestInfo requestInfo =
+        new FindNodeRequestInfo(
+            TaskStatus.SENT,
+            REQUEST_ID,
+            new CompletableFuture<>(),
+            List.of(distance),
+            new ArrayList<>(),
+            null);
+    when(session.getRequestId(REQUEST_ID)).thenReturn(Optional.of(requestInfo));
+    final List<NodeRecord> records = Collections.singletonList(nodeInfo.getNodeRecord());
+    final NodesMessage message =
+        new NodesMessage(REQUEST_ID, records.size(), () -> records, records.size());
+    handler.handle(message, session);
+
+    verifyNoInteractions(nodeTable);
+    verify(session, never()).clearRequestId(REQUEST_ID, TaskType.FINDNODE);
+
+    validationTasks.forEach(Runnable::run);
+    verify(nodeTable).save(NodeRecordInfo.createDefault(nodeInfo.getNodeRecord()));
+    verify(session).clearRequestId(REQUEST_ID, TaskType.FINDNODE);
+    assertThat(requestInfo.getFoundNodes()).containsExactly(nodeInfo.getNodeRecord());
+  }
+
+  @Test
+  public void shouldSkipVerificationOfKnownRecordsWithSameSeq() {
+    final NodeInfo nodeInfo = TestUtil.generateNode(9000);
+    // Not signed, so it would fail verification
+    final NodeRecord receivedRecord = TestUtil.generateInvalidNode(9000).getNodeRecord();
+    final int distance = Functions.logDistance(PEER_ID, nodeInfo.getNodeRecord().getNodeId());
+    final FindNodeRequestInfo requestInfo =
+        new FindNodeRequestInfo(
+            TaskStatus.SENT,
+            REQUEST_ID,
+            new CompletableFuture<>(),
+            List.of(distance),
+            new ArrayList<>(),
+            null);
+    when(session.getRequestId(REQUEST_ID)).thenReturn(Optional.of(requestInfo));
+    when(nodeTable.getNode(nodeInfo.getNodeRecord().getNodeId()))
+        .thenReturn(Optional.of(NodeRecordInfo.createDefault(nodeInfo.getNodeRecord())));
+    final List<NodeRecord> records = Collections.singletonList(receivedRecord);
+    final NodesMessage message =
+        new NodesMessage(REQUEST_ID, records.size(), () -> records, records.size());
+    handler.handle(message, session);
+
+    verify(nodeTable, never()).save(any());
+    assertThat(requestInfo.getFoundNodes()).containsExactly(nodeInfo.getNodeRecord());
+    verify(metrics).onNodeRecordsReceived(1, 0);
+    verify(metrics).onNodeRecordVerificationsSkipped(1, 0);
+  }
+
+  @Test
+  public void shouldHandleResponseWhenRequestIsCancelledDuringValidation() {
+    final List<Runnable> validationTasks = new ArrayList<>();
+    final List<Throwable> errors = new ArrayList<>();
+    final NodesHandler handler =
+        new NodesHandler(
+            TestUtil.NODE_RECORD_FACTORY,
+            Schedulers.createControlled(() -> validationTasks::add).cpuHeavy(),
+            new ErrorHandlingScheduler(scheduler, errors::add));
+    final ExpirationSchedulerFactory expirationSchedulerFactory =
+        new ExpirationSchedulerFactory(Executors.newSingleThreadScheduledExecutor());
+    final NodeInfo homeNode = TestUtil.generateNode(9001);
+    final NodeInfo remoteNode = TestUtil.generateNode(9002);
+    final NodeSession session =
+        new NodeSession(
+            remoteNode.getNodeRecord().getNodeId(),
+            Optional.of(remoteNode.getNodeRecord()),
+            remoteNode.getNodeRecord().getUdpAddress().orElseThrow(),
+            new LocalNodeRecordStore(homeNode.getNodeRecord(), homeNode.getPrivateKey()),
+            homeNode.getPrivateKey(),
+            nodeTable,
+            mock(NodeBucketStorage.class),
+            NodeRecordListener.NOOP,
+            new AuthTagRepository(),
+            parcel -> {},
+            new Random(1),
+            expirationSchedulerFactory.create(60, TimeUnit.SECONDS),
+            NodeSession.DEFAULT_MAX_REQUESTS_IN_FLIGHT,
+            metrics,
+            scheduler::getCurrentTime);
+    final NodeInfo nodeInfo = TestUtil.generateNode(9000);
+    final int distance =
+        Functions.logDistance(session.getNodeId(), nodeInfo.getNodeRecord().getNodeId());
+    final RequestInfo request =
+        session.createNextRequest(
+            TaskType.FINDNODE, new TaskOptions(false, distance), new CompletableFuture<>());
+    final List<NodeRecord> records = Collections.singletonList(nodeInfo.getNodeRecord());
+    final NodesMessage message =
+        new NodesMessage(request.getRequestId(), 1, () -> records, records.size());
+    try {
+      handler.handle(message, session);
+      session.cancelAllRequests("Test");
+
+      validationTasks.forEach(Runnable::run);
+
+      assertThat(errors).isEmpty();
+      assertThat(session.getRequestId(request.getRequestId())).isEmpty();
+      verify(nodeTable).save(NodeRecordInfo.createDefault(nodeInfo.getNodeRecord()));
+    } finally {
+      expirationSchedulerFactory.stop();
+    }
+  }
 }
@@ -0,0 +1,78 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.prometheus.client.CollectorRegistry;
+import java.util.Map;
+import org.ethereum.beacon.discovery.schema.NodeStatus;
+import org.ethereum.beacon.discovery.task.TaskType;
+import org.junit.jupiter.api.Test;
+
+class PrometheusDiscoveryMetricsTest {
+  private final CollectorRegistry registry = new CollectorRegistry();
+  private final PrometheusDiscoveryMetrics metrics = new PrometheusDiscoveryMetrics(registry);
+
+  @Test
+  public void shouldCountEventsByLabel() {
+    metrics.onPacketReceived(PacketType.MESSAGE);
+    metrics.onPacketReceived(PacketType.MESSAGE);
+    metrics.onPacketSent(PacketType.WHOAREYOU);
+    metrics.onBadPacket(BadPacketReason.UNKNOWN_SENDER);
+    metrics.onPacketDropped(DropReason.SUBNET_RATE_LIMITED);
+    metrics.onNodeRecordsReceived(3, 1);
+    metrics.onNodeRecordVerificationsSkipped(2, 1);
+
+    assertThat(getValue("discovery_packets_received_total", "type", "MESSAGE")).isEqualTo(2);
+    assertThat(getValue("discovery_packets_received_total", "type", "RANDOM")).isEqualTo(0);
+    assertThat(getValue("discovery_packets_sent_total", "type", "WHOAREYOU")).isEqualTo(1);
+    assertThat(getValue("discovery_bad_packets_total", "reason", "UNKNOWN_SENDER")).isEqualTo(1);
+    assertThat(getValue("discovery_dropped_packets_total", "reason", "SUBNET_RATE_LIMITED"))
+        .isEqualTo(1);
+    assertThat(getValue("discovery_node_records_received_total", "result", "accepted"))
+        .isEqualTo(3);
+    assertThat(getValue("discovery_node_records_received_total", "result", "rejected"))
+        .isEqualTo(1);
+    assertThat(getValue("discovery_node_record_verifications_skipped_total", "reason", "known"))
+        .isEqualTo(2);
+  }
+
+  @Test
+  public void shouldRecordDurationsInSeconds() {
+    metrics.onRequestCompleted(TaskType.FINDNODE, 200_000_000L);
+    metrics.onHandshakeCompleted(1_500_000_000L);
+
+    assertThat(getValue("discovery_request_round_trip_seconds_sum", "task_type", "FINDNODE"))
+        .isEqualTo(0.2);
+    assertThat(getValue("discovery_request_round_trip_seconds_count", "task_type", "PING"))
+        .isEqualTo(0);
+    assertThat(registry.getSampleValue("discovery_handshake_duration_seconds_sum")).isEqualTo(1.5);
+  }
+
+  @Test
+  public void shouldReadGaugesOnCollection() {
+    final int[] sessions = {5};
+    metrics.registerSessionCount(() -> sessions[0]);
+    metrics.registerNodeCounts(() -> Map.of(NodeStatus.ACTIVE, 7));
+    metrics.registerBucketSizes(bucket -> bucket == 255 ? 16 : 0);
+    metrics.registerPipelineQueueDepth("incoming", () -> 2);
+    metrics.registerPublicKeyCache(() -> 3, () -> 1);
+
+    sessions[0] = 6;
+    assertThat(registry.getSampleValue("discovery_sessions")).isEqualTo(6);
+    assertThat(getValue("discovery_nodes", "status", "ACTIVE")).isEqualTo(7);
+    assertThat(getValue("discovery_nodes", "status", "DEAD")).isEqualTo(0);
+    assertThat(getValue("discovery_bucket_size", "bucket", "255")).isEqualTo(16);
+    assertThat(getValue("discovery_bucket_size", "bucket", "254")).isNull();
+    assertThat(getValue("discovery_pipeline_queue_depth", "pipeline", "incoming")).isEqualTo(2);
+    assertThat(getValue("discovery_public_key_cache_lookups_total", "result", "hit")).isEqualTo(3);
+    assertThat(getValue("discovery_public_key_cache_lookups_total", "result", "miss")).isEqualTo(1);
+  }
+
+  private Double getValue(String name, String labelName, String labelValue) {
+    return registry.getSampleValue(name, new String[] {labelName}, new String[] {labelValue});
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.network;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.InetAddress;
+import org.ethereum.beacon.discovery.metrics.DropReason;
+import org.junit.jupiter.api.Test;
+
+class AdmissionControlTest {
+  // 10 packets per second and burst of 2 per address, 4 per subnet, 8 in total
+  private static final AdmissionOptions OPTIONS = new AdmissionOptions(10, 2, 10, 4, 10, 8, 64);
+
+  private long time = 1000;
+  private final AdmissionControl admissionControl = new AdmissionControl(OPTIONS, () -> time);
+
+  @Test
+  void shouldLimitSourceAddressAndRefillOverTime() throws Exception {
+    InetAddress source = InetAddress.getByName("10.0.0.1");
+    assertThat(admissionControl.admit(source)).isEmpty();
+    assertThat(admissionControl.admit(source)).isEmpty();
+    assertThat(admissionControl.admit(source)).contains(DropReason.SOURCE_RATE_LIMITED);
+
+    time += 100;
+    assertThat(admissionControl.admit(source)).isEmpty();
+    assertThat(admissionControl.admit(source)).contains(DropReason.SOURCE_RATE_LIMITED);
+  }
+
+  @Test
+  void shouldLimitIpv4Subnet() throws Exception {
+    admitTwice("10.0.0.1");
+    admitTwice("10.0.0.2");
+    assertThat(admissionControl.admit(InetAddress.getByName("10.0.0.3")))
+        .contains(DropReason.SUBNET_RATE_LIMITED);
+    assertThat(admissionControl.admit(InetAddress.getByName("10.0.1.3"))).isEmpty();
+  }
+
+  @Test
+  void shouldLimitIpv6Subnet() throws Exception {
+    admitTwice("2001:db8::1");
+    admitTwice("2001:db8::2");
+    assertThat(admissionControl.admit(InetAddress.getByName("2001:db8::3")))
+        .contains(DropReason.SUBNET_RATE_LIMITED);
+    assertThat(admissionControl.admit(InetAddress.getByName("2001:db8:0:1::3"))).isEmpty();
+  }
+
+  @Test
+  void shouldLimitAllSources() throws Exception {
+    admitTwice("10.0.0.1");
+    admitTwice("10.0.1.1");
+    admitTwice("10.0.2.1");
+    admitTwice("10.0.3.1");
+    assertThat(admissionControl.admit(InetAddress.getByName("10.0.4.1")))
+        .contains(DropReason.GLOBAL_RATE_LIMITED);
+  }
+
+  private void admitTwice(String address) throws Exception {
+    InetAddress source = InetAddress.getByName(address);
+    assertThat(admissionControl.admit(source)).isEmpty();
+    assertThat(admissionControl.admit(source)).isEmpty();
+  }
+}
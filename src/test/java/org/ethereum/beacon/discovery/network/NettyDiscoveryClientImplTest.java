@@ -0,0 +1,54 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.network;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.netty.channel.EventLoop;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import java.net.InetSocketAddress;
+import java.util.concurrent.RejectedExecutionException;
+import org.apache.tuweni.bytes.Bytes;
+import org.ethereum.beacon.discovery.metrics.DiscoveryMetrics;
+import org.ethereum.beacon.discovery.metrics.DropReason;
+import org.junit.jupiter.api.Test;
+
+class NettyDiscoveryClientImplTest {
+  private static final InetSocketAddress DESTINATION = new InetSocketAddress("127.0.0.1", 30303);
+  private static final Bytes DATA = Bytes.fromHexString("0x010203");
+
+  private final NioDatagramChannel channel = mock(NioDatagramChannel.class);
+  private final EventLoop eventLoop = mock(EventLoop.class);
+  private final DiscoveryMetrics metrics = mock(DiscoveryMetrics.class);
+
+  @Test
+  public void shouldReportPacketsDroppedWhenQueueIsFull() {
+    when(channel.eventLoop()).thenReturn(eventLoop);
+    NettyDiscoveryClientImpl client = new NettyDiscoveryClientImpl(channel, 2, metrics);
+
+    client.send(DATA, DESTINATION);
+    client.send(DATA, DESTINATION);
+    client.send(DATA, DESTINATION);
+
+    verify(metrics).onPacketDropped(DropReason.OUTGOING_QUEUE_FULL);
+  }
+
+  @Test
+  public void shouldScheduleDrainAgainAfterRejection() {
+    when(channel.eventLoop()).thenReturn(eventLoop);
+    doThrow(new RejectedExecutionException()).when(eventLoop).execute(any());
+    NettyDiscoveryClientImpl client = new NettyDiscoveryClientImpl(channel, 16, metrics);
+
+    client.send(DATA, DESTINATION);
+    client.send(DATA, DESTINATION);
+
+    verify(eventLoop, times(2)).execute(any());
+  }
+}
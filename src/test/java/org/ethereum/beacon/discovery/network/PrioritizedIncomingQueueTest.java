@@ -0,0 +1,103 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.network;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.ethereum.beacon.discovery.metrics.DiscoveryMetrics;
+import org.ethereum.beacon.discovery.metrics.DropReason;
+import org.ethereum.beacon.discovery.pipeline.Envelope;
+import org.junit.jupiter.api.Test;
+
+class PrioritizedIncomingQueueTest {
+  private final Map<Envelope, PacketPriority> priorities = new HashMap<>();
+  private final List<PacketPriority> handled = new ArrayList<>();
+  private final List<Runnable> tasks = new ArrayList<>();
+  private final DiscoveryMetrics metrics = mock(DiscoveryMetrics.class);
+
+  @Test
+  void shouldHandleHigherPrioritiesFirstAccordingToWeights() {
+    PrioritizedIncomingQueue queue = createQueue(new OverloadOptions(100, 100, 100, 2, 1, 1));
+    offer(queue, PacketPriority.UNSOLICITED, 3);
+    offer(queue, PacketPriority.RESPONSE, 3);
+    offer(queue, PacketPriority.SESSION, 2);
+    assertThat(handled).isEmpty();
+
+    runTasks();
+
+    assertThat(handled)
+        .containsExactly(
+            PacketPriority.RESPONSE,
+            PacketPriority.RESPONSE,
+            PacketPriority.SESSION,
+            PacketPriority.UNSOLICITED,
+            PacketPriority.RESPONSE,
+            PacketPriority.SESSION,
+            PacketPriority.UNSOLICITED,
+            PacketPriority.UNSOLICITED);
+    assertThat(queue.getQueueSize(PacketPriority.RESPONSE)).isZero();
+  }
+
+  @Test
+  void shouldDropLowerPrioritiesFirstWhenOverloaded() {
+    PrioritizedIncomingQueue queue = createQueue(new OverloadOptions(4, 3, 2, 1, 1, 1));
+    offer(queue, PacketPriority.UNSOLICITED, 3);
+    offer(queue, PacketPriority.SESSION, 2);
+    offer(queue, PacketPriority.RESPONSE, 2);
+
+    assertThat(queue.getQueueSize(PacketPriority.UNSOLICITED)).isEqualTo(2);
+    assertThat(queue.getQueueSize(PacketPriority.SESSION)).isEqualTo(1);
+    assertThat(queue.getQueueSize(PacketPriority.RESPONSE)).isEqualTo(1);
+    verify(metrics, times(3)).onPacketDropped(DropReason.OVERLOADED);
+
+    runTasks();
+    assertThat(handled).hasSize(4);
+    offer(queue, PacketPriority.UNSOLICITED, 1);
+    assertThat(queue.getQueueSize(PacketPriority.UNSOLICITED)).isEqualTo(1);
+  }
+
+  @Test
+  void shouldHandleInBatches() {
+    PrioritizedIncomingQueue queue = createQueue(OverloadOptions.DEFAULT);
+    offer(queue, PacketPriority.SESSION, PrioritizedIncomingQueue.DRAIN_BATCH + 1);
+
+    tasks.remove(0).run();
+    assertThat(handled).hasSize(PrioritizedIncomingQueue.DRAIN_BATCH);
+    assertThat(tasks).hasSize(1);
+
+    runTasks();
+    assertThat(handled).hasSize(PrioritizedIncomingQueue.DRAIN_BATCH + 1);
+  }
+
+  private PrioritizedIncomingQueue createQueue(OverloadOptions options) {
+    return new PrioritizedIncomingQueue(
+        options,
+        priorities::get,
+        envelope -> handled.add(priorities.get(envelope)),
+        tasks::add,
+        metrics);
+  }
+
+  private void offer(PrioritizedIncomingQueue queue, PacketPriority priority, int count) {
+    for (int i = 0; i < count; i++) {
+      Envelope envelope = new Envelope();
+      priorities.put(envelope, priority);
+      queue.offer(envelope);
+    }
+  }
+
+  private void runTasks() {
+    while (!tasks.isEmpty()) {
+      tasks.remove(0).run();
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.network;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.jupiter.api.Test;
+
+class StatelessChallengeTest {
+  private static final InetSocketAddress SENDER = new InetSocketAddress("10.0.0.1", 30303);
+  private static final Bytes NODE_ID = Bytes32.random();
+  private static final Bytes AUTH_TAG = Bytes.random(12);
+
+  private long time = 1000;
+  private final StatelessChallenge challenge =
+      new StatelessChallenge(Duration.ofSeconds(30), () -> time);
+
+  @Test
+  void shouldAcceptIdNonceInCurrentAndNextEpoch() {
+    Bytes idNonce = challenge.createIdNonce(SENDER, NODE_ID, AUTH_TAG);
+    assertThat(idNonce.size()).isEqualTo(32);
+    assertThat(challenge.isValid(idNonce, SENDER, NODE_ID)).isTrue();
+
+    time += 30_000;
+    assertThat(challenge.isValid(idNonce, SENDER, NODE_ID)).isTrue();
+
+    time += 30_000;
+    assertThat(challenge.isValid(idNonce, SENDER, NODE_ID)).isFalse();
+  }
+
+  @Test
+  void shouldRejectIdNonceAfterLongPause() {
+    Bytes idNonce = challenge.createIdNonce(SENDER, NODE_ID, AUTH_TAG);
+    time += 300_000;
+    assertThat(challenge.isValid(idNonce, SENDER, NODE_ID)).isFalse();
+  }
+
+  @Test
+  void shouldRejectIdNonceForOtherSender() {
+    Bytes idNonce = challenge.createIdNonce(SENDER, NODE_ID, AUTH_TAG);
+    assertThat(challenge.isValid(idNonce, new InetSocketAddress("10.0.0.2", 30303), NODE_ID))
+        .isFalse();
+    assertThat(challenge.isValid(idNonce, new InetSocketAddress("10.0.0.1", 30304), NODE_ID))
+        .isFalse();
+    assertThat(challenge.isValid(idNonce, SENDER, Bytes32.random())).isFalse();
+  }
+
+  @Test
+  void shouldRejectForgedIdNonce() {
+    Bytes idNonce = challenge.createIdNonce(SENDER, NODE_ID, AUTH_TAG);
+    assertThat(challenge.isValid(Bytes32.random(), SENDER, NODE_ID)).isFalse();
+    Bytes otherAuthTag = Bytes.concatenate(Bytes.random(12), idNonce.slice(12));
+    assertThat(challenge.isValid(otherAuthTag, SENDER, NODE_ID)).isFalse();
+    assertThat(challenge.isValid(idNonce.slice(0, 31), SENDER, NODE_ID)).isFalse();
+  }
+}
@@ -8,15 +8,18 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 
 import java.net.InetSocketAddress;
+import java.util.Optional;
 import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.units.bigints.UInt64;
 import org.ethereum.beacon.discovery.SimpleIdentitySchemaInterpreter;
 import org.ethereum.beacon.discovery.TestUtil;
 import org.ethereum.beacon.discovery.TestUtil.NodeInfo;
+import org.ethereum.beacon.discovery.metrics.DiscoveryMetrics;
+import org.ethereum.beacon.discovery.network.NetworkParcel;
 import org.ethereum.beacon.discovery.pipeline.Envelope;
 import org.ethereum.beacon.discovery.pipeline.Field;
-import org.ethereum.beacon.discovery.pipeline.Pipeline;
 import org.ethereum.beacon.discovery.scheduler.ExpirationSchedulerFactory;
 import org.ethereum.beacon.discovery.schema.EnrField;
 import org.ethereum.beacon.discovery.schema.IdentitySchema;
@@ -26,6 +29,7 @@ import org.ethereum.beacon.discovery.schema.NodeSession;
 import org.ethereum.beacon.discovery.storage.AuthTagRepository;
 import org.ethereum.beacon.discovery.storage.LocalNodeRecordStore;
 import org.ethereum.beacon.discovery.storage.NodeBucketStorage;
+import org.ethereum.beacon.discovery.storage.NodeRecordListener;
 import org.ethereum.beacon.discovery.storage.NodeTable;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -41,17 +45,22 @@ class NodeIdToSessionTest {
   private final ExpirationSchedulerFactory expirationSchedulerFactory =
       new ExpirationSchedulerFactory(Executors.newSingleThreadScheduledExecutor());
   private final NodeTable nodeTable = mock(NodeTable.class);
-  private final Pipeline outgoingPipeline = mock(Pipeline.class);
+  private final Consumer<NetworkParcel> outgoingSender = parcel -> {};
 
   private final NodeIdToSession handler =
       new NodeIdToSession(
           new LocalNodeRecordStore(homeNodeRecord, homeNodeInfo.getPrivateKey()),
           STATIC_NODE_KEY,
           nodeBucketStorage,
+          NodeRecordListener.NOOP,
           authTagRepository,
           nodeTable,
-          outgoingPipeline,
-          expirationSchedulerFactory);
+          outgoingSender,
+          expirationSchedulerFactory,
+          NodeSession.DEFAULT_MAX_REQUESTS_IN_FLIGHT,
+          DiscoveryMetrics.NOOP,
+          Optional.empty(),
+          System::currentTimeMillis);
 
   @AfterEach
   public void tearDown() {
@@ -0,0 +1,38 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.schema;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt64;
+import org.junit.jupiter.api.Test;
+
+class NodeRecordSummaryTest {
+
+  @Test
+  public void shouldReadSeqAndNodeId() {
+    NodeRecord nodeRecord =
+        new NodeRecordBuilder()
+            .seq(UInt64.valueOf(42))
+            .privateKey(Bytes32.random())
+            .address("127.0.0.1", 9000)
+            .build();
+
+    NodeRecordSummary summary = NodeRecordSummary.read(nodeRecord.serialize()).orElseThrow();
+
+    assertThat(summary.getSeq()).isEqualTo(UInt64.valueOf(42));
+    assertThat(summary.getNodeId()).isEqualTo(nodeRecord.getNodeId());
+  }
+
+  @Test
+  public void shouldNotReadMalformedRecord() {
+    Bytes encoded = new NodeRecordBuilder().privateKey(Bytes32.random()).build().serialize();
+
+    assertThat(NodeRecordSummary.read(encoded.slice(0, encoded.size() - 1))).isEmpty();
+    assertThat(NodeRecordSummary.read(Bytes.fromHexString("0xc0"))).isEmpty();
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.schema;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.tuweni.bytes.Bytes;
+import org.ethereum.beacon.discovery.TestUtil;
+import org.ethereum.beacon.discovery.TestUtil.NodeInfo;
+import org.ethereum.beacon.discovery.metrics.DiscoveryMetrics;
+import org.ethereum.beacon.discovery.network.NetworkParcel;
+import org.ethereum.beacon.discovery.pipeline.info.RequestInfo;
+import org.ethereum.beacon.discovery.scheduler.ExpirationSchedulerFactory;
+import org.ethereum.beacon.discovery.schema.NodeSession.SessionStatus;
+import org.ethereum.beacon.discovery.storage.AuthTagRepository;
+import org.ethereum.beacon.discovery.storage.LocalNodeRecordStore;
+import org.ethereum.beacon.discovery.storage.NodeBucketStorage;
+import org.ethereum.beacon.discovery.storage.NodeRecordListener;
+import org.ethereum.beacon.discovery.storage.NodeTable;
+import org.ethereum.beacon.discovery.task.TaskOptions;
+import org.ethereum.beacon.discovery.task.TaskStatus;
+import org.ethereum.beacon.discovery.task.TaskType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class NodeSessionTest {
+  private static final NodeInfo HOME_NODE = TestUtil.generateNode(30303);
+  private static final NodeInfo REMOTE_NODE = TestUtil.generateNode(30304);
+  private static final int MAX_REQUESTS_IN_FLIGHT = 2;
+
+  private final ExpirationSchedulerFactory expirationSchedulerFactory =
+      new ExpirationSchedulerFactory(Executors.newSingleThreadScheduledExecutor());
+  private final List<NetworkParcel> sentParcels = new ArrayList<>();
+  private final DiscoveryMetrics metrics = mock(DiscoveryMetrics.class);
+  private final AtomicLong currentTime = new AtomicLong(1000);
+  private final NodeSession session =
+      new NodeSession(
+          REMOTE_NODE.getNodeRecord().getNodeId(),
+          Optional.of(REMOTE_NODE.getNodeRecord()),
+          REMOTE_NODE.getNodeRecord().getUdpAddress().orElseThrow(),
+          new LocalNodeRecordStore(HOME_NODE.getNodeRecord(), HOME_NODE.getPrivateKey()),
+          HOME_NODE.getPrivateKey(),
+          mock(NodeTable.class),
+          mock(NodeBucketStorage.class),
+          NodeRecordListener.NOOP,
+          new AuthTagRepository(),
+          sentParcels::add,
+          new Random(1),
+          expirationSchedulerFactory.create(60, TimeUnit.SECONDS),
+          MAX_REQUESTS_IN_FLIGHT,
+          metrics,
+          currentTime::get);
+
+  @AfterEach
+  public void tearDown() {
+    expirationSchedulerFactory.stop();
+  }
+
+  @Test
+  public void shouldNotSendRequestsBeforeAuthentication() {
+    final RequestInfo request1 = createPingRequest();
+    createPingRequest();
+
+    session.sendAwaitingRequests();
+
+    assertThat(sentParcels).isEmpty();
+    assertThat(session.getFirstAwaitRequestInfo()).contains(request1);
+  }
+
+  @Test
+  public void shouldSendQueuedRequestsUpToInFlightLimit() {
+    final RequestInfo request1 = createPingRequest();
+    final RequestInfo request2 = createPingRequest();
+    final RequestInfo request3 = createPingRequest();
+    authenticate();
+
+    session.sendAwaitingRequests();
+
+    assertThat(sentParcels).hasSize(2);
+    assertThat(session.getRequestId(request1.getRequestId()).orElseThrow().getTaskStatus())
+        .isEqualTo(TaskStatus.SENT);
+    assertThat(session.getRequestId(request2.getRequestId()).orElseThrow().getTaskStatus())
+        .isEqualTo(TaskStatus.SENT);
+    assertThat(session.getFirstAwaitRequestInfo()).contains(request3);
+  }
+
+  @Test
+  public void shouldSendNextRequestWhenReplyIsReceived() {
+    final RequestInfo request1 = createPingRequest();
+    createPingRequest();
+    createPingRequest();
+    authenticate();
+    session.sendAwaitingRequests();
+
+    session.clearRequestId(request1.getRequestId(), TaskType.PING);
+
+    assertThat(request1.getFuture()).isCompleted();
+    assertThat(sentParcels).hasSize(3);
+    assertThat(session.getFirstAwaitRequestInfo()).isEmpty();
+  }
+
+  @Test
+  public void shouldRemoveCancelledRequestsFromQueue() {
+    final RequestInfo request = createPingRequest();
+
+    session.cancelAllRequests("Test");
+
+    assertThat(request.getFuture()).isCompletedExceptionally();
+    assertThat(session.getFirstAwaitRequestInfo()).isEmpty();
+  }
+
+  @Test
+  public void shouldReportRoundTripOfSentRequests() {
+    final RequestInfo request = createPingRequest();
+    authenticate();
+    session.sendAwaitingRequests();
+    currentTime.addAndGet(150);
+
+    session.clearRequestId(request.getRequestId(), TaskType.PING);
+
+    verify(metrics).onRequestCompleted(TaskType.PING, TimeUnit.MILLISECONDS.toNanos(150));
+  }
+
+  @Test
+  public void shouldKeepSentTimeWhenRequestInfoIsUpdated() {
+    final RequestInfo request = createPingRequest();
+    authenticate();
+    session.sendAwaitingRequests();
+    currentTime.addAndGet(100);
+    session.updateRequestInfo(request.getRequestId(), request.withStatus(TaskStatus.IN_PROCESS));
+    currentTime.addAndGet(50);
+
+    session.clearRequestId(request.getRequestId(), TaskType.PING);
+
+    verify(metrics).onRequestCompleted(TaskType.PING, TimeUnit.MILLISECONDS.toNanos(150));
+  }
+
+  @Test
+  public void shouldReportHandshakeDuration() {
+    session.setStatus(SessionStatus.WHOAREYOU_SENT);
+    verify(metrics, never()).onHandshakeCompleted(anyLong());
+    currentTime.addAndGet(40);
+
+    session.setStatus(SessionStatus.AUTHENTICATED);
+    verify(metrics).onHandshakeCompleted(TimeUnit.MILLISECONDS.toNanos(40));
+  }
+
+  private RequestInfo createPingRequest() {
+    return session.createNextRequest(
+        TaskType.PING, new TaskOptions(false), new CompletableFuture<>());
+  }
+
+  private void authenticate() {
+    session.setInitiatorKey(Bytes.random(16));
+    session.setStatus(SessionStatus.AUTHENTICATED);
+  }
+}
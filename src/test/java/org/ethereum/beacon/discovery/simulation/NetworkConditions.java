@@ -0,0 +1,71 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.simulation;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.time.Duration;
+
+/** Link properties of {@link SimulatedNetwork} */
+public class NetworkConditions {
+  public static final NetworkConditions PERFECT =
+      new NetworkConditions(Duration.ZERO, Duration.ZERO, 0, Duration.ofSeconds(30));
+
+  private final Duration minLatency;
+  private final Duration maxLatency;
+  private final double lossRate;
+  private final Duration natMappingTimeout;
+
+  /**
+   * @param minLatency Minimal one way latency of a packet
+   * @param maxLatency Maximal one way latency, latency is uniformly distributed between min and max
+   * @param lossRate Share of packets which are lost, from 0 to 1
+   * @param natMappingTimeout Time NAT lets in packets from a peer after the last packet sent to it
+   */
+  public NetworkConditions(
+      Duration minLatency, Duration maxLatency, double lossRate, Duration natMappingTimeout) {
+    checkArgument(!minLatency.isNegative(), "Latency should not be negative: %s", minLatency);
+    checkArgument(
+        maxLatency.compareTo(minLatency) >= 0,
+        "Max latency %s is less than min latency %s",
+        maxLatency,
+        minLatency);
+    checkArgument(lossRate >= 0 && lossRate <= 1, "Loss rate should be in [0, 1]: %s", lossRate);
+    this.minLatency = minLatency;
+    this.maxLatency = maxLatency;
+    this.lossRate = lossRate;
+    this.natMappingTimeout = natMappingTimeout;
+  }
+
+  public Duration getMinLatency() {
+    return minLatency;
+  }
+
+  public Duration getMaxLatency() {
+    return maxLatency;
+  }
+
+  public double getLossRate() {
+    return lossRate;
+  }
+
+  public Duration getNatMappingTimeout() {
+    return natMappingTimeout;
+  }
+
+  @Override
+  public String toString() {
+    return "NetworkConditions{"
+        + "minLatency="
+        + minLatency
+        + ", maxLatency="
+        + maxLatency
+        + ", lossRate="
+        + lossRate
+        + ", natMappingTimeout="
+        + natMappingTimeout
+        + '}';
+  }
+}
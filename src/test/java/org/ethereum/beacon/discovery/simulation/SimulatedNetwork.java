@@ -0,0 +1,195 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.simulation;
+
+import java.net.InetSocketAddress;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.tuweni.bytes.Bytes;
+import org.ethereum.beacon.discovery.metrics.DiscoveryMetrics;
+import org.ethereum.beacon.discovery.metrics.PacketType;
+import org.ethereum.beacon.discovery.network.DiscoveryClient;
+import org.ethereum.beacon.discovery.network.DiscoveryNetworkFactory;
+import org.ethereum.beacon.discovery.network.DiscoveryServer;
+import org.ethereum.beacon.discovery.network.NetworkParcel;
+import org.ethereum.beacon.discovery.pipeline.Envelope;
+import org.ethereum.beacon.discovery.pipeline.Field;
+import org.ethereum.beacon.discovery.scheduler.ControlledSchedulers;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.ReplayProcessor;
+
+/**
+ * In-memory network routing packets between discovery nodes in virtual time of {@link
+ * ControlledSchedulers}. Each packet is delayed by random latency and could be lost according to
+ * {@link NetworkConditions}.
+ *
+ * <p>Nodes could be put behind NAT: such a node receives packets from a peer only within {@link
+ * NetworkConditions#getNatMappingTimeout()} after it sent a packet to this peer, unsolicited
+ * packets are dropped.
+ *
+ * <p>Not thread safe, all nodes should run on the thread advancing virtual time.
+ */
+public class SimulatedNetwork implements DiscoveryNetworkFactory {
+  private final ControlledSchedulers schedulers;
+  private final ScheduledExecutorService deliveryExecutor;
+  private final NetworkConditions conditions;
+  private final Random random;
+  private final Map<InetSocketAddress, SimulatedServer> servers = new HashMap<>();
+  // Node behind NAT -> peer -> time until which packets from the peer are let in
+  private final Map<InetSocketAddress, Map<InetSocketAddress, Long>> natMappings =
+      new HashMap<>();
+  private final Map<PacketType, Long> sentPackets = new EnumMap<>(PacketType.class);
+  private long sentBytes;
+  private long deliveredPackets;
+  private long lostPackets;
+  private long natDroppedPackets;
+
+  public SimulatedNetwork(
+      ControlledSchedulers schedulers, NetworkConditions conditions, Random random) {
+    this.schedulers = schedulers;
+    this.deliveryExecutor = schedulers.newSingleThreadScheduledExecutor("simulated-network");
+    this.conditions = conditions;
+    this.random = random;
+    for (PacketType type : PacketType.values()) {
+      sentPackets.put(type, 0L);
+    }
+  }
+
+  /** Puts node listening on `address` behind NAT, should be called before the node sends */
+  public void putBehindNat(InetSocketAddress address) {
+    natMappings.put(address, new HashMap<>());
+  }
+
+  public boolean isBehindNat(InetSocketAddress address) {
+    return natMappings.containsKey(address);
+  }
+
+  @Override
+  public DiscoveryServer createServer(InetSocketAddress listenAddress) {
+    SimulatedServer server = new SimulatedServer(listenAddress);
+    servers.put(listenAddress, server);
+    return server;
+  }
+
+  @Override
+  public CompletableFuture<DiscoveryClient> start(
+      DiscoveryServer server, DiscoveryMetrics metrics) {
+    InetSocketAddress address = ((SimulatedServer) server).address;
+    DiscoveryClient client =
+        new DiscoveryClient() {
+          @Override
+          public void stop() {
+            servers.remove(address);
+          }
+
+          @Override
+          public void send(Bytes data, InetSocketAddress destination) {
+            SimulatedNetwork.this.send(address, data, destination);
+          }
+
+          @Override
+          public void send(NetworkParcel parcel) {
+            sentPackets.merge(PacketType.of(parcel.getPacket()), 1L, Long::sum);
+            send(parcel.getPacket().getBytes(), parcel.getDestination());
+          }
+        };
+    return CompletableFuture.completedFuture(client);
+  }
+
+  private void send(InetSocketAddress from, Bytes data, InetSocketAddress to) {
+    sentBytes += data.size();
+    Map<InetSocketAddress, Long> senderNat = natMappings.get(from);
+    if (senderNat != null) {
+      senderNat.put(
+          to, schedulers.getCurrentTime() + conditions.getNatMappingTimeout().toMillis());
+    }
+    if (conditions.getLossRate() > 0 && random.nextDouble() < conditions.getLossRate()) {
+      lostPackets++;
+      return;
+    }
+    deliveryExecutor.schedule(() -> deliver(from, data, to), nextLatency(), TimeUnit.MILLISECONDS);
+  }
+
+  private void deliver(InetSocketAddress from, Bytes data, InetSocketAddress to) {
+    Map<InetSocketAddress, Long> recipientNat = natMappings.get(to);
+    if (recipientNat != null
+        && recipientNat.getOrDefault(from, Long.MIN_VALUE) < schedulers.getCurrentTime()) {
+      natDroppedPackets++;
+      return;
+    }
+    SimulatedServer server = servers.get(to);
+    if (server == null) {
+      lostPackets++;
+      return;
+    }
+    deliveredPackets++;
+    server.receive(data, from);
+  }
+
+  private long nextLatency() {
+    long min = conditions.getMinLatency().toMillis();
+    long spread = conditions.getMaxLatency().toMillis() - min;
+    return spread == 0 ? min : min + (long) (random.nextDouble() * (spread + 1));
+  }
+
+  /** Number of sent packets by type */
+  public Map<PacketType, Long> getSentPackets() {
+    return new EnumMap<>(sentPackets);
+  }
+
+  public long getSentBytes() {
+    return sentBytes;
+  }
+
+  public long getDeliveredPackets() {
+    return deliveredPackets;
+  }
+
+  /** Packets lost in transit or sent to an address nobody listens on */
+  public long getLostPackets() {
+    return lostPackets;
+  }
+
+  /** Unsolicited packets dropped by NAT */
+  public long getNatDroppedPackets() {
+    return natDroppedPackets;
+  }
+
+  private static class SimulatedServer implements DiscoveryServer {
+    private final InetSocketAddress address;
+    private final ReplayProcessor<Envelope> incomingPackets = ReplayProcessor.cacheLast();
+    private final FluxSink<Envelope> incomingSink = incomingPackets.sink();
+
+    private SimulatedServer(InetSocketAddress address) {
+      this.address = address;
+    }
+
+    @Override
+    public CompletableFuture<?> start() {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void stop() {}
+
+    @Override
+    public Publisher<Envelope> getIncomingPackets() {
+      return incomingPackets;
+    }
+
+    private void receive(Bytes data, InetSocketAddress sender) {
+      Envelope envelope = new Envelope();
+      envelope.put(Field.INCOMING, data);
+      envelope.put(Field.REMOTE_SENDER, sender);
+      incomingSink.next(envelope);
+    }
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.simulation;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.ethereum.beacon.discovery.DiscoverySystem;
+import org.ethereum.beacon.discovery.DiscoverySystemBuilder;
+import org.ethereum.beacon.discovery.network.AdmissionOptions;
+import org.ethereum.beacon.discovery.network.OverloadOptions;
+import org.ethereum.beacon.discovery.scheduler.ControlledSchedulers;
+import org.ethereum.beacon.discovery.scheduler.Schedulers;
+import org.ethereum.beacon.discovery.schema.NodeRecord;
+import org.ethereum.beacon.discovery.schema.NodeRecordBuilder;
+import org.ethereum.beacon.discovery.task.LookupOptions;
+
+/**
+ * Runs thousands of {@link DiscoverySystem} nodes in one JVM over {@link SimulatedNetwork}. Nodes
+ * use {@link ControlledSchedulers}, so their tasks, timeouts and packet delivery run on the calling
+ * thread in virtual time which is moved forward by {@link #advance(Duration)}: minutes of network
+ * life take as long as it takes to process their packets.
+ *
+ * <p>Node statuses still expire by wall clock time, see {@link
+ * org.ethereum.beacon.discovery.util.Functions#getTime()}, so a simulation should take less than
+ * 10 minutes of real time to not see nodes as stale.
+ */
+public class Simulation {
+  private static final int PORT = 30303;
+  private static final Duration STEP = Duration.ofMillis(100);
+
+  private final ControlledSchedulers schedulers = Schedulers.createControlled();
+  private final Random random;
+  private final SimulatedNetwork network;
+  private final List<DiscoverySystem> nodes = new ArrayList<>();
+  // Nodes not behind NAT, the ones lookup is able to find
+  private final List<Bytes> reachableNodeIds = new ArrayList<>();
+  private long heapBeforeNodes;
+
+  public Simulation(NetworkConditions conditions, long seed) {
+    this.random = new Random(seed);
+    this.network = new SimulatedNetwork(schedulers, conditions, random);
+  }
+
+  /**
+   * Creates and starts nodes. The first `bootnodeCount` nodes are bootnodes of all others,
+   * `natShare` of other nodes are behind NAT.
+   */
+  public void start(int nodeCount, int bootnodeCount, double natShare) {
+    checkArgument(nodes.isEmpty(), "Simulation is already started");
+    checkArgument(
+        bootnodeCount > 0 && bootnodeCount <= nodeCount,
+        "Invalid number of bootnodes: %s",
+        bootnodeCount);
+    heapBeforeNodes = usedHeap();
+    List<NodeRecord> bootnodes = new ArrayList<>();
+    for (int i = 0; i < nodeCount; i++) {
+      Bytes32 privateKey = Bytes32.random(random);
+      NodeRecord nodeRecord =
+          new NodeRecordBuilder().privateKey(privateKey).address(ipAddress(i), PORT).build();
+      InetSocketAddress address = nodeRecord.getUdpAddress().orElseThrow();
+      if (i >= bootnodeCount && random.nextDouble() < natShare) {
+        network.putBehindNat(address);
+      } else {
+        reachableNodeIds.add(nodeRecord.getNodeId());
+      }
+      DiscoverySystem node =
+          new DiscoverySystemBuilder()
+              .localNodeRecord(nodeRecord)
+              .privateKey(privateKey)
+              .bootnodes(bootnodes.toArray(new NodeRecord[0]))
+              .schedulers(schedulers)
+              .networkFactory(network)
+              // Simulated addresses are packed into few /24 subnets
+              .admissionOptions(AdmissionOptions.DISABLED)
+              .overloadOptions(OverloadOptions.DISABLED)
+              .build();
+      if (i < bootnodeCount) {
+        bootnodes.add(nodeRecord);
+      }
+      nodes.add(node);
+      node.start();
+    }
+  }
+
+  /** Moves virtual time forward running all the work scheduled up to the new time */
+  public void advance(Duration duration) {
+    schedulers.addTime(duration);
+  }
+
+  /**
+   * Runs lookups of random targets from random nodes at once and advances time until all of them
+   * complete or `timeout` passes
+   */
+  public SimulationReport runLookups(int lookupCount, Duration timeout) {
+    int k = LookupOptions.DEFAULT.getK();
+    List<Long> convergenceTimes = new ArrayList<>();
+    List<Double> accuracies = new ArrayList<>();
+    AtomicInteger failedLookups = new AtomicInteger();
+    long startTime = schedulers.getCurrentTime();
+    for (int i = 0; i < lookupCount; i++) {
+      DiscoverySystem node = nodes.get(random.nextInt(nodes.size()));
+      Bytes target = Bytes32.random(random);
+      Set<Bytes> expected =
+          closestReachableNodes(target, node.getLocalNodeRecord().getNodeId(), k);
+      node.lookup(target, k)
+          .whenComplete(
+              (result, error) -> {
+                if (error != null) {
+                  failedLookups.incrementAndGet();
+                  return;
+                }
+                convergenceTimes.add(schedulers.getCurrentTime() - startTime);
+                long found =
+                    result.stream().map(NodeRecord::getNodeId).filter(expected::contains).count();
+                accuracies.add(expected.isEmpty() ? 1 : (double) found / expected.size());
+              });
+    }
+    long deadline = startTime + timeout.toMillis();
+    while (convergenceTimes.size() + failedLookups.get() < lookupCount
+        && schedulers.getCurrentTime() < deadline) {
+      advance(STEP);
+    }
+    return new SimulationReport(
+        nodes.size(),
+        schedulers.getCurrentTime(),
+        lookupCount,
+        failedLookups.get(),
+        convergenceTimes,
+        accuracies,
+        network,
+        (usedHeap() - heapBeforeNodes) / nodes.size(),
+        nodes.stream().mapToLong(node -> node.streamKnownNodes().count()).average().orElse(0));
+  }
+
+  public void stop() {
+    nodes.forEach(DiscoverySystem::stop);
+  }
+
+  private Set<Bytes> closestReachableNodes(Bytes target, Bytes excludedNodeId, int k) {
+    return reachableNodeIds.stream()
+        .filter(nodeId -> !nodeId.equals(excludedNodeId))
+        .sorted(Comparator.comparing(nodeId -> distance(nodeId, target)))
+        .limit(k)
+        .collect(Collectors.toCollection(HashSet::new));
+  }
+
+  private static BigInteger distance(Bytes nodeId, Bytes target) {
+    return nodeId.xor(target).toUnsignedBigInteger();
+  }
+
+  private static String ipAddress(int index) {
+    return "10." + ((index >> 16) & 0xFF) + "." + ((index >> 8) & 0xFF) + "." + (index & 0xFF);
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    System.gc();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
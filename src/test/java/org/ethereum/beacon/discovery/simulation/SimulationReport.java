@@ -0,0 +1,148 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.simulation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.ethereum.beacon.discovery.metrics.PacketType;
+
+/** Results of {@link Simulation#runLookups} with network counters collected since the start */
+public class SimulationReport {
+  private final int nodeCount;
+  private final long virtualTimeMillis;
+  private final int lookupCount;
+  private final int failedLookups;
+  private final List<Long> convergenceTimes;
+  private final double meanAccuracy;
+  private final Map<PacketType, Long> sentPackets;
+  private final long sentBytes;
+  private final long deliveredPackets;
+  private final long lostPackets;
+  private final long natDroppedPackets;
+  private final long memoryPerNode;
+  private final double meanKnownNodes;
+
+  SimulationReport(
+      int nodeCount,
+      long virtualTimeMillis,
+      int lookupCount,
+      int failedLookups,
+      List<Long> convergenceTimes,
+      List<Double> accuracies,
+      SimulatedNetwork network,
+      long memoryPerNode,
+      double meanKnownNodes) {
+    this.nodeCount = nodeCount;
+    this.virtualTimeMillis = virtualTimeMillis;
+    this.lookupCount = lookupCount;
+    this.failedLookups = failedLookups;
+    this.convergenceTimes = new ArrayList<>(convergenceTimes);
+    Collections.sort(this.convergenceTimes);
+    this.meanAccuracy = accuracies.stream().mapToDouble(a -> a).average().orElse(0);
+    this.sentPackets = network.getSentPackets();
+    this.sentBytes = network.getSentBytes();
+    this.deliveredPackets = network.getDeliveredPackets();
+    this.lostPackets = network.getLostPackets();
+    this.natDroppedPackets = network.getNatDroppedPackets();
+    this.memoryPerNode = memoryPerNode;
+    this.meanKnownNodes = meanKnownNodes;
+  }
+
+  /** Lookups completed before timeout, successfully or not */
+  public int getCompletedLookups() {
+    return convergenceTimes.size() + failedLookups;
+  }
+
+  public int getFailedLookups() {
+    return failedLookups;
+  }
+
+  /**
+   * Virtual time from the start of lookups until a share of `percentile` of them converged, -1 if
+   * less lookups converged
+   */
+  public long getConvergenceTimeMillis(double percentile) {
+    int index = (int) Math.ceil(percentile * lookupCount) - 1;
+    if (index >= convergenceTimes.size()) {
+      return -1;
+    }
+    return convergenceTimes.get(Math.max(index, 0));
+  }
+
+  /** Mean share of the true k closest reachable nodes found by successful lookups */
+  public double getMeanAccuracy() {
+    return meanAccuracy;
+  }
+
+  public Map<PacketType, Long> getSentPackets() {
+    return sentPackets;
+  }
+
+  public long getSentBytes() {
+    return sentBytes;
+  }
+
+  public long getDeliveredPackets() {
+    return deliveredPackets;
+  }
+
+  public long getLostPackets() {
+    return lostPackets;
+  }
+
+  public long getNatDroppedPackets() {
+    return natDroppedPackets;
+  }
+
+  /** Approximate heap used per node, measured with {@link System#gc()} before and after */
+  public long getMemoryPerNode() {
+    return memoryPerNode;
+  }
+
+  /** Mean size of node tables */
+  public double getMeanKnownNodes() {
+    return meanKnownNodes;
+  }
+
+  @Override
+  public String toString() {
+    return "SimulationReport{"
+        + "nodes="
+        + nodeCount
+        + ", virtualTimeMillis="
+        + virtualTimeMillis
+        + ", lookups="
+        + lookupCount
+        + ", completedLookups="
+        + getCompletedLookups()
+        + ", failedLookups="
+        + failedLookups
+        + ", convergenceMillis(p50/p95/max)="
+        + getConvergenceTimeMillis(0.5)
+        + "/"
+        + getConvergenceTimeMillis(0.95)
+        + "/"
+        + getConvergenceTimeMillis(1)
+        + ", meanAccuracy="
+        + meanAccuracy
+        + ", sentPackets="
+        + sentPackets
+        + ", sentBytes="
+        + sentBytes
+        + ", deliveredPackets="
+        + deliveredPackets
+        + ", lostPackets="
+        + lostPackets
+        + ", natDroppedPackets="
+        + natDroppedPackets
+        + ", memoryPerNode="
+        + memoryPerNode
+        + ", meanKnownNodes="
+        + meanKnownNodes
+        + '}';
+  }
+}
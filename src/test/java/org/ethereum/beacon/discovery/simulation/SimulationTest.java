@@ -0,0 +1,62 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.simulation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.ethereum.beacon.discovery.metrics.PacketType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+public class SimulationTest {
+  private static final Logger logger = LogManager.getLogger();
+  private static final NetworkConditions CONDITIONS =
+      new NetworkConditions(
+          Duration.ofMillis(10), Duration.ofMillis(100), 0.01, Duration.ofSeconds(30));
+
+  private Simulation simulation;
+
+  @AfterEach
+  public void tearDown() {
+    if (simulation != null) {
+      simulation.stop();
+    }
+  }
+
+  @Test
+  public void shouldConvergeLookupsInSmallNetwork() {
+    simulation = new Simulation(CONDITIONS, 1);
+    simulation.start(64, 2, 0.1);
+    simulation.advance(Duration.ofMinutes(2));
+
+    final SimulationReport report = simulation.runLookups(10, Duration.ofSeconds(60));
+    logger.info(report);
+
+    assertThat(report.getCompletedLookups()).isEqualTo(10);
+    assertThat(report.getFailedLookups()).isZero();
+    assertThat(report.getMeanAccuracy()).isGreaterThan(0.5);
+    assertThat(report.getSentPackets().get(PacketType.MESSAGE)).isPositive();
+    assertThat(report.getLostPackets()).isPositive();
+  }
+
+  /** Large scale run: ./gradlew test --tests '*SimulationTest' -Dsimulation.nodes=10000 */
+  @Test
+  @EnabledIfSystemProperty(named = "simulation.nodes", matches = "\\d+")
+  public void runLargeNetwork() {
+    final int nodeCount = Integer.getInteger("simulation.nodes");
+    simulation = new Simulation(CONDITIONS, 1);
+    simulation.start(nodeCount, 8, 0.2);
+    simulation.advance(Duration.ofMinutes(2));
+
+    final SimulationReport report = simulation.runLookups(100, Duration.ofMinutes(1));
+    logger.info(report);
+
+    assertThat(report.getCompletedLookups()).isEqualTo(100);
+  }
+}
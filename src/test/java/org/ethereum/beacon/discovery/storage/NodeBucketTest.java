@@ -6,11 +6,17 @@ package org.ethereum.beacon.discovery.storage;
 import static org.ethereum.beacon.discovery.TestUtil.TEST_SERIALIZER;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
 import java.util.stream.IntStream;
+import org.apache.tuweni.bytes.Bytes;
 import org.ethereum.beacon.discovery.TestUtil;
 import org.ethereum.beacon.discovery.database.Database;
+import org.ethereum.beacon.discovery.message.DiscoveryV5Message;
+import org.ethereum.beacon.discovery.message.NodesMessage;
 import org.ethereum.beacon.discovery.schema.NodeRecord;
 import org.ethereum.beacon.discovery.schema.NodeRecordInfo;
 import org.ethereum.beacon.discovery.schema.NodeStatus;
@@ -100,4 +106,50 @@ public class NodeBucketTest {
     assertFalse(nodeBucketStorage.get(253).isPresent());
     assertFalse(nodeBucketStorage.get(256).isPresent());
   }
+
+  @Test
+  public void testNodesResponsesCache() {
+    NodeRecordInfo initial = generateUniqueRecord(0);
+    Database database = Database.inMemoryDB();
+    NodeTableStorageFactoryImpl nodeTableStorageFactory = new NodeTableStorageFactoryImpl();
+    NodeBucketStorage nodeBucketStorage =
+        nodeTableStorageFactory.createBucketStorage(database, TEST_SERIALIZER, initial.getNode());
+
+    int j = 1;
+    for (int i = 0; i < 6; ) {
+      NodeRecordInfo nodeRecordInfo = generateUniqueRecord(j);
+      if (Functions.logDistance(initial.getNode().getNodeId(), nodeRecordInfo.getNode().getNodeId())
+          == 255) {
+        nodeBucketStorage.put(nodeRecordInfo);
+        ++i;
+      }
+      ++j;
+    }
+    List<Bytes> responses = nodeBucketStorage.getNodesResponses(255);
+    // All 6 small records fit into one packet
+    assertEquals(1, responses.size());
+    assertSame(responses, nodeBucketStorage.getNodesResponses(255));
+    Bytes requestId = Bytes.fromHexString("0x0102");
+    NodesMessage first =
+        (NodesMessage)
+            new DiscoveryV5Message(NodesMessage.withRequestId(requestId, responses.get(0)))
+                .create(TestUtil.NODE_RECORD_FACTORY_NO_VERIFICATION);
+    assertEquals(requestId, first.getRequestId());
+    assertEquals(1, first.getTotal());
+    assertEquals(6, first.getNodeRecords().size());
+
+    // Empty bucket still produces one empty response
+    assertEquals(1, nodeBucketStorage.getNodesResponses(200).size());
+
+    // Bucket modification invalidates cached responses
+    while (Functions.logDistance(
+            initial.getNode().getNodeId(), generateUniqueRecord(j).getNode().getNodeId())
+        != 255) {
+      ++j;
+    }
+    nodeBucketStorage.put(generateUniqueRecord(j));
+    List<Bytes> updated = nodeBucketStorage.getNodesResponses(255);
+    assertNotSame(responses, updated);
+    assertEquals(1, updated.size());
+  }
 }
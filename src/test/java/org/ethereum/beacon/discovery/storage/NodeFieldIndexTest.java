@@ -0,0 +1,105 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.units.bigints.UInt64;
+import org.ethereum.beacon.discovery.SimpleIdentitySchemaInterpreter;
+import org.ethereum.beacon.discovery.schema.EnrField;
+import org.ethereum.beacon.discovery.schema.IdentitySchema;
+import org.ethereum.beacon.discovery.schema.NodeRecord;
+import org.ethereum.beacon.discovery.schema.NodeRecordFactory;
+import org.junit.jupiter.api.Test;
+
+class NodeFieldIndexTest {
+  private static final NodeRecordFactory NODE_RECORD_FACTORY =
+      new NodeRecordFactory(new SimpleIdentitySchemaInterpreter());
+  private static final String FORK = "fork";
+  private static final String SUBNETS = "subnets";
+  private static final Bytes FORK_A = Bytes.fromHexString("0x0a0a0a0a");
+  private static final Bytes FORK_B = Bytes.fromHexString("0x0b0b0b0b");
+
+  private final NodeFieldIndex index = new NodeFieldIndex(Set.of(FORK), Set.of(SUBNETS));
+
+  @Test
+  public void shouldFindNodesByExactValue() {
+    final NodeRecord node1 = createNode(1, FORK_A, Bytes.fromHexString("0x00"));
+    final NodeRecord node2 = createNode(2, FORK_B, Bytes.fromHexString("0x00"));
+    index.add(node1);
+    index.add(node2);
+
+    assertThat(index.find(FORK, FieldPredicate.equalTo(FORK_A))).contains(ids(node1));
+    assertThat(index.find(FORK, FieldPredicate.equalTo(Bytes.fromHexString("0x01"))))
+        .contains(Set.of());
+  }
+
+  @Test
+  public void shouldFindBitfieldsWithAnyOfBitsSet() {
+    final NodeRecord node1 = createNode(1, FORK_A, Bytes.fromHexString("0x0100"));
+    final NodeRecord node2 = createNode(2, FORK_A, Bytes.fromHexString("0x0081"));
+    final NodeRecord node3 = createNode(3, FORK_A, Bytes.fromHexString("0x0000"));
+    index.add(node1);
+    index.add(node2);
+    index.add(node3);
+
+    // bit 15 is the most significant bit of the second byte
+    assertThat(index.find(SUBNETS, FieldPredicate.intersects(Bytes.fromHexString("0x0080"))))
+        .contains(ids(node2));
+    assertThat(index.find(SUBNETS, FieldPredicate.intersects(Bytes.fromHexString("0x0101"))))
+        .contains(ids(node1, node2));
+  }
+
+  @Test
+  public void shouldApplyCustomPredicateToIndexedValues() {
+    final NodeRecord node1 = createNode(1, FORK_A, Bytes.fromHexString("0x00"));
+    final NodeRecord node2 = createNode(2, FORK_B, Bytes.fromHexString("0x00"));
+    index.add(node1);
+    index.add(node2);
+
+    assertThat(index.find(FORK, value -> !FORK_A.equals(value))).contains(ids(node2));
+  }
+
+  @Test
+  public void shouldUpdateIndexWhenNodeIsReplaced() {
+    final NodeRecord oldRecord = createNode(1, FORK_A, Bytes.fromHexString("0x01"));
+    final NodeRecord newRecord = createNode(1, FORK_B, Bytes.fromHexString("0x02"));
+    index.add(oldRecord);
+    index.remove(oldRecord);
+    index.add(newRecord);
+
+    assertThat(index.find(FORK, FieldPredicate.equalTo(FORK_A))).contains(Set.of());
+    assertThat(index.find(FORK, FieldPredicate.equalTo(FORK_B))).contains(ids(newRecord));
+    assertThat(index.find(SUBNETS, FieldPredicate.intersects(Bytes.fromHexString("0x01"))))
+        .contains(Set.of());
+  }
+
+  @Test
+  public void shouldNotAnswerForNotIndexedFields() {
+    index.add(createNode(1, FORK_A, Bytes.fromHexString("0x01")));
+
+    assertThat(index.find(EnrField.IP_V4, value -> true)).isEmpty();
+  }
+
+  private static Set<Bytes> ids(final NodeRecord... nodes) {
+    final Set<Bytes> ids = new HashSet<>();
+    for (NodeRecord node : nodes) {
+      ids.add(node.getNodeId());
+    }
+    return ids;
+  }
+
+  private static NodeRecord createNode(final int id, final Bytes fork, final Bytes subnets) {
+    return NODE_RECORD_FACTORY.createFromValues(
+        UInt64.ONE,
+        new EnrField(EnrField.ID, IdentitySchema.V4),
+        new EnrField(EnrField.PKEY_SECP256K1, Bytes.ofUnsignedInt(id)),
+        new EnrField(FORK, fork),
+        new EnrField(SUBNETS, subnets));
+  }
+}
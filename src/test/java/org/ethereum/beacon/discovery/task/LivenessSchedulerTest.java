@@ -0,0 +1,172 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.task;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.units.bigints.UInt64;
+import org.ethereum.beacon.discovery.SimpleIdentitySchemaInterpreter;
+import org.ethereum.beacon.discovery.schema.EnrField;
+import org.ethereum.beacon.discovery.schema.IdentitySchema;
+import org.ethereum.beacon.discovery.schema.NodeRecordFactory;
+import org.ethereum.beacon.discovery.schema.NodeRecordInfo;
+import org.ethereum.beacon.discovery.schema.NodeStatus;
+import org.ethereum.beacon.discovery.storage.NodeBucket;
+import org.ethereum.beacon.discovery.storage.NodeBucketStorage;
+import org.ethereum.beacon.discovery.storage.NodeTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LivenessSchedulerTest {
+  private static final NodeRecordFactory NODE_RECORD_FACTORY =
+      new NodeRecordFactory(new SimpleIdentitySchemaInterpreter());
+  private static final Bytes HOME_NODE_ID =
+      Bytes.fromHexString("0x0000000000000000000000000000000000000000000000000000000000000000");
+  private static final long STALE_TIME = 100;
+  // Distance 256 from home node
+  private static final NodeRecordInfo FAR_STALE =
+      createNode("0x8000000000000000000000000000000000000000000000000000000000000001", 50);
+  private static final NodeRecordInfo FAR_NEW =
+      createNode("0x8000000000000000000000000000000000000000000000000000000000000002", -1);
+  private static final NodeRecordInfo FAR_MEMBER =
+      createNode("0x8000000000000000000000000000000000000000000000000000000000000003", 70);
+  private static final NodeRecordInfo FAR_OLDEST =
+      createNode("0x8000000000000000000000000000000000000000000000000000000000000004", 10);
+  // Distance 255 from home node
+  private static final NodeRecordInfo NEAR_STALE =
+      createNode("0x4000000000000000000000000000000000000000000000000000000000000001", 60);
+  private static final NodeRecordInfo NEAR_FRESH =
+      createNode("0x4000000000000000000000000000000000000000000000000000000000000002", 200);
+
+  private static final Predicate<NodeRecordInfo> CHECK_RULE =
+      node -> node.getLastRetry() < STALE_TIME;
+
+  private final Map<Bytes, NodeRecordInfo> storedNodes = new HashMap<>();
+  private final NodeTable nodeTable = mock(NodeTable.class);
+  private final NodeBucketStorage nodeBucketStorage = mock(NodeBucketStorage.class);
+  private long time = 0;
+
+  @BeforeEach
+  public void setUp() {
+    List.of(FAR_STALE, FAR_NEW, FAR_MEMBER, FAR_OLDEST, NEAR_STALE, NEAR_FRESH)
+        .forEach(node -> storedNodes.put(node.getNode().getNodeId(), node));
+    when(nodeTable.getNode(any()))
+        .thenAnswer(invocation -> Optional.ofNullable(storedNodes.get(invocation.getArgument(0))));
+    final NodeBucket farBucket = new NodeBucket();
+    farBucket.put(FAR_MEMBER);
+    when(nodeBucketStorage.get(anyInt())).thenReturn(Optional.empty());
+    when(nodeBucketStorage.get(256)).thenReturn(Optional.of(farBucket));
+  }
+
+  @Test
+  public void shouldCheckBucketMembersThenNewNodesThenStaleNodes() {
+    final LivenessScheduler scheduler = createScheduler(100, 100);
+
+    scheduler.reschedule(storedNodes.values());
+
+    assertThat(scheduler.nextBatch(0))
+        .containsExactly(FAR_MEMBER, FAR_NEW, NEAR_STALE, FAR_OLDEST, FAR_STALE);
+  }
+
+  @Test
+  public void shouldServeBucketsInTurns() {
+    final LivenessScheduler scheduler = createScheduler(100, 100);
+
+    scheduler.reschedule(List.of(FAR_STALE, FAR_OLDEST, NEAR_STALE));
+
+    assertThat(scheduler.nextBatch(0)).containsExactly(NEAR_STALE, FAR_OLDEST, FAR_STALE);
+  }
+
+  @Test
+  public void shouldLimitPingRate() {
+    final LivenessScheduler scheduler = createScheduler(2, 100);
+    scheduler.reschedule(storedNodes.values());
+
+    assertThat(scheduler.nextBatch(0)).hasSize(2);
+    assertThat(scheduler.nextBatch(0)).isEmpty();
+
+    time += 500;
+    assertThat(scheduler.nextBatch(0)).hasSize(1);
+    assertThat(scheduler.getQueueSize()).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldLimitConcurrentChecks() {
+    final LivenessScheduler scheduler = createScheduler(100, 3);
+    scheduler.reschedule(storedNodes.values());
+
+    assertThat(scheduler.nextBatch(2)).hasSize(1);
+    assertThat(scheduler.nextBatch(3)).isEmpty();
+  }
+
+  @Test
+  public void shouldSkipNodesCheckedAfterScheduling() {
+    final LivenessScheduler scheduler = createScheduler(100, 100);
+    scheduler.reschedule(storedNodes.values());
+
+    storedNodes.put(
+        FAR_MEMBER.getNode().getNodeId(),
+        new NodeRecordInfo(FAR_MEMBER.getNode(), 300L, NodeStatus.ACTIVE, 0));
+
+    assertThat(scheduler.nextBatch(0).stream().map(NodeRecordInfo::getNode))
+        .doesNotContain(FAR_MEMBER.getNode());
+  }
+
+  @Test
+  public void shouldRescanWhenQueueIsDrained() {
+    final LivenessScheduler scheduler = createScheduler(100, 100);
+    assertThat(scheduler.isRescanDue()).isTrue();
+
+    scheduler.reschedule(storedNodes.values());
+    assertThat(scheduler.isRescanDue()).isFalse();
+
+    scheduler.nextBatch(0);
+    time += 1000;
+    assertThat(scheduler.isRescanDue()).isTrue();
+  }
+
+  @Test
+  public void shouldRescanAfterInterval() {
+    final LivenessScheduler scheduler = createScheduler(1, 100);
+    scheduler.reschedule(storedNodes.values());
+
+    time += 59_000;
+    assertThat(scheduler.isRescanDue()).isFalse();
+    time += 1000;
+    assertThat(scheduler.isRescanDue()).isTrue();
+  }
+
+  private LivenessScheduler createScheduler(final int burst, final int maxConcurrentChecks) {
+    return new LivenessScheduler(
+        nodeTable,
+        nodeBucketStorage,
+        HOME_NODE_ID,
+        CHECK_RULE,
+        new LivenessOptions(2, burst, maxConcurrentChecks, Duration.ofSeconds(60)),
+        () -> time);
+  }
+
+  private static NodeRecordInfo createNode(final String nodeId, final long lastRetry) {
+    return new NodeRecordInfo(
+        NODE_RECORD_FACTORY.createFromValues(
+            UInt64.ONE,
+            new EnrField(EnrField.ID, IdentitySchema.V4),
+            new EnrField(EnrField.PKEY_SECP256K1, Bytes.fromHexString(nodeId))),
+        lastRetry,
+        NodeStatus.ACTIVE,
+        0);
+  }
+}
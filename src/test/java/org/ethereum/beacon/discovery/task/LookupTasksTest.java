@@ -0,0 +1,171 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.task;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.units.bigints.UInt64;
+import org.ethereum.beacon.discovery.SimpleIdentitySchemaInterpreter;
+import org.ethereum.beacon.discovery.schema.EnrField;
+import org.ethereum.beacon.discovery.schema.IdentitySchema;
+import org.ethereum.beacon.discovery.schema.NodeRecord;
+import org.ethereum.beacon.discovery.schema.NodeRecordFactory;
+import org.ethereum.beacon.discovery.schema.NodeRecordInfo;
+import org.ethereum.beacon.discovery.schema.NodeStatus;
+import org.ethereum.beacon.discovery.storage.NodeTable;
+import org.ethereum.beacon.discovery.task.RecursiveLookupTask.FindNodesAction;
+import org.ethereum.beacon.discovery.util.Functions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LookupTasksTest {
+  private static final NodeRecordFactory NODE_RECORD_FACTORY =
+      new NodeRecordFactory(new SimpleIdentitySchemaInterpreter());
+  private static final Bytes TARGET1 =
+      Bytes.fromHexString("0xDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDD");
+  private static final Bytes TARGET2 =
+      Bytes.fromHexString("0xBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBBB");
+  private static final Bytes TARGET3 =
+      Bytes.fromHexString("0xCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCC");
+  private static final NodeRecordInfo PEER1 =
+      createPeer("0xDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDD1");
+  private static final NodeRecordInfo PEER2 =
+      createPeer("0xDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDD22");
+  private static final NodeRecordInfo PEER3 =
+      createPeer("0xDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDD333");
+  private static final NodeRecordInfo HOME =
+      createPeer("0x1111111111111111111111111111111111111111111111111111111111111111");
+
+  private final NodeTable nodeTable = mock(NodeTable.class);
+  private final FindNodesAction findNodesAction = mock(FindNodesAction.class);
+  private final List<CompletableFuture<Collection<NodeRecord>>> findNodeRequests =
+      new ArrayList<>();
+
+  @BeforeEach
+  public void setUp() {
+    when(nodeTable.getHomeNode()).thenReturn(HOME.getNode());
+    when(nodeTable.streamClosestNodes(any(), eq(0)))
+        .thenAnswer(invocation -> Stream.of(PEER1, PEER2, PEER3));
+    when(findNodesAction.findNodes(any(), anyList()))
+        .then(
+            invocation -> {
+              final CompletableFuture<Collection<NodeRecord>> result = new CompletableFuture<>();
+              findNodeRequests.add(result);
+              return result;
+            });
+  }
+
+  @Test
+  public void shouldShareLookupForTheSameTarget() {
+    final LookupTasks lookupTasks = createLookupTasks(2);
+
+    final CompletableFuture<List<NodeRecord>> result1 = lookupTasks.lookup(TARGET1, 3);
+    final CompletableFuture<List<NodeRecord>> result2 = lookupTasks.lookup(TARGET1, 2);
+
+    assertThat(findNodeRequests).hasSize(3);
+    findNodeRequests.forEach(request -> request.complete(emptyList()));
+
+    assertThat(result1)
+        .isCompletedWithValue(List.of(PEER1.getNode(), PEER2.getNode(), PEER3.getNode()));
+    assertThat(result2).isCompletedWithValue(List.of(PEER1.getNode(), PEER2.getNode()));
+  }
+
+  @Test
+  public void shouldStartNewLookupWhenMoreNodesAreRequested() {
+    final LookupTasks lookupTasks = createLookupTasks(2);
+
+    lookupTasks.lookup(TARGET1, 2);
+    lookupTasks.lookup(TARGET1, 3);
+
+    verify(nodeTable, times(2)).streamClosestNodes(TARGET1, 0);
+  }
+
+  @Test
+  public void shouldQueueLookupsOverTheLimit() {
+    final LookupTasks lookupTasks = createLookupTasks(1);
+
+    final CompletableFuture<List<NodeRecord>> result1 = lookupTasks.lookup(TARGET1, 3);
+    final CompletableFuture<List<NodeRecord>> result2 = lookupTasks.lookup(TARGET2, 3);
+
+    verify(nodeTable).streamClosestNodes(TARGET1, 0);
+    verify(nodeTable, never()).streamClosestNodes(TARGET2, 0);
+
+    new ArrayList<>(findNodeRequests).forEach(request -> request.complete(emptyList()));
+    assertThat(result1).isCompleted();
+    assertThat(result2).isNotDone();
+    verify(nodeTable).streamClosestNodes(TARGET2, 0);
+  }
+
+  @Test
+  public void shouldReturnTargetNodeFirstWhenItReplies() {
+    final LookupTasks lookupTasks = createLookupTasks(1);
+    when(nodeTable.getNode(PEER2.getNode().getNodeId())).thenReturn(Optional.of(PEER2));
+
+    final CompletableFuture<List<NodeRecord>> result =
+        lookupTasks.lookup(PEER2.getNode().getNodeId(), 3);
+
+    // Known target doesn't complete the lookup, it's queried together with other nodes
+    assertThat(result).isNotDone();
+    new ArrayList<>(findNodeRequests).forEach(request -> request.complete(emptyList()));
+    assertThat(result.join()).hasSize(3).startsWith(PEER2.getNode());
+  }
+
+  @Test
+  public void shouldRejectLookupsOverTheQueueLimit() {
+    final LookupTasks lookupTasks = createLookupTasks(1, 1);
+
+    final CompletableFuture<List<NodeRecord>> result1 = lookupTasks.lookup(TARGET1, 3);
+    final CompletableFuture<List<NodeRecord>> result2 = lookupTasks.lookup(TARGET2, 3);
+    final CompletableFuture<List<NodeRecord>> result3 = lookupTasks.lookup(TARGET3, 3);
+
+    assertThat(result1).isNotDone();
+    assertThat(result2).isNotDone();
+    assertThatThrownBy(result3::join).hasCauseInstanceOf(RejectedExecutionException.class);
+  }
+
+  private LookupTasks createLookupTasks(final int maxConcurrentLookups) {
+    return createLookupTasks(maxConcurrentLookups, 16);
+  }
+
+  private LookupTasks createLookupTasks(
+      final int maxConcurrentLookups, final int maxQueuedLookups) {
+    return new LookupTasks(
+        nodeTable,
+        findNodesAction,
+        new LookupOptions(3, 3, 10, Duration.ofSeconds(10)),
+        maxConcurrentLookups,
+        maxQueuedLookups);
+  }
+
+  private static NodeRecordInfo createPeer(final String nodeId) {
+    return new NodeRecordInfo(
+        NODE_RECORD_FACTORY.createFromValues(
+            UInt64.ONE,
+            new EnrField(EnrField.ID, IdentitySchema.V4),
+            new EnrField(EnrField.PKEY_SECP256K1, Bytes.fromHexString(nodeId))),
+        Functions.getTime() + 100000000L,
+        NodeStatus.ACTIVE,
+        0);
+  }
+}
@@ -4,28 +4,36 @@
 
 package org.ethereum.beacon.discovery.task;
 
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
 import org.apache.tuweni.units.bigints.UInt64;
 import org.ethereum.beacon.discovery.SimpleIdentitySchemaInterpreter;
 import org.ethereum.beacon.discovery.schema.EnrField;
 import org.ethereum.beacon.discovery.schema.IdentitySchema;
+import org.ethereum.beacon.discovery.schema.NodeRecord;
 import org.ethereum.beacon.discovery.schema.NodeRecordFactory;
 import org.ethereum.beacon.discovery.schema.NodeRecordInfo;
 import org.ethereum.beacon.discovery.schema.NodeStatus;
+import org.ethereum.beacon.discovery.storage.NodeBucket;
 import org.ethereum.beacon.discovery.storage.NodeTable;
 import org.ethereum.beacon.discovery.task.RecursiveLookupTask.FindNodesAction;
 import org.ethereum.beacon.discovery.util.Functions;
@@ -51,27 +59,33 @@ class RecursiveLookupTaskTest {
   public static final NodeRecordInfo PEER3 = createPeer(PEER3_ID);
   public static final NodeRecordInfo PEER4 = createPeer(PEER4_ID);
   public static final NodeRecordInfo PEER5 = createPeer(PEER5_ID);
+  public static final NodeRecordInfo HOME =
+      createPeer(
+          Bytes.fromHexString(
+              "0xDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDE"));
 
   private final Bytes TARGET =
       Bytes.fromHexString("0xDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDD");
   private final NodeTable nodeTable = mock(NodeTable.class);
   private final FindNodesAction findNodesAction = mock(FindNodesAction.class);
 
-  private final Map<NodeRecordInfo, CompletableFuture<Void>> findNodeRequests = new HashMap<>();
+  private final Map<NodeRecordInfo, CompletableFuture<Collection<NodeRecord>>> findNodeRequests =
+      new HashMap<>();
 
-  private final RecursiveLookupTask task =
-      new RecursiveLookupTask(nodeTable, findNodesAction, 4, TARGET);
+  private RecursiveLookupTask task;
 
   @BeforeEach
   public void setUp() {
-    when(findNodesAction.findNodes(any(), anyInt()))
+    when(nodeTable.getHomeNode()).thenReturn(HOME.getNode());
+    when(findNodesAction.findNodes(any(), anyList()))
         .then(
             invocation -> {
               final NodeRecordInfo queriedPeer = invocation.getArgument(0);
-              final CompletableFuture<Void> result = new CompletableFuture<>();
+              final CompletableFuture<Collection<NodeRecord>> result = new CompletableFuture<>();
               findNodeRequests.put(queriedPeer, result);
               return result;
             });
+    task = createTask(3, NodeBucket.K, 4);
   }
 
   @Test
@@ -80,9 +94,9 @@ class RecursiveLookupTaskTest {
 
     task.execute();
 
-    verify(findNodesAction).findNodes(PEER1, Functions.logDistance(TARGET, PEER1_ID));
-    verify(findNodesAction).findNodes(PEER2, Functions.logDistance(TARGET, PEER2_ID));
-    verify(findNodesAction).findNodes(PEER3, Functions.logDistance(TARGET, PEER3_ID));
+    verify(findNodesAction).findNodes(PEER1, distances(PEER1_ID));
+    verify(findNodesAction).findNodes(PEER2, distances(PEER2_ID));
+    verify(findNodesAction).findNodes(PEER3, distances(PEER3_ID));
     verifyNoMoreInteractions(findNodesAction);
   }
 
@@ -95,9 +109,9 @@ class RecursiveLookupTaskTest {
     task.execute();
 
     // Skips PEER1_ID because it's non-active
-    verify(findNodesAction).findNodes(PEER2, Functions.logDistance(TARGET, PEER2_ID));
-    verify(findNodesAction).findNodes(PEER3, Functions.logDistance(TARGET, PEER3_ID));
-    verify(findNodesAction).findNodes(PEER4, Functions.logDistance(TARGET, PEER4_ID));
+    verify(findNodesAction).findNodes(PEER2, distances(PEER2_ID));
+    verify(findNodesAction).findNodes(PEER3, distances(PEER3_ID));
+    verify(findNodesAction).findNodes(PEER4, distances(PEER4_ID));
     verifyNoMoreInteractions(findNodesAction);
   }
 
@@ -112,9 +126,9 @@ class RecursiveLookupTaskTest {
     task.execute();
 
     // Skips PEER1_ID because it's non-active
-    verify(findNodesAction).findNodes(PEER2, Functions.logDistance(TARGET, PEER2_ID));
-    verify(findNodesAction).findNodes(PEER3, Functions.logDistance(TARGET, PEER3_ID));
-    verify(findNodesAction).findNodes(PEER4, Functions.logDistance(TARGET, PEER4_ID));
+    verify(findNodesAction).findNodes(PEER2, distances(PEER2_ID));
+    verify(findNodesAction).findNodes(PEER3, distances(PEER3_ID));
+    verify(findNodesAction).findNodes(PEER4, distances(PEER4_ID));
     verifyNoMoreInteractions(findNodesAction);
   }
 
@@ -124,26 +138,26 @@ class RecursiveLookupTaskTest {
     when(nodeTable.streamClosestNodes(TARGET, 0))
         .thenAnswer(invocation -> Stream.of(PEER1, PEER2, PEER3, PEER4));
 
-    final CompletableFuture<Void> complete = task.execute();
+    final CompletableFuture<List<NodeRecord>> complete = task.execute();
 
-    verify(findNodesAction).findNodes(PEER1, Functions.logDistance(TARGET, PEER1_ID));
-    verify(findNodesAction).findNodes(PEER2, Functions.logDistance(TARGET, PEER2_ID));
-    verify(findNodesAction).findNodes(PEER3, Functions.logDistance(TARGET, PEER3_ID));
+    verify(findNodesAction).findNodes(PEER1, distances(PEER1_ID));
+    verify(findNodesAction).findNodes(PEER2, distances(PEER2_ID));
+    verify(findNodesAction).findNodes(PEER3, distances(PEER3_ID));
     verifyNoMoreInteractions(findNodesAction);
     assertFalse(complete.isDone());
 
     // Request to first peer completes.
-    findNodeRequests.get(PEER1).complete(null);
+    findNodeRequests.get(PEER1).complete(emptyList());
 
     // We should now query the next closest peer we haven't already queried (peer4).
-    verify(findNodesAction).findNodes(PEER4, Functions.logDistance(TARGET, PEER4_ID));
+    verify(findNodesAction).findNodes(PEER4, distances(PEER4_ID));
     verifyNoMoreInteractions(findNodesAction);
     assertFalse(complete.isDone());
 
     // Complete remaining requests
-    findNodeRequests.get(PEER2).complete(null);
-    findNodeRequests.get(PEER3).complete(null);
-    findNodeRequests.get(PEER4).complete(null);
+    findNodeRequests.get(PEER2).complete(emptyList());
+    findNodeRequests.get(PEER3).complete(emptyList());
+    findNodeRequests.get(PEER4).complete(emptyList());
 
     verifyNoMoreInteractions(findNodesAction);
     // Should now be done because all nodes have been queried
@@ -151,31 +165,44 @@ class RecursiveLookupTaskTest {
   }
 
   @Test
-  public void shouldStopWhenTargetNodeIsFound() {
+  public void shouldQueryTargetNodeWhenItIsFound() {
     final NodeRecordInfo targetPeer = createPeer(TARGET);
     when(nodeTable.streamClosestNodes(TARGET, 0)).thenReturn(Stream.of(PEER1, PEER2, PEER3, PEER4));
 
-    final CompletableFuture<Void> complete = task.execute();
+    final CompletableFuture<List<NodeRecord>> complete = task.execute();
 
-    verify(findNodesAction).findNodes(PEER1, Functions.logDistance(TARGET, PEER1_ID));
-    verify(findNodesAction).findNodes(PEER2, Functions.logDistance(TARGET, PEER2_ID));
-    verify(findNodesAction).findNodes(PEER3, Functions.logDistance(TARGET, PEER3_ID));
+    verify(findNodesAction).findNodes(PEER1, distances(PEER1_ID));
+    verify(findNodesAction).findNodes(PEER2, distances(PEER2_ID));
+    verify(findNodesAction).findNodes(PEER3, distances(PEER3_ID));
+    verifyNoMoreInteractions(findNodesAction);
+
+    // Target is received from the first peer, lookup goes on and queries it
+    findNodeRequests.get(PEER1).complete(List.of(targetPeer.getNode()));
+    final NodeRecordInfo receivedTarget = NodeRecordInfo.createDefault(targetPeer.getNode());
+    verify(findNodesAction).findNodes(receivedTarget, distances(TARGET));
     verifyNoMoreInteractions(findNodesAction);
     assertFalse(complete.isDone());
 
-    // Request to first peer completes. Target peer has now been found.
-    when(nodeTable.getNode(TARGET)).thenReturn(Optional.of(targetPeer));
-    findNodeRequests.get(PEER1).complete(null);
+    findNodeRequests.get(receivedTarget).complete(emptyList());
+    findNodeRequests.get(PEER2).complete(emptyList());
+    findNodeRequests.get(PEER3).complete(emptyList());
 
-    // No more requests are made
-    verifyNoMoreInteractions(findNodesAction);
-    assertTrue(complete.isDone());
+    assertThat(complete.join())
+        .containsExactly(targetPeer.getNode(), PEER2.getNode(), PEER3.getNode(), PEER1.getNode());
+  }
 
-    // Complete remaining requests
-    findNodeRequests.get(PEER2).complete(null);
-    findNodeRequests.get(PEER3).complete(null);
+  @Test
+  public void shouldNotCompleteWhenTargetNodeIsKnown() {
+    when(nodeTable.streamClosestNodes(TARGET, 0)).thenReturn(Stream.of(PEER1, PEER2, PEER3, PEER4));
+    when(nodeTable.getNode(TARGET)).thenReturn(Optional.of(createPeer(TARGET, NodeStatus.DEAD)));
 
-    verifyNoMoreInteractions(findNodesAction);
+    final CompletableFuture<List<NodeRecord>> complete = task.execute();
+    findNodeRequests.get(PEER1).complete(emptyList());
+
+    // Dead target is not a candidate, node table is read only when the lookup starts
+    verify(nodeTable).getNode(TARGET);
+    verify(findNodesAction).findNodes(PEER4, distances(PEER4_ID));
+    assertFalse(complete.isDone());
   }
 
   @Test
@@ -183,30 +210,136 @@ class RecursiveLookupTaskTest {
     when(nodeTable.streamClosestNodes(TARGET, 0))
         .thenAnswer(invocation -> Stream.of(PEER1, PEER2, PEER3, PEER4, PEER5));
 
-    final CompletableFuture<Void> complete = task.execute();
+    final CompletableFuture<List<NodeRecord>> complete = task.execute();
 
-    verify(findNodesAction).findNodes(PEER1, Functions.logDistance(TARGET, PEER1_ID));
-    verify(findNodesAction).findNodes(PEER2, Functions.logDistance(TARGET, PEER2_ID));
-    verify(findNodesAction).findNodes(PEER3, Functions.logDistance(TARGET, PEER3_ID));
+    verify(findNodesAction).findNodes(PEER1, distances(PEER1_ID));
+    verify(findNodesAction).findNodes(PEER2, distances(PEER2_ID));
+    verify(findNodesAction).findNodes(PEER3, distances(PEER3_ID));
     verifyNoMoreInteractions(findNodesAction);
     assertFalse(complete.isDone());
 
     // Requests complete
-    findNodeRequests.get(PEER1).complete(null);
-    findNodeRequests.get(PEER2).complete(null);
-    findNodeRequests.get(PEER3).complete(null);
+    findNodeRequests.get(PEER1).complete(emptyList());
+    findNodeRequests.get(PEER2).complete(emptyList());
+    findNodeRequests.get(PEER3).complete(emptyList());
 
     // There are two peers remaining but only 1 request before we hit the total request limit
-    verify(findNodesAction).findNodes(PEER4, Functions.logDistance(TARGET, PEER4_ID));
+    verify(findNodesAction).findNodes(PEER4, distances(PEER4_ID));
     verifyNoMoreInteractions(findNodesAction);
     assertFalse(complete.isDone());
 
     // And when that last request completes, we're done.
-    findNodeRequests.get(PEER4).complete(null);
+    findNodeRequests.get(PEER4).complete(emptyList());
     verifyNoMoreInteractions(findNodesAction);
     assertTrue(complete.isDone());
   }
 
+  @Test
+  public void shouldQueryNodesReceivedInReplies() {
+    final NodeRecordInfo closerPeer =
+        createPeer(
+            Bytes.fromHexString(
+                "0xDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDDD0"));
+    when(nodeTable.streamClosestNodes(TARGET, 0)).thenReturn(Stream.of(PEER1, PEER2, PEER3, PEER4));
+    task = createTask(3, NodeBucket.K, 10);
+
+    final CompletableFuture<List<NodeRecord>> complete = task.execute();
+    verify(findNodesAction).findNodes(PEER1, distances(PEER1_ID));
+    verify(findNodesAction).findNodes(PEER2, distances(PEER2_ID));
+    verify(findNodesAction).findNodes(PEER3, distances(PEER3_ID));
+
+    // PEER1 knows node closer to the target than any other candidate, it's queried next
+    findNodeRequests.get(PEER1).complete(List.of(closerPeer.getNode(), HOME.getNode()));
+    final NodeRecordInfo receivedPeer = NodeRecordInfo.createDefault(closerPeer.getNode());
+    verify(findNodesAction).findNodes(receivedPeer, distances(closerPeer.getNode().getNodeId()));
+    verifyNoMoreInteractions(findNodesAction);
+
+    findNodeRequests.get(receivedPeer).complete(emptyList());
+    findNodeRequests.get(PEER2).complete(emptyList());
+    findNodeRequests.get(PEER3).complete(emptyList());
+    verify(findNodesAction).findNodes(PEER4, distances(PEER4_ID));
+    findNodeRequests.get(PEER4).complete(emptyList());
+
+    // Home node is never queried, result is ordered by distance to the target
+    verifyNoMoreInteractions(findNodesAction);
+    assertThat(complete)
+        .isCompletedWithValue(
+            List.of(
+                closerPeer.getNode(),
+                PEER2.getNode(),
+                PEER3.getNode(),
+                PEER1.getNode(),
+                PEER4.getNode()));
+  }
+
+  @Test
+  public void shouldCompleteWhenClosestNodesAreQueried() {
+    when(nodeTable.streamClosestNodes(TARGET, 0))
+        .thenReturn(Stream.of(PEER1, PEER2, PEER3, PEER4, PEER5));
+    task = createTask(1, 2, 10);
+
+    final CompletableFuture<List<NodeRecord>> complete = task.execute();
+    verify(findNodesAction).findNodes(PEER2, distances(PEER2_ID));
+    verifyNoMoreInteractions(findNodesAction);
+
+    findNodeRequests.get(PEER2).complete(emptyList());
+    verify(findNodesAction).findNodes(PEER3, distances(PEER3_ID));
+    findNodeRequests.get(PEER3).complete(emptyList());
+
+    // Two closest nodes replied, the rest is not queried
+    verifyNoMoreInteractions(findNodesAction);
+    assertThat(complete).isCompletedWithValue(List.of(PEER2.getNode(), PEER3.getNode()));
+  }
+
+  @Test
+  public void shouldReplaceFailedNodesWithNextClosest() {
+    when(nodeTable.streamClosestNodes(TARGET, 0))
+        .thenReturn(Stream.of(PEER1, PEER2, PEER3, PEER4, PEER5));
+    task = createTask(1, 2, 10);
+
+    final CompletableFuture<List<NodeRecord>> complete = task.execute();
+    findNodeRequests.get(PEER2).completeExceptionally(new RuntimeException("Timeout"));
+    findNodeRequests.get(PEER3).complete(emptyList());
+    findNodeRequests.get(PEER1).complete(emptyList());
+
+    verify(findNodesAction).findNodes(PEER2, distances(PEER2_ID));
+    verify(findNodesAction).findNodes(PEER3, distances(PEER3_ID));
+    verify(findNodesAction).findNodes(PEER1, distances(PEER1_ID));
+    verifyNoMoreInteractions(findNodesAction);
+    assertThat(complete).isCompletedWithValue(List.of(PEER3.getNode(), PEER1.getNode()));
+  }
+
+  @Test
+  public void shouldRequestSingleTargetDistanceByDefault() {
+    assertThat(RecursiveLookupTask.lookupDistances(PEER1_ID, TARGET, false)).containsExactly(14);
+    assertThat(RecursiveLookupTask.lookupDistances(Bytes32.ZERO, Bytes32.ZERO.not(), false))
+        .containsExactly(256);
+  }
+
+  @Test
+  public void shouldRequestTargetDistanceAndItsNeighbours() {
+    assertThat(RecursiveLookupTask.lookupDistances(PEER1_ID, TARGET, true))
+        .containsExactly(14, 15, 13);
+    assertThat(
+            RecursiveLookupTask.lookupDistances(
+                Bytes32.ZERO, Bytes.concatenate(Bytes.wrap(new byte[31]), Bytes.of(1)), true))
+        .containsExactly(1, 2);
+    assertThat(RecursiveLookupTask.lookupDistances(Bytes32.ZERO, Bytes32.ZERO.not(), true))
+        .containsExactly(256, 255);
+  }
+
+  private RecursiveLookupTask createTask(final int alpha, final int k, final int maxQueries) {
+    return new RecursiveLookupTask(
+        nodeTable,
+        findNodesAction,
+        new LookupOptions(alpha, k, maxQueries, Duration.ofSeconds(10)),
+        TARGET);
+  }
+
+  private List<Integer> distances(final Bytes peerId) {
+    return RecursiveLookupTask.lookupDistances(peerId, TARGET, false);
+  }
+
   private static NodeRecordInfo createPeer(final Bytes nodeId) {
     return createPeer(nodeId, NodeStatus.ACTIVE);
   }
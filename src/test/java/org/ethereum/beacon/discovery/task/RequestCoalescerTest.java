@@ -0,0 +1,111 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.task;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import org.apache.tuweni.bytes.Bytes;
+import org.ethereum.beacon.discovery.scheduler.ExpirationSchedulerFactory;
+import org.ethereum.beacon.discovery.schema.NodeRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class RequestCoalescerTest {
+  private static final Bytes NODE1 = Bytes.fromHexString("0x01");
+  private static final Bytes NODE2 = Bytes.fromHexString("0x02");
+
+  private final ExpirationSchedulerFactory expirationSchedulerFactory =
+      new ExpirationSchedulerFactory(Executors.newSingleThreadScheduledExecutor());
+  private final RequestCoalescer coalescer =
+      new RequestCoalescer(
+          expirationSchedulerFactory, Duration.ofSeconds(10), Duration.ofSeconds(10));
+  private final List<CompletableFuture<Void>> pings = new ArrayList<>();
+  private final List<CompletableFuture<Collection<NodeRecord>>> findNodes = new ArrayList<>();
+
+  @AfterEach
+  public void tearDown() {
+    expirationSchedulerFactory.stop();
+  }
+
+  @Test
+  public void shouldSendConcurrentPingsToTheSameNodeOnce() {
+    final CompletableFuture<Void> result1 = coalescer.ping(NODE1, this::newPing);
+    final CompletableFuture<Void> result2 = coalescer.ping(NODE1, this::newPing);
+    coalescer.ping(NODE2, this::newPing);
+
+    assertThat(pings).hasSize(2);
+    pings.get(0).complete(null);
+    assertThat(result1).isCompleted();
+    assertThat(result2).isCompleted();
+  }
+
+  @Test
+  public void shouldReuseRecentPong() {
+    coalescer.ping(NODE1, this::newPing);
+    pings.get(0).complete(null);
+
+    assertThat(coalescer.ping(NODE1, this::newPing)).isCompleted();
+    assertThat(pings).hasSize(1);
+  }
+
+  @Test
+  public void shouldSendPingAgainAfterFailure() {
+    final CompletableFuture<Void> result = coalescer.ping(NODE1, this::newPing);
+    pings.get(0).completeExceptionally(new RuntimeException("Bad reply"));
+    assertThat(result).isCompletedExceptionally();
+
+    coalescer.ping(NODE1, this::newPing);
+    assertThat(pings).hasSize(2);
+  }
+
+  @Test
+  public void shouldNotFailOtherCallersWhenOneCompletesItsFuture() {
+    final CompletableFuture<Void> result1 = coalescer.ping(NODE1, this::newPing);
+    final CompletableFuture<Void> result2 = coalescer.ping(NODE1, this::newPing);
+
+    result1.completeExceptionally(new RuntimeException("Caller timeout"));
+
+    assertThat(result2).isNotDone();
+    assertThat(pings.get(0)).isNotDone();
+  }
+
+  @Test
+  public void shouldCoalesceFindNodesOnlyForTheSameDistances() {
+    final CompletableFuture<Collection<NodeRecord>> result1 =
+        coalescer.findNodes(NODE1, List.of(255, 256), newFindNodes());
+    final CompletableFuture<Collection<NodeRecord>> result2 =
+        coalescer.findNodes(NODE1, List.of(255, 256), newFindNodes());
+    coalescer.findNodes(NODE1, List.of(254), newFindNodes());
+
+    assertThat(findNodes).hasSize(2);
+    findNodes.get(0).complete(List.of());
+    assertThat(result1).isCompleted();
+    assertThat(result2).isCompleted();
+
+    coalescer.findNodes(NODE1, List.of(255, 256), newFindNodes());
+    assertThat(findNodes).hasSize(3);
+  }
+
+  private CompletableFuture<Void> newPing() {
+    final CompletableFuture<Void> ping = new CompletableFuture<>();
+    pings.add(ping);
+    return ping;
+  }
+
+  private Supplier<CompletableFuture<Collection<NodeRecord>>> newFindNodes() {
+    return () -> {
+      final CompletableFuture<Collection<NodeRecord>> request = new CompletableFuture<>();
+      findNodes.add(request);
+      return request;
+    };
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.tuweni.bytes.Bytes;
+import org.bouncycastle.math.ec.ECPoint;
+import org.ethereum.beacon.discovery.scheduler.Scheduler;
+import org.ethereum.beacon.discovery.scheduler.Schedulers;
+import org.junit.jupiter.api.Test;
+
+class EphemeralKeyPoolTest {
+  private final List<Runnable> tasks = new ArrayList<>();
+  private final Scheduler scheduler = Schedulers.createControlled(() -> tasks::add).cpuHeavy();
+
+  @Test
+  void shouldGenerateKeysAheadAndRefillWhenHalfEmpty() {
+    EphemeralKeyPool pool = new EphemeralKeyPool(4, scheduler);
+    assertThat(pool.getAvailable()).isZero();
+    runTasks();
+    assertThat(pool.getAvailable()).isEqualTo(4);
+
+    pool.take();
+    assertThat(tasks).isEmpty();
+    pool.take();
+    assertThat(pool.getAvailable()).isEqualTo(2);
+    assertThat(tasks).hasSize(1);
+    runTasks();
+    assertThat(pool.getAvailable()).isEqualTo(4);
+  }
+
+  @Test
+  void shouldGenerateInlineWhenEmpty() {
+    EphemeralKeyPool pool = new EphemeralKeyPool(4, scheduler);
+    Set<Bytes> privateKeys = new HashSet<>();
+    for (int i = 0; i < 3; i++) {
+      EphemeralKeyPool.KeyPair keyPair = pool.take();
+      assertThat(privateKeys.add(keyPair.getPrivateKey())).isTrue();
+      ECPoint publicKey = Functions.decodePublicKey(keyPair.getPublicKey());
+      assertThat(Bytes.wrap(publicKey.getEncoded(true)))
+          .isEqualTo(Functions.derivePublicKeyFromPrivate(keyPair.getPrivateKey()));
+    }
+    assertThat(pool.getAvailable()).isZero();
+    // Single refill is scheduled at a time
+    assertThat(tasks).hasSize(1);
+  }
+
+  @Test
+  void shouldAlwaysGenerateInlineWhenDisabled() {
+    EphemeralKeyPool.KeyPair keyPair = EphemeralKeyPool.DISABLED.take();
+    assertThat(keyPair.getPublicKey().size()).isEqualTo(Functions.PUBKEY_SIZE);
+    assertThat(EphemeralKeyPool.DISABLED.getAvailable()).isZero();
+  }
+
+  private void runTasks() {
+    while (!tasks.isEmpty()) {
+      tasks.remove(0).run();
+    }
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.bouncycastle.math.ec.ECPoint;
+import org.junit.jupiter.api.Test;
+
+class PublicKeyCacheTest {
+  private final PublicKeyCache cache = new PublicKeyCache(2);
+
+  @Test
+  void shouldReturnSamePointAsDecoding() {
+    Bytes publicKey = Functions.derivePublicKeyFromPrivate(Bytes32.random());
+    ECPoint point = cache.get(publicKey);
+
+    assertThat(point).isEqualTo(Functions.decodePublicKey(publicKey));
+    assertThat(point.isNormalized()).isTrue();
+    assertThat(cache.get(publicKey)).isSameAs(point);
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    assertThat(cache.getMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldNotDependOnMutableKeyBytes() {
+    Bytes publicKey1 = Functions.derivePublicKeyFromPrivate(Bytes32.random());
+    Bytes publicKey2 = Functions.derivePublicKeyFromPrivate(Bytes32.random());
+    byte[] keyBytes = publicKey1.toArray();
+    ECPoint point1 = cache.get(Bytes.wrap(keyBytes));
+
+    System.arraycopy(publicKey2.toArrayUnsafe(), 0, keyBytes, 0, keyBytes.length);
+    assertThat(cache.get(Bytes.wrap(keyBytes))).isEqualTo(Functions.decodePublicKey(publicKey2));
+    assertThat(cache.get(publicKey1)).isSameAs(point1);
+  }
+
+  @Test
+  void shouldCacheUntrustedKeysOnlyWhenPut() {
+    Bytes publicKey = Functions.derivePublicKeyFromPrivate(Bytes32.random());
+    ECPoint point = cache.getUntrusted(publicKey);
+    assertThat(point).isEqualTo(Functions.decodePublicKey(publicKey));
+    assertThat(cache.getUntrusted(publicKey)).isNotSameAs(point);
+
+    cache.put(publicKey, point);
+    assertThat(cache.getUntrusted(publicKey)).isSameAs(point);
+    assertThat(cache.get(publicKey)).isSameAs(point);
+  }
+
+  @Test
+  void shouldNotCacheInvalidKeys() {
+    Bytes invalidKey = Bytes.concatenate(Bytes.of(0x05), Bytes32.random());
+    assertThatThrownBy(() -> cache.get(invalidKey)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> cache.get(invalidKey)).isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.units.bigints.UInt64;
+import org.junit.jupiter.api.Test;
+import org.web3j.rlp.RlpDecoder;
+import org.web3j.rlp.RlpEncoder;
+import org.web3j.rlp.RlpList;
+import org.web3j.rlp.RlpString;
+import org.web3j.rlp.RlpType;
+
+public class RlpReaderTest {
+  private static final int FUZZ_ROUNDS = 2000;
+
+  @Test
+  public void shouldReadFlatList() {
+    Bytes encoded =
+        Bytes.wrap(
+            RlpEncoder.encode(
+                new RlpList(
+                    RlpString.create(Bytes.fromHexString("0x020202").toArray()),
+                    RlpString.create(1),
+                    RlpString.create(1280),
+                    RlpString.create(new byte[0]))));
+    RlpReader reader = RlpReader.create(encoded);
+    RlpReader list = reader.readList();
+    assertThat(reader.hasNext()).isFalse();
+    assertThat(list.readBytes()).isEqualTo(Bytes.fromHexString("0x020202"));
+    assertThat(list.readUInt64()).isEqualTo(UInt64.valueOf(1));
+    assertThat(list.readInt()).isEqualTo(1280);
+    assertThat(list.readInt()).isEqualTo(0);
+    assertThat(list.hasNext()).isFalse();
+  }
+
+  @Test
+  public void shouldReportPositionAfterItem() {
+    Bytes authTag = Bytes.fromHexString("0x27b5af763c446acd2749fe8e");
+    Bytes rest = Bytes.fromHexString("0xa5d12a2d94b8ccb3ba55558229867dc13bfa3648");
+    Bytes data =
+        Bytes.concatenate(Bytes.wrap(RlpEncoder.encode(RlpString.create(authTag.toArray()))), rest);
+    RlpReader reader = RlpReader.create(data);
+    assertThat(reader.readBytes()).isEqualTo(authTag);
+    assertThat(data.slice(reader.position())).isEqualTo(rest);
+  }
+
+  @Test
+  public void shouldReadRawItemWithPrefix() {
+    RlpList innerList = new RlpList(RlpString.create(1), RlpString.create(2));
+    Bytes encoded = Bytes.wrap(RlpEncoder.encode(new RlpList(RlpString.create(7), innerList)));
+    RlpReader list = RlpReader.create(encoded).readList();
+    list.skip();
+    assertThat(list.readRaw()).isEqualTo(Bytes.wrap(RlpEncoder.encode(innerList)));
+  }
+
+  @Test
+  public void shouldFailOnTruncatedData() {
+    Bytes encoded =
+        Bytes.wrap(
+            RlpEncoder.encode(
+                new RlpList(RlpString.create(new byte[100]), RlpString.create(new byte[5]))));
+    Bytes truncated = encoded.slice(0, encoded.size() - 1);
+    assertThatThrownBy(() -> RlpReader.create(truncated).readList())
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void shouldFailOnWrongItemType() {
+    Bytes encoded = Bytes.wrap(RlpEncoder.encode(new RlpList(RlpString.create(1))));
+    assertThatThrownBy(() -> RlpReader.create(encoded).readBytes())
+        .isInstanceOf(IllegalArgumentException.class);
+    Bytes string = Bytes.wrap(RlpEncoder.encode(RlpString.create(1)));
+    assertThatThrownBy(() -> RlpReader.create(string).readList())
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void shouldFailOnTooLongNumbers() {
+    Bytes encoded = Bytes.wrap(RlpEncoder.encode(RlpString.create(new byte[9])));
+    assertThatThrownBy(() -> RlpReader.create(encoded).readUInt64())
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> RlpReader.create(encoded).readInt())
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void fuzzShouldMatchWeb3jDecoder() {
+    Random rnd = new Random(1);
+    for (int i = 0; i < FUZZ_ROUNDS; i++) {
+      RlpType item = randomItem(rnd, 3);
+      Bytes encoded = Bytes.wrap(RlpEncoder.encode(item));
+      RlpType expected = RlpDecoder.decode(encoded.toArray()).getValues().get(0);
+      RlpReader reader = RlpReader.create(encoded);
+      assertMatches(expected, reader);
+      assertThat(reader.hasNext()).isFalse();
+    }
+  }
+
+  @Test
+  public void fuzzShouldOnlyThrowIllegalArgumentOnGarbage() {
+    Random rnd = new Random(2);
+    for (int i = 0; i < FUZZ_ROUNDS; i++) {
+      Bytes encoded = Bytes.wrap(RlpEncoder.encode(randomItem(rnd, 3)));
+      byte[] corrupted = encoded.toArray();
+      corrupted[rnd.nextInt(corrupted.length)] = (byte) rnd.nextInt();
+      int size = rnd.nextBoolean() ? corrupted.length : rnd.nextInt(corrupted.length + 1);
+      try {
+        walk(RlpReader.create(Bytes.wrap(corrupted, 0, size)));
+      } catch (IllegalArgumentException expected) {
+        // malformed input is reported this way only
+      }
+    }
+  }
+
+  private static void walk(RlpReader reader) {
+    while (reader.hasNext()) {
+      if (reader.isNextList()) {
+        walk(reader.readList());
+      } else {
+        reader.readBytes();
+      }
+    }
+  }
+
+  private static void assertMatches(RlpType expected, RlpReader reader) {
+    if (expected instanceof RlpList) {
+      RlpReader list = reader.readList();
+      for (RlpType child : ((RlpList) expected).getValues()) {
+        assertMatches(child, list);
+      }
+      assertThat(list.hasNext()).isFalse();
+    } else {
+      assertThat(reader.isNextList()).isFalse();
+      assertThat(reader.readBytes()).isEqualTo(Bytes.wrap(((RlpString) expected).getBytes()));
+    }
+  }
+
+  private static RlpType randomItem(Random rnd, int depth) {
+    if (depth > 0 && rnd.nextInt(3) == 0) {
+      int size = rnd.nextInt(6);
+      List<RlpType> values = new ArrayList<>();
+      for (int i = 0; i < size; i++) {
+        values.add(randomItem(rnd, depth - 1));
+      }
+      return new RlpList(values);
+    }
+    // Cover single byte, short and long string encodings
+    int[] sizes = {0, 1, 1, 2, 12, 32, 55, 56, 64, 300};
+    byte[] bytes = new byte[sizes[rnd.nextInt(sizes.length)]];
+    rnd.nextBytes(bytes);
+    return RlpString.create(bytes);
+  }
+}
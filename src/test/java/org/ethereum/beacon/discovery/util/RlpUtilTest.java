@@ -0,0 +1,24 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.jupiter.api.Test;
+import org.web3j.rlp.RlpEncoder;
+import org.web3j.rlp.RlpList;
+import org.web3j.rlp.RlpString;
+
+public class RlpUtilTest {
+
+  @Test
+  public void shouldDecodeFirstShortListWithRemainingData() {
+    Bytes list = Bytes.wrap(RlpEncoder.encode(new RlpList(RlpString.create(1))));
+    Bytes rest = Bytes.fromHexString("0x010203");
+    RlpUtil.DecodedList decoded = RlpUtil.decodeFirstList(Bytes.concatenate(list, rest));
+    assertThat(decoded.getRemainingData()).isEqualTo(rest);
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigInteger;
+import java.util.Random;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.units.bigints.UInt64;
+import org.ethereum.beacon.discovery.TestUtil;
+import org.ethereum.beacon.discovery.schema.NodeRecord;
+import org.junit.jupiter.api.Test;
+import org.web3j.rlp.RlpEncoder;
+import org.web3j.rlp.RlpList;
+import org.web3j.rlp.RlpString;
+
+public class RlpWriterTest {
+  private static final int FUZZ_ROUNDS = 2000;
+
+  @Test
+  public void shouldEncodeNumbersAsWeb3j() {
+    long[] values = {0, 1, 0x7f, 0x80, 0xff, 0x100, 1280, 0xffffff, Long.MAX_VALUE, -1};
+    for (long value : values) {
+      BigInteger unsigned = new BigInteger(1, Bytes.ofUnsignedLong(value).toArrayUnsafe());
+      Bytes expected = Bytes.wrap(RlpEncoder.encode(RlpString.create(unsigned)));
+      Bytes actual = RlpWriter.create(RlpWriter.sizeOfLong(value)).writeLong(value).toBytes();
+      assertThat(actual).describedAs("value %s", value).isEqualTo(expected);
+    }
+    Bytes uint64 =
+        RlpWriter.create(RlpWriter.sizeOfUInt64(UInt64.MAX_VALUE))
+            .writeUInt64(UInt64.MAX_VALUE)
+            .toBytes();
+    assertThat(uint64).isEqualTo(Bytes.fromHexString("0x88ffffffffffffffff"));
+  }
+
+  @Test
+  public void fuzzShouldEncodeListsOfStringsAsWeb3j() {
+    Random rnd = new Random(1);
+    // Cover single byte, short and long string encodings as well as short and long lists
+    int[] sizes = {0, 1, 1, 2, 12, 32, 55, 56, 64, 300};
+    for (int i = 0; i < FUZZ_ROUNDS; i++) {
+      Bytes[] items = new Bytes[rnd.nextInt(6)];
+      RlpString[] rlpItems = new RlpString[items.length];
+      int payloadSize = 0;
+      for (int j = 0; j < items.length; j++) {
+        byte[] bytes = new byte[sizes[rnd.nextInt(sizes.length)]];
+        rnd.nextBytes(bytes);
+        items[j] = Bytes.wrap(bytes);
+        rlpItems[j] = RlpString.create(bytes);
+        payloadSize += RlpWriter.sizeOfBytes(items[j]);
+      }
+      RlpWriter writer =
+          RlpWriter.create(RlpWriter.sizeOfList(payloadSize)).writeListHeader(payloadSize);
+      for (Bytes item : items) {
+        writer.writeBytes(item);
+      }
+      assertThat(writer.toBytes())
+          .isEqualTo(Bytes.wrap(RlpEncoder.encode(new RlpList(rlpItems))));
+    }
+  }
+
+  @Test
+  public void shouldFailOnIncorrectSize() {
+    assertThatThrownBy(() -> RlpWriter.create(2).writeLong(1).toBytes())
+        .isInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> RlpWriter.create(1).writeBytes(Bytes.fromHexString("0x0102")))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  public void shouldKeepNodeRecordEncodingCanonical() {
+    NodeRecord nodeRecord = TestUtil.generateNode(30303).getNodeRecord();
+    Bytes expected = Bytes.wrap(RlpEncoder.encode(nodeRecord.asRlp()));
+    assertThat(nodeRecord.serialize()).isEqualTo(expected);
+    NodeRecord decoded = TestUtil.NODE_RECORD_FACTORY.fromBytes(expected);
+    assertThat(decoded.serialize()).isEqualTo(expected);
+  }
+}
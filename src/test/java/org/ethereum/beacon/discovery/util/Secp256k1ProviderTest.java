@@ -0,0 +1,178 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ethereum.beacon.discovery.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.ethereum.beacon.discovery.util.Utils.extractBytesFromUnsignedBigInt;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.ServiceLoader;
+import java.util.ServiceLoader.Provider;
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.jupiter.api.Test;
+import org.web3j.crypto.ECDSASignature;
+import org.web3j.crypto.ECKeyPair;
+import org.web3j.crypto.Sign;
+
+/**
+ * Differential test: every available provider should give the same results as the reference
+ * implementation on top of web3j, which {@link Web3jSecp256k1Provider} wraps. {@link
+ * LibSecp256k1Provider} is checked only when libsecp256k1 is installed.
+ */
+public class Secp256k1ProviderTest {
+  private static final int ROUNDS = 50;
+  private final Random random = new Random(1);
+
+  @Test
+  public void shouldAgreeWithReference() {
+    for (Secp256k1Provider provider : getProviders()) {
+      for (int i = 0; i < ROUNDS; i++) {
+        Bytes privateKey = randomBytes32();
+        Bytes otherPrivateKey = randomBytes32();
+        Bytes messageHash = randomBytes32();
+        Bytes publicKey = provider.derivePublicKey(privateKey);
+        Bytes otherPublicKey = provider.derivePublicKey(otherPrivateKey);
+        assertThat(publicKey)
+            .describedAs(provider.getName())
+            .isEqualTo(referencePublicKey(privateKey));
+        assertThat(provider.derivePublicKeyUncompressed(privateKey))
+            .describedAs(provider.getName())
+            .isEqualTo(referencePublicKeyUncompressed(privateKey));
+
+        Bytes signature = provider.sign(privateKey, messageHash);
+        assertThat(signature)
+            .describedAs(provider.getName())
+            .isEqualTo(referenceSign(privateKey, messageHash));
+        assertThat(provider.verify(signature, messageHash, publicKey)).isTrue();
+        assertThat(provider.verify(signature, messageHash, otherPublicKey)).isFalse();
+        assertThat(provider.verify(signature, randomBytes32(), publicKey)).isFalse();
+
+        Bytes agreement = provider.deriveECDHKeyAgreement(privateKey, otherPublicKey, false);
+        assertThat(agreement)
+            .describedAs(provider.getName())
+            .isEqualTo(provider.deriveECDHKeyAgreement(otherPrivateKey, publicKey, true))
+            .isEqualTo(referenceECDH(privateKey, otherPublicKey));
+      }
+    }
+  }
+
+  @Test
+  public void shouldAgreeWithReferenceOnMalformedSignatures() {
+    BigInteger n = Functions.SECP256K1_CURVE.getN();
+    for (Secp256k1Provider provider : getProviders()) {
+      for (int i = 0; i < ROUNDS; i++) {
+        Bytes privateKey = randomBytes32();
+        Bytes publicKey = provider.derivePublicKey(privateKey);
+        Bytes messageHash = randomBytes32();
+        Bytes signature = provider.sign(privateKey, messageHash);
+        BigInteger r = signature.slice(0, 32).toUnsignedBigInteger();
+        BigInteger s = signature.slice(32).toUnsignedBigInteger();
+        List<Bytes> signatures =
+            List.of(
+                // High s is valid too
+                toSignature(r, n.subtract(s)),
+                toSignature(r, s.add(BigInteger.ONE)),
+                toSignature(n, s),
+                toSignature(r, BigInteger.ZERO),
+                toSignature(BigInteger.ZERO, s),
+                Bytes.concatenate(randomBytes32(), randomBytes32()));
+        for (Bytes malformed : signatures) {
+          assertThat(provider.verify(malformed, messageHash, publicKey))
+              .describedAs("%s: %s", provider.getName(), malformed)
+              .isEqualTo(referenceVerify(malformed, messageHash, publicKey));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void shouldRegisterLibSecp256k1Provider() {
+    assertThat(ServiceLoader.load(Secp256k1Provider.class).stream().map(Provider::type))
+        .contains(LibSecp256k1Provider.class);
+  }
+
+  @Test
+  public void shouldUseLibSecp256k1ProviderWhenAvailable() {
+    assumeTrue(new LibSecp256k1Provider().isAvailable(), "libsecp256k1 is not installed");
+    assertThat(Functions.getSecp256k1Provider()).isInstanceOf(LibSecp256k1Provider.class);
+  }
+
+  private List<Secp256k1Provider> getProviders() {
+    List<Secp256k1Provider> providers = new ArrayList<>();
+    providers.add(new Web3jSecp256k1Provider(new PublicKeyCache(16)));
+    providers.add(Functions.getSecp256k1Provider());
+    for (Secp256k1Provider provider : ServiceLoader.load(Secp256k1Provider.class)) {
+      if (provider.isAvailable()) {
+        providers.add(provider);
+      }
+    }
+    return providers;
+  }
+
+  private Bytes randomBytes32() {
+    byte[] bytes = new byte[32];
+    random.nextBytes(bytes);
+    return Bytes.wrap(bytes);
+  }
+
+  private static Bytes toSignature(BigInteger r, BigInteger s) {
+    return Bytes.concatenate(
+        Bytes.wrap(extractBytesFromUnsignedBigInt(r, 32)),
+        Bytes.wrap(extractBytesFromUnsignedBigInt(s, 32)));
+  }
+
+  private static Bytes referencePublicKey(Bytes privateKey) {
+    return uncompressedToCompressed(referencePublicKeyUncompressed(privateKey));
+  }
+
+  private static Bytes referencePublicKeyUncompressed(Bytes privateKey) {
+    BigInteger publicKey = Sign.publicKeyFromPrivate(privateKey.toUnsignedBigInteger());
+    return Bytes.wrap(extractBytesFromUnsignedBigInt(publicKey, Functions.PUBKEY_SIZE));
+  }
+
+  private static Bytes referenceSign(Bytes privateKey, Bytes messageHash) {
+    Sign.SignatureData signatureData =
+        Sign.signMessage(messageHash.toArray(), ECKeyPair.create(privateKey.toArray()), false);
+    return Bytes.concatenate(Bytes.wrap(signatureData.getR()), Bytes.wrap(signatureData.getS()));
+  }
+
+  private static boolean referenceVerify(Bytes signature, Bytes messageHash, Bytes publicKey) {
+    ECDSASignature ecdsaSignature =
+        new ECDSASignature(
+            signature.slice(0, 32).toUnsignedBigInteger(),
+            signature.slice(32).toUnsignedBigInteger());
+    Bytes uncompressed =
+        Bytes.wrap(Functions.decodePublicKey(publicKey).getEncoded(false)).slice(1);
+    try {
+      for (int recId = 0; recId < 4; ++recId) {
+        BigInteger recovered =
+            Sign.recoverFromSignature(recId, ecdsaSignature, messageHash.toArray());
+        if (recovered != null
+            && uncompressed.equals(
+                Bytes.wrap(extractBytesFromUnsignedBigInt(recovered, Functions.PUBKEY_SIZE)))) {
+          return true;
+        }
+      }
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+    return false;
+  }
+
+  private static Bytes referenceECDH(Bytes privateKey, Bytes publicKey) {
+    return Bytes.wrap(
+        Functions.decodePublicKey(publicKey)
+            .multiply(privateKey.toUnsignedBigInteger())
+            .getEncoded(true));
+  }
+
+  private static Bytes uncompressedToCompressed(Bytes publicKey) {
+    return Bytes.wrap(Functions.decodePublicKey(publicKey).getEncoded(true));
+  }
+}